@@ -0,0 +1,220 @@
+package ie.universityofgalway.groupnine.delivery.rest.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ie.universityofgalway.groupnine.service.product.admin.CatalogImportRow;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.regex.Pattern;
+
+/**
+ * Reads a catalog import feed one row at a time, so the request body is never held whole.
+ *
+ * <p>NDJSON feeds carry one object per line with the fields of {@link CatalogImportRow} and an
+ * {@code attributes} object whose values are a string or an array of strings. CSV feeds start
+ * with a header naming the same columns, attributes as {@code attr.<name>} columns with several
+ * values separated by {@code |}; quoted fields may contain commas, quotes and line breaks. A line
+ * that cannot be parsed becomes a malformed row instead of ending the import.</p>
+ */
+final class CatalogImportReader {
+
+    static final String ATTRIBUTE_COLUMN_PREFIX = "attr.";
+    static final String MULTI_VALUE_SEPARATOR = "|";
+    private static final Pattern MULTI_VALUE = Pattern.compile(Pattern.quote(MULTI_VALUE_SEPARATOR));
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private CatalogImportReader() {}
+
+    static Iterator<CatalogImportRow> ndjson(Reader body, ObjectMapper mapper) {
+        BufferedReader in = new BufferedReader(body);
+        return new RowIterator() {
+            private long line;
+
+            @Override
+            CatalogImportRow read() throws IOException {
+                String text;
+                do {
+                    text = in.readLine();
+                    if (text == null) return null;
+                    line++;
+                } while (text.isBlank());
+                JsonNode node;
+                try {
+                    node = mapper.readTree(text);
+                } catch (JsonProcessingException e) {
+                    return CatalogImportRow.malformed(line, "Invalid JSON");
+                }
+                if (!node.isObject()) return CatalogImportRow.malformed(line, "Expected a JSON object");
+                Map<String, List<String>> attributes = new LinkedHashMap<>();
+                JsonNode attrs = node.get("attributes");
+                if (attrs != null && !attrs.isNull()) {
+                    if (!attrs.isObject()) return CatalogImportRow.malformed(line, "attributes must be an object");
+                    var fields = attrs.fields();
+                    while (fields.hasNext()) {
+                        var field = fields.next();
+                        List<String> values = new ArrayList<>();
+                        if (field.getValue().isArray()) field.getValue().forEach(v -> values.add(v.asText()));
+                        else if (!field.getValue().isNull()) values.add(field.getValue().asText());
+                        attributes.put(field.getKey(), values);
+                    }
+                }
+                return new CatalogImportRow(line, text(node, "productId"), text(node, "name"),
+                        text(node, "description"), text(node, "category"), text(node, "status"),
+                        text(node, "sku"), text(node, "price"), text(node, "currency"), text(node, "stock"),
+                        attributes, null);
+            }
+        };
+    }
+
+    static Iterator<CatalogImportRow> csv(Reader body) {
+        CsvRecords records = new CsvRecords(new BufferedReader(body));
+        return new RowIterator() {
+            private List<String> header;
+
+            @Override
+            CatalogImportRow read() throws IOException {
+                if (header == null) {
+                    header = records.next();
+                    if (header == null) return null;
+                    if (!header.get(0).isEmpty() && header.get(0).charAt(0) == BYTE_ORDER_MARK) {
+                        header.set(0, header.get(0).substring(1));
+                    }
+                    header.replaceAll(String::trim);
+                }
+                List<String> fields;
+                do {
+                    fields = records.next();
+                    if (fields == null) return null;
+                } while (fields.size() == 1 && fields.get(0).isBlank());
+                long line = records.recordLine();
+                if (records.unterminated()) return CatalogImportRow.malformed(line, "Unterminated quoted field");
+                if (fields.size() > header.size()) {
+                    return CatalogImportRow.malformed(line, "Expected " + header.size() + " columns, got " + fields.size());
+                }
+                Map<String, String> row = new LinkedHashMap<>();
+                Map<String, List<String>> attributes = new LinkedHashMap<>();
+                for (int i = 0; i < fields.size(); i++) {
+                    String column = header.get(i);
+                    if (column.startsWith(ATTRIBUTE_COLUMN_PREFIX)) {
+                        String value = fields.get(i);
+                        if (!value.isBlank()) {
+                            attributes.put(column.substring(ATTRIBUTE_COLUMN_PREFIX.length()),
+                                    List.of(MULTI_VALUE.split(value)));
+                        }
+                    } else {
+                        row.put(column, fields.get(i));
+                    }
+                }
+                return new CatalogImportRow(line, row.get("productId"), row.get("name"), row.get("description"),
+                        row.get("category"), row.get("status"), row.get("sku"), row.get("price"),
+                        row.get("currency"), row.get("stock"), attributes, null);
+            }
+        };
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() || value.isContainerNode() ? null : value.asText();
+    }
+
+    /** Iterator over rows produced by {@link #read()}, which returns {@code null} at the end. */
+    private abstract static class RowIterator implements Iterator<CatalogImportRow> {
+        private CatalogImportRow next;
+        private boolean done;
+
+        abstract CatalogImportRow read() throws IOException;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                try {
+                    next = read();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                done = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public CatalogImportRow next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            CatalogImportRow row = next;
+            next = null;
+            return row;
+        }
+    }
+
+    /** RFC 4180 records read character by character, tracking the line each record starts on. */
+    private static final class CsvRecords {
+        private final BufferedReader in;
+        private long line = 1;
+        private long recordLine;
+        private boolean unterminated;
+        private boolean eof;
+
+        CsvRecords(BufferedReader in) {
+            this.in = in;
+        }
+
+        long recordLine() { return recordLine; }
+
+        boolean unterminated() { return unterminated; }
+
+        /** The fields of the next record, or {@code null} at the end of the input. */
+        List<String> next() throws IOException {
+            if (eof) return null;
+            recordLine = line;
+            unterminated = false;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean read = false;
+            int c;
+            while ((c = in.read()) != -1) {
+                read = true;
+                if (quoted) {
+                    if (c == '"') {
+                        in.mark(1);
+                        if (in.read() == '"') {
+                            field.append('"');
+                        } else {
+                            in.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        if (c == '\n') line++;
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    line++;
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            eof = true;
+            if (!read) return null;
+            unterminated = quoted;
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ie.universityofgalway.groupnine.delivery.rest.product;
+
+import org.springframework.http.HttpHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Validators for conditional requests on catalog resources: strong ETags derived from a
+ * version the caller can read cheaply, and the If-None-Match / If-Modified-Since evaluation
+ * that decides whether the representation can be skipped.
+ */
+final class ConditionalRequests {
+
+    /** Hex digits of the SHA-256 kept in content ETags. */
+    private static final int DIGEST_CHARS = 32;
+
+    private ConditionalRequests() {}
+
+    /** ETag of a product at the given last-modified time. */
+    static String productEtag(UUID id, Instant updatedAt) {
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, updatedAt);
+        return quote(id + "-" + Long.toHexString(micros));
+    }
+
+    /**
+     * ETag of a result derived from the whole catalog at {@code version}. Requests sharing a URL
+     * but not a result, such as searches posted to one endpoint, pass what tells them apart.
+     */
+    static String catalogEtag(long version, Object... request) {
+        if (request.length == 0) return quote("c" + version);
+        return quote("c" + version + "-" + digest(Arrays.toString(request).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /** ETag of a stored file, from its length and modification time so the file is not read. */
+    static String fileEtag(long size, Instant lastModified) {
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, lastModified);
+        return quote("f" + Long.toHexString(size) + "-" + Long.toHexString(micros));
+    }
+
+    /**
+     * ETag of a stored image addressed by the hash of its content. Renditions share the hash of
+     * the image they were made from, so the name of the served file tells them apart.
+     */
+    static String imageEtag(String contentHash, String fileName) {
+        return quote("i" + contentHash.substring(0, DIGEST_CHARS) + "-" + fileName);
+    }
+
+    /** ETag of the given bytes. */
+    static String contentEtag(byte[] content) {
+        return quote(digest(content));
+    }
+
+    /**
+     * Whether the client's copy is current: any If-None-Match entity tag equal to {@code etag}
+     * (weak comparison) or {@code *}; failing an If-None-Match, an If-Modified-Since no earlier
+     * than {@code lastModified} to the second.
+     *
+     * @param lastModified may be {@code null} when the resource has no modification time
+     */
+    static boolean notModified(HttpHeaders request, String etag, Instant lastModified) {
+        List<String> ifNoneMatch = request.get(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && !ifNoneMatch.isEmpty()) {
+            for (String header : ifNoneMatch) {
+                for (String tag : header.split(",")) {
+                    String t = tag.trim();
+                    if (t.startsWith("W/")) t = t.substring(2);
+                    if (t.equals("*") || t.equals(etag)) return true;
+                }
+            }
+            // If-Modified-Since is ignored when If-None-Match is present
+            return false;
+        }
+        if (lastModified == null) return false;
+        long since = request.getIfModifiedSince();
+        return since >= 0 && lastModified.getEpochSecond() <= since / 1000;
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+
+    private static String digest(byte[] bytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return HexFormat.of().formatHex(hash).substring(0, DIGEST_CHARS);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
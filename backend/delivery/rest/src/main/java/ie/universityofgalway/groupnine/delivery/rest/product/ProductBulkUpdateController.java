@@ -0,0 +1,67 @@
+package ie.universityofgalway.groupnine.delivery.rest.product;
+
+import ie.universityofgalway.groupnine.delivery.rest.product.dto.BulkVariantUpdateRequest;
+import ie.universityofgalway.groupnine.delivery.rest.product.dto.BulkVariantUpdateResponse;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.domain.security.RequireRoles;
+import ie.universityofgalway.groupnine.domain.user.Role;
+import ie.universityofgalway.groupnine.service.product.admin.BulkVariantUpdateReport;
+import ie.universityofgalway.groupnine.service.product.admin.VariantPriceStockUpdate;
+import ie.universityofgalway.groupnine.service.product.admin.usecase.BulkUpdateVariantsUseCase;
+import ie.universityofgalway.groupnine.util.logging.AppLogger;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static ie.universityofgalway.groupnine.util.Routes.PRODUCT_MANAGEMENT;
+
+/**
+ * Bulk price and stock sync for many variants in one request (see
+ * {@link BulkUpdateVariantsUseCase}). Rows that cannot be applied are listed in the response;
+ * the request itself only fails when it is empty or too large.
+ */
+@RestController
+@RequestMapping(PRODUCT_MANAGEMENT)
+@RequireRoles({Role.ADMIN, Role.MANAGER})
+public class ProductBulkUpdateController {
+
+    private static final AppLogger LOG = AppLogger.get(ProductBulkUpdateController.class);
+
+    private final BulkUpdateVariantsUseCase bulkUpdate;
+
+    public ProductBulkUpdateController(BulkUpdateVariantsUseCase bulkUpdate) {
+        this.bulkUpdate = bulkUpdate;
+    }
+
+    @Operation(summary = "Update the price and stock of many variants by SKU or variant id")
+    @PostMapping("/variants/bulk-update")
+    public ResponseEntity<BulkVariantUpdateResponse> bulkUpdate(@RequestBody BulkVariantUpdateRequest req) {
+        List<BulkVariantUpdateRequest.Row> rows = req.updates() == null ? List.of() : req.updates();
+        BulkVariantUpdateReport report = bulkUpdate.execute(rows.stream()
+                .map(r -> r == null ? null : new VariantPriceStockUpdate(r.sku(),
+                        r.variantId() == null ? null : new VariantId(r.variantId()),
+                        r.priceCents(), r.stockQuantity()))
+                .toList());
+        LOG.info("variant_bulk_update_completed", "requested", report.requested(), "updated", report.updated(),
+                "rejected", report.rejected().size());
+        return ResponseEntity.ok(toDto(report));
+    }
+
+    private static BulkVariantUpdateResponse toDto(BulkVariantUpdateReport report) {
+        List<BulkVariantUpdateResponse.Rejected> rejected = report.rejected().stream()
+                .map(r -> {
+                    VariantPriceStockUpdate u = r.update();
+                    return new BulkVariantUpdateResponse.Rejected(r.index(),
+                            u == null ? null : u.sku(),
+                            u == null || u.variantId() == null ? null : u.variantId().getId().toString(),
+                            r.message());
+                })
+                .toList();
+        return new BulkVariantUpdateResponse(report.requested(), report.updated(), report.chunks(), rejected);
+    }
+}
@@ -1,14 +1,22 @@
 package ie.universityofgalway.groupnine.delivery.rest.product;
 
 import ie.universityofgalway.groupnine.delivery.rest.product.dto.AttributeDto;
+import ie.universityofgalway.groupnine.delivery.rest.product.dto.AttributeFilterDTO;
 import ie.universityofgalway.groupnine.delivery.rest.product.dto.ProductResponse;
+import ie.universityofgalway.groupnine.delivery.rest.product.dto.SearchFacetsResponse;
 import ie.universityofgalway.groupnine.delivery.rest.product.dto.SearchRequestDTO;
+import ie.universityofgalway.groupnine.delivery.rest.product.dto.SuggestionResponse;
 import ie.universityofgalway.groupnine.delivery.rest.product.dto.VariantResponse;
 import ie.universityofgalway.groupnine.domain.product.AttributeFilter;
 import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.ProductSuggestion;
+import ie.universityofgalway.groupnine.domain.product.SearchFacets;
 import ie.universityofgalway.groupnine.domain.product.SearchQuery;
 import ie.universityofgalway.groupnine.domain.product.SortRule;
+import ie.universityofgalway.groupnine.domain.product.Variant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A utility class for mapping between product-related domain objects and their
@@ -16,6 +24,12 @@ import java.util.List;
  */
 public final class ProductDtoMapper {
 
+  /** Attribute filters accepted in one search request. */
+  public static final int MAX_ATTRIBUTE_FILTERS = 10;
+
+  /** Values accepted in one attribute filter. */
+  public static final int MAX_ATTRIBUTE_VALUES = 20;
+
   private ProductDtoMapper() {}
 
   /**
@@ -29,13 +43,10 @@ public final class ProductDtoMapper {
         .map(v -> new VariantResponse(
             v.getId() == null ? null : v.getId().getId().toString(),
             v.getSku().getValue(),
-            v.getPrice().getAmount().multiply(new java.math.BigDecimal("100")).intValue(),
+            priceCents(v),
             v.getPrice().getCurrency().getCurrencyCode(),
             v.getImageUrl(),
-            v.getAttributes() == null ? List.of()
-                    : v.getAttributes().stream()
-                    .map(a -> new AttributeDto(a.name(), a.value()))
-                    .toList()
+            attributes(v)
         ))
         .toList();
 
@@ -51,14 +62,38 @@ public final class ProductDtoMapper {
     );
   }
 
+  /** The variant's price in cents, as {@link VariantResponse#priceCents()} carries it. */
+  static int priceCents(Variant v) {
+    return v.getPrice().getAmount().multiply(new java.math.BigDecimal("100")).intValue();
+  }
+
+  static List<AttributeDto> attributes(Variant v) {
+    return v.getAttributes() == null ? List.of()
+        : v.getAttributes().stream()
+        .map(a -> new AttributeDto(a.name(), a.value()))
+        .toList();
+  }
+
   /**
    * Maps a {@link SearchRequestDTO} from the REST layer to a {@link SearchQuery}
    * domain object, normalizing inputs such as trimming whitespace from the key and category.
    *
    * @param dto The SearchRequestDTO to map.
    * @return The resulting SearchQuery domain object.
+   * @throws IllegalArgumentException if the request has more than {@link #MAX_ATTRIBUTE_FILTERS}
+   *     attribute filters or a filter has more than {@link #MAX_ATTRIBUTE_VALUES} values
    */
   public static SearchQuery toDomain(SearchRequestDTO dto) {
+    if (dto.attributeFilters() != null) {
+      if (dto.attributeFilters().size() > MAX_ATTRIBUTE_FILTERS) {
+        throw new IllegalArgumentException("at most " + MAX_ATTRIBUTE_FILTERS + " attribute filters per search");
+      }
+      for (AttributeFilterDTO a : dto.attributeFilters()) {
+        if (a != null && a.values() != null && a.values().size() > MAX_ATTRIBUTE_VALUES) {
+          throw new IllegalArgumentException("at most " + MAX_ATTRIBUTE_VALUES + " values per attribute filter");
+        }
+      }
+    }
     String key = (dto.key() != null) ? dto.key().trim() : null;
     String category = (dto.category() != null) ? dto.category().trim() : null;
 
@@ -74,4 +109,40 @@ public final class ProductDtoMapper {
                     .toList()
     );
   }
+
+  /**
+   * Maps {@link SearchFacets} to a {@link SearchFacetsResponse} DTO, keeping the facet order.
+   *
+   * @param f The facets computed by the search service.
+   * @return The resulting SearchFacetsResponse DTO.
+   */
+  public static SearchFacetsResponse toDto(SearchFacets f) {
+    Map<String, List<SearchFacetsResponse.ValueCount>> attributes = new LinkedHashMap<>();
+    f.attributes().forEach((key, values) -> attributes.put(key, values.stream().map(ProductDtoMapper::toDto).toList()));
+    return new SearchFacetsResponse(
+        f.categories().stream().map(ProductDtoMapper::toDto).toList(),
+        attributes,
+        f.priceHistogram().stream()
+            .map(b -> new SearchFacetsResponse.PriceBucket(b.fromCents(), b.toCents(), b.count()))
+            .toList()
+    );
+  }
+
+  private static SearchFacetsResponse.ValueCount toDto(SearchFacets.ValueCount v) {
+    return new SearchFacetsResponse.ValueCount(v.value(), v.count());
+  }
+
+  /**
+   * Maps a {@link ProductSuggestion} to a {@link SuggestionResponse} DTO.
+   *
+   * @param s The suggestion returned by the suggest use case.
+   * @return The resulting SuggestionResponse DTO.
+   */
+  public static SuggestionResponse toDto(ProductSuggestion s) {
+    return new SuggestionResponse(
+        s.text(),
+        s.type().name(),
+        s.productId() == null ? null : s.productId().getId().toString()
+    );
+  }
 }
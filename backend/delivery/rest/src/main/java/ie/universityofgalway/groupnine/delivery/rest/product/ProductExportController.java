@@ -0,0 +1,112 @@
+package ie.universityofgalway.groupnine.delivery.rest.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.ProductStatus;
+import ie.universityofgalway.groupnine.domain.security.RequireRoles;
+import ie.universityofgalway.groupnine.domain.user.Role;
+import ie.universityofgalway.groupnine.service.product.admin.ProductFilter;
+import ie.universityofgalway.groupnine.service.product.admin.usecase.ExportCatalogUseCase;
+import ie.universityofgalway.groupnine.util.logging.AppLogger;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import static ie.universityofgalway.groupnine.util.Routes.PRODUCT_MANAGEMENT;
+
+/**
+ * Full catalog export for marketplace feeds.
+ *
+ * <p>Streams one NDJSON line per product, in the same shape as the management API, ordered by
+ * product id and gzip-compressed when the client accepts it. The status is 200 as soon as the
+ * export starts, so an export that fails midway just ends early; clients resume it by passing
+ * the id of the last complete line as {@code after}.</p>
+ */
+@RestController
+@RequestMapping(PRODUCT_MANAGEMENT)
+@RequireRoles({Role.ADMIN, Role.MANAGER})
+public class ProductExportController {
+
+    private static final AppLogger LOG = AppLogger.get(ProductExportController.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ExportCatalogUseCase exportCatalog;
+    private final ObjectMapper mapper;
+
+    public ProductExportController(ExportCatalogUseCase exportCatalog, ObjectMapper mapper) {
+        this.exportCatalog = exportCatalog;
+        this.mapper = mapper;
+    }
+
+    @Operation(summary = "Export products and variants as NDJSON")
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(name = "category", required = false) String category,
+            @RequestParam(name = "status", required = false) ProductStatus status,
+            @RequestParam(name = "after", required = false) UUID after,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ProductFilter filter = new ProductFilter(category == null || category.isBlank() ? null : category.trim(), status);
+        ProductId from = after == null ? null : new ProductId(after);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+            try {
+                long exported = exportCatalog.execute(filter, from, p -> {
+                    try {
+                        writer.write(mapper.writeValueAsString(ProductManagementDtoMapper.toDto(p)));
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                LOG.info("catalog_export_completed", "products", exported, "gzip", gzip);
+            } catch (UncheckedIOException e) {
+                // The client went away; it can resume from its last complete line
+                LOG.warn("catalog_export_aborted", "error", e.getMessage());
+                return;
+            }
+            // Closing finishes the gzip trailer; the container closes the response stream anyway
+            writer.close();
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(body);
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] coding = part.trim().toLowerCase(Locale.ROOT).split(";");
+            if (!coding[0].trim().equals("gzip")) continue;
+            for (int i = 1; i < coding.length; i++) {
+                String param = coding[i].trim();
+                if (param.startsWith("q=") && param.substring(2).trim().matches("0(\\.0*)?")) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,143 @@
+package ie.universityofgalway.groupnine.delivery.rest.product;
+
+import ie.universityofgalway.groupnine.delivery.rest.product.dto.ProductResponse;
+import ie.universityofgalway.groupnine.delivery.rest.product.dto.VariantResponse;
+import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.ProductProjection;
+import ie.universityofgalway.groupnine.domain.product.Variant;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A sparse fieldset requested with {@code fields=}: a comma-separated list of field names and
+ * named projections. {@code variants.<name>} selects one field of each variant and
+ * {@code variants} all of them; {@code tile} is what a listing tile shows and {@code detail}
+ * the full {@link ProductResponse}.
+ *
+ * <p>Besides the fields of {@link ProductResponse}, a product offers {@code minPriceCents} and
+ * {@code currency}, from its cheapest variant, and {@code imageUrl}, from its first variant with
+ * an image. Products are written as maps holding only the selected fields, so omitted fields are
+ * neither computed nor serialized.</p>
+ */
+final class ProductFields {
+
+    /** Product fields, in the order they are written. */
+    private static final List<String> PRODUCT = List.of("id", "name", "description", "category", "status",
+            "variants", "createdAt", "updatedAt", "minPriceCents", "currency", "imageUrl");
+    /** Variant fields, in the order they are written. */
+    private static final List<String> VARIANT = List.of("id", "sku", "priceCents", "currency", "imageUrl", "attributes");
+
+    private static final Set<String> TILE = Set.of("id", "name", "minPriceCents", "currency", "imageUrl");
+    private static final Set<String> DETAIL = Set.of("id", "name", "description", "category", "status",
+            "variants", "createdAt", "updatedAt");
+
+    private final List<String> product;
+    private final List<String> variant;
+
+    private ProductFields(Set<String> product, Set<String> variant) {
+        this.product = PRODUCT.stream().filter(product::contains).toList();
+        this.variant = VARIANT.stream().filter(variant::contains).toList();
+    }
+
+    /**
+     * The fieldset named by {@code fields}; {@code null} when it selects the full
+     * {@link ProductResponse}, including when {@code fields} is absent or blank.
+     *
+     * @throws IllegalArgumentException on an unknown field or projection name
+     */
+    static ProductFields parse(String fields) {
+        if (fields == null || fields.isBlank()) return null;
+        Set<String> product = new HashSet<>();
+        Set<String> variant = new HashSet<>();
+        for (String raw : fields.split(",")) {
+            String name = raw.trim();
+            if (name.isEmpty()) continue;
+            if (name.equals("tile")) {
+                product.addAll(TILE);
+            } else if (name.equals("detail")) {
+                product.addAll(DETAIL);
+                variant.addAll(VARIANT);
+            } else if (name.equals("variants")) {
+                product.add(name);
+                variant.addAll(VARIANT);
+            } else if (name.startsWith("variants.") && VARIANT.contains(name.substring("variants.".length()))) {
+                product.add("variants");
+                variant.add(name.substring("variants.".length()));
+            } else if (PRODUCT.contains(name)) {
+                product.add(name);
+            } else {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+        }
+        if (product.isEmpty()) return null;
+        if (product.equals(DETAIL) && variant.size() == VARIANT.size()) return null;
+        return new ProductFields(product, variant);
+    }
+
+    /** The least the persistence layer has to load for these fields. */
+    ProductProjection projection() {
+        return product.contains("description") || variant.contains("attributes")
+                ? ProductProjection.FULL
+                : ProductProjection.LISTING;
+    }
+
+    /** Canonical form, equal for every spelling of the same fieldset; used in cache keys and ETags. */
+    String key() {
+        return String.join(",", product) + ";" + String.join(",", variant);
+    }
+
+    /** The selected fields of {@code p}, named and formatted as in {@link ProductResponse}. */
+    Map<String, Object> project(Product p) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (String field : product) {
+            switch (field) {
+                case "id" -> out.put(field, p.getId() == null ? null : p.getId().getId().toString());
+                case "name" -> out.put(field, p.getName());
+                case "description" -> out.put(field, p.getDescription());
+                case "category" -> out.put(field, p.getCategory());
+                case "status" -> out.put(field, p.getStatus() == null ? null : p.getStatus().name());
+                case "variants" -> out.put(field, p.getVariants().stream().map(this::project).toList());
+                case "createdAt" -> out.put(field, p.getCreatedAt());
+                case "updatedAt" -> out.put(field, p.getUpdatedAt());
+                case "minPriceCents" -> out.put(field, cheapest(p).map(ProductDtoMapper::priceCents).orElse(null));
+                case "currency" -> out.put(field, cheapest(p).map(v -> v.getPrice().getCurrency().getCurrencyCode()).orElse(null));
+                case "imageUrl" -> out.put(field, p.getVariants().stream()
+                        .map(Variant::getImageUrl).filter(url -> url != null).findFirst().orElse(null));
+                default -> throw new IllegalStateException(field);
+            }
+        }
+        return out;
+    }
+
+    /** The selected fields of {@code v}, named and formatted as in {@link VariantResponse}. */
+    private Map<String, Object> project(Variant v) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (String field : variant) {
+            switch (field) {
+                case "id" -> out.put(field, v.getId() == null ? null : v.getId().getId().toString());
+                case "sku" -> out.put(field, v.getSku().getValue());
+                case "priceCents" -> out.put(field, ProductDtoMapper.priceCents(v));
+                case "currency" -> out.put(field, v.getPrice().getCurrency().getCurrencyCode());
+                case "imageUrl" -> out.put(field, v.getImageUrl());
+                case "attributes" -> out.put(field, ProductDtoMapper.attributes(v));
+                default -> throw new IllegalStateException(field);
+            }
+        }
+        return out;
+    }
+
+    private static Optional<Variant> cheapest(Product p) {
+        return p.getVariants().stream().min(Comparator.comparing(v -> v.getPrice().getAmount()));
+    }
+
+    @Override
+    public String toString() {
+        return key();
+    }
+}
@@ -0,0 +1,148 @@
+package ie.universityofgalway.groupnine.delivery.rest.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ie.universityofgalway.groupnine.domain.security.RequireRoles;
+import ie.universityofgalway.groupnine.domain.user.Role;
+import ie.universityofgalway.groupnine.service.product.admin.CatalogImportListener;
+import ie.universityofgalway.groupnine.service.product.admin.CatalogImportReport;
+import ie.universityofgalway.groupnine.service.product.admin.CatalogImportRow;
+import ie.universityofgalway.groupnine.service.product.admin.usecase.ImportCatalogUseCase;
+import ie.universityofgalway.groupnine.util.logging.AppLogger;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static ie.universityofgalway.groupnine.util.Routes.PRODUCT_MANAGEMENT;
+
+/**
+ * Bulk catalog import for supplier feeds.
+ *
+ * <p>The feed is read from the request body as it arrives and written in batches (see
+ * {@link ImportCatalogUseCase}), while the response streams NDJSON back: an {@code error} line
+ * per rejected row, a {@code progress} line per written batch and a final {@code summary}, or
+ * {@code failed} when a batch could not be written. The status is always 200 once the import
+ * has started, so clients read the last line to learn the outcome.</p>
+ */
+@RestController
+@RequestMapping(PRODUCT_MANAGEMENT)
+@RequireRoles({Role.ADMIN, Role.MANAGER})
+public class ProductImportController {
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+    private static final AppLogger LOG = AppLogger.get(ProductImportController.class);
+
+    private final ImportCatalogUseCase importCatalog;
+    private final ObjectMapper mapper;
+
+    public ProductImportController(ImportCatalogUseCase importCatalog, ObjectMapper mapper) {
+        this.importCatalog = importCatalog;
+        this.mapper = mapper;
+    }
+
+    @Operation(summary = "Import products and variants from an NDJSON or CSV feed")
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importCatalog(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Charset charset = request.getCharacterEncoding() == null
+                ? StandardCharsets.UTF_8
+                : Charset.forName(request.getCharacterEncoding());
+        Reader body = new InputStreamReader(request.getInputStream(), charset);
+        Iterator<CatalogImportRow> rows = TEXT_CSV.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))
+                ? CatalogImportReader.csv(body)
+                : CatalogImportReader.ndjson(body, mapper);
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        ResponseLines out = new ResponseLines(
+                new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8)));
+        try {
+            CatalogImportReport report = importCatalog.execute(rows, out);
+            LOG.info("catalog_import_completed", "rows", report.rows(), "variants", report.variants(),
+                    "rejected", report.rejected());
+            out.write(totals("summary", report));
+        } catch (UncheckedIOException e) {
+            // The client went away; batches written so far stay committed
+            LOG.warn("catalog_import_aborted", "error", e.getMessage());
+            return;
+        } catch (RuntimeException e) {
+            LOG.warn("catalog_import_failed", "error", e.getMessage());
+            Map<String, Object> failed = new LinkedHashMap<>();
+            failed.put("type", "failed");
+            failed.put("message", e.getMessage());
+            out.write(failed);
+        }
+        out.flush();
+    }
+
+    private static Map<String, Object> totals(String type, CatalogImportReport report) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("type", type);
+        line.put("rows", report.rows());
+        line.put("variants", report.variants());
+        line.put("products", report.products());
+        line.put("rejected", report.rejected());
+        line.put("batches", report.batches());
+        return line;
+    }
+
+    /** Writes the response lines; errors are buffered and go out with the next progress line. */
+    private final class ResponseLines implements CatalogImportListener {
+        private final Writer out;
+
+        ResponseLines(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void rowRejected(CatalogImportReport.RowError error) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("type", "error");
+            line.put("line", error.line());
+            line.put("sku", error.sku());
+            line.put("message", error.message());
+            write(line);
+        }
+
+        @Override
+        public void batchWritten(CatalogImportReport progress) {
+            write(totals("progress", progress));
+            flush();
+        }
+
+        void write(Map<String, Object> line) {
+            try {
+                out.write(mapper.writeValueAsString(line));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void flush() {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
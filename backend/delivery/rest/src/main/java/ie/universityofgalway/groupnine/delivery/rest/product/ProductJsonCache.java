@@ -0,0 +1,118 @@
+package ie.universityofgalway.groupnine.delivery.rest.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.Variant;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.service.product.port.RenderedCatalogCachePort;
+import ie.universityofgalway.groupnine.service.product.port.RenderedCatalogCachePort.Rendered;
+import ie.universityofgalway.groupnine.service.product.usecase.ProductService;
+import ie.universityofgalway.groupnine.util.logging.AppLogger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Renders product and listing responses to JSON bytes, through the {@link RenderedCatalogCachePort}
+ * when one is configured.
+ *
+ * <p>Bodies are written with the application's {@link ObjectMapper}, so a cached body is the one
+ * the message converters would have produced. When the cache announces a changed product, it is
+ * rendered again here, off the request path.</p>
+ */
+@Component
+public class ProductJsonCache {
+
+    private static final AppLogger LOG = AppLogger.get(ProductJsonCache.class);
+
+    private final ProductService products;
+    private final RenderedCatalogCachePort cache;
+    private final ObjectMapper mapper;
+
+    @Autowired
+    public ProductJsonCache(ProductService products, ObjectProvider<RenderedCatalogCachePort> cache, ObjectMapper mapper) {
+        this(products, cache.getIfAvailable(), mapper);
+    }
+
+    /**
+     * @param cache may be {@code null}, in which case every response is rendered
+     */
+    public ProductJsonCache(ProductService products, RenderedCatalogCachePort cache, ObjectMapper mapper) {
+        this.products = products;
+        this.cache = cache;
+        this.mapper = mapper;
+        if (cache != null) cache.regenerateWith(this::regenerate);
+    }
+
+    /**
+     * The cached product, rendering it on a miss. Empty when there is no cache, the id is
+     * malformed or the product does not exist, leaving those cases to the uncached path.
+     */
+    Optional<Rendered> cachedProduct(String id) {
+        if (cache == null || id == null) return Optional.empty();
+        final UUID uuid;
+        try {
+            uuid = UUID.fromString(id.trim());
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+        return cache.product(new ProductId(uuid), this::load);
+    }
+
+    /** Renders a product loaded by the caller. */
+    Rendered product(Product product) {
+        List<VariantId> variants = product.getVariants().stream().map(Variant::getId).toList();
+        return new Rendered(write(ProductDtoMapper.toDto(product)), product.getUpdatedAt(), variants);
+    }
+
+    /** Renders the {@code fields} of a product loaded by the caller; never cached. */
+    Rendered product(Product product, ProductFields fields) {
+        List<VariantId> variants = product.getVariants().stream().map(Variant::getId).toList();
+        return new Rendered(write(fields.project(product)), product.getUpdatedAt(), variants);
+    }
+
+    /**
+     * A page of the catalog, cached under {@code key} when the catalog version is known.
+     *
+     * @param key   identifies the page among all pages of one catalog version
+     * @param body  builds the response body on a miss
+     */
+    Rendered page(OptionalLong catalogVersion, String key, Supplier<?> body) {
+        Supplier<Rendered> render = () -> new Rendered(write(body.get()), null, List.of());
+        if (cache == null || catalogVersion.isEmpty()) return render.get();
+        return cache.page(catalogVersion.getAsLong(), key, render);
+    }
+
+    private Optional<Rendered> load(ProductId id) {
+        try {
+            return Optional.of(product(products.getById(id.getId().toString())));
+        } catch (NoSuchElementException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void regenerate(ProductId id) {
+        try {
+            cache.product(id, this::load);
+        } catch (RuntimeException e) {
+            LOG.warn("product_json_regenerate_failed", "productId", id.getId(), "error", e.getMessage());
+        }
+    }
+
+    private byte[] write(Object body) {
+        try {
+            return mapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + body.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.springframework.web.bind.annotation.*;
 import java.net.URI;
 import java.util.UUID;
 import java.util.List;
+import java.util.Optional;
 import java.math.BigDecimal;
 
 import static ie.universityofgalway.groupnine.util.Routes.PRODUCT_MANAGEMENT;
@@ -205,8 +206,10 @@ public class ProductManagementController {
                 MultipartFile file = images.get(i);
                 if (file == null || file.isEmpty()) continue;
                 Variant v = created.getVariants().get(i);
-                uploadVariantImage.execute(created.getId(), v.getId(), file.getOriginalFilename(), file.getContentType(), file.getInputStream());
-                String url = "/products/" + created.getId().getId() + "/variants/" + v.getId().getId() + "/image";
+                Optional<String> hash = uploadVariantImage.execute(created.getId(), v.getId(), file.getOriginalFilename(), file.getContentType(), file.getInputStream());
+                // Versioned by content, so the image can be cached for good and a new one gets a new URL
+                String url = "/products/" + created.getId().getId() + "/variants/" + v.getId().getId() + "/image"
+                        + hash.map(h -> "?v=" + h).orElse("");
                 updateVariant.execute(created.getId(), new UpdateVariantCommand(v.getId(), null, null, null, null, null, url, null));
             }
             created = getProduct.byId(created.getId()).orElse(created);
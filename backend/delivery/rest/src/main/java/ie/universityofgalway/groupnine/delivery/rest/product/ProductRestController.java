@@ -1,121 +1,383 @@
 package ie.universityofgalway.groupnine.delivery.rest.product;
 
 import ie.universityofgalway.groupnine.delivery.rest.product.dto.PageResponse;
+import ie.universityofgalway.groupnine.delivery.rest.product.dto.ProductBatchRequest;
+import ie.universityofgalway.groupnine.delivery.rest.product.dto.ProductBatchResponse;
 import ie.universityofgalway.groupnine.delivery.rest.product.dto.ProductResponse;
 import ie.universityofgalway.groupnine.domain.product.Product;
 import ie.universityofgalway.groupnine.delivery.rest.product.dto.SearchRequestDTO;
 import ie.universityofgalway.groupnine.domain.product.SearchQuery;
+import ie.universityofgalway.groupnine.domain.product.SortRule;
 import ie.universityofgalway.groupnine.domain.security.PublicEndpoint;
 import ie.universityofgalway.groupnine.service.product.usecase.ProductSearchService;
 import ie.universityofgalway.groupnine.service.product.usecase.GetVariantImageUseCase;
 import ie.universityofgalway.groupnine.service.product.port.ImageStoragePort.ImageData;
 import ie.universityofgalway.groupnine.domain.product.ProductId;
 import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.service.product.port.RenderedCatalogCachePort;
 import ie.universityofgalway.groupnine.service.product.usecase.ProductService;
+import ie.universityofgalway.groupnine.service.product.port.RenderedCatalogCachePort.Rendered;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Function;
 
 import static ie.universityofgalway.groupnine.util.Routes.PRODUCTS;
 
 /**
  * REST controller exposing read-only product endpoints.
+ *
+ * <p>Responses carry strong ETags so that browsers and the CDN revalidate instead of
+ * re-downloading: a product's comes from its last-modified time, listing and search results'
+ * from the catalog version, and an image's from a hash of its bytes. A matching
+ * {@code If-None-Match} (or, for products, {@code If-Modified-Since}) is answered with 304,
+ * checked before the product or listing is loaded.</p>
+ *
+ * <p>Product and listing bodies are served as JSON bytes rendered once by the
+ * {@link ProductJsonCache}: a product until it changes, a listing page until the catalog
+ * version moves.</p>
+ *
+ * <p>Listing, search and product responses take a sparse fieldset, {@code fields=}, such as
+ * {@code fields=tile} or {@code fields=name,variants.priceCents}; see {@link ProductFields}.
+ * Listings that need neither descriptions nor variant attributes are read without them.</p>
  */
 @RestController
 @RequestMapping(PRODUCTS)
 @PublicEndpoint
 public class ProductRestController {
 
+  static final CacheControl PRODUCT_CACHE = CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic();
+  static final CacheControl LIST_CACHE = CacheControl.maxAge(Duration.ofSeconds(30)).cachePublic();
+  // Search is a POST: no shared cache stores it, but clients may revalidate their copy
+  static final CacheControl SEARCH_CACHE = CacheControl.noCache();
+  static final CacheControl IMAGE_CACHE = CacheControl.maxAge(Duration.ofDays(1)).cachePublic();
+  // A URL naming the image's content hash always serves that content
+  static final CacheControl IMMUTABLE_IMAGE_CACHE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
   private final ProductService svc;
   private final ProductSearchService productSearchService;
   private final GetVariantImageUseCase getVariantImage;
+  private final ProductJsonCache json;
   /**
    * Creates the controller.
    */
-  public ProductRestController(ProductService svc, ProductSearchService productSearchService, GetVariantImageUseCase getVariantImage) {
+  @Autowired
+  public ProductRestController(ProductService svc, ProductSearchService productSearchService,
+                               GetVariantImageUseCase getVariantImage, ProductJsonCache json) {
     this.svc = svc;
     this.productSearchService = productSearchService;
     this.getVariantImage = getVariantImage;
+    this.json = json;
+  }
+
+  /**
+   * Creates the controller rendering every response, without a cache.
+   */
+  public ProductRestController(ProductService svc, ProductSearchService productSearchService, GetVariantImageUseCase getVariantImage) {
+    this(svc, productSearchService, getVariantImage,
+        new ProductJsonCache(svc, (RenderedCatalogCachePort) null, Jackson2ObjectMapperBuilder.json().build()));
   }
 
   /**
    * Lists available products, optionally filtered by category.
+   * <p>
+   * Passing {@code cursor} (empty for the first slice) switches to keyset mode: {@code page} is
+   * ignored, the response carries {@code nextCursor}, and the total is only counted when
+   * {@code includeTotal=true}. {@code fields} selects a sparse fieldset.
    */
   @GetMapping
   @PublicEndpoint
-  public ResponseEntity<PageResponse<ProductResponse>> list(
+  @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+      schema = @Schema(implementation = PageResponse.class)))
+  public ResponseEntity<byte[]> list(
       @RequestParam(name="page", defaultValue = "0") @Min(value = 0, message = "page must be >= 0") int page,
       @RequestParam(name="size", defaultValue = "10") @Positive(message = "size must be > 0") int size,
-      @RequestParam(name="category", required = false) String category
+      @RequestParam(name="category", required = false) String category,
+      @RequestParam(name="cursor", required = false) String cursor,
+      @RequestParam(name="includeTotal", defaultValue = "false") boolean includeTotal,
+      @RequestParam(name="fields", required = false) String fields,
+      @RequestHeader HttpHeaders headers
   ) {
-    Page<Product> rs = svc.list(page, size, category);
-    var dto = rs.map(ProductDtoMapper::toDto);
-    return ResponseEntity.ok(new PageResponse<>(
-        dto.getContent(), dto.getNumber(), dto.getSize(), dto.getTotalElements(), dto.getTotalPages()
-    ));
+    ProductFields fieldset = ProductFields.parse(fields);
+    // Read before the page, so a write in between leaves the ETag behind rather than ahead
+    OptionalLong version = svc.catalogVersion();
+    String etag = catalogEtag(version);
+    if (etag != null && ConditionalRequests.notModified(headers, etag, null)) {
+      return notModified(etag, null, LIST_CACHE);
+    }
+    String key = (cursor != null
+        ? "list;cursor=" + field(cursor) + "size=" + size + ";category=" + field(category) + "total=" + includeTotal
+        : "list;page=" + page + ";size=" + size + ";category=" + field(category))
+        + ";fields=" + field(fieldset == null ? null : fieldset.key());
+    Function<Product, Object> toBody = render(fieldset);
+    Rendered body = json.page(version, key, () -> {
+      if (cursor != null) {
+        var rows = fieldset == null
+            ? svc.list(cursor, size, category, includeTotal)
+            : svc.list(cursor, size, category, includeTotal, fieldset.projection());
+        return PageResponse.fromCursor(rows.map(toBody), Math.min(size, 100));
+      }
+      Page<Product> rs = fieldset == null
+          ? svc.list(page, size, category)
+          : svc.list(page, size, category, fieldset.projection());
+      var dto = rs.map(toBody);
+      return new PageResponse<>(
+          dto.getContent(), dto.getNumber(), dto.getSize(), dto.getTotalElements(), dto.getTotalPages()
+      );
+    });
+    return validated(etag, null, LIST_CACHE).contentType(MediaType.APPLICATION_JSON).body(body.body());
   }
 
   /**
    * Searches products using filters and sort from the request.
+   * <p>
+   * Passing {@code cursor} (empty for the first slice) switches to keyset mode, as for {@link #list}.
+   * With {@code facets=true} the response also carries category, attribute-value and price
+   * counts over all matches; {@code facetLimit} lowers the number of values returned per facet.
+   * {@code fields} selects a sparse fieldset.
    */
   @Operation(summary = "Search & filter products")
   @PostMapping("/search")
   @PublicEndpoint
-  public ResponseEntity<PageResponse<ProductResponse>> search(
+  public ResponseEntity<PageResponse<Object>> search(
           @RequestBody @Validated SearchRequestDTO req,
           @RequestParam(name="page", defaultValue = "0") @Min(value = 0, message = "page must be >= 0") int page,
-          @RequestParam(name="size", defaultValue = "10") @Positive(message = "size must be > 0") int size
+          @RequestParam(name="size", defaultValue = "10") @Positive(message = "size must be > 0") int size,
+          @RequestParam(name="cursor", required = false) String cursor,
+          @RequestParam(name="includeTotal", defaultValue = "false") boolean includeTotal,
+          @RequestParam(name="facets", defaultValue = "false") boolean facets,
+          @RequestParam(name="facetLimit", required = false) @Min(value = 0, message = "facetLimit must be >= 0") Integer facetLimit,
+          @RequestParam(name="fields", required = false) String fields,
+          @RequestHeader HttpHeaders headers
   ) {
+    ProductFields fieldset = ProductFields.parse(fields);
+    OptionalLong version = svc.catalogVersion();
+    // best-selling order moves with sales, which do not bump the catalog version
+    boolean versioned = version.isPresent() && SortRule.parse(req.sortRule()) != SortRule.BEST_SELLING;
+    String etag = versioned
+        ? ConditionalRequests.catalogEtag(version.getAsLong(), req, page, size, cursor, includeTotal, facets, facetLimit, fieldset)
+        : null;
+    if (etag != null && ConditionalRequests.notModified(headers, etag, null)) {
+      return notModified(etag, null, SEARCH_CACHE);
+    }
     SearchQuery sq = ProductDtoMapper.toDomain(req);
-    var rs = productSearchService.search(sq, page, size);
-    var dto = rs.map(ProductDtoMapper::toDto);
-    return ResponseEntity.ok(new PageResponse<>(
-            dto.getContent(),
-            dto.getNumber(),
-            dto.getSize(),
-            dto.getTotalElements(),
-            dto.getTotalPages()
-    ));
+    Function<Product, Object> toBody = render(fieldset);
+    PageResponse<Object> body;
+    if (cursor != null) {
+      var slice = productSearchService.search(sq, cursor, size, includeTotal).map(toBody);
+      body = PageResponse.fromCursor(slice, size);
+    } else {
+      var rs = productSearchService.search(sq, page, size);
+      var dto = rs.map(toBody);
+      body = new PageResponse<>(
+              dto.getContent(),
+              dto.getNumber(),
+              dto.getSize(),
+              dto.getTotalElements(),
+              dto.getTotalPages()
+      );
+    }
+    if (facets) {
+      body = body.withFacets(ProductDtoMapper.toDto(productSearchService.facets(sq, facetLimit)));
+    }
+    return validated(etag, null, SEARCH_CACHE).body(body);
   }
 
   /**
-   * Retrieves a single product by its public UUID string identifier.
+   * Retrieves a single product by its public UUID string identifier. With {@code fields}, only
+   * that sparse fieldset is written, rendered on each request.
    */
   @Operation(summary = "Get a product by id")
   @GetMapping("/{id}")
   @PublicEndpoint
-  public ProductResponse byId(@PathVariable("id") String id) {
-    return ProductDtoMapper.toDto(svc.getById(id));
+  @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+      schema = @Schema(implementation = ProductResponse.class)))
+  public ResponseEntity<byte[]> byId(@PathVariable("id") String id,
+                                     @RequestParam(name="fields", required = false) String fields,
+                                     @RequestHeader HttpHeaders headers) {
+    ProductFields fieldset = ProductFields.parse(fields);
+    Optional<Rendered> rendered = fieldset == null ? json.cachedProduct(id) : Optional.empty();
+    if (rendered.isEmpty()) {
+      Optional<Instant> updatedAt = svc.lastModified(id);
+      if (updatedAt.isPresent()) {
+        String etag = ConditionalRequests.productEtag(java.util.UUID.fromString(id.trim()), updatedAt.get());
+        if (ConditionalRequests.notModified(headers, etag, updatedAt.get())) {
+          return notModified(etag, updatedAt.get(), PRODUCT_CACHE);
+        }
+      }
+      Product product = svc.getById(id);
+      rendered = Optional.of(fieldset == null ? json.product(product) : json.product(product, fieldset));
+    }
+    // Validators of the product actually served, which may be newer than the lookup above
+    Instant modified = rendered.get().lastModified();
+    String etag = modified == null ? null : ConditionalRequests.productEtag(java.util.UUID.fromString(id.trim()), modified);
+    if (etag != null && ConditionalRequests.notModified(headers, etag, modified)) {
+      return notModified(etag, modified, PRODUCT_CACHE);
+    }
+    return validated(etag, modified, PRODUCT_CACHE).contentType(MediaType.APPLICATION_JSON).body(rendered.get().body());
+  }
+
+  /**
+   * Resolves up to {@link ProductService#MAX_BATCH_IDS} products in one lookup, e.g.
+   * {@code ?ids=a,b,c}. Items follow the request order; unknown ids are marked not found.
+   */
+  @Operation(summary = "Get many products by id")
+  @GetMapping(params = "ids")
+  @PublicEndpoint
+  public ResponseEntity<ProductBatchResponse> byIds(@RequestParam("ids") List<String> ids, @RequestHeader HttpHeaders headers) {
+    return resolve(ids, headers, LIST_CACHE);
+  }
+
+  /**
+   * Same as {@link #byIds}, for id lists too long for a URL.
+   */
+  @Operation(summary = "Get many products by id")
+  @PostMapping("/batch")
+  @PublicEndpoint
+  public ResponseEntity<ProductBatchResponse> batch(@RequestBody ProductBatchRequest req, @RequestHeader HttpHeaders headers) {
+    return resolve(req.ids() == null ? List.of() : req.ids(), headers, SEARCH_CACHE);
   }
 
+  private ResponseEntity<ProductBatchResponse> resolve(List<String> ids, HttpHeaders headers, CacheControl cache) {
+    OptionalLong version = svc.catalogVersion();
+    String etag = version.isPresent() ? ConditionalRequests.catalogEtag(version.getAsLong(), ids) : null;
+    if (etag != null && ConditionalRequests.notModified(headers, etag, null)) {
+      return notModified(etag, null, cache);
+    }
+    List<Optional<Product>> products = svc.getByIds(ids);
+    List<ProductBatchResponse.Item> items = new ArrayList<>(ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      Optional<Product> p = products.get(i);
+      items.add(new ProductBatchResponse.Item(ids.get(i), p.isPresent(), p.map(ProductDtoMapper::toDto).orElse(null)));
+    }
+    return validated(etag, null, cache).body(new ProductBatchResponse(items));
+  }
+
+  /**
+   * Serves a variant image. A stored file is streamed rather than loaded, honouring
+   * {@code Range} requests with {@code 206 Partial Content}. Its ETag comes from the content hash
+   * of the stored image and the served file, or, for an image served provisionally or stored
+   * before images were addressed by content, from the file's size and modification time; either
+   * way answering a conditional request does not read it.
+   * <p>
+   * {@code w} asks for the narrowest rendition at least that wide, and image types listed in
+   * {@code Accept} (such as {@code image/webp}) are preferred when a rendition has them; without
+   * either the default rendition is served.
+   * <p>
+   * {@code v} is the version in the image URLs handed out on upload: the content hash of the
+   * image. While it names the stored image, and the image is not served provisionally ahead of its
+   * renditions, the response may be cached for good; otherwise for a day, as unversioned URLs.
+   */
   @Operation(summary = "Get an image for a product variant")
   @GetMapping("/{productId}/variants/{variantId}/image")
   @PublicEndpoint
-  public ResponseEntity<byte[]> getVariantImage(
+  public ResponseEntity<Resource> getVariantImage(
           @PathVariable("productId") String productId,
-          @PathVariable("variantId") String variantId
+          @PathVariable("variantId") String variantId,
+          @RequestParam(name = "w", required = false) @Positive(message = "w must be > 0") Integer width,
+          @RequestParam(name = "v", required = false) String version,
+          @RequestHeader HttpHeaders headers
   ) throws Exception {
     var pid = new ProductId(java.util.UUID.fromString(productId));
     var vid = new ie.universityofgalway.groupnine.domain.product.VariantId(java.util.UUID.fromString(variantId));
-    java.util.Optional<ImageData> data = getVariantImage.execute(pid, vid);
+    List<String> accepted = acceptedImageTypes(headers);
+    java.util.Optional<ImageData> data = width == null && accepted.isEmpty()
+        ? getVariantImage.execute(pid, vid)
+        : getVariantImage.execute(pid, vid, width == null ? 0 : width, accepted);
     if (data.isEmpty()) return ResponseEntity.notFound().build();
-    return ResponseEntity
-            .ok()
-            .header(org.springframework.http.HttpHeaders.CONTENT_TYPE, data.get().getContentType())
-            .body(data.get().getBytes());
+    ImageData image = data.get();
+    CacheControl cache = version != null && !image.isProvisional() && image.getContentHash().filter(version::equals).isPresent()
+        ? IMMUTABLE_IMAGE_CACHE
+        : IMAGE_CACHE;
+    Optional<Path> file = image.getFile();
+    String etag;
+    if (file.isEmpty()) {
+      etag = ConditionalRequests.contentEtag(image.getBytes());
+    } else if (image.getContentHash().isPresent() && !image.isProvisional()) {
+      etag = ConditionalRequests.imageEtag(image.getContentHash().get(), file.get().getFileName().toString());
+    } else {
+      etag = ConditionalRequests.fileEtag(image.getSize(), image.getLastModified());
+    }
+    if (ConditionalRequests.notModified(headers, etag, image.getLastModified())) {
+      ResponseEntity.BodyBuilder unchanged = ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+              .cacheControl(cache).eTag(etag).varyBy(HttpHeaders.ACCEPT);
+      if (image.getLastModified() != null) unchanged.lastModified(image.getLastModified());
+      return unchanged.build();
+    }
+    Resource body = file.<Resource>map(FileSystemResource::new).orElseGet(() -> new ByteArrayResource(image.getBytes()));
+    return validated(etag, image.getLastModified(), cache)
+            .varyBy(HttpHeaders.ACCEPT)
+            .header(org.springframework.http.HttpHeaders.CONTENT_TYPE, image.getContentType())
+            .body(body);
+  }
+
+  /** Image types the client lists by name; wildcards say nothing about which format it prefers. */
+  private static List<String> acceptedImageTypes(HttpHeaders headers) {
+    List<String> types = new ArrayList<>();
+    for (MediaType type : headers.getAccept()) {
+      if ("image".equals(type.getType()) && !type.isWildcardSubtype() && type.getQualityValue() > 0) {
+        types.add(type.getType() + "/" + type.getSubtype());
+      }
+    }
+    return types;
+  }
+
+  /** Maps products to the full response, or to {@code fieldset} when one was requested. */
+  private static Function<Product, Object> render(ProductFields fieldset) {
+    return fieldset == null ? ProductDtoMapper::toDto : fieldset::project;
+  }
+
+  /** A nullable request value, length-prefixed so that no value can imitate the fields after it. */
+  private static String field(String value) {
+    return value == null ? "-;" : value.length() + ":" + value + ";";
+  }
+
+  private static String catalogEtag(OptionalLong version) {
+    return version.isPresent() ? ConditionalRequests.catalogEtag(version.getAsLong()) : null;
+  }
+
+  /** A 200 carrying the given validators; without an ETag only the cache policy is sent. */
+  private static ResponseEntity.BodyBuilder validated(String etag, Instant lastModified, CacheControl cache) {
+    ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(cache);
+    if (etag != null) builder.eTag(etag);
+    if (lastModified != null) builder.lastModified(lastModified);
+    return builder;
+  }
+
+  private static <T> ResponseEntity<T> notModified(String etag, Instant lastModified, CacheControl cache) {
+    ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cache).eTag(etag);
+    if (lastModified != null) builder.lastModified(lastModified);
+    return builder.build();
   }
 
 
@@ -0,0 +1,59 @@
+package ie.universityofgalway.groupnine.delivery.rest.product;
+
+import ie.universityofgalway.groupnine.delivery.rest.product.dto.SuggestionResponse;
+import ie.universityofgalway.groupnine.domain.security.PublicEndpoint;
+import ie.universityofgalway.groupnine.service.product.usecase.SuggestProductsUseCase;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.MissingServletRequestParameterException;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static ie.universityofgalway.groupnine.util.Routes.PRODUCTS;
+
+/**
+ * REST controller serving search-box type-ahead suggestions from the in-memory index.
+ */
+@RestController
+@RequestMapping(PRODUCTS)
+@PublicEndpoint
+public class ProductSuggestController {
+
+  private final SuggestProductsUseCase suggest;
+
+  public ProductSuggestController(SuggestProductsUseCase suggest) {
+    this.suggest = suggest;
+  }
+
+  /**
+   * Suggests product names and categories for the text typed so far. Prefix matches on a
+   * name, category or any of their words come first; typo-tolerant matches fill the rest.
+   */
+  @Operation(summary = "Suggest product names and categories")
+  @GetMapping("/suggest")
+  @PublicEndpoint
+  public List<SuggestionResponse> suggest(
+      @RequestParam(name = "q") String q,
+      @RequestParam(name = "limit", required = false) Integer limit
+  ) {
+    return suggest.execute(q, limit).stream().map(ProductDtoMapper::toDto).toList();
+  }
+
+  @ExceptionHandler({
+      IllegalArgumentException.class,
+      MethodArgumentTypeMismatchException.class,
+      MissingServletRequestParameterException.class
+  })
+  public ResponseEntity<ApiError> handleBadRequest(Exception ex) {
+    HttpStatus status = HttpStatus.BAD_REQUEST;
+    String message = ex.getMessage() == null || ex.getMessage().isBlank() ? status.getReasonPhrase() : ex.getMessage();
+    return ResponseEntity.status(status)
+        .body(new ApiError(status.value(), "BAD_REQUEST", message, OffsetDateTime.now().toString()));
+  }
+
+  private record ApiError(int status, String code, String message, String timestamp) {}
+}
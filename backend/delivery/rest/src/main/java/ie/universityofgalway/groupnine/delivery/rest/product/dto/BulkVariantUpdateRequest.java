@@ -0,0 +1,18 @@
+package ie.universityofgalway.groupnine.delivery.rest.product.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Body of a bulk price and stock sync.
+ *
+ * @param updates rows to apply, at most 50000
+ */
+public record BulkVariantUpdateRequest(List<Row> updates) {
+
+    /**
+     * One variant, named by exactly one of {@code sku} or {@code variantId}. A missing
+     * {@code priceCents} or {@code stockQuantity} leaves that value unchanged.
+     */
+    public record Row(String sku, UUID variantId, Integer priceCents, Integer stockQuantity) {}
+}
@@ -0,0 +1,17 @@
+package ie.universityofgalway.groupnine.delivery.rest.product.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk price and stock sync.
+ *
+ * @param requested rows received
+ * @param updated   variants updated
+ * @param chunks    chunks written, each in its own transaction
+ * @param rejected  rows not applied, in request order
+ */
+public record BulkVariantUpdateResponse(int requested, int updated, int chunks, List<Rejected> rejected) {
+
+    /** @param index 0-based position of the row in the request */
+    public record Rejected(int index, String sku, String variantId, String message) {}
+}
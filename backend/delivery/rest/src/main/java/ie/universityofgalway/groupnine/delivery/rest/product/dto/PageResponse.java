@@ -1,11 +1,42 @@
 package ie.universityofgalway.groupnine.delivery.rest.product.dto;
 
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import ie.universityofgalway.groupnine.domain.product.CursorPage;
+
 import java.util.List;
 /**
  * Standard page wrapper used by REST endpoints to return paginated results.
+ * <p>
+ * In cursor mode {@code page} is always 0, {@code nextCursor} resumes after the last element
+ * ({@code null} on the last slice), and {@code totalElements}/{@code totalPages} are {@code -1}
+ * unless the client asked for a total. {@code facets} is only present on search responses that
+ * asked for it.
  */
 public record PageResponse<T>(
-  List<T> content, int page, int size, long totalElements, int totalPages
-) {}
+  List<T> content, int page, int size, long totalElements, int totalPages, String nextCursor,
+  @JsonInclude(JsonInclude.Include.NON_NULL) SearchFacetsResponse facets
+) {
+
+  /** Page without facets. */
+  public PageResponse(List<T> content, int page, int size, long totalElements, int totalPages, String nextCursor) {
+    this(content, page, size, totalElements, totalPages, nextCursor, null);
+  }
+
+  /** Offset-mode page without a cursor. */
+  public PageResponse(List<T> content, int page, int size, long totalElements, int totalPages) {
+    this(content, page, size, totalElements, totalPages, null);
+  }
+
+  /** Wraps a keyset slice returned by the service layer. */
+  public static <T> PageResponse<T> fromCursor(CursorPage<T> slice, int size) {
+    long total = slice.totalElements() == null ? -1 : slice.totalElements();
+    int pages = total < 0 ? -1 : (int) ((total + size - 1) / size);
+    return new PageResponse<>(slice.content(), 0, size, total, pages, slice.nextCursor());
+  }
 
+  /** Returns this page with the given facets attached. */
+  public PageResponse<T> withFacets(SearchFacetsResponse facets) {
+    return new PageResponse<>(content, page, size, totalElements, totalPages, nextCursor, facets);
+  }
+}
@@ -0,0 +1,10 @@
+package ie.universityofgalway.groupnine.delivery.rest.product.dto;
+
+import java.util.List;
+
+/**
+ * Body of a batch product lookup.
+ *
+ * @param ids public product ids, at most 200
+ */
+public record ProductBatchRequest(List<String> ids) {}
@@ -0,0 +1,18 @@
+package ie.universityofgalway.groupnine.delivery.rest.product.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch product lookup.
+ *
+ * @param items one entry per requested id, in request order
+ */
+public record ProductBatchResponse(List<Item> items) {
+
+    /**
+     * @param id      the id as requested
+     * @param found   whether the product exists
+     * @param product the product; {@code null} when not found
+     */
+    public record Item(String id, boolean found, ProductResponse product) {}
+}
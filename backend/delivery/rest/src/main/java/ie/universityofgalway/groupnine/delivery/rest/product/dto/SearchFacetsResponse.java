@@ -0,0 +1,23 @@
+package ie.universityofgalway.groupnine.delivery.rest.product.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filter options returned with search results when {@code facets=true}.
+ * Counts are numbers of matching products.
+ *
+ * @param categories     counts per category, most frequent first
+ * @param attributes     counts per attribute value, keyed by attribute name
+ * @param priceHistogram counts per bucket of lowest variant price, ascending
+ */
+public record SearchFacetsResponse(
+        List<ValueCount> categories,
+        Map<String, List<ValueCount>> attributes,
+        List<PriceBucket> priceHistogram
+) {
+    public record ValueCount(String value, long count) {}
+
+    /** {@code fromCents} inclusive, {@code toCents} exclusive. */
+    public record PriceBucket(int fromCents, int toCents, long count) {}
+}
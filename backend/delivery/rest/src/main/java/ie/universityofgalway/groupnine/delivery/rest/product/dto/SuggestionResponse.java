@@ -0,0 +1,16 @@
+package ie.universityofgalway.groupnine.delivery.rest.product.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One type-ahead suggestion.
+ *
+ * @param text      product name or category to show
+ * @param type      {@code PRODUCT} or {@code CATEGORY}
+ * @param productId product UUID for {@code PRODUCT} suggestions; omitted for categories
+ */
+public record SuggestionResponse(
+        String text,
+        String type,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String productId
+) {}
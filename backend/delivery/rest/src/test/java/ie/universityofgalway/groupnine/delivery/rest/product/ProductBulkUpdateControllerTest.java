@@ -0,0 +1,72 @@
+package ie.universityofgalway.groupnine.delivery.rest.product;
+
+import ie.universityofgalway.groupnine.delivery.rest.util.GlobalExceptionHandler;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.service.product.admin.BulkVariantUpdateReport;
+import ie.universityofgalway.groupnine.service.product.admin.VariantPriceStockUpdate;
+import ie.universityofgalway.groupnine.service.product.admin.usecase.BulkUpdateVariantsUseCase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProductBulkUpdateControllerTest {
+
+    private static final String BULK_UPDATE = "/api/v1/management/products/variants/bulk-update";
+
+    private MockMvc mockMvc;
+    private BulkUpdateVariantsUseCase bulkUpdate;
+
+    @BeforeEach
+    void setup() {
+        bulkUpdate = Mockito.mock(BulkUpdateVariantsUseCase.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductBulkUpdateController(bulkUpdate))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void maps_rows_and_reports_rejections() throws Exception {
+        UUID id = UUID.randomUUID();
+        VariantPriceStockUpdate missing = new VariantPriceStockUpdate(null, new VariantId(id), null, 2);
+        when(bulkUpdate.execute(any())).thenReturn(new BulkVariantUpdateReport(2, 1, 1,
+                List.of(new BulkVariantUpdateReport.Rejected(1, missing, "variant not found or stock below its reserved quantity"))));
+
+        mockMvc.perform(post(BULK_UPDATE).contentType(MediaType.APPLICATION_JSON).content("""
+                        {"updates":[{"sku":"A","priceCents":450},{"variantId":"%s","stockQuantity":2}]}
+                        """.formatted(id)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(2))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.rejected[0].index").value(1))
+                .andExpect(jsonPath("$.rejected[0].variantId").value(id.toString()))
+                .andExpect(jsonPath("$.rejected[0].sku").doesNotExist());
+
+        ArgumentCaptor<List<VariantPriceStockUpdate>> rows = ArgumentCaptor.forClass(List.class);
+        verify(bulkUpdate).execute(rows.capture());
+        assertEquals(List.of(new VariantPriceStockUpdate("A", null, 450, null), missing), rows.getValue());
+    }
+
+    @Test
+    void an_empty_request_is_a_bad_request() throws Exception {
+        when(bulkUpdate.execute(any())).thenThrow(new IllegalArgumentException("updates required"));
+
+        mockMvc.perform(post(BULK_UPDATE).contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+}
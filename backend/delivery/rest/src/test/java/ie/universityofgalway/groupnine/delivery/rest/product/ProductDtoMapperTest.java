@@ -7,6 +7,8 @@ import ie.universityofgalway.groupnine.domain.product.SortRule;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -19,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * - Defaulting: min=null -> 0; max=null -> Integer.MAX_VALUE.
  * - Sort parsing via SortRule.parse, including blank input.
  * - Mapping of AttributeFilterDTO list to non-null domain list.
+ * - Limits on the number of attribute filters and values per filter.
  */
 class ProductDtoMapperToDomainTest {
 
@@ -103,4 +106,26 @@ class ProductDtoMapperToDomainTest {
         assertEquals(SortRule.parse(""), q.sortRule());
         assertEquals(1, q.attributeFilters().size());
     }
+
+    /**
+     * Too many attribute filters, or values in one filter, are rejected rather than mapped.
+     */
+    @Test
+    @DisplayName("Attribute filters and values per filter are limited")
+    void toDomain_limitsAttributeFilters() {
+        List<AttributeFilterDTO> filters = new ArrayList<>();
+        for (int i = 0; i < ProductDtoMapper.MAX_ATTRIBUTE_FILTERS; i++) {
+            filters.add(new AttributeFilterDTO("k" + i, List.of("v")));
+        }
+        assertEquals(filters.size(), ProductDtoMapper.toDomain(
+                new SearchRequestDTO(null, null, null, null, null, filters)).attributeFilters().size());
+
+        filters.add(new AttributeFilterDTO("one-too-many", List.of("v")));
+        assertThrows(IllegalArgumentException.class,
+                () -> ProductDtoMapper.toDomain(new SearchRequestDTO(null, null, null, null, null, filters)));
+
+        List<String> values = Collections.nCopies(ProductDtoMapper.MAX_ATTRIBUTE_VALUES + 1, "v");
+        assertThrows(IllegalArgumentException.class, () -> ProductDtoMapper.toDomain(new SearchRequestDTO(
+                null, null, null, null, null, List.of(new AttributeFilterDTO("color", values)))));
+    }
 }
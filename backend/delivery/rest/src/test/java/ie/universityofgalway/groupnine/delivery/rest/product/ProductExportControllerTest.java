@@ -0,0 +1,114 @@
+package ie.universityofgalway.groupnine.delivery.rest.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import ie.universityofgalway.groupnine.domain.product.*;
+import ie.universityofgalway.groupnine.service.product.admin.ProductFilter;
+import ie.universityofgalway.groupnine.service.product.admin.usecase.ExportCatalogUseCase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProductExportControllerTest {
+
+    private static final String EXPORT = "/api/v1/management/products/export";
+
+    private MockMvc mockMvc;
+    private ExportCatalogUseCase exportCatalog;
+    private final List<Product> catalog = List.of(product("Beans"), product("Kettle"));
+
+    private static Product product(String name) {
+        Variant v = new Variant(new VariantId(UUID.randomUUID()), new Sku(name + "-1"),
+                new Money(new BigDecimal("4.50"), Currency.getInstance("EUR")), new Stock(3, 0), List.of(), null);
+        return new Product(new ProductId(UUID.randomUUID()), name, null, "coffee", ProductStatus.ACTIVE,
+                List.of(v), Instant.parse("2024-01-01T00:00:00Z"), Instant.parse("2024-01-01T00:00:00Z"));
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        exportCatalog = Mockito.mock(ExportCatalogUseCase.class);
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductExportController(exportCatalog, mapper)).build();
+        when(exportCatalog.execute(any(), any(), any())).thenAnswer(inv -> {
+            Consumer<Product> sink = inv.getArgument(2);
+            catalog.forEach(sink);
+            return (long) catalog.size();
+        });
+    }
+
+    @Test
+    void streams_one_line_per_product() throws Exception {
+        MvcResult started = mockMvc.perform(get(EXPORT).param("category", "coffee").param("status", "ACTIVE"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"id\":\"" + catalog.get(0).getId().getId() + "\""));
+        assertTrue(lines[1].contains("\"name\":\"Kettle\""));
+        ArgumentCaptor<ProductFilter> filter = ArgumentCaptor.forClass(ProductFilter.class);
+        verify(exportCatalog).execute(filter.capture(), eq(null), any());
+        assertEquals("coffee", filter.getValue().getCategory());
+        assertEquals(ProductStatus.ACTIVE, filter.getValue().getStatus());
+    }
+
+    @Test
+    void gzips_when_accepted_and_resumes_after_the_given_product() throws Exception {
+        UUID after = UUID.randomUUID();
+        MvcResult started = mockMvc.perform(get(EXPORT).param("after", after.toString())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String text;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals(2, text.split("\n").length);
+        verify(exportCatalog).execute(any(), eq(new ProductId(after)), any());
+    }
+
+    @Test
+    void gzip_is_only_used_when_accepted() {
+        assertTrue(ProductExportController.acceptsGzip("gzip, deflate"));
+        assertTrue(ProductExportController.acceptsGzip("GZIP;q=0.5"));
+        assertFalse(ProductExportController.acceptsGzip("gzip;q=0"));
+        assertFalse(ProductExportController.acceptsGzip("identity"));
+        assertFalse(ProductExportController.acceptsGzip(null));
+    }
+}
@@ -0,0 +1,62 @@
+package ie.universityofgalway.groupnine.delivery.rest.product;
+
+import ie.universityofgalway.groupnine.domain.product.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductFieldsTest {
+
+    private static Variant variant(String price, String imageUrl) {
+        return new Variant(new VariantId(UUID.randomUUID()), new Sku("SKU-" + price),
+                new Money(new BigDecimal(price), Currency.getInstance("EUR")), new Stock(1, 0),
+                List.of(new Attribute("roast", "dark")), imageUrl);
+    }
+
+    @Test
+    void the_full_response_has_no_fieldset() {
+        assertNull(ProductFields.parse(null));
+        assertNull(ProductFields.parse(" "));
+        assertNull(ProductFields.parse("detail"));
+        assertNull(ProductFields.parse("name,detail"));
+    }
+
+    @Test
+    void spellings_of_one_fieldset_share_a_key_and_unknown_names_are_rejected() {
+        assertEquals(ProductFields.parse("variants.sku, name").key(), ProductFields.parse("name,variants.sku,,name").key());
+        assertNotEquals(ProductFields.parse("tile").key(), ProductFields.parse("tile,description").key());
+        assertThrows(IllegalArgumentException.class, () -> ProductFields.parse("name,price"));
+        assertThrows(IllegalArgumentException.class, () -> ProductFields.parse("variants.stock"));
+    }
+
+    @Test
+    void only_descriptions_and_attributes_need_the_full_product() {
+        assertEquals(ProductProjection.LISTING, ProductFields.parse("tile").projection());
+        assertEquals(ProductProjection.LISTING, ProductFields.parse("name,variants.sku,variants.priceCents").projection());
+        assertEquals(ProductProjection.FULL, ProductFields.parse("tile,description").projection());
+        assertEquals(ProductProjection.FULL, ProductFields.parse("variants").projection());
+    }
+
+    @Test
+    void a_tile_holds_the_cheapest_price_and_the_first_image_in_field_order() {
+        Product p = new Product(new ProductId(UUID.randomUUID()), "Beans", "long text", "coffee", ProductStatus.ACTIVE,
+                List.of(variant("9.50", null), variant("4.25", "/img/b"), variant("7.00", "/img/c")),
+                Instant.parse("2024-01-01T00:00:00Z"), Instant.parse("2024-01-02T00:00:00Z"));
+
+        Map<String, Object> tile = ProductFields.parse("imageUrl,tile").project(p);
+
+        assertEquals(List.of("id", "name", "minPriceCents", "currency", "imageUrl"), List.copyOf(tile.keySet()));
+        assertEquals(425, tile.get("minPriceCents"));
+        assertEquals("EUR", tile.get("currency"));
+        assertEquals("/img/b", tile.get("imageUrl"));
+        assertEquals(Map.of("sku", "SKU-9.50"),
+                ((List<?>) ProductFields.parse("variants.sku").project(p).get("variants")).get(0));
+    }
+}
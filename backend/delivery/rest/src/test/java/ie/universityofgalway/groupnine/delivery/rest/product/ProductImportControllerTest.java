@@ -0,0 +1,103 @@
+package ie.universityofgalway.groupnine.delivery.rest.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ie.universityofgalway.groupnine.service.product.admin.CatalogImportListener;
+import ie.universityofgalway.groupnine.service.product.admin.CatalogImportReport;
+import ie.universityofgalway.groupnine.service.product.admin.CatalogImportRow;
+import ie.universityofgalway.groupnine.service.product.admin.usecase.ImportCatalogUseCase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProductImportControllerTest {
+
+    private static final String IMPORT = "/api/v1/management/products/import";
+
+    private MockMvc mockMvc;
+    private ImportCatalogUseCase importCatalog;
+    private final List<CatalogImportRow> received = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        importCatalog = Mockito.mock(ImportCatalogUseCase.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductImportController(importCatalog, new ObjectMapper())).build();
+        when(importCatalog.execute(any(), any())).thenAnswer(inv -> {
+            Iterator<CatalogImportRow> rows = inv.getArgument(0);
+            CatalogImportListener listener = inv.getArgument(1);
+            rows.forEachRemaining(received::add);
+            listener.rowRejected(new CatalogImportReport.RowError(2, null, "Invalid JSON"));
+            CatalogImportReport report = new CatalogImportReport(received.size(), 1, 1, 1, 1);
+            listener.batchWritten(report);
+            return report;
+        });
+    }
+
+    @Test
+    void ndjson_feed_streams_errors_progress_and_summary() throws Exception {
+        String feed = """
+                {"name":"Beans","category":"coffee","sku":"B-1","price":4.5,"currency":"EUR","stock":3,"attributes":{"size":["M","L"]}}
+                {oops
+                """;
+
+        String body = mockMvc.perform(post(IMPORT).contentType(MediaType.APPLICATION_NDJSON).content(feed))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(2, received.size());
+        assertEquals("B-1", received.get(0).sku());
+        assertEquals("4.5", received.get(0).price());
+        assertEquals(List.of("M", "L"), received.get(0).attributes().get("size"));
+        assertEquals("Invalid JSON", received.get(1).problem());
+        assertEquals(List.of(
+                "{\"type\":\"error\",\"line\":2,\"sku\":null,\"message\":\"Invalid JSON\"}",
+                "{\"type\":\"progress\",\"rows\":2,\"variants\":1,\"products\":1,\"rejected\":1,\"batches\":1}",
+                "{\"type\":\"summary\",\"rows\":2,\"variants\":1,\"products\":1,\"rejected\":1,\"batches\":1}"),
+                body.lines().toList());
+    }
+
+    @Test
+    void csv_feed_reads_the_header_and_attribute_columns() throws Exception {
+        String feed = "sku,name,category,price,currency,stock,attr.color\n"
+                + "B-1,\"Beans, whole\",coffee,4.50,EUR,3,Red|Blue\n";
+
+        mockMvc.perform(post(IMPORT).contentType("text/csv").content(feed))
+                .andExpect(status().isOk());
+
+        assertEquals(1, received.size());
+        assertEquals(2, received.get(0).line());
+        assertEquals("Beans, whole", received.get(0).name());
+        assertEquals(List.of("Red", "Blue"), received.get(0).attributes().get("color"));
+    }
+
+    @Test
+    void a_failed_batch_ends_the_stream_with_a_failed_line() throws Exception {
+        when(importCatalog.execute(any(), any())).thenThrow(new IllegalStateException("database unavailable"));
+
+        String body = mockMvc.perform(post(IMPORT).contentType(MediaType.APPLICATION_NDJSON).content("{}\n"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("{\"type\":\"failed\",\"message\":\"database unavailable\"}", body.strip());
+    }
+
+    @Test
+    void other_content_types_are_unsupported() throws Exception {
+        mockMvc.perform(post(IMPORT).contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+}
@@ -0,0 +1,105 @@
+package ie.universityofgalway.groupnine.delivery.rest.product;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ie.universityofgalway.groupnine.domain.product.*;
+import ie.universityofgalway.groupnine.service.product.port.RenderedCatalogCachePort;
+import ie.universityofgalway.groupnine.service.product.port.RenderedCatalogCachePort.Rendered;
+import ie.universityofgalway.groupnine.service.product.usecase.ProductService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ProductJsonCacheTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ProductService products = mock(ProductService.class);
+    private final RenderedCatalogCachePort port = mock(RenderedCatalogCachePort.class);
+
+    private static Product product() {
+        Variant v = new Variant(new VariantId(UUID.randomUUID()), new Sku("SKU-1"),
+                new Money(new BigDecimal("12.34"), Currency.getInstance("EUR")), new Stock(10, 1), List.of());
+        return new Product(new ProductId(UUID.randomUUID()), "Espresso Machine", "d", "coffee", ProductStatus.ACTIVE,
+                List.of(v), Instant.parse("2024-01-01T00:00:00Z"), Instant.parse("2024-01-02T00:00:00Z"));
+    }
+
+    @Test
+    void a_product_renders_to_the_response_json_with_its_validators() throws Exception {
+        Product p = product();
+        ProductJsonCache json = new ProductJsonCache(products, (RenderedCatalogCachePort) null, mapper);
+
+        Rendered r = json.product(p);
+
+        JsonNode body = mapper.readTree(r.body());
+        assertEquals(p.getId().getId().toString(), body.get("id").asText());
+        assertEquals(1234, body.get("variants").get(0).get("priceCents").asInt());
+        assertEquals(p.getUpdatedAt(), r.lastModified());
+        assertEquals(List.of(p.getVariants().get(0).getId()), r.variants());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void misses_render_through_the_service_and_unknown_products_stay_uncached() {
+        Product p = product();
+        String id = p.getId().getId().toString();
+        when(products.getById(id)).thenReturn(p);
+        when(products.getById(argThat(s -> !s.equals(id)))).thenThrow(new NoSuchElementException("Product not found"));
+        when(port.product(any(), any())).thenAnswer(inv ->
+                inv.<Function<ProductId, Optional<Rendered>>>getArgument(1).apply(inv.getArgument(0)));
+        ProductJsonCache json = new ProductJsonCache(products, port, mapper);
+
+        assertEquals(p.getUpdatedAt(), json.cachedProduct(" " + id + " ").orElseThrow().lastModified());
+        assertTrue(json.cachedProduct(UUID.randomUUID().toString()).isEmpty());
+        assertTrue(json.cachedProduct("not-a-uuid").isEmpty());
+        verify(port, times(2)).product(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void changed_products_are_rendered_again_and_failures_are_contained() {
+        Product p = product();
+        when(products.getById(anyString())).thenReturn(p).thenThrow(new IllegalStateException("db down"));
+        when(port.product(any(), any())).thenAnswer(inv ->
+                inv.<Function<ProductId, Optional<Rendered>>>getArgument(1).apply(inv.getArgument(0)));
+        new ProductJsonCache(products, port, mapper);
+        ArgumentCaptor<Consumer<ProductId>> regenerate = ArgumentCaptor.forClass(Consumer.class);
+        verify(port).regenerateWith(regenerate.capture());
+
+        regenerate.getValue().accept(p.getId());
+        assertDoesNotThrow(() -> regenerate.getValue().accept(p.getId()));
+
+        verify(products, times(2)).getById(p.getId().getId().toString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pages_are_cached_only_under_a_known_catalog_version() throws Exception {
+        when(port.page(eq(5L), eq("list;page=0"), any())).thenAnswer(inv -> inv.<Supplier<Rendered>>getArgument(2).get());
+        ProductJsonCache json = new ProductJsonCache(products, port, mapper);
+
+        Rendered cached = json.page(OptionalLong.of(5), "list;page=0", () -> Map.of("page", 0));
+        Rendered uncached = json.page(OptionalLong.empty(), "list;page=0", () -> Map.of("page", 0));
+
+        assertEquals(0, mapper.readTree(cached.body()).get("page").asInt());
+        assertArrayEquals(cached.body(), uncached.body());
+        verify(port, times(1)).page(anyLong(), anyString(), any());
+    }
+}
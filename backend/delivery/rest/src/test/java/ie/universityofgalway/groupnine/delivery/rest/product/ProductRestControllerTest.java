@@ -1,12 +1,14 @@
 package ie.universityofgalway.groupnine.delivery.rest.product;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import ie.universityofgalway.groupnine.delivery.rest.product.dto.AttributeFilterDTO;
 import ie.universityofgalway.groupnine.delivery.rest.product.dto.PageResponse;
 import ie.universityofgalway.groupnine.delivery.rest.product.dto.SearchRequestDTO;
 import ie.universityofgalway.groupnine.domain.product.*;
 import ie.universityofgalway.groupnine.service.product.usecase.ProductSearchService;
 import ie.universityofgalway.groupnine.service.product.usecase.GetVariantImageUseCase;
 import ie.universityofgalway.groupnine.service.product.port.ImageStoragePort.ImageData;
+import ie.universityofgalway.groupnine.service.product.port.RenderedCatalogCachePort;
 import ie.universityofgalway.groupnine.service.product.usecase.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,15 +17,19 @@ import org.mockito.Mockito;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.Currency;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -32,6 +38,8 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -110,6 +118,125 @@ class ProductRestControllerTest {
                 .andExpect(jsonPath("$.content[0].variants[0].currency").value("EUR"));
     }
 
+    @Test
+    void list_cursorMode_returnsNextCursor_andSkipsTotal() throws Exception {
+        when(productService.list("", 5, "coffee", false))
+                .thenReturn(new CursorPage<>(List.of(sampleProduct), "next-token", null));
+
+        mockMvc.perform(get("/api/v1/products?size=5&category=coffee&cursor="))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("next-token"))
+                .andExpect(jsonPath("$.totalElements").value(-1))
+                .andExpect(jsonPath("$.totalPages").value(-1))
+                .andExpect(jsonPath("$.content[0].name").value("Espresso Machine"));
+
+        Mockito.verify(productService, Mockito.never()).list(Mockito.anyInt(), Mockito.anyInt(), Mockito.any());
+    }
+
+    @Test
+    void list_withTileFields_readsListingsAndWritesOnlyTheTile() throws Exception {
+        when(productService.list(0, 10, null, ProductProjection.LISTING))
+                .thenReturn(new PageImpl<>(List.of(sampleProduct), PageRequest.of(0, 10), 1));
+
+        mockMvc.perform(get("/api/v1/products?fields=tile"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(sampleProduct.getId().getId().toString()))
+                .andExpect(jsonPath("$.content[0].name").value("Espresso Machine"))
+                .andExpect(jsonPath("$.content[0].minPriceCents").value(1234))
+                .andExpect(jsonPath("$.content[0].currency").value("EUR"))
+                .andExpect(jsonPath("$.content[0].description").doesNotExist())
+                .andExpect(jsonPath("$.content[0].variants").doesNotExist());
+
+        Mockito.verify(productService, Mockito.never()).list(Mockito.anyInt(), Mockito.anyInt(), Mockito.any());
+    }
+
+    @Test
+    void search_withFields_writesOnlyTheSelectedVariantFields() throws Exception {
+        when(productSearchService.search(any(SearchQuery.class), eq(0), eq(10)))
+                .thenReturn(new PageImpl<>(List.of(sampleProduct), PageRequest.of(0, 10), 1));
+
+        SearchRequestDTO req = new SearchRequestDTO("espresso", null, null, null, null, List.of());
+        mockMvc.perform(post("/api/v1/products/search?fields=name,variants.priceCents")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Espresso Machine"))
+                .andExpect(jsonPath("$.content[0].id").doesNotExist())
+                .andExpect(jsonPath("$.content[0].variants[0].priceCents").value(1234))
+                .andExpect(jsonPath("$.content[0].variants[0].sku").doesNotExist());
+    }
+
+    @Test
+    void unknownFields_areRejected() throws Exception {
+        mockMvc.perform(get("/api/v1/products?fields=name,price"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void search_cursorMode_withTotal() throws Exception {
+        when(productSearchService.search(any(SearchQuery.class), eq("abc"), eq(2), eq(true)))
+                .thenReturn(new CursorPage<>(List.of(sampleProduct), null, 3L));
+
+        SearchRequestDTO req = new SearchRequestDTO("espresso", null, null, null, "PRICE_LOW_TO_HIGH", List.of());
+        mockMvc.perform(post("/api/v1/products/search?size=2&cursor=abc&includeTotal=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.totalPages").value(2));
+    }
+
+    @Test
+    void search_withFacets_attachesFacetCounts() throws Exception {
+        when(productSearchService.search(any(SearchQuery.class), eq(0), eq(10)))
+                .thenReturn(new PageImpl<>(List.of(sampleProduct), PageRequest.of(0, 10), 1));
+        when(productSearchService.facets(any(SearchQuery.class), eq(5))).thenReturn(new SearchFacets(
+                List.of(new SearchFacets.ValueCount("coffee", 4)),
+                java.util.Map.of("color", List.of(new SearchFacets.ValueCount("black", 3))),
+                List.of(new SearchFacets.PriceBucket(1000, 2000, 4))));
+
+        SearchRequestDTO req = new SearchRequestDTO("espresso", null, null, null, null, List.of());
+        mockMvc.perform(post("/api/v1/products/search?facets=true&facetLimit=5")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Espresso Machine"))
+                .andExpect(jsonPath("$.facets.categories[0].value").value("coffee"))
+                .andExpect(jsonPath("$.facets.categories[0].count").value(4))
+                .andExpect(jsonPath("$.facets.attributes.color[0].value").value("black"))
+                .andExpect(jsonPath("$.facets.priceHistogram[0].fromCents").value(1000))
+                .andExpect(jsonPath("$.facets.priceHistogram[0].toCents").value(2000));
+    }
+
+    @Test
+    void search_withoutFacets_omitsFacetsAndSkipsAggregation() throws Exception {
+        when(productSearchService.search(any(SearchQuery.class), eq(0), eq(10)))
+                .thenReturn(new PageImpl<>(List.of(sampleProduct), PageRequest.of(0, 10), 1));
+
+        SearchRequestDTO req = new SearchRequestDTO("espresso", null, null, null, null, List.of());
+        mockMvc.perform(post("/api/v1/products/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.facets").doesNotExist());
+
+        Mockito.verify(productSearchService, Mockito.never()).facets(any(), any());
+    }
+
+    @Test
+    void search_withTooManyAttributeValues_isBadRequest() throws Exception {
+        List<String> values = Collections.nCopies(ProductDtoMapper.MAX_ATTRIBUTE_VALUES + 1, "v");
+        SearchRequestDTO req = new SearchRequestDTO(null, null, null, null, null,
+                List.of(new AttributeFilterDTO("color", values)));
+        mockMvc.perform(post("/api/v1/products/search")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(productSearchService);
+    }
+
     @org.junit.jupiter.api.Disabled("Flaky in standalone setup; covered via list/search")
     @Test
     void byId_returnsProductResponse() throws Exception {
@@ -187,4 +314,292 @@ class ProductRestControllerTest {
                 .andExpect(jsonPath("$.code").value("INTERNAL_ERROR"))
                 .andExpect(jsonPath("$.message").value("An unexpected error occurred"));
     }
+
+    @Test
+    void byId_answers304_fromTheLastModifiedLookup_withoutLoadingTheProduct() throws Exception {
+        UUID id = sampleProduct.getId().getId();
+        Instant updatedAt = Instant.parse("2024-01-02T00:00:00.123456Z");
+        when(productService.lastModified(id.toString())).thenReturn(Optional.of(updatedAt));
+        String etag = ConditionalRequests.productEtag(id, updatedAt);
+
+        mockMvc.perform(get("/api/v1/products/{id}", id.toString()).header(HttpHeaders.IF_NONE_MATCH, "\"stale\", " + etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, public"));
+        mockMvc.perform(get("/api/v1/products/{id}", id.toString())
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, "Tue, 02 Jan 2024 00:00:01 GMT"))
+                .andExpect(status().isNotModified());
+
+        Mockito.verify(productService, Mockito.never()).getById(any());
+    }
+
+    @Test
+    void byId_loadsTheProduct_whenTheClientCopyIsStale() throws Exception {
+        UUID id = sampleProduct.getId().getId();
+        when(productService.lastModified(id.toString())).thenReturn(Optional.of(sampleProduct.getUpdatedAt()));
+        when(productService.getById(id.toString())).thenReturn(sampleProduct);
+
+        mockMvc.perform(get("/api/v1/products/{id}", id.toString()).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ConditionalRequests.productEtag(id, sampleProduct.getUpdatedAt())))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    void list_carriesTheCatalogVersion_andAnswers304_withoutListing() throws Exception {
+        when(productService.catalogVersion()).thenReturn(OptionalLong.of(42));
+        when(productService.list(0, 10, null)).thenReturn(new PageImpl<>(List.of(sampleProduct), PageRequest.of(0, 10), 1));
+
+        mockMvc.perform(get("/api/v1/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"c42\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=30, public"));
+        mockMvc.perform(get("/api/v1/products").header(HttpHeaders.IF_NONE_MATCH, "W/\"c42\""))
+                .andExpect(status().isNotModified());
+
+        Mockito.verify(productService, Mockito.times(1)).list(0, 10, null);
+    }
+
+    @Test
+    void list_withoutCatalogVersion_sendsNoEtag() throws Exception {
+        when(productService.list(0, 10, null)).thenReturn(new PageImpl<>(List.of(sampleProduct), PageRequest.of(0, 10), 1));
+
+        mockMvc.perform(get("/api/v1/products").header(HttpHeaders.IF_NONE_MATCH, "\"c0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void search_etagDependsOnTheRequestBody() throws Exception {
+        when(productService.catalogVersion()).thenReturn(OptionalLong.of(3));
+        when(productSearchService.search(any(SearchQuery.class), eq(0), eq(10)))
+                .thenReturn(new PageImpl<>(List.of(sampleProduct), PageRequest.of(0, 10), 1));
+        String espresso = objectMapper.writeValueAsString(new SearchRequestDTO("espresso", null, null, null, null, List.of()));
+        String grinder = objectMapper.writeValueAsString(new SearchRequestDTO("grinder", null, null, null, null, List.of()));
+
+        String etag = mockMvc.perform(post("/api/v1/products/search").contentType(MediaType.APPLICATION_JSON).content(espresso))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(post("/api/v1/products/search").contentType(MediaType.APPLICATION_JSON).content(espresso)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(post("/api/v1/products/search").contentType(MediaType.APPLICATION_JSON).content(grinder)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getVariantImage_answers304_forTheSameBytes() throws Exception {
+        UUID pid = UUID.randomUUID();
+        UUID vid = UUID.randomUUID();
+        byte[] bytes = new byte[]{1, 2, 3};
+        when(getVariantImageUseCase.execute(new ProductId(pid), new VariantId(vid)))
+                .thenReturn(Optional.of(new ImageData(bytes, "image/png")));
+        String etag = ConditionalRequests.contentEtag(bytes);
+
+        mockMvc.perform(get("/api/v1/products/{productId}/variants/{variantId}/image", pid, vid))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=86400, public"));
+        mockMvc.perform(get("/api/v1/products/{productId}/variants/{variantId}/image", pid, vid)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void getVariantImage_streamsAStoredFile_andAnswersRanges() throws Exception {
+        UUID pid = UUID.randomUUID();
+        UUID vid = UUID.randomUUID();
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("variant-", ".png");
+        java.nio.file.Files.write(file, new byte[]{10, 11, 12, 13, 14, 15, 16, 17});
+        Instant modified = Instant.parse("2024-03-01T10:00:00Z");
+        when(getVariantImageUseCase.execute(new ProductId(pid), new VariantId(vid)))
+                .thenReturn(Optional.of(new ImageData(file, 8, modified, "image/png")));
+        String etag = ConditionalRequests.fileEtag(8, modified);
+
+        mockMvc.perform(get("/api/v1/products/{productId}/variants/{variantId}/image", pid, vid))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 8))
+                .andExpect(content().bytes(new byte[]{10, 11, 12, 13, 14, 15, 16, 17}));
+        mockMvc.perform(get("/api/v1/products/{productId}/variants/{variantId}/image", pid, vid)
+                        .header(HttpHeaders.RANGE, "bytes=2-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-4/8"))
+                .andExpect(content().contentType("image/png"))
+                .andExpect(content().bytes(new byte[]{12, 13, 14}));
+        mockMvc.perform(get("/api/v1/products/{productId}/variants/{variantId}/image", pid, vid)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getVariantImage_asksForTheRequestedWidth_andNamedImageTypes() throws Exception {
+        UUID pid = UUID.randomUUID();
+        UUID vid = UUID.randomUUID();
+        byte[] bytes = {1, 2, 3};
+        when(getVariantImageUseCase.execute(new ProductId(pid), new VariantId(vid), 400, List.of("image/webp")))
+                .thenReturn(Optional.of(new ImageData(bytes, "image/webp")));
+
+        mockMvc.perform(get("/api/v1/products/{productId}/variants/{variantId}/image", pid, vid)
+                        .param("w", "400")
+                        .header(HttpHeaders.ACCEPT, "image/avif;q=0,image/webp,image/*,*/*;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(content().contentType("image/webp"))
+                .andExpect(content().bytes(bytes));
+    }
+
+    @Test
+    void getVariantImage_isCachedForGood_whenTheUrlNamesItsContentHash() throws Exception {
+        UUID pid = UUID.randomUUID();
+        UUID vid = UUID.randomUUID();
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("variant-", ".png");
+        java.nio.file.Files.write(file, new byte[]{1, 2});
+        Instant modified = Instant.parse("2024-03-01T10:00:00Z");
+        String hash = "ab".repeat(32);
+        when(getVariantImageUseCase.execute(new ProductId(pid), new VariantId(vid)))
+                .thenReturn(Optional.of(new ImageData(file, 2, modified, "image/png", hash, false)));
+
+        String etag = ConditionalRequests.imageEtag(hash, file.getFileName().toString());
+
+        mockMvc.perform(get("/api/v1/products/{productId}/variants/{variantId}/image", pid, vid).param("v", hash))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+        mockMvc.perform(get("/api/v1/products/{productId}/variants/{variantId}/image", pid, vid)
+                        .param("v", hash)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+        // an outdated version, or none, is the image now but not for good
+        mockMvc.perform(get("/api/v1/products/{productId}/variants/{variantId}/image", pid, vid).param("v", "cd".repeat(32)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=86400, public"));
+    }
+
+    @Test
+    void getVariantImage_renditionsOfOneImage_haveTheirOwnEtags() throws Exception {
+        UUID pid = UUID.randomUUID();
+        UUID vid = UUID.randomUUID();
+        java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("renditions-");
+        java.nio.file.Path jpeg = java.nio.file.Files.write(dir.resolve("400.jpg"), new byte[]{1, 2});
+        java.nio.file.Path webp = java.nio.file.Files.write(dir.resolve("400.webp"), new byte[]{3, 4});
+        Instant modified = Instant.parse("2024-03-01T10:00:00Z");
+        String hash = "ab".repeat(32);
+        when(getVariantImageUseCase.execute(new ProductId(pid), new VariantId(vid), 400, List.of()))
+                .thenReturn(Optional.of(new ImageData(jpeg, 2, modified, "image/jpeg", hash, false)));
+        when(getVariantImageUseCase.execute(new ProductId(pid), new VariantId(vid), 400, List.of("image/webp")))
+                .thenReturn(Optional.of(new ImageData(webp, 2, modified, "image/webp", hash, false)));
+        String jpegEtag = ConditionalRequests.imageEtag(hash, "400.jpg");
+
+        mockMvc.perform(get("/api/v1/products/{productId}/variants/{variantId}/image", pid, vid)
+                        .param("w", "400").header(HttpHeaders.ACCEPT, "image/webp"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ConditionalRequests.imageEtag(hash, "400.webp")));
+        mockMvc.perform(get("/api/v1/products/{productId}/variants/{variantId}/image", pid, vid)
+                        .param("w", "400").header(HttpHeaders.ACCEPT, "image/webp")
+                        .header(HttpHeaders.IF_NONE_MATCH, jpegEtag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/products/{productId}/variants/{variantId}/image", pid, vid)
+                        .param("w", "400").header(HttpHeaders.IF_NONE_MATCH, jpegEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getVariantImage_isNotCachedForGood_whileProvisional() throws Exception {
+        UUID pid = UUID.randomUUID();
+        UUID vid = UUID.randomUUID();
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("variant-", ".png");
+        java.nio.file.Files.write(file, new byte[]{1, 2});
+        String hash = "ab".repeat(32);
+        Instant modified = Instant.parse("2024-03-01T10:00:00Z");
+        when(getVariantImageUseCase.execute(new ProductId(pid), new VariantId(vid), 200, List.of()))
+                .thenReturn(Optional.of(new ImageData(file, 2, modified, "image/png", hash, true)));
+
+        mockMvc.perform(get("/api/v1/products/{productId}/variants/{variantId}/image", pid, vid)
+                        .param("v", hash).param("w", "200"))
+                .andExpect(status().isOk())
+                // the rendition that replaces it keeps the hash, so the ETag must not rest on it
+                .andExpect(header().string(HttpHeaders.ETAG, ConditionalRequests.fileEtag(2, modified)))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=86400, public"));
+    }
+
+    @Test
+    void byId_servesTheRenderedBytes_withoutTouchingTheService() throws Exception {
+        UUID id = sampleProduct.getId().getId();
+        RenderedCatalogCachePort port = Mockito.mock(RenderedCatalogCachePort.class);
+        byte[] body = "{\"id\":\"cached\"}".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        when(port.product(eq(sampleProduct.getId()), any()))
+                .thenReturn(Optional.of(new RenderedCatalogCachePort.Rendered(body, sampleProduct.getUpdatedAt(), List.of())));
+        ProductJsonCache json = new ProductJsonCache(productService, port, objectMapper);
+        MockMvc cached = MockMvcBuilders.standaloneSetup(
+                new ProductRestController(productService, productSearchService, getVariantImageUseCase, json)).build();
+        String etag = ConditionalRequests.productEtag(id, sampleProduct.getUpdatedAt());
+
+        cached.perform(get("/api/v1/products/{id}", id.toString()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().bytes(body))
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        cached.perform(get("/api/v1/products/{id}", id.toString()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        Mockito.verify(productService, Mockito.never()).getById(any());
+        Mockito.verify(productService, Mockito.never()).lastModified(any());
+    }
+
+    @Test
+    void list_pagesAreKeyedByTheirParameters() throws Exception {
+        when(productService.catalogVersion()).thenReturn(OptionalLong.of(9));
+        RenderedCatalogCachePort port = Mockito.mock(RenderedCatalogCachePort.class);
+        when(port.page(eq(9L), Mockito.anyString(), any())).thenReturn(new RenderedCatalogCachePort.Rendered(
+                "{\"content\":[]}".getBytes(java.nio.charset.StandardCharsets.UTF_8), null, List.of()));
+        ProductJsonCache json = new ProductJsonCache(productService, port, objectMapper);
+        MockMvc cached = MockMvcBuilders.standaloneSetup(
+                new ProductRestController(productService, productSearchService, getVariantImageUseCase, json)).build();
+
+        cached.perform(get("/api/v1/products?page=1&size=5&category=coffee"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isEmpty())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"c9\""));
+        cached.perform(get("/api/v1/products?page=1&size=5&category=tea")).andExpect(status().isOk());
+        cached.perform(get("/api/v1/products?size=5&category=coffee&cursor=")).andExpect(status().isOk());
+
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(port, Mockito.times(3)).page(eq(9L), keys.capture(), any());
+        assertEquals(3, keys.getAllValues().stream().distinct().count());
+        Mockito.verify(productService, Mockito.never()).list(Mockito.anyInt(), Mockito.anyInt(), Mockito.any());
+    }
+
+    @Test
+    void byIds_keepsTheRequestOrder_andMarksUnknownIds() throws Exception {
+        String known = sampleProduct.getId().getId().toString();
+        String unknown = UUID.randomUUID().toString();
+        when(productService.getByIds(List.of(unknown, known)))
+                .thenReturn(List.of(Optional.empty(), Optional.of(sampleProduct)));
+
+        mockMvc.perform(get("/api/v1/products").param("ids", unknown + "," + known))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(unknown))
+                .andExpect(jsonPath("$.items[0].found").value(false))
+                .andExpect(jsonPath("$.items[1].found").value(true))
+                .andExpect(jsonPath("$.items[1].product.name").value("Espresso Machine"));
+
+        Mockito.verify(productService, Mockito.never()).list(Mockito.anyInt(), Mockito.anyInt(), Mockito.any());
+    }
+
+    @Test
+    void batch_resolvesThePostedIds() throws Exception {
+        String known = sampleProduct.getId().getId().toString();
+        when(productService.getByIds(List.of(known))).thenReturn(List.of(Optional.of(sampleProduct)));
+
+        mockMvc.perform(post("/api/v1/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[\"" + known + "\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].product.id").value(known));
+    }
 }
@@ -0,0 +1,63 @@
+package ie.universityofgalway.groupnine.delivery.rest.product;
+
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.ProductSuggestion;
+import ie.universityofgalway.groupnine.service.product.usecase.SuggestProductsUseCase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProductSuggestControllerTest {
+
+    private MockMvc mockMvc;
+    private SuggestProductsUseCase suggest;
+
+    @BeforeEach
+    void setup() {
+        suggest = Mockito.mock(SuggestProductsUseCase.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductSuggestController(suggest)).build();
+    }
+
+    @Test
+    void suggest_returnsProductsAndCategories() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(suggest.execute(eq("cof"), any())).thenReturn(List.of(
+                new ProductSuggestion("Coffee", ProductSuggestion.Type.CATEGORY, null),
+                new ProductSuggestion("Coffee Grinder", ProductSuggestion.Type.PRODUCT, new ProductId(id))
+        ));
+
+        mockMvc.perform(get("/api/v1/products/suggest").param("q", "cof"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].text").value("Coffee"))
+                .andExpect(jsonPath("$[0].type").value("CATEGORY"))
+                .andExpect(jsonPath("$[0].productId").doesNotExist())
+                .andExpect(jsonPath("$[1].productId").value(id.toString()));
+    }
+
+    @Test
+    void suggest_missingQuery_badRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/products/suggest"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void suggest_invalidLimit_badRequest() throws Exception {
+        when(suggest.execute(eq("cof"), eq(0))).thenThrow(new IllegalArgumentException("limit must be > 0"));
+
+        mockMvc.perform(get("/api/v1/products/suggest").param("q", "cof").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("BAD_REQUEST"));
+    }
+}
@@ -0,0 +1,66 @@
+package ie.universityofgalway.groupnine.delivery.worker.config;
+
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.ExchangeBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declares the image rendition queue and its DLQ, and the listener container consuming it.
+ * <p>
+ * Rendering decodes whole images, so the container is the bounded pool doing it: one job per
+ * consumer at a time ({@code prefetch 1}) and {@code app.images.renditions.concurrency} consumers.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.images.renditions", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ImageRenditionWorkerConfig {
+    public static final String EX_CATALOG_IMAGES = "catalog.images";
+    public static final String EX_APP_DLX = "app.dlx";
+    public static final String Q_IMAGE_RENDITIONS = "q.image.renditions";
+    public static final String RK_IMAGE_RENDITION = "image.rendition.request";
+
+    @Bean
+    public Declarables imageRenditionTopology() {
+        List<Declarable> decs = new ArrayList<>();
+        TopicExchange images = ExchangeBuilder.topicExchange(EX_CATALOG_IMAGES).durable(true).build();
+        DirectExchange dlx = ExchangeBuilder.directExchange(EX_APP_DLX).durable(true).build();
+        decs.add(images); decs.add(dlx);
+
+        Queue q = QueueBuilder.durable(Q_IMAGE_RENDITIONS)
+                .withArguments(Map.of("x-dead-letter-exchange", EX_APP_DLX))
+                .build();
+        Queue dlq = QueueBuilder.durable(Q_IMAGE_RENDITIONS + ".dlq").build();
+        decs.add(q); decs.add(dlq);
+        decs.add(BindingBuilder.bind(q).to(images).with(RK_IMAGE_RENDITION));
+        decs.add(BindingBuilder.bind(dlq).to(dlx).with("dlq." + Q_IMAGE_RENDITIONS));
+        return new Declarables(decs);
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory imageRenditionListenerFactory(
+            ConnectionFactory cf,
+            @Value("${app.images.renditions.concurrency:2}") int concurrency) {
+        SimpleRabbitListenerContainerFactory f = new SimpleRabbitListenerContainerFactory();
+        f.setConnectionFactory(cf);
+        f.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        f.setPrefetchCount(1);
+        f.setConcurrentConsumers(Math.max(1, concurrency));
+        f.setMaxConcurrentConsumers(Math.max(1, concurrency));
+        return f;
+    }
+}
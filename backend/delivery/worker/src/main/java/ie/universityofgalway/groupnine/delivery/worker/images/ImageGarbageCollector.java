@@ -0,0 +1,41 @@
+package ie.universityofgalway.groupnine.delivery.worker.images;
+
+import ie.universityofgalway.groupnine.service.product.port.ImageStoragePort;
+import ie.universityofgalway.groupnine.util.logging.AppLogger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Periodically deletes stored images no variant shows any more, see
+ * {@link ImageStoragePort#deleteUnreferencedImages}. Images younger than
+ * {@code app.images.gc.min-age-ms} are kept, so an upload is never collected while it is being
+ * linked to its variant.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.images.gc", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ImageGarbageCollector {
+    private static final AppLogger LOG = AppLogger.get(ImageGarbageCollector.class);
+
+    private final ImageStoragePort images;
+    private final Duration minAge;
+
+    public ImageGarbageCollector(ImageStoragePort images, @Value("${app.images.gc.min-age-ms:86400000}") long minAgeMillis) {
+        this.images = images;
+        this.minAge = Duration.ofMillis(minAgeMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${app.images.gc.interval-ms:3600000}", initialDelayString = "${app.images.gc.initial-delay-ms:600000}")
+    public void collect() {
+        try {
+            long start = System.nanoTime();
+            int deleted = images.deleteUnreferencedImages(minAge);
+            LOG.info("image_gc_run", "deleted", deleted, "ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            LOG.warn("image_gc_failed", "error", e.getMessage());
+        }
+    }
+}
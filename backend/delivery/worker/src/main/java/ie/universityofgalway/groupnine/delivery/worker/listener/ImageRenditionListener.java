@@ -0,0 +1,62 @@
+package ie.universityofgalway.groupnine.delivery.worker.listener;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.service.product.port.ImageStoragePort;
+import ie.universityofgalway.groupnine.util.logging.AppLogger;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Makes the renditions of uploaded variant images, see {@link ImageStoragePort#renderVariantImage}.
+ * Malformed jobs are acknowledged and dropped; jobs failing to render are rejected to the DLQ,
+ * leaving the original to be served.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.images.renditions", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ImageRenditionListener {
+    private static final AppLogger LOG = AppLogger.get(ImageRenditionListener.class);
+
+    private final ObjectMapper mapper;
+    private final ImageStoragePort images;
+
+    public ImageRenditionListener(ObjectMapper mapper, ImageStoragePort images) {
+        this.mapper = mapper;
+        this.images = images;
+    }
+
+    @RabbitListener(queues = "q.image.renditions", containerFactory = "imageRenditionListenerFactory")
+    public void onMessage(Message message, Channel channel) throws IOException {
+        long tag = message.getMessageProperties().getDeliveryTag();
+        final ProductId productId;
+        final VariantId variantId;
+        try {
+            JsonNode root = mapper.readTree(message.getBody());
+            productId = new ProductId(UUID.fromString(root.path("product_id").asText()));
+            variantId = new VariantId(UUID.fromString(root.path("variant_id").asText()));
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.warn("image_rendition_malformed", "error", e.getMessage());
+            channel.basicAck(tag, false);
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            images.renderVariantImage(productId, variantId);
+            channel.basicAck(tag, false);
+            LOG.info("image_rendition_done", "productId", productId.getId(), "variantId", variantId.getId(),
+                    "ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            LOG.warn("image_rendition_failed", "productId", productId.getId(), "variantId", variantId.getId(),
+                    "error", e.getMessage());
+            channel.basicReject(tag, false);
+        }
+    }
+}
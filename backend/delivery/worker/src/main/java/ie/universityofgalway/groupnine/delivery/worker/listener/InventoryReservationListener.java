@@ -7,17 +7,24 @@ import ie.universityofgalway.groupnine.domain.inventory.InventoryReservation;
 import ie.universityofgalway.groupnine.domain.inventory.InventoryReservationStatus;
 import ie.universityofgalway.groupnine.domain.inventory.ReservationItem;
 import ie.universityofgalway.groupnine.domain.order.OrderId;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
 import ie.universityofgalway.groupnine.service.audit.port.AuditEventPort;
 import ie.universityofgalway.groupnine.service.inventory.port.InventoryReservationRepository;
 import ie.universityofgalway.groupnine.service.messaging.port.OutboxPort;
 import ie.universityofgalway.groupnine.service.messaging.port.ProcessedEventPort;
 import ie.universityofgalway.groupnine.service.inventory.port.InventoryAdjustmentPort;
+import ie.universityofgalway.groupnine.service.product.port.CatalogInvalidationPort;
+import ie.universityofgalway.groupnine.service.product.port.SalesCounterPort;
 import org.springframework.amqp.core.Message;
 import io.micrometer.core.instrument.MeterRegistry;
 import ie.universityofgalway.groupnine.util.logging.AppLogger;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.IOException;
 import java.time.Instant;
@@ -39,15 +46,24 @@ public class InventoryReservationListener {
     private final AuditEventPort audit;
     private final MeterRegistry metrics;
     private final InventoryAdjustmentPort inventoryAdjust;
+    private final CatalogInvalidationPort catalog;
+    private final SalesCounterPort sales;
     private static final AppLogger LOG = AppLogger.get(InventoryReservationListener.class);
 
+    /**
+     * @param catalog may be {@code null}, in which case stock changes are not announced
+     * @param sales   may be {@code null}, in which case confirmed sales are not counted
+     */
+    @Autowired
     public InventoryReservationListener(ObjectMapper mapper,
                                         ProcessedEventPort processed,
                                         InventoryReservationRepository reservations,
                                         OutboxPort outbox,
                                         AuditEventPort audit,
                                         MeterRegistry metrics,
-                                        InventoryAdjustmentPort inventoryAdjust) {
+                                        InventoryAdjustmentPort inventoryAdjust,
+                                        @Nullable CatalogInvalidationPort catalog,
+                                        @Nullable SalesCounterPort sales) {
         this.mapper = mapper;
         this.processed = processed;
         this.reservations = reservations;
@@ -55,6 +71,8 @@ public class InventoryReservationListener {
         this.audit = audit;
         this.metrics = metrics;
         this.inventoryAdjust = inventoryAdjust;
+        this.catalog = catalog;
+        this.sales = sales;
     }
 
     @RabbitListener(queues = "q.inventory.reservation")
@@ -108,7 +126,7 @@ public class InventoryReservationListener {
                 String variantId = asText(it, "variant_id");
                 int quantity = it.get("quantity").asInt(0);
                 if (variantId != null && quantity > 0) {
-                    items.add(new ReservationItem(new ie.universityofgalway.groupnine.domain.product.VariantId(UUID.fromString(variantId)), quantity));
+                    items.add(new ReservationItem(new VariantId(UUID.fromString(variantId)), quantity));
                 }
             }
         }
@@ -152,6 +170,8 @@ public class InventoryReservationListener {
                 }
                 ir.confirm();
                 reservations.save(ir);
+                announceStockChange(ir.getItems());
+                recordSales(ir.getItems());
                 outbox.enqueue("inventory.events", "inventory.confirmed", Map.of("order_id", orderId.toString()), Map.of("order_id", orderId.toString()));
                 audit.record(null, "inventory_confirmed", Map.of("order_id", orderId.toString()), Instant.now());
                 if (metrics != null) metrics.counter("reserve_confirm").increment();
@@ -175,6 +195,42 @@ public class InventoryReservationListener {
         });
     }
 
+    /**
+     * Tells catalog caches on every node, in one announcement, that the stock of these variants
+     * changed. Only confirmation changes stock; reserving and releasing only move the reserved
+     * counter, which no cached read shows. Deferred until commit when a transaction is active so
+     * no node re-reads the old rows.
+     */
+    private void announceStockChange(List<ReservationItem> items) {
+        if (catalog == null || items.isEmpty()) return;
+        List<VariantId> variants = items.stream().map(ReservationItem::getVariantId).distinct().toList();
+        afterCommit(() -> catalog.variantsChanged(variants));
+    }
+
+    /**
+     * Feeds the units of a confirmed reservation to the sales counters behind the
+     * {@code BEST_SELLING} sort, once the confirmation has committed.
+     */
+    private void recordSales(List<ReservationItem> items) {
+        if (sales == null || items.isEmpty()) return;
+        Map<VariantId, Integer> units = new HashMap<>();
+        for (ReservationItem it : items) units.merge(it.getVariantId(), it.getQuantity(), Integer::sum);
+        Instant soldAt = Instant.now();
+        afterCommit(() -> sales.recordSales(units, soldAt));
+    }
+
+    /** Runs {@code action} after the current transaction commits, or now when there is none. */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() { action.run(); }
+            });
+        } else {
+            action.run();
+        }
+    }
+
     private static String asText(JsonNode n, String field) {
         JsonNode f = n.get(field);
         return f == null || f.isNull() ? null : f.asText();
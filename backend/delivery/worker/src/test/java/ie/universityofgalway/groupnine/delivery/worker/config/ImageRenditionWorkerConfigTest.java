@@ -0,0 +1,26 @@
+package ie.universityofgalway.groupnine.delivery.worker.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Exchange;
+import org.springframework.amqp.core.Queue;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageRenditionWorkerConfigTest {
+
+    @Test
+    void topology_contains_the_queue_its_dlq_and_bindings() {
+        Collection<Declarable> list = new ImageRenditionWorkerConfig().imageRenditionTopology().getDeclarables();
+
+        assertTrue(list.stream().anyMatch(x -> x instanceof Exchange e && e.getName().equals(ImageRenditionWorkerConfig.EX_CATALOG_IMAGES)));
+        assertTrue(list.stream().anyMatch(x -> x instanceof Queue q && q.getName().equals(ImageRenditionWorkerConfig.Q_IMAGE_RENDITIONS)
+                && ImageRenditionWorkerConfig.EX_APP_DLX.equals(q.getArguments().get("x-dead-letter-exchange"))));
+        assertTrue(list.stream().anyMatch(x -> x instanceof Queue q && q.getName().equals("q.image.renditions.dlq")));
+        assertTrue(list.stream().anyMatch(x -> x instanceof Binding b && ImageRenditionWorkerConfig.RK_IMAGE_RENDITION.equals(b.getRoutingKey())));
+        assertTrue(list.stream().anyMatch(x -> x instanceof Binding b && "dlq.q.image.renditions".equals(b.getRoutingKey())));
+    }
+}
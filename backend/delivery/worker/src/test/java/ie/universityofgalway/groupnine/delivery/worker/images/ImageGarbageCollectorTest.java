@@ -0,0 +1,34 @@
+package ie.universityofgalway.groupnine.delivery.worker.images;
+
+import ie.universityofgalway.groupnine.service.product.port.ImageStoragePort;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ImageGarbageCollectorTest {
+
+    @Test
+    void collects_images_older_than_the_configured_age() throws Exception {
+        ImageStoragePort images = Mockito.mock(ImageStoragePort.class);
+        when(images.deleteUnreferencedImages(any())).thenReturn(3);
+
+        new ImageGarbageCollector(images, 60_000).collect();
+
+        verify(images).deleteUnreferencedImages(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void a_failed_run_is_left_for_the_next_one() throws Exception {
+        ImageStoragePort images = Mockito.mock(ImageStoragePort.class);
+        when(images.deleteUnreferencedImages(any())).thenThrow(new IOException("disk"));
+
+        new ImageGarbageCollector(images, 0).collect();
+
+        verify(images, times(1)).deleteUnreferencedImages(Duration.ZERO);
+    }
+}
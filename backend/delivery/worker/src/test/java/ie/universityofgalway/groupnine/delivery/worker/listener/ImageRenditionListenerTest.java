@@ -0,0 +1,70 @@
+package ie.universityofgalway.groupnine.delivery.worker.listener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.service.product.port.ImageStoragePort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ImageRenditionListenerTest {
+
+    private ImageStoragePort images;
+    private ImageRenditionListener listener;
+
+    @BeforeEach
+    void setup() {
+        images = Mockito.mock(ImageStoragePort.class);
+        listener = new ImageRenditionListener(new ObjectMapper(), images);
+    }
+
+    private Message msg(String json) {
+        MessageProperties p = new MessageProperties();
+        p.setDeliveryTag(1L);
+        return new Message(json.getBytes(StandardCharsets.UTF_8), p);
+    }
+
+    @Test
+    void renders_the_variant_and_acks() throws Exception {
+        UUID pid = UUID.randomUUID();
+        UUID vid = UUID.randomUUID();
+        Channel ch = Mockito.mock(Channel.class);
+
+        listener.onMessage(msg("{\"product_id\":\"" + pid + "\",\"variant_id\":\"" + vid + "\"}"), ch);
+
+        verify(images).renderVariantImage(new ProductId(pid), new VariantId(vid));
+        verify(ch).basicAck(1L, false);
+    }
+
+    @Test
+    void failed_rendering_rejects_to_dlq() throws Exception {
+        doThrow(new IOException("disk full")).when(images).renderVariantImage(any(), any());
+        Channel ch = Mockito.mock(Channel.class);
+
+        listener.onMessage(msg("{\"product_id\":\"" + UUID.randomUUID() + "\",\"variant_id\":\"" + UUID.randomUUID() + "\"}"), ch);
+
+        verify(ch).basicReject(1L, false);
+        verify(ch, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void malformed_job_is_acked_and_dropped() throws Exception {
+        Channel ch = Mockito.mock(Channel.class);
+
+        listener.onMessage(msg("{\"product_id\":\"nope\"}"), ch);
+
+        verify(ch).basicAck(1L, false);
+        verifyNoInteractions(images);
+    }
+}
@@ -12,6 +12,8 @@ import ie.universityofgalway.groupnine.service.inventory.port.InventoryAdjustmen
 import ie.universityofgalway.groupnine.service.inventory.port.InventoryReservationRepository;
 import ie.universityofgalway.groupnine.service.messaging.port.OutboxPort;
 import ie.universityofgalway.groupnine.service.messaging.port.ProcessedEventPort;
+import ie.universityofgalway.groupnine.service.product.port.CatalogInvalidationPort;
+import ie.universityofgalway.groupnine.service.product.port.SalesCounterPort;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,6 +40,8 @@ class InventoryReservationListenerTest {
     private AuditEventPort audit;
     private MeterRegistry metrics;
     private InventoryAdjustmentPort adjust;
+    private CatalogInvalidationPort catalog;
+    private SalesCounterPort sales;
     private InventoryReservationListener listener;
 
     @BeforeEach
@@ -49,7 +53,9 @@ class InventoryReservationListenerTest {
         audit = Mockito.mock(AuditEventPort.class);
         metrics = Mockito.mock(MeterRegistry.class, Mockito.RETURNS_DEEP_STUBS);
         adjust = Mockito.mock(InventoryAdjustmentPort.class);
-        listener = new InventoryReservationListener(mapper, processed, repo, outbox, audit, metrics, adjust);
+        catalog = Mockito.mock(CatalogInvalidationPort.class);
+        sales = Mockito.mock(SalesCounterPort.class);
+        listener = new InventoryReservationListener(mapper, processed, repo, outbox, audit, metrics, adjust, catalog, sales);
     }
 
     private Message jsonMsg(String json, String id) {
@@ -79,6 +85,8 @@ class InventoryReservationListenerTest {
         verify(outbox).enqueue(eq("inventory.events"), eq("inventory.reserved"), anyMap(), anyMap());
         verify(ch).basicAck(1L, false);
         verify(processed).markProcessed(eq("amqp:inventory"), eq("m1"));
+        // Reserving moves only the reserved counter, which no cached read shows
+        verifyNoInteractions(catalog);
     }
 
     @Test
@@ -116,6 +124,42 @@ class InventoryReservationListenerTest {
         verify(ch).basicAck(1L, false);
     }
 
+    @Test
+    void confirm_announces_stock_change_of_its_variants_at_once() throws Exception {
+        OrderId oid = new OrderId(UUID.randomUUID());
+        VariantId v1 = new VariantId(UUID.randomUUID());
+        VariantId v2 = new VariantId(UUID.randomUUID());
+        InventoryReservation res = InventoryReservation.pending(oid, List.of(new ReservationItem(v1, 1), new ReservationItem(v2, 3)), Instant.now());
+        res.markReserved();
+        when(repo.findByOrderId(eq(oid))).thenReturn(Optional.of(res));
+
+        listener.onConfirm(jsonMsg("{\"order_id\":\"" + oid + "\"}", "m5"), Mockito.mock(Channel.class));
+
+        verify(catalog).variantsChanged(List.of(v1, v2));
+        verifyNoMoreInteractions(catalog);
+    }
+
+    @Test
+    void confirm_feeds_the_sales_counters_and_release_does_not() throws Exception {
+        OrderId oid = new OrderId(UUID.randomUUID());
+        VariantId v1 = new VariantId(UUID.randomUUID());
+        VariantId v2 = new VariantId(UUID.randomUUID());
+        InventoryReservation res = InventoryReservation.pending(oid,
+                List.of(new ReservationItem(v1, 1), new ReservationItem(v2, 3), new ReservationItem(v1, 2)), Instant.now());
+        res.markReserved();
+        when(repo.findByOrderId(eq(oid))).thenReturn(Optional.of(res));
+
+        listener.onRelease(jsonMsg("{\"order_id\":\"" + oid + "\",\"reason\":\"x\"}", "m6"), Mockito.mock(Channel.class));
+        verifyNoInteractions(sales);
+
+        res = InventoryReservation.pending(oid, res.getItems(), Instant.now());
+        res.markReserved();
+        when(repo.findByOrderId(eq(oid))).thenReturn(Optional.of(res));
+        listener.onConfirm(jsonMsg("{\"order_id\":\"" + oid + "\"}", "m7"), Mockito.mock(Channel.class));
+
+        verify(sales).recordSales(eq(Map.of(v1, 3, v2, 3)), any(Instant.class));
+    }
+
     @Test
     void release_moves_to_released_and_emits_reason() throws Exception {
         OrderId oid = new OrderId(UUID.randomUUID());
@@ -130,5 +174,6 @@ class InventoryReservationListenerTest {
         verify(repo).save(res);
         verify(outbox).enqueue(eq("inventory.events"), eq("inventory.released"), anyMap(), anyMap());
         verify(ch).basicAck(1L, false);
+        verifyNoInteractions(catalog);
     }
 }
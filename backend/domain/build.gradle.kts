@@ -1,5 +1,6 @@
 plugins {
     alias(libs.plugins.convention.domain)
+    alias(libs.plugins.jmh)
 }
 
 group = "ie.universityofgalway.groupnine"
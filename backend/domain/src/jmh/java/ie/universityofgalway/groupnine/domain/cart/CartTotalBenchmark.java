@@ -0,0 +1,71 @@
+package ie.universityofgalway.groupnine.domain.cart;
+
+import ie.universityofgalway.groupnine.domain.product.Money;
+import ie.universityofgalway.groupnine.domain.product.Sku;
+import ie.universityofgalway.groupnine.domain.product.Stock;
+import ie.universityofgalway.groupnine.domain.product.Variant;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.domain.user.UserId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totals a 50-item cart with {@link ShoppingCart#total()} against the {@link BigDecimal}
+ * reduction it replaced. Run with {@code ./gradlew :domain:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartTotalBenchmark {
+
+    private static final int ITEMS = 50;
+    private static final Currency EUR = Currency.getInstance("EUR");
+
+    private ShoppingCart cart;
+    private List<CartItem> items;
+
+    @Setup
+    public void setUp() {
+        cart = ShoppingCart.createNew(UserId.newId());
+        for (int i = 0; i < ITEMS; i++) {
+            // Prices as read from price_cents, e.g. 4.99, 12.50
+            Money price = Money.of(499 + 751L * i, 2, EUR);
+            Variant variant = new Variant(new VariantId(UUID.randomUUID()), new Sku("SKU-" + i), price,
+                    new Stock(100, 0), List.of());
+            cart.addItem(variant, 1 + i % 4);
+        }
+        items = cart.getItems();
+    }
+
+    @Benchmark
+    public Money minorUnits() {
+        return cart.total();
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (CartItem item : items) {
+            BigDecimal amount = item.getVariant().getPrice().getAmount();
+            total = total.add(amount.multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        return total;
+    }
+}
@@ -154,10 +154,12 @@ public class ShoppingCart {
         if (currency == null) {
             currency = Currency.getInstance("EUR");
         }
-        Money zero = new Money(java.math.BigDecimal.ZERO, currency);
-        return items.asList().stream()
-                .map(CartItem::subtotal)
-                .reduce(zero, Money::add);
+        // Minor-unit arithmetic; no BigDecimal is built unless a price needs one
+        Money total = Money.ofMinor(0, currency);
+        for (CartItem item : items.asList()) {
+            total = total.add(item.subtotal());
+        }
+        return total;
     }
 
     private void modify(Runnable action) {
@@ -0,0 +1,29 @@
+package ie.universityofgalway.groupnine.domain.product;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A forward-only slice of results addressed by an opaque cursor instead of a page number.
+ * Repositories resume strictly after the last returned element, so deep slices cost the
+ * same as the first one.
+ *
+ * @param content       elements of this slice, in sort order (never null)
+ * @param nextCursor    opaque token resuming after the last element; {@code null} on the last slice
+ * @param totalElements total number of matches, or {@code null} when counting was not requested
+ * @param <T>           element type
+ */
+public record CursorPage<T>(List<T> content, String nextCursor, Long totalElements) {
+
+    public CursorPage {
+        content = content == null ? List.of() : List.copyOf(content);
+    }
+
+    /** True when another slice can be fetched with {@link #nextCursor()}. */
+    public boolean hasNext() { return nextCursor != null; }
+
+    /** Maps the content while keeping the cursor and total. */
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(content.stream().<R>map(mapper).toList(), nextCursor, totalElements);
+    }
+}
@@ -0,0 +1,28 @@
+package ie.universityofgalway.groupnine.domain.product;
+
+/**
+ * Upper bounds on the size of a {@link SearchFacets} result.
+ *
+ * @param maxCategories         most frequent categories to return
+ * @param maxAttributes         attribute keys to return, by number of matching products
+ * @param maxValuesPerAttribute most frequent values to return per attribute key
+ * @param priceBuckets          number of equal-width price histogram buckets; 0 skips the histogram
+ */
+public record FacetLimits(int maxCategories, int maxAttributes, int maxValuesPerAttribute, int priceBuckets) {
+
+    public FacetLimits {
+        if (maxCategories < 0 || maxAttributes < 0 || maxValuesPerAttribute < 0 || priceBuckets < 0) {
+            throw new IllegalArgumentException("facet limits must be >= 0");
+        }
+    }
+
+    /**
+     * Returns these limits with the per-list caps lowered to {@code limit} where it is smaller.
+     * The histogram resolution is left unchanged.
+     */
+    public FacetLimits capValues(int limit) {
+        if (limit < 0) throw new IllegalArgumentException("facet limit must be >= 0");
+        return new FacetLimits(Math.min(maxCategories, limit), maxAttributes,
+                Math.min(maxValuesPerAttribute, limit), priceBuckets);
+    }
+}
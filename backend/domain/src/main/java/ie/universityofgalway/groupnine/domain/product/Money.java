@@ -7,11 +7,23 @@ import java.util.Objects;
 /**
  * Immutable value object representing a monetary amount in a specific currency.
  * Converted from a record to a class.
+ *
+ * <p>Amounts that fit the currency's minor unit (cents for EUR) are held as a {@code long} count
+ * of minor units, and arithmetic on them is plain {@code long} arithmetic; the {@link BigDecimal}
+ * is only built when {@link #getAmount()} asks for it. Finer amounts, currencies without a minor
+ * unit and results that would overflow fall back to {@link BigDecimal}. Two amounts are equal when
+ * they are numerically equal in the same currency, whatever their scale.</p>
  */
 public final class Money {
 
-    private final BigDecimal amount;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000};
+
     private final Currency currency;
+    /** Amount in minor units; only meaningful when {@link #exact}. */
+    private final long minor;
+    private final boolean exact;
+    /** Built on first use when {@link #exact}; racy but idempotent. */
+    private BigDecimal amount;
 
     public Money(BigDecimal amount, Currency currency) {
         if (amount == null) {
@@ -25,16 +37,92 @@ public final class Money {
         }
         this.amount = amount;
         this.currency = currency;
+        int digits = currency.getDefaultFractionDigits();
+        long units = 0;
+        boolean fits = digits >= 0 && digits < POWERS_OF_TEN.length;
+        if (fits) {
+            try {
+                units = amount.movePointRight(digits).longValueExact();
+            } catch (ArithmeticException e) {
+                fits = false;
+            }
+        }
+        this.minor = units;
+        this.exact = fits;
+    }
+
+    private Money(long minor, Currency currency) {
+        this.currency = currency;
+        this.minor = minor;
+        this.exact = true;
+    }
+
+    /**
+     * An amount given in the currency's minor units, e.g. {@code ofMinor(1234, EUR)} is EUR 12.34.
+     *
+     * @throws IllegalArgumentException if {@code minorUnits} is negative
+     */
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        Objects.requireNonNull(currency, "currency cannot be null");
+        if (minorUnits < 0) throw new IllegalArgumentException("amount cannot be negative");
+        int digits = currency.getDefaultFractionDigits();
+        if (digits < 0 || digits >= POWERS_OF_TEN.length) {
+            return new Money(BigDecimal.valueOf(minorUnits), currency);
+        }
+        return new Money(minorUnits, currency);
+    }
+
+    /**
+     * An amount given as {@code unscaled / 10^scale}, e.g. stored cents are {@code of(cents, 2, currency)}.
+     * Takes the {@code long} path whenever the amount fits the currency's minor unit.
+     */
+    public static Money of(long unscaled, int scale, Currency currency) {
+        Objects.requireNonNull(currency, "currency cannot be null");
+        int digits = currency.getDefaultFractionDigits();
+        if (unscaled >= 0 && digits >= 0 && digits < POWERS_OF_TEN.length && scale >= 0) {
+            if (scale <= digits) {
+                long factor = POWERS_OF_TEN[digits - scale];
+                long hi = Math.multiplyHigh(unscaled, factor);
+                if (hi == 0 && unscaled * factor >= 0) return new Money(unscaled * factor, currency);
+            } else if (scale - digits < POWERS_OF_TEN.length && unscaled % POWERS_OF_TEN[scale - digits] == 0) {
+                return new Money(unscaled / POWERS_OF_TEN[scale - digits], currency);
+            }
+        }
+        return new Money(BigDecimal.valueOf(unscaled, scale), currency);
     }
 
     // Getters
-    public BigDecimal getAmount() { return amount; }
+    public BigDecimal getAmount() {
+        BigDecimal a = amount;
+        if (a == null) {
+            a = toAmount(minor, currency.getDefaultFractionDigits());
+            amount = a;
+        }
+        return a;
+    }
+
     public Currency getCurrency() { return currency; }
 
+    /**
+     * The amount in the currency's minor units, e.g. {@code 1234} for EUR 12.34.
+     *
+     * @throws ArithmeticException if the amount is finer than the minor unit or does not fit a long
+     */
+    public long getMinorUnits() {
+        if (exact) return minor;
+        int digits = Math.max(currency.getDefaultFractionDigits(), 0);
+        return amount.movePointRight(digits).longValueExact();
+    }
+
     /** Multiply this Money by an integer factor. */
     public Money multiply(int factor) {
         if (factor < 0) throw new IllegalArgumentException("factor cannot be negative");
-        return new Money(amount.multiply(BigDecimal.valueOf(factor)), currency);
+        if (exact) {
+            long hi = Math.multiplyHigh(minor, factor);
+            long product = minor * factor;
+            if (hi == 0 && product >= 0) return new Money(product, currency);
+        }
+        return new Money(getAmount().multiply(BigDecimal.valueOf(factor)), currency);
     }
 
     /** Add another Money of the same currency. */
@@ -42,7 +130,21 @@ public final class Money {
         if (!currency.equals(other.currency)) {
             throw new IllegalArgumentException("currencies must match");
         }
-        return new Money(amount.add(other.amount), currency);
+        if (exact && other.exact) {
+            long sum = minor + other.minor;
+            if (sum >= 0) return new Money(sum, currency);
+        }
+        return new Money(getAmount().add(other.getAmount()), currency);
+    }
+
+    /** Minor units as a decimal with trailing fraction zeros dropped, e.g. 250 cents is 2.5 and 1000 is 10. */
+    private static BigDecimal toAmount(long minor, int digits) {
+        int scale = digits;
+        while (scale > 0 && minor % 10 == 0) {
+            minor /= 10;
+            scale--;
+        }
+        return BigDecimal.valueOf(minor, scale);
     }
 
     @Override
@@ -50,16 +152,21 @@ public final class Money {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Money money = (Money) o;
-        return amount.equals(money.amount) && currency.equals(money.currency);
+        if (!currency.equals(money.currency)) return false;
+        if (exact && money.exact) return minor == money.minor;
+        // An amount that fits the minor unit never equals one that does not
+        return exact == money.exact && amount.compareTo(money.amount) == 0;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(amount, currency);
+        return exact
+                ? Objects.hash(minor, currency)
+                : Objects.hash(amount.stripTrailingZeros(), currency);
     }
 
     @Override
     public String toString() {
-        return "Money[amount=" + amount + ", currency=" + currency + ']';
+        return "Money[amount=" + getAmount() + ", currency=" + currency + ']';
     }
 }
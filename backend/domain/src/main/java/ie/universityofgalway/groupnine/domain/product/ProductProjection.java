@@ -0,0 +1,16 @@
+package ie.universityofgalway.groupnine.domain.product;
+
+/**
+ * How much of a product a read loads.
+ */
+public enum ProductProjection {
+
+    /** The whole product. */
+    FULL,
+
+    /**
+     * The product as a listing tile shows it: the description is {@code null} and variants carry
+     * no attributes. Such products must not be cached or returned where the whole product is expected.
+     */
+    LISTING
+}
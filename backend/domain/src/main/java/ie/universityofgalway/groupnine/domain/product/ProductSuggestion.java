@@ -0,0 +1,24 @@
+package ie.universityofgalway.groupnine.domain.product;
+
+import java.util.Objects;
+
+/**
+ * One type-ahead completion for a partially typed search term.
+ *
+ * @param text      display text: the product name or the category
+ * @param type      what the completion refers to
+ * @param productId the product for {@link Type#PRODUCT} suggestions, {@code null} for categories
+ */
+public record ProductSuggestion(String text, Type type, ProductId productId) {
+
+    public ProductSuggestion {
+        Objects.requireNonNull(text, "text");
+        Objects.requireNonNull(type, "type");
+        if (type == Type.PRODUCT && productId == null) {
+            throw new IllegalArgumentException("productId is required for product suggestions");
+        }
+    }
+
+    /** Kind of completion. */
+    public enum Type { PRODUCT, CATEGORY }
+}
@@ -0,0 +1,35 @@
+package ie.universityofgalway.groupnine.domain.product;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregate counts over all products matching a {@link SearchQuery}, used to render filter options.
+ *
+ * @param categories     product counts per (lower-cased) category, most frequent first
+ * @param attributes     product counts per attribute value, keyed by attribute name; keys and values most frequent first
+ * @param priceHistogram product counts per bucket of lowest variant price, in ascending price order
+ */
+public record SearchFacets(List<ValueCount> categories,
+                           Map<String, List<ValueCount>> attributes,
+                           List<PriceBucket> priceHistogram) {
+
+    public SearchFacets {
+        categories = categories == null ? List.of() : List.copyOf(categories);
+        attributes = attributes == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(attributes));
+        priceHistogram = priceHistogram == null ? List.of() : List.copyOf(priceHistogram);
+    }
+
+    /** No matches. */
+    public static SearchFacets empty() {
+        return new SearchFacets(List.of(), Map.of(), List.of());
+    }
+
+    /** Number of matching products having {@code value}. */
+    public record ValueCount(String value, long count) {}
+
+    /** Number of matching products whose lowest variant price lies in {@code [fromCents, toCents)}. */
+    public record PriceBucket(int fromCents, int toCents, long count) {}
+}
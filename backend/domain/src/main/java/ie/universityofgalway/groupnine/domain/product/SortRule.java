@@ -17,7 +17,16 @@ public enum SortRule {
     PRICE_HIGH_TO_LOW,
 
     /** Order by newest items first (e.g., latest created/updated). */
-    NEWEST_FIRST;
+    NEWEST_FIRST,
+
+    /**
+     * Order by how well products match the keyword, best first.
+     * Behaves like {@link #DEFAULT} when there is no keyword.
+     */
+    RELEVANCE,
+
+    /** Order by units sold, decayed over about a month, best sellers first. */
+    BEST_SELLING;
 
     /**
      * Parse a sort rule from arbitrary text.
@@ -42,4 +42,51 @@ class MoneyTest {
         assertEquals(new Money(new BigDecimal("15.00"), EUR), sum);
         assertThrows(IllegalArgumentException.class, () -> ten.add(new Money(BigDecimal.ONE, USD)));
     }
-}
\ No newline at end of file
+
+    /**
+     * Verifies the minor-unit representation: amounts built from cents read back as the same
+     * decimal, and equality ignores scale.
+     */
+    @Test
+    void minor_units_round_trip_and_compare_by_value() {
+        Money cents = Money.ofMinor(1234, EUR);
+        assertEquals(new BigDecimal("12.34"), cents.getAmount());
+        assertEquals(1234, cents.getMinorUnits());
+        assertEquals(new BigDecimal("2.5"), Money.ofMinor(250, EUR).getAmount());
+        assertEquals(new BigDecimal("10"), Money.of(1000, 2, EUR).getAmount());
+
+        assertEquals(new Money(new BigDecimal("12.340"), EUR), cents);
+        assertEquals(new Money(new BigDecimal("12.340"), EUR).hashCode(), cents.hashCode());
+        assertNotEquals(Money.ofMinor(1234, USD), cents);
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMinor(-1, EUR));
+    }
+
+    /**
+     * Amounts the minor unit cannot hold keep their decimal value and are never equal to
+     * one that it can.
+     */
+    @Test
+    void finer_amounts_and_other_minor_units_fall_back_to_decimals() {
+        Money fine = new Money(new BigDecimal("9.995"), EUR);
+        assertThrows(ArithmeticException.class, fine::getMinorUnits);
+        assertEquals(new Money(new BigDecimal("19.990"), EUR), fine.multiply(2));
+        assertNotEquals(Money.ofMinor(1000, EUR), fine);
+
+        Currency jpy = Currency.getInstance("JPY");
+        assertEquals(500, Money.of(50_000, 2, jpy).getMinorUnits());
+        assertEquals(new BigDecimal("500.50"), Money.of(50_050, 2, jpy).getAmount());
+    }
+
+    /**
+     * Arithmetic that would overflow a long switches to decimals instead of wrapping.
+     */
+    @Test
+    void overflowing_arithmetic_falls_back_to_decimals() {
+        Money big = Money.ofMinor(Long.MAX_VALUE - 1, EUR);
+        Money doubled = big.multiply(2);
+        assertEquals(new BigDecimal(Long.MAX_VALUE - 1).movePointLeft(2).multiply(BigDecimal.valueOf(2)),
+                doubled.getAmount().setScale(2));
+        assertEquals(doubled, big.add(big));
+        assertThrows(ArithmeticException.class, doubled::getMinorUnits);
+    }
+}
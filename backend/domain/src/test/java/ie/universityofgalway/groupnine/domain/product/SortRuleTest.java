@@ -20,5 +20,6 @@ class SortRuleTest {
         assertEquals(SortRule.PRICE_LOW_TO_HIGH, SortRule.parse(" price_low_to_high ")); // case/trim
         assertEquals(SortRule.DEFAULT, SortRule.parse("unknown")); // fallback
         assertEquals(SortRule.NEWEST_FIRST, SortRule.parse("Newest_First")); // case-insensitive
+        assertEquals(SortRule.RELEVANCE, SortRule.parse("relevance"));
     }
 }
@@ -16,6 +16,7 @@ dependencies {
 
     implementation(libs.jackson.databind)
     implementation(libs.mailjet.client)
+    implementation(libs.micrometer.core)
     implementation(libs.spring.boot.starter)
     implementation(libs.spring.boot.starter.amqp)
     implementation(libs.spring.boot.starter.data.jpa)
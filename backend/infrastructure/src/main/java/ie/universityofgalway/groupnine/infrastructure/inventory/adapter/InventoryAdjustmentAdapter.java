@@ -3,9 +3,10 @@ package ie.universityofgalway.groupnine.infrastructure.inventory.adapter;
 import ie.universityofgalway.groupnine.domain.product.VariantId;
 import ie.universityofgalway.groupnine.infrastructure.inventory.jpa.InventoryAggregateEntity;
 import ie.universityofgalway.groupnine.infrastructure.inventory.jpa.InventoryAggregateJpaRepository;
-import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantEntity;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchDocumentJpaRepository;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantJpaRepository;
 import ie.universityofgalway.groupnine.service.inventory.port.InventoryAdjustmentPort;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,10 +21,15 @@ import java.util.UUID;
 public class InventoryAdjustmentAdapter implements InventoryAdjustmentPort {
     private final InventoryAggregateJpaRepository inventory;
     private final VariantJpaRepository variants;
+    private final ProductSearchDocumentJpaRepository searchDocuments;
 
-    public InventoryAdjustmentAdapter(InventoryAggregateJpaRepository inventory, VariantJpaRepository variants) {
+    @Autowired
+    public InventoryAdjustmentAdapter(InventoryAggregateJpaRepository inventory,
+                                      VariantJpaRepository variants,
+                                      ProductSearchDocumentJpaRepository searchDocuments) {
         this.inventory = inventory;
         this.variants = variants;
+        this.searchDocuments = searchDocuments;
     }
 
     /** Increments the reserved counter for a variant. */
@@ -43,7 +49,10 @@ public class InventoryAdjustmentAdapter implements InventoryAdjustmentPort {
         inventory.adjustReserved(vid, -quantity);
     }
 
-    /** Decrements total on‑hand stock for a variant (post‑payment confirmation). */
+    /**
+     * Decrements total on‑hand stock for a variant (post‑payment confirmation) and refreshes
+     * the owning product's search document, whose availability may have changed.
+     */
     @Override
     @Transactional
     public void decrementTotalStock(VariantId variantId, int quantity) {
@@ -52,6 +61,7 @@ public class InventoryAdjustmentAdapter implements InventoryAdjustmentPort {
             ve.setStockQuantity(newStock);
             ve.setAvailable(newStock > 0);
             variants.save(ve);
+            searchDocuments.refreshForVariant(variantId.getId());
         });
     }
 
@@ -12,7 +12,6 @@ import ie.universityofgalway.groupnine.infrastructure.order.jpa.OrderJpaReposito
 import ie.universityofgalway.groupnine.service.order.port.OrderPort;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
 import java.util.Currency;
 import java.util.Optional;
 
@@ -47,7 +46,7 @@ public class OrderPersistenceAdapter implements OrderPort {
         e.setId(o.getId().value());
         e.setUserId(o.getUserId().value());
         e.setCartId(o.getCartId().getId());
-        e.setTotalMinor(toMinor(o.getTotal().getAmount(), o.getTotal().getCurrency()));
+        e.setTotalMinor(o.getTotal().getMinorUnits());
         e.setCurrency(o.getTotal().getCurrency().getCurrencyCode());
         e.setStatus(o.getStatus().name());
         e.setSnapshotJson(null);
@@ -68,7 +67,7 @@ public class OrderPersistenceAdapter implements OrderPort {
     }
 
     private Order toDomain(OrderEntity e) {
-        Money total = new Money(new BigDecimal(e.getTotalMinor()).movePointLeft(Currency.getInstance(e.getCurrency()).getDefaultFractionDigits()), Currency.getInstance(e.getCurrency()));
+        Money total = Money.ofMinor(e.getTotalMinor(), Currency.getInstance(e.getCurrency()));
         Order o = new Order(new OrderId(e.getId()), UserId.of(e.getUserId()), new CartId(e.getCartId()), total,
                 OrderStatus.valueOf(e.getStatus()), e.getCreatedAt(), e.getUpdatedAt());
         o.setShipping(e.getShippingRateId(), e.getShippingAmountMinor(), e.getShippingCurrency(),
@@ -77,9 +76,4 @@ public class OrderPersistenceAdapter implements OrderPort {
                 e.getShippingPostalCode(), e.getShippingCountry());
         return o;
     }
-
-    private static long toMinor(BigDecimal amount, Currency currency) {
-        int fraction = currency.getDefaultFractionDigits();
-        return amount.movePointRight(Math.max(fraction, 0)).longValueExact();
-    }
 }
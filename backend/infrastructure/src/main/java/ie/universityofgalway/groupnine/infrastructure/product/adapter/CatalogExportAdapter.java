@@ -0,0 +1,148 @@
+package ie.universityofgalway.groupnine.infrastructure.product.adapter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ie.universityofgalway.groupnine.domain.product.*;
+import ie.universityofgalway.groupnine.service.product.admin.ProductFilter;
+import ie.universityofgalway.groupnine.service.product.port.CatalogExportPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * JDBC implementation of {@link CatalogExportPort}.
+ *
+ * <p>The export is one forward-only query joining products to their variants in product id
+ * order, read {@code fetchSize} rows at a time; PostgreSQL only honours the fetch size inside a
+ * transaction, hence the read-only one around it. Consecutive rows of a product are folded into
+ * one {@link Product}, which is handed on before the next one is read, so memory does not grow
+ * with the catalog. Status is the stored one rather than the availability-derived status of the
+ * {@link ProductPersistenceAdapter} reads, matching the filter.</p>
+ */
+@Component
+public class CatalogExportAdapter implements CatalogExportPort {
+
+    static final String EXPORT = """
+            SELECT p.uuid, p.name, p.description, p.category, p.status, p.created_at, p.updated_at,
+                   v.uuid, v.sku, v.price_cents, v.currency, v.stock_quantity, v.reserved_quantity,
+                   CAST(v.attributes AS text), v.image_url
+            FROM products p
+            LEFT JOIN product_variants v ON v.product_id = p.id
+            """;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final JdbcTemplate jdbc;
+    private final int fetchSize;
+
+    public CatalogExportAdapter(JdbcTemplate jdbc, @Value("${app.catalog.export.fetch-size:500}") int fetchSize) {
+        this.jdbc = jdbc;
+        this.fetchSize = fetchSize;
+    }
+
+    /** The export query for the filter's shape; only the predicates in use are emitted. */
+    static String sql(ProductFilter filter, ProductId after) {
+        List<String> where = new ArrayList<>(3);
+        if (after != null) where.add("p.uuid > ?");
+        if (filter.getCategory() != null) where.add("LOWER(p.category) = LOWER(?)");
+        if (filter.getStatus() != null) where.add("p.status = ?");
+        return EXPORT
+                + (where.isEmpty() ? "" : "WHERE " + String.join(" AND ", where) + "\n")
+                + "ORDER BY p.uuid, v.sku\n";
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachProduct(ProductFilter filter, ProductId after, Consumer<Product> sink) {
+        String sql = sql(filter, after);
+        ProductFolder folder = new ProductFolder(sink);
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            int i = 1;
+            if (after != null) ps.setObject(i++, after.getId());
+            if (filter.getCategory() != null) ps.setString(i++, filter.getCategory());
+            if (filter.getStatus() != null) ps.setString(i, filter.getStatus().name());
+            return ps;
+        }, folder);
+        folder.finish();
+    }
+
+    /** Collects the rows of the current product and emits it once the next one starts. */
+    private static final class ProductFolder implements RowCallbackHandler {
+        private final Consumer<Product> sink;
+        private UUID id;
+        private String name, description, category;
+        private ProductStatus status;
+        private Instant createdAt, updatedAt;
+        private final List<Variant> variants = new ArrayList<>();
+
+        ProductFolder(Consumer<Product> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            UUID rowId = rs.getObject(1, UUID.class);
+            if (!rowId.equals(id)) {
+                finish();
+                id = rowId;
+                name = rs.getString(2);
+                description = rs.getString(3);
+                category = rs.getString(4);
+                status = ProductStatus.valueOf(rs.getString(5));
+                createdAt = instant(rs.getObject(6, OffsetDateTime.class));
+                updatedAt = instant(rs.getObject(7, OffsetDateTime.class));
+            }
+            UUID variantId = rs.getObject(8, UUID.class);
+            if (variantId != null) variants.add(variant(variantId, rs));
+        }
+
+        void finish() {
+            if (id == null) return;
+            Product product = new Product(new ProductId(id), name, description, category, status,
+                    variants, createdAt, updatedAt);
+            // Product keeps its own copy
+            id = null;
+            variants.clear();
+            sink.accept(product);
+        }
+    }
+
+    private static Variant variant(UUID id, ResultSet rs) throws SQLException {
+        String currency = rs.getString(11);
+        return new Variant(
+                new VariantId(id),
+                new Sku(rs.getString(9)),
+                Money.of(rs.getInt(10), 2, Currency.getInstance(currency == null ? "EUR" : currency)),
+                new Stock(rs.getInt(12), rs.getInt(13)),
+                attributes(rs.getString(14)),
+                rs.getString(15));
+    }
+
+    private static List<Attribute> attributes(String json) {
+        if (json == null) return List.of();
+        try {
+            return ProductPersistenceAdapter.jsonToAttributes(MAPPER.readTree(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable variant attributes", e);
+        }
+    }
+
+    private static Instant instant(OffsetDateTime t) {
+        return t == null ? null : t.toInstant();
+    }
+}
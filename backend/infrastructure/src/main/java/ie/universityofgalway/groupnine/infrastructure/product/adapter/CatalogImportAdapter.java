@@ -0,0 +1,181 @@
+package ie.universityofgalway.groupnine.infrastructure.product.adapter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.Variant;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchDocumentJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantAttributeIndexJpaRepository;
+import ie.universityofgalway.groupnine.service.product.port.CatalogImportPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * JDBC implementation of {@link CatalogImportPort}.
+ *
+ * <p>A batch costs a fixed number of statements however many rows it holds: products and
+ * variants are each upserted by one {@code INSERT ... SELECT FROM unnest(...)} with the columns
+ * bound as arrays, then the attribute projection and search documents of the batch's products
+ * are rebuilt with one statement per step. Rows are written in key order so that concurrent
+ * imports lock them in the same order.</p>
+ */
+@Component
+public class CatalogImportAdapter implements CatalogImportPort {
+
+    static final String SKU_OWNERS = """
+            SELECT v.sku, p.uuid
+            FROM product_variants v
+            JOIN products p ON p.id = v.product_id
+            """;
+
+    static final String UPSERT_PRODUCTS = """
+            INSERT INTO products (uuid, name, description, category, status)
+            SELECT u.uuid, u.name, u.description, u.category, u.status
+            FROM unnest(CAST(? AS uuid[]), CAST(? AS text[]), CAST(? AS text[]), CAST(? AS text[]), CAST(? AS text[]))
+                 AS u(uuid, name, description, category, status)
+            ON CONFLICT (uuid) DO UPDATE SET
+              name        = EXCLUDED.name,
+              description = EXCLUDED.description,
+              category    = EXCLUDED.category,
+              status      = EXCLUDED.status
+            RETURNING id
+            """;
+
+    // The WHERE keeps a SKU taken by another product since the import loaded its SKU set there,
+    // and keeps an existing variant whose new stock is below its reserved quantity; either is then
+    // missing from RETURNING and reported as rejected
+    static final String UPSERT_VARIANTS = """
+            INSERT INTO product_variants (uuid, product_id, sku, price_cents, currency, stock_quantity, attributes)
+            SELECT u.uuid, p.id, u.sku, u.price_cents, u.currency, u.stock_quantity, CAST(u.attributes AS jsonb)
+            FROM unnest(CAST(? AS uuid[]), CAST(? AS uuid[]), CAST(? AS text[]), CAST(? AS int[]),
+                        CAST(? AS text[]), CAST(? AS int[]), CAST(? AS text[]))
+                 AS u(uuid, product_uuid, sku, price_cents, currency, stock_quantity, attributes)
+            JOIN products p ON p.uuid = u.product_uuid
+            ON CONFLICT (sku) DO UPDATE SET
+              price_cents    = EXCLUDED.price_cents,
+              currency       = EXCLUDED.currency,
+              stock_quantity = EXCLUDED.stock_quantity,
+              attributes     = EXCLUDED.attributes
+            WHERE product_variants.product_id = EXCLUDED.product_id
+              AND EXCLUDED.stock_quantity >= coalesce(
+                    (SELECT i.reserved FROM inventory i WHERE i.variant_id = product_variants.uuid), 0)
+            RETURNING sku, uuid
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final ProductSearchDocumentJpaRepository searchDocuments;
+    private final VariantAttributeIndexJpaRepository attributeIndex;
+
+    public CatalogImportAdapter(JdbcTemplate jdbc,
+                                ProductSearchDocumentJpaRepository searchDocuments,
+                                VariantAttributeIndexJpaRepository attributeIndex) {
+        this.jdbc = jdbc;
+        this.searchDocuments = searchDocuments;
+        this.attributeIndex = attributeIndex;
+    }
+
+    @Override
+    public Map<String, UUID> skuOwners() {
+        Map<String, UUID> owners = new HashMap<>();
+        jdbc.query(SKU_OWNERS, (RowCallbackHandler) rs -> owners.put(rs.getString(1), rs.getObject(2, UUID.class)));
+        return owners;
+    }
+
+    @Override
+    @Transactional
+    public Map<String, VariantId> upsert(Collection<Product> products) {
+        if (products.isEmpty()) return Map.of();
+        List<Long> productIds = upsertProducts(products);
+        Map<String, VariantId> written = upsertVariants(products);
+        attributeIndex.reindexProducts(productIds);
+        searchDocuments.refreshForProducts(productIds);
+        return written;
+    }
+
+    private List<Long> upsertProducts(Collection<Product> products) {
+        // ON CONFLICT DO UPDATE may touch a row only once per statement
+        Map<UUID, Product> byId = new TreeMap<>();
+        for (Product p : products) byId.putIfAbsent(p.getId().getId(), p);
+        int n = byId.size();
+        UUID[] ids = new UUID[n];
+        String[] names = new String[n];
+        String[] descriptions = new String[n];
+        String[] categories = new String[n];
+        String[] statuses = new String[n];
+        int i = 0;
+        for (Product p : byId.values()) {
+            ids[i] = p.getId().getId();
+            names[i] = p.getName();
+            descriptions[i] = p.getDescription();
+            categories[i] = p.getCategory();
+            statuses[i] = p.getStatus().name();
+            i++;
+        }
+        return jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(UPSERT_PRODUCTS);
+            ps.setArray(1, con.createArrayOf("uuid", ids));
+            ps.setArray(2, con.createArrayOf("text", names));
+            ps.setArray(3, con.createArrayOf("text", descriptions));
+            ps.setArray(4, con.createArrayOf("text", categories));
+            ps.setArray(5, con.createArrayOf("text", statuses));
+            return ps;
+        }, (rs, row) -> rs.getLong(1));
+    }
+
+    private Map<String, VariantId> upsertVariants(Collection<Product> products) {
+        Map<String, UUID> ownerBySku = new TreeMap<>();
+        Map<String, Variant> bySku = new HashMap<>();
+        for (Product p : products) {
+            for (Variant v : p.getVariants()) {
+                if (bySku.putIfAbsent(v.getSku().getValue(), v) == null) {
+                    ownerBySku.put(v.getSku().getValue(), p.getId().getId());
+                }
+            }
+        }
+        if (bySku.isEmpty()) return Map.of();
+        int n = bySku.size();
+        UUID[] ids = new UUID[n];
+        UUID[] productIds = new UUID[n];
+        String[] skus = new String[n];
+        Integer[] prices = new Integer[n];
+        String[] currencies = new String[n];
+        Integer[] stock = new Integer[n];
+        String[] attributes = new String[n];
+        int i = 0;
+        for (Map.Entry<String, UUID> e : ownerBySku.entrySet()) {
+            Variant v = bySku.get(e.getKey());
+            ids[i] = v.getId().getId();
+            productIds[i] = e.getValue();
+            skus[i] = e.getKey();
+            prices[i] = ProductPersistenceAdapter.amountToCents(v.getPrice().getAmount());
+            currencies[i] = v.getPrice().getCurrency().getCurrencyCode();
+            stock[i] = v.getStock().getQuantity();
+            JsonNode json = ProductPersistenceAdapter.attributesToJson(v.getAttributes());
+            attributes[i] = json == null ? null : json.toString();
+            i++;
+        }
+        Map<String, VariantId> written = new HashMap<>();
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(UPSERT_VARIANTS);
+            ps.setArray(1, con.createArrayOf("uuid", ids));
+            ps.setArray(2, con.createArrayOf("uuid", productIds));
+            ps.setArray(3, con.createArrayOf("text", skus));
+            ps.setArray(4, con.createArrayOf("int4", prices));
+            ps.setArray(5, con.createArrayOf("text", currencies));
+            ps.setArray(6, con.createArrayOf("int4", stock));
+            ps.setArray(7, con.createArrayOf("text", attributes));
+            return ps;
+        }, (RowCallbackHandler) rs -> written.put(rs.getString(1), new VariantId(rs.getObject(2, UUID.class))));
+        return written;
+    }
+}
@@ -3,36 +3,96 @@ package ie.universityofgalway.groupnine.infrastructure.product.adapter;
 import ie.universityofgalway.groupnine.domain.product.ProductId;
 import ie.universityofgalway.groupnine.domain.product.VariantId;
 import ie.universityofgalway.groupnine.service.product.port.ImageStoragePort;
+import ie.universityofgalway.groupnine.util.logging.AppLogger;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
 import javax.imageio.ImageReader;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.ImageOutputStream;
-import javax.imageio.stream.MemoryCacheImageInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
  * Stores product images on the local filesystem under a configurable base directory.
+ *
+ * <p>Images are stored once per content, as {@code blobs/<ab>/<sha256>.<ext>}. A variant points
+ * at its image with a hard link named {@code <product>/variants/<variant>.<sha256>.<ext>}, so the
+ * name carries the hash and format (and with it the content type) and the blob's link count is
+ * the number of references to it, kept by the filesystem itself. Blobs down to their own link
+ * are removed by {@link #deleteUnreferencedImages}. Images stored before, as
+ * {@code <variant>.<ext>} with a {@code .ct} sidecar, are still served.</p>
+ *
+ * <p>Loads return the stored file, not its content, so it can be streamed to the client. Where
+ * each variant's image was found is remembered, so a load costs one {@code stat} of that file
+ * rather than a probe of every extension; saving an image removes the variant's other links and
+ * files, so a node still remembering one of them looks again.</p>
+ *
+ * <p>Renditions of an image, one per configured width (and WebP copies when a WebP writer is
+ * installed), are kept in a {@code <sha256>.renditions} directory next to its blob, named
+ * {@code <width>.<format>}, and shared by every variant showing it. They are made once by
+ * {@link #renderVariantImage} in a temporary directory renamed into place, and never change
+ * afterwards; the listing is cached, so picking a rendition costs one more {@code stat}. Until
+ * they exist, a {@code <sha256>.pending} marker says the original is served provisionally.</p>
+ *
+ * <p>Uploads are spooled to a file next to their target rather than held in memory, and only
+ * their header is read to learn their size: images that need no scaling are never decoded, and
+ * the others are decoded with source subsampling to about the size they are scaled to, so heap
+ * use depends on the output size rather than the upload's. At most
+ * {@code app.images.decode.max-concurrent} decodes run at once; the others wait in turn
+ * ({@code catalog.images.decode.waiting}, {@code catalog.images.decode.wait}).</p>
  */
 @Component
 public class LocalImageStorageAdapter implements ImageStoragePort {
 
+    private static final AppLogger LOG = AppLogger.get(LocalImageStorageAdapter.class);
+
     private final Path baseDir;
     private static final Set<String> ALLOWED_TYPES = Set.of(
             "image/png", "image/jpeg", "image/jpg", "image/webp", "image/gif", "application/octet-stream"
@@ -41,8 +101,73 @@ public class LocalImageStorageAdapter implements ImageStoragePort {
     // Max dimension for the longest side; images will be downscaled preserving aspect ratio
     private static final int MAX_DIMENSION = 1400;
 
-    public LocalImageStorageAdapter(@Value("${app.images.dir:./data/product-images}") String dir) {
+    /** Extensions served, in the order they are preferred when a variant has several. */
+    private static final List<String> EXTENSIONS = List.of("png", "jpg", "jpeg", "webp", "gif");
+
+    /** A variant's image file, its content type, and its content hash ({@code null} for images stored by variant). */
+    private record Stored(Path file, String contentType, String hash) {}
+
+    /** An upload copied to disk, with the SHA-256 of its content. */
+    private record Spooled(Path file, String hash) {}
+
+    /** Stored images by {@link #stem} of their variant. */
+    private final Map<Path, Stored> index = new ConcurrentHashMap<>();
+
+    private static final int[] DEFAULT_RENDITION_WIDTHS = {200, 400, 800, 1400};
+
+    // Renditions are derived copies, so they are compressed; originals are kept at full quality
+    private static final float RENDITION_QUALITY = 0.85f;
+
+    /** One rendition file. */
+    private record Rendition(int width, String format, Path file, long size, Instant lastModified) {}
+
+    /** The renditions of an image as listed from a directory, identified by its attributes. */
+    private record Renditions(Object dirKey, FileTime dirModified, List<Rendition> all) {
+
+        boolean listedFrom(BasicFileAttributes dir) {
+            return Objects.equals(dirKey, dir.fileKey()) && dirModified.equals(dir.lastModifiedTime());
+        }
+    }
+
+    /** Rendition listings by their directory. */
+    private final Map<Path, Renditions> renditionIndex = new ConcurrentHashMap<>();
+
+    private final int[] renditionWidths;
+
+    private static final int DEFAULT_MAX_CONCURRENT_DECODES = 2;
+
+    /** Permits to decode an image; fair, so waiting uploads and renditions go in turn. */
+    private final Semaphore decodes;
+    private final Timer decodeWait;
+
+    public LocalImageStorageAdapter(String dir) {
+        this(dir, DEFAULT_RENDITION_WIDTHS);
+    }
+
+    public LocalImageStorageAdapter(String dir, int[] renditionWidths) {
+        this(dir, renditionWidths, DEFAULT_MAX_CONCURRENT_DECODES, new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public LocalImageStorageAdapter(@Value("${app.images.dir:./data/product-images}") String dir,
+                                    @Value("${app.images.renditions.widths:200,400,800,1400}") int[] renditionWidths,
+                                    @Value("${app.images.decode.max-concurrent:2}") int maxConcurrentDecodes,
+                                    ObjectProvider<MeterRegistry> meters) {
+        this(dir, renditionWidths, maxConcurrentDecodes, meters.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    public LocalImageStorageAdapter(String dir, int[] renditionWidths, int maxConcurrentDecodes, MeterRegistry registry) {
         this.baseDir = Path.of(dir).toAbsolutePath().normalize();
+        this.renditionWidths = Arrays.stream(renditionWidths).filter(w -> w > 0).distinct().sorted().toArray();
+        if (this.renditionWidths.length == 0) {
+            throw new IllegalArgumentException("app.images.renditions.widths must list at least one positive width");
+        }
+        this.decodes = new Semaphore(Math.max(1, maxConcurrentDecodes), true);
+        this.decodeWait = Timer.builder("catalog.images.decode.wait")
+                .description("Time an image decode waited for a permit")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        Gauge.builder("catalog.images.decode.waiting", decodes, Semaphore::getQueueLength).register(registry);
     }
 
     @Override
@@ -53,52 +178,45 @@ public class LocalImageStorageAdapter implements ImageStoragePort {
             normalizedCt = "application/octet-stream";
         }
 
-        // Read all bytes so we can retry/fallback safely
-        byte[] originalBytes = data.readAllBytes();
+        // Spool to disk so we can retry/fallback without holding the upload in memory
+        Spooled spooled = spool(productId, variantId, data);
+        try {
+            saveSpooled(productId, variantId, originalFilename, contentType, normalizedCt, spooled);
+        } finally {
+            Files.deleteIfExists(spooled.file());
+        }
+    }
 
+    private void saveSpooled(ProductId productId, VariantId variantId, String originalFilename, String contentType,
+                             String normalizedCt, Spooled spooled) throws IOException {
         // Animated GIF? keep original to avoid breaking animation
-        if (isAnimatedGif(originalBytes, normalizedCt)) {
-            rawCopy(productId, variantId, originalFilename, contentType, originalBytes);
+        if (normalizedCt.contains("gif") && isAnimatedGif(spooled.file())) {
+            rawCopy(productId, variantId, originalFilename, contentType, spooled, false);
             return;
         }
 
-        // Decode image; if decoding fails, fall back to storing as-is
-        BufferedImage inputImage = ImageIO.read(new ByteArrayInputStream(originalBytes));
-        if (inputImage == null) {
-            rawCopy(productId, variantId, originalFilename, contentType, originalBytes);
+        // If no scaling is needed (or the header cannot be read), keep original bytes to avoid any quality loss
+        Dimension size = dimensions(spooled.file());
+        if (size == null || Math.max(size.width, size.height) <= MAX_DIMENSION) {
+            rawCopy(productId, variantId, originalFilename, contentType, spooled, false);
             return;
         }
 
-        // Downscale if needed (no additional compression; preserve original format when possible)
-        BufferedImage processed = scaleDownIfNeeded(inputImage, MAX_DIMENSION);
-
-        // If no scaling occurred, keep original bytes to avoid any quality loss
-        if (processed.getWidth() == inputImage.getWidth() && processed.getHeight() == inputImage.getHeight()) {
-            rawCopy(productId, variantId, originalFilename, contentType, originalBytes);
+        // Decode at no less than the target size; if decoding fails, fall back to storing as-is
+        BufferedImage inputImage = decode(spooled.file(), Math.max(size.width, size.height) / MAX_DIMENSION);
+        if (inputImage == null) {
+            rawCopy(productId, variantId, originalFilename, contentType, spooled, false);
             return;
         }
 
+        // Downscale (no additional compression; preserve original format when possible)
+        BufferedImage processed = scaleDownIfNeeded(inputImage, MAX_DIMENSION);
+
         boolean hasAlphaChannel = processed.getColorModel().hasAlpha();
         boolean alphaUsed = hasAlphaChannel && isAlphaUsed(processed);
 
         // Preserve original extension/content-type where possible
-        String ext = extFrom(originalFilename, contentType);
-        String targetFormat;
-        String targetContentType;
-        switch (ext) {
-            case "png" -> { targetFormat = "png"; targetContentType = "image/png"; }
-            case "jpg", "jpeg" -> { targetFormat = "jpg"; targetContentType = "image/jpeg"; }
-            case "webp" -> {
-                if (hasWriter("webp")) { targetFormat = "webp"; targetContentType = "image/webp"; }
-                else if (alphaUsed) { targetFormat = "png"; targetContentType = "image/png"; }
-                else { targetFormat = "jpg"; targetContentType = "image/jpeg"; }
-            }
-            case "gif" -> { targetFormat = "gif"; targetContentType = "image/gif"; }
-            default -> {
-                if (alphaUsed) { targetFormat = "png"; targetContentType = "image/png"; }
-                else { targetFormat = "jpg"; targetContentType = "image/jpeg"; }
-            }
-        }
+        String targetFormat = targetFormat(extFrom(originalFilename, contentType), alphaUsed);
 
         // If writing JPEG but image has alpha, flatten onto white background
         if ("jpg".equals(targetFormat) && hasAlphaChannel) {
@@ -116,33 +234,380 @@ public class LocalImageStorageAdapter implements ImageStoragePort {
             bytes = baos.toByteArray();
         }
 
-        Path dir = baseDir.resolve(productId.getId().toString()).resolve("variants");
-        Files.createDirectories(dir);
-        Path target = dir.resolve(variantId.getId().toString() + "." + targetFormat);
-        Path tmp = dir.resolve(variantId.getId().toString() + ".tmp");
+        Path encoded = spooled.file().resolveSibling(variantId.getId() + ".upload-" + UUID.randomUUID());
+        try {
+            Files.write(encoded, bytes);
+            store(productId, variantId, new Spooled(encoded, sha256(bytes)), targetFormat, false);
+        } finally {
+            Files.deleteIfExists(encoded);
+        }
+    }
+
+    /**
+     * Stores the upload byte for byte; until {@link #renderVariantImage} has run for its content,
+     * loads return this original, marked {@linkplain ImageData#isProvisional() provisional}.
+     */
+    @Override
+    public void saveOriginalVariantImage(ProductId productId, VariantId variantId, String originalFilename,
+                                         String contentType, InputStream data) throws IOException {
+        Spooled spooled = spool(productId, variantId, data);
+        try {
+            rawCopy(productId, variantId, originalFilename, contentType, spooled, true);
+        } finally {
+            Files.deleteIfExists(spooled.file());
+        }
+    }
+
+    /**
+     * Renders the stored image at each configured width below its own, and at its own width
+     * capped to the widest configured one, widest first, each from the previous one. Animated
+     * GIFs and images that cannot be decoded get no renditions. Does nothing when the image has
+     * been rendered already, for this variant or another one showing it, and for images stored
+     * by variant.
+     */
+    @Override
+    public void renderVariantImage(ProductId productId, VariantId variantId) throws IOException {
+        Optional<ImageData> original = loadOriginal(productId, variantId);
+        if (original.isEmpty() || original.get().getFile().isEmpty() || original.get().getContentHash().isEmpty()) return;
+        Path file = original.get().getFile().get();
+        String hash = original.get().getContentHash().get();
+        Path dir = renditionDir(hash);
+        if (Files.isDirectory(dir)) return;
+        Path pending = pendingMarker(hash);
+        Dimension size = file.getFileName().toString().endsWith(".gif") && isAnimatedGif(file) ? null : dimensions(file);
+        int widest = renditionWidths[renditionWidths.length - 1];
+        BufferedImage image = size == null ? null : decode(file, size.width / Math.min(size.width, widest));
+        if (image == null) {
+            // Nothing to render; the original is final
+            Files.deleteIfExists(pending);
+            return;
+        }
+
+        String format = targetFormat(extOf(file), isAlphaUsed(image));
+        if ("jpg".equals(format) && image.getColorModel().hasAlpha()) {
+            image = toOpaque(image, Color.WHITE);
+        }
+        boolean webp = !"webp".equals(format) && hasWriter("webp");
+
+        Path tmp = dir.resolveSibling(dir.getFileName() + ".tmp-" + UUID.randomUUID());
+        Files.createDirectories(tmp);
+        try {
+            BufferedImage scaled = image;
+            for (int width : widthsFor(size.width, widest)) {
+                scaled = scaleToWidth(scaled, width);
+                writeRendition(scaled, format, tmp.resolve(width + "." + format));
+                if (webp) writeRendition(scaled, "webp", tmp.resolve(width + ".webp"));
+            }
+            try {
+                Files.move(tmp, dir, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+                // Rendered meanwhile for another variant showing the same image
+            }
+            Files.deleteIfExists(pending);
+        } finally {
+            deleteTree(tmp);
+        }
+    }
+
+    /**
+     * Deletes blobs with no link but their own, with their renditions and markers, and leftovers
+     * of interrupted renders, once older than {@code minAge}. Each link count is read again right
+     * before deleting, and a save linking to a blob deleted under it stores the blob again.
+     * Needs a filesystem with hard links and the {@code unix} attribute view; elsewhere each
+     * variant keeps a copy of its image and nothing is collected.
+     */
+    @Override
+    public int deleteUnreferencedImages(Duration minAge) throws IOException {
+        Path blobs = baseDir.resolve("blobs");
+        if (!Files.isDirectory(blobs)) return 0;
+        Instant cutoff = Instant.now().minus(minAge);
+        int deleted = 0;
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(blobs)) {
+            for (Path shard : shards) {
+                if (!Files.isDirectory(shard)) continue;
+                List<Path> entries = new ArrayList<>();
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(shard)) {
+                    files.forEach(entries::add);
+                }
+                Set<String> blobHashes = new HashSet<>();
+                for (Path f : entries) {
+                    String name = f.getFileName().toString();
+                    int dot = name.indexOf('.');
+                    String hash = dot < 0 ? name : name.substring(0, dot);
+                    if (!EXTENSIONS.contains(name.substring(dot + 1))) continue;
+                    if (!unreferenced(f, cutoff)) {
+                        blobHashes.add(hash);
+                        continue;
+                    }
+                    Files.deleteIfExists(f);
+                    deleted++;
+                }
+                // Renditions, markers and temporaries left without a blob
+                for (Path f : entries) {
+                    String name = f.getFileName().toString();
+                    int dot = name.indexOf('.');
+                    if (dot < 0 || EXTENSIONS.contains(name.substring(dot + 1))) continue;
+                    if (blobHashes.contains(name.substring(0, dot)) && !name.contains(".tmp-")) continue;
+                    if (Files.getLastModifiedTime(f).toInstant().isAfter(cutoff)) continue;
+                    deleteTree(f);
+                    renditionIndex.remove(f);
+                }
+            }
+        } catch (UnsupportedOperationException e) {
+            LOG.warn("image_gc_unsupported", "dir", baseDir, "error", e.getMessage());
+        }
+        if (deleted > 0) LOG.info("image_gc_done", "deleted", deleted);
+        return deleted;
+    }
 
-        Files.write(tmp, bytes);
-        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
-        Files.writeString(dir.resolve(variantId.getId().toString() + ".ct"), targetContentType);
+    /** Whether a blob has no link but its own and was stored before {@code cutoff}. */
+    private static boolean unreferenced(Path blob, Instant cutoff) throws IOException {
+        try {
+            Map<String, Object> attrs = Files.readAttributes(blob, "unix:nlink,lastModifiedTime");
+            return ((Number) attrs.get("nlink")).intValue() <= 1
+                    && ((FileTime) attrs.get("lastModifiedTime")).toInstant().isBefore(cutoff);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
     }
 
+    /** The widest rendition, or the original while there are none. */
     @Override
     public Optional<ImageData> loadVariantImage(ProductId productId, VariantId variantId) throws IOException {
-        Path dir = baseDir.resolve(productId.getId().toString()).resolve("variants");
-        if (!Files.exists(dir)) return Optional.empty();
-
-        // Try known extensions
-        for (String ext : new String[]{"png", "jpg", "jpeg", "webp", "gif"}) {
-            Path p = dir.resolve(variantId.getId().toString() + "." + ext);
-            if (Files.exists(p) && Files.isRegularFile(p)) {
-                byte[] bytes = Files.readAllBytes(p);
-                String ct = readContentType(dir, variantId).orElseGet(() -> probeContentType(p));
-                return Optional.of(new ImageData(bytes, ct));
+        return loadVariantImage(productId, variantId, 0, List.of());
+    }
+
+    /**
+     * Picks among the renditions of one format: WebP when the client accepts it and there are
+     * WebP renditions, otherwise the others. Falls back to the original when there are none.
+     */
+    @Override
+    public Optional<ImageData> loadVariantImage(ProductId productId, VariantId variantId, int width,
+                                                List<String> acceptedTypes) throws IOException {
+        Optional<ImageData> original = loadOriginal(productId, variantId);
+        Optional<String> hash = original.flatMap(ImageData::getContentHash);
+        if (hash.isEmpty()) return original;
+        List<Rendition> all = renditions(renditionDir(hash.get()));
+        if (all.isEmpty()) {
+            if (!Files.exists(pendingMarker(hash.get()))) return original;
+            ImageData o = original.get();
+            return Optional.of(new ImageData(o.getFile().orElseThrow(), o.getSize(), o.getLastModified(),
+                    o.getContentType(), hash.get(), true));
+        }
+        boolean webp = acceptedTypes.contains("image/webp") && all.stream().anyMatch(r -> "webp".equals(r.format()));
+        List<Rendition> candidates = all.stream().filter(r -> "webp".equals(r.format()) == webp).toList();
+        if (candidates.isEmpty()) candidates = all;
+        Rendition best = pick(candidates, width);
+        return Optional.of(new ImageData(best.file(), best.size(), best.lastModified(), contentTypeOf(best.format()),
+                hash.get(), false));
+    }
+
+    /** The narrowest rendition at least {@code width} wide, or the widest one. */
+    private static Rendition pick(List<Rendition> candidates, int width) {
+        Rendition widest = candidates.stream().max(Comparator.comparingInt(Rendition::width)).orElseThrow();
+        if (width <= 0) return widest;
+        return candidates.stream()
+                .filter(r -> r.width() >= width)
+                .min(Comparator.comparingInt(Rendition::width))
+                .orElse(widest);
+    }
+
+    private Optional<ImageData> loadOriginal(ProductId productId, VariantId variantId) throws IOException {
+        Path stem = stem(productId, variantId);
+        Stored known = index.get(stem);
+        if (known != null) {
+            Optional<ImageData> image = open(known);
+            if (image.isPresent()) return image;
+            index.remove(stem, known);
+        }
+        Optional<Stored> found = probe(stem, variantId);
+        if (found.isEmpty()) return Optional.empty();
+        index.put(stem, found.get());
+        return open(found.get());
+    }
+
+    /** The image as it is now; empty when the file has gone. */
+    private static Optional<ImageData> open(Stored stored) throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(stored.file(), BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+        if (!attrs.isRegularFile()) return Optional.empty();
+        return Optional.of(new ImageData(stored.file(), attrs.size(), attrs.lastModifiedTime().toInstant(),
+                stored.contentType(), stored.hash(), false));
+    }
+
+    /** Finds the variant's image with one listing of its directory, preferring its link to a blob. */
+    private Optional<Stored> probe(Path stem, VariantId variantId) throws IOException {
+        Set<String> names = new HashSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(stem.getParent(), stem.getFileName() + ".*")) {
+            for (Path f : files) names.add(f.getFileName().toString());
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+        String prefix = stem.getFileName() + ".";
+        for (String name : names.stream().sorted().toList()) {
+            String[] parts = name.substring(prefix.length()).split("\\.");
+            if (parts.length == 2 && isHash(parts[0]) && EXTENSIONS.contains(parts[1])) {
+                return Optional.of(new Stored(stem.resolveSibling(name), contentTypeOf(parts[1]), parts[0]));
+            }
+        }
+        for (String ext : EXTENSIONS) {
+            Path p = stem.resolveSibling(stem.getFileName() + "." + ext);
+            if (names.contains(p.getFileName().toString()) && Files.isRegularFile(p)) {
+                String ct = readContentType(p.getParent(), variantId).orElseGet(() -> probeContentType(p));
+                return Optional.of(new Stored(p, ct, null));
             }
         }
         return Optional.empty();
     }
 
+    /**
+     * Stores a spooled image as the blob of its content, unless it is stored already, and links
+     * the variant to it.
+     *
+     * @param pending whether renditions of it are on their way
+     */
+    private void store(ProductId productId, VariantId variantId, Spooled spooled, String ext, boolean pending)
+            throws IOException {
+        Path blob = blob(spooled.hash(), ext);
+        Path stem = stem(productId, variantId);
+        Path pointer = stem.resolveSibling(stem.getFileName() + "." + spooled.hash() + "." + ext);
+        Files.createDirectories(blob.getParent());
+        if (pending && !Files.isDirectory(renditionDir(spooled.hash()))) {
+            Files.writeString(pendingMarker(spooled.hash()), "");
+        }
+        link(blob, spooled.file());
+        try {
+            link(pointer, blob);
+        } catch (NoSuchFileException e) {
+            // Collected between the two links
+            link(blob, spooled.file());
+            link(pointer, blob);
+        }
+        remember(productId, variantId, pointer, contentTypeOf(ext), spooled.hash());
+    }
+
+    /**
+     * Hard-links {@code link} to {@code target} unless it exists, which for these names means it
+     * has the same content. Copies where the filesystem has no hard links.
+     */
+    private static void link(Path link, Path target) throws IOException {
+        try {
+            Files.createLink(link, target);
+        } catch (FileAlreadyExistsException e) {
+            // Same name, same content
+        } catch (UnsupportedOperationException e) {
+            try {
+                Files.copy(target, link);
+            } catch (FileAlreadyExistsException ignored) {}
+        }
+    }
+
+    /** Records a newly saved image and removes the variant's other links, images and leftovers. */
+    private void remember(ProductId productId, VariantId variantId, Path target, String contentType, String hash)
+            throws IOException {
+        Path stem = stem(productId, variantId);
+        String prefix = stem.getFileName() + ".";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(stem.getParent(), prefix + "*")) {
+            for (Path f : files) {
+                if (f.equals(target) || f.getFileName().toString().startsWith(prefix + "upload-")) continue;
+                deleteTree(f);
+            }
+        }
+        index.put(stem, new Stored(target, contentType, hash));
+    }
+
+    /** The renditions in {@code dir}, listed again only when it has been replaced. */
+    private List<Rendition> renditions(Path dir) throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(dir, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            renditionIndex.remove(dir);
+            return List.of();
+        }
+        Renditions known = renditionIndex.get(dir);
+        if (known != null && known.listedFrom(attrs)) return known.all();
+        List<Rendition> all = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path f : files) {
+                String name = f.getFileName().toString();
+                int dot = name.indexOf('.');
+                if (dot <= 0 || !EXTENSIONS.contains(name.substring(dot + 1))) continue;
+                final int width;
+                try {
+                    width = Integer.parseInt(name.substring(0, dot));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                BasicFileAttributes fa = Files.readAttributes(f, BasicFileAttributes.class);
+                all.add(new Rendition(width, name.substring(dot + 1), f, fa.size(), fa.lastModifiedTime().toInstant()));
+            }
+        } catch (NoSuchFileException e) {
+            // Replaced while listing; the original is served until the next look
+            return List.of();
+        }
+        renditionIndex.put(dir, new Renditions(attrs.fileKey(), attrs.lastModifiedTime(), List.copyOf(all)));
+        return all;
+    }
+
+    /** Rendition widths for an image {@code width} pixels wide, widest first. */
+    private int[] widthsFor(int width, int widest) {
+        int top = Math.min(width, widest);
+        return Stream.concat(Arrays.stream(renditionWidths).filter(w -> w < top).boxed(), Stream.of(top))
+                .sorted(Comparator.reverseOrder())
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private void writeRendition(BufferedImage img, String format, Path target) throws IOException {
+        if ("jpg".equals(format) || "webp".equals(format)) {
+            Files.write(target, writeCompressed(img, format, RENDITION_QUALITY));
+        } else {
+            ImageIO.write(img, format, target.toFile());
+        }
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            Files.deleteIfExists(dir);
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(p);
+        } catch (NoSuchFileException ignored) {
+            // Deleted meanwhile
+        }
+    }
+
+    private Path blob(String hash, String ext) {
+        return baseDir.resolve("blobs").resolve(hash.substring(0, 2)).resolve(hash + "." + ext);
+    }
+
+    private Path renditionDir(String hash) {
+        return baseDir.resolve("blobs").resolve(hash.substring(0, 2)).resolve(hash + ".renditions");
+    }
+
+    private Path pendingMarker(String hash) {
+        return baseDir.resolve("blobs").resolve(hash.substring(0, 2)).resolve(hash + ".pending");
+    }
+
+    private static boolean isHash(String s) {
+        if (s.length() != 64) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.digit(s.charAt(i), 16) < 0 || Character.isUpperCase(s.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /** The path of a variant's image without its extension. */
+    private Path stem(ProductId productId, VariantId variantId) {
+        return baseDir.resolve(productId.getId().toString()).resolve("variants").resolve(variantId.getId().toString());
+    }
+
     private Optional<String> readContentType(Path dir, VariantId variantId) {
         try {
             Path ct = dir.resolve(variantId.getId().toString() + ".ct");
@@ -166,6 +631,32 @@ public class LocalImageStorageAdapter implements ImageStoragePort {
         return "application/octet-stream";
     }
 
+    /** The format an image is stored in, given the extension it came with. */
+    private String targetFormat(String ext, boolean alphaUsed) {
+        return switch (ext) {
+            case "png" -> "png";
+            case "jpg", "jpeg" -> "jpg";
+            case "webp" -> hasWriter("webp") ? "webp" : alphaUsed ? "png" : "jpg";
+            case "gif" -> "gif";
+            default -> alphaUsed ? "png" : "jpg";
+        };
+    }
+
+    private static String contentTypeOf(String format) {
+        return switch (format) {
+            case "png" -> "image/png";
+            case "jpg", "jpeg" -> "image/jpeg";
+            case "webp" -> "image/webp";
+            case "gif" -> "image/gif";
+            default -> "application/octet-stream";
+        };
+    }
+
+    private static String extOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
     private String extFrom(String originalFilename, String contentType) {
         if (originalFilename != null) {
             String name = originalFilename.toLowerCase(Locale.ROOT);
@@ -185,17 +676,82 @@ public class LocalImageStorageAdapter implements ImageStoragePort {
         };
     }
 
-    private void rawCopy(ProductId productId, VariantId variantId, String originalFilename, String contentType, byte[] data) throws IOException {
+    /** Stores a spooled upload as it is; uploads without a known image extension are not kept. */
+    private void rawCopy(ProductId productId, VariantId variantId, String originalFilename, String contentType,
+                         Spooled spooled, boolean pending) throws IOException {
         String ext = extFrom(originalFilename, contentType);
-        if ("bin".equals(ext)) ext = "img";
+        if (EXTENSIONS.contains(ext)) store(productId, variantId, spooled, ext, pending);
+    }
+
+    /** Copies an upload to a file of its own in the variant's directory, hashing it on the way. */
+    private Spooled spool(ProductId productId, VariantId variantId, InputStream data) throws IOException {
         Path dir = baseDir.resolve(productId.getId().toString()).resolve("variants");
         Files.createDirectories(dir);
-        Path target = dir.resolve(variantId.getId().toString() + "." + ext);
-        Path tmp = dir.resolve(variantId.getId().toString() + ".tmp");
-        Files.write(tmp, data);
-        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
-        String ct = contentType != null ? contentType : probeContentType(target);
-        Files.writeString(dir.resolve(variantId.getId().toString() + ".ct"), ct);
+        Path spooled = dir.resolve(variantId.getId().toString() + ".upload-" + UUID.randomUUID());
+        MessageDigest sha = sha256();
+        Files.copy(new DigestInputStream(data, sha), spooled);
+        return new Spooled(spooled, HexFormat.of().formatHex(sha.digest()));
+    }
+
+    private static String sha256(byte[] bytes) {
+        return HexFormat.of().formatHex(sha256().digest(bytes));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /** The image's size as its header states it; {@code null} when no reader understands it. */
+    private static Dimension dimensions(Path file) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader r = readers.next();
+            try {
+                r.setInput(in, true, true);
+                return new Dimension(r.getWidth(0), r.getHeight(0));
+            } finally {
+                r.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Decodes every {@code step}th pixel of every {@code step}th row, waiting for a decode permit
+     * first; {@code null} when no reader understands the file.
+     */
+    private BufferedImage decode(Path file, int step) throws IOException {
+        long waitStart = System.nanoTime();
+        try {
+            decodes.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting to decode " + file.getFileName());
+        }
+        decodeWait.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader r = readers.next();
+            try {
+                r.setInput(in, true, true);
+                ImageReadParam param = r.getDefaultReadParam();
+                if (step > 1) param.setSourceSubsampling(step, step, 0, 0);
+                return r.read(0, param);
+            } finally {
+                r.dispose();
+            }
+        } finally {
+            decodes.release();
+        }
     }
 
     private boolean hasWriter(String format) {
@@ -263,6 +819,23 @@ public class LocalImageStorageAdapter implements ImageStoragePort {
         return dst;
     }
 
+    private BufferedImage scaleToWidth(BufferedImage src, int width) {
+        if (src.getWidth() == width) return src;
+        int height = Math.max(1, (int) Math.round((double) src.getHeight() * width / src.getWidth()));
+        int type = src.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage dst = new BufferedImage(width, height, type);
+        Graphics2D g = dst.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.drawImage(src, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return dst;
+    }
+
     private boolean isAlphaUsed(BufferedImage img) {
         if (!img.getColorModel().hasAlpha()) return false;
         java.awt.image.Raster alpha = img.getAlphaRaster();
@@ -282,23 +855,23 @@ public class LocalImageStorageAdapter implements ImageStoragePort {
         return px[0] != 255;
     }
 
-    private boolean isAnimatedGif(byte[] data, String contentType) {
-        try {
-            String ct = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
-            if (!ct.contains("gif")) return false;
-            try (MemoryCacheImageInputStream mcis = new MemoryCacheImageInputStream(new ByteArrayInputStream(data))) {
-                Iterator<ImageReader> it = ImageIO.getImageReadersByFormatName("gif");
-                if (it == null || !it.hasNext()) return false;
-                ImageReader r = it.next();
-                try {
-                    r.setInput(mcis, false, false);
-                    int frames = r.getNumImages(true);
-                    return frames > 1;
-                } finally {
-                    r.dispose();
-                }
-            }
+    private boolean isAnimatedGif(Path file) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            return in != null && hasSeveralFrames(in);
         } catch (Exception ignored) {}
         return false;
     }
+
+    private boolean hasSeveralFrames(ImageInputStream in) throws IOException {
+        Iterator<ImageReader> it = ImageIO.getImageReadersByFormatName("gif");
+        if (it == null || !it.hasNext()) return false;
+        ImageReader r = it.next();
+        try {
+            r.setInput(in, false, false);
+            int frames = r.getNumImages(true);
+            return frames > 1;
+        } finally {
+            r.dispose();
+        }
+    }
 }
@@ -0,0 +1,114 @@
+package ie.universityofgalway.groupnine.infrastructure.product.adapter;
+
+import ie.universityofgalway.groupnine.domain.product.SortRule;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque keyset cursors handed out by {@link ProductPersistenceAdapter}
+ * and the embedded search index, so either can resume a slice started by the other.
+ *
+ * <p>A cursor captures the sort rule it was issued for, the internal id of the last product
+ * returned (the tiebreaker) and that product's sort key: its min or max variant price for
+ * price sorts, its creation time for {@code NEWEST_FIRST}, its sales rank for
+ * {@code BEST_SELLING}, or its full-text rank and trigram similarity for keyword
+ * {@code RELEVANCE}, so a walk resumes after the position it reached even if that product's
+ * rank has moved since. The payload is URL-safe Base64 so clients can pass it back verbatim as
+ * a query parameter.</p>
+ */
+public final class ProductCursorCodec {
+
+    private static final String VERSION = "v2";
+
+    private ProductCursorCodec() {}
+
+    /** Position of the last row of a slice; only the sort key relevant to {@code sort} is set. */
+    public record Position(SortRule sort, long productId, Integer priceCents, Instant createdAt, Double salesRank,
+                           Double relevance, Double similarity) {}
+
+    /**
+     * Builds the cursor resuming after the given last row under the given sort rule.
+     *
+     * @param productId     internal id of the last row (tiebreaker)
+     * @param createdAt     creation time of the last row
+     * @param minPriceCents lowest variant price of the last row
+     * @param maxPriceCents highest variant price of the last row
+     * @param salesRank     sales rank of the last row's search document; only read for {@code BEST_SELLING}
+     * @param relevance     full-text rank of the last row; only read for {@code RELEVANCE}, {@code null} without a keyword
+     * @param similarity    trigram similarity of the last row; only read for {@code RELEVANCE}, {@code null} without a keyword
+     */
+    public static String encode(SortRule sort, long productId, Instant createdAt, int minPriceCents, int maxPriceCents,
+                                Double salesRank, Double relevance, Double similarity) {
+        Integer price = switch (sort) {
+            case PRICE_LOW_TO_HIGH -> minPriceCents;
+            case PRICE_HIGH_TO_LOW -> maxPriceCents;
+            default -> null;
+        };
+        Instant created = sort == SortRule.NEWEST_FIRST ? createdAt : null;
+        Double sales = sort == SortRule.BEST_SELLING ? salesRank : null;
+        Double rank = sort == SortRule.RELEVANCE ? relevance : null;
+        Double similar = sort == SortRule.RELEVANCE ? similarity : null;
+        String raw = String.join("|",
+                VERSION,
+                sort.name(),
+                String.valueOf(productId),
+                price == null ? "" : price.toString(),
+                created == null ? "" : created.getEpochSecond() + "." + created.getNano(),
+                sales == null ? "" : sales.toString(),
+                rank == null ? "" : rank.toString(),
+                similar == null ? "" : similar.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a cursor previously produced by {@link #encode}.
+     *
+     * @param cursor   opaque token; {@code null} or blank means "start from the beginning"
+     * @param expected sort rule of the current request; cursors from another sort are rejected
+     * @return the decoded position, or {@code null} for the first slice
+     * @throws IllegalArgumentException when the token is malformed or issued for another sort
+     */
+    public static Position decode(String cursor, SortRule expected) {
+        if (cursor == null || cursor.isBlank()) return null;
+        Position position = parse(cursor.trim());
+        boolean priceSort = position.sort() == SortRule.PRICE_LOW_TO_HIGH || position.sort() == SortRule.PRICE_HIGH_TO_LOW;
+        if ((priceSort && position.priceCents() == null)
+                || (position.sort() == SortRule.NEWEST_FIRST && position.createdAt() == null)
+                || (position.sort() == SortRule.BEST_SELLING && position.salesRank() == null)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (position.sort() != expected) {
+            throw new IllegalArgumentException("Cursor does not match sort rule " + expected);
+        }
+        return position;
+    }
+
+    private static Position parse(String cursor) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        if (parts.length != 8 || !VERSION.equals(parts[0])) throw new IllegalArgumentException("Invalid cursor");
+        try {
+            SortRule sort = SortRule.valueOf(parts[1]);
+            long id = Long.parseLong(parts[2]);
+            Integer price = parts[3].isEmpty() ? null : Integer.valueOf(parts[3]);
+            Instant created = null;
+            if (!parts[4].isEmpty()) {
+                int dot = parts[4].indexOf('.');
+                created = Instant.ofEpochSecond(Long.parseLong(parts[4].substring(0, dot)),
+                        Long.parseLong(parts[4].substring(dot + 1)));
+            }
+            Double sales = parts[5].isEmpty() ? null : Double.valueOf(parts[5]);
+            Double rank = parts[6].isEmpty() ? null : Double.valueOf(parts[6]);
+            Double similar = parts[7].isEmpty() ? null : Double.valueOf(parts[7]);
+            return new Position(sort, id, price, created, sales, rank, similar);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
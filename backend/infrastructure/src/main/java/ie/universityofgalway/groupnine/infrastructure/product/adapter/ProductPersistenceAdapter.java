@@ -5,10 +5,15 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import ie.universityofgalway.groupnine.domain.product.*;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.FacetRowView;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductEntity;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchDocumentJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSummaryView;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantAttributeIndexJpaRepository;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantEntity;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantView;
 import ie.universityofgalway.groupnine.service.product.port.ProductPort;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -18,10 +23,17 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -35,43 +47,70 @@ public class ProductPersistenceAdapter implements ProductPort {
 
     private final ProductJpaRepository repository;
     private final VariantJpaRepository variantRepository;
+    private final ProductSearchDocumentJpaRepository searchDocuments;
+    private final VariantAttributeIndexJpaRepository attributeIndex;
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
-    private static final double FUZZY_MATCH_SIMILARITY_THRESHOLD = 0.14;
+
+    /** {@code pg_trgm} similarity above which a name or text counts as a fuzzy keyword match. */
+    public static final double FUZZY_MATCH_SIMILARITY_THRESHOLD = 0.14;
+
+    /** Ids per statement in {@link #scanChanged}. */
+    private static final int SCAN_CHUNK = 500;
+
+    /** A product with its internal (numeric) id, as returned by {@link #scanAfter} and {@link #scanChanged}. */
+    public record CatalogEntry(long id, Product product) {}
 
     /**
-     * Constructs the adapter with a product repository.
+     * Constructs the adapter with its repositories.
      *
-     * @param repository The JPA repository for product data access.
+     * @param repository        The JPA repository for product data access.
+     * @param variantRepository The JPA repository for variant data access.
+     * @param searchDocuments   The repository maintaining the search read model.
+     * @param attributeIndex    The repository maintaining the variant attribute projection.
      */
     @Autowired
-    public ProductPersistenceAdapter(ProductJpaRepository repository, VariantJpaRepository variantRepository) {
+    public ProductPersistenceAdapter(ProductJpaRepository repository,
+                                     VariantJpaRepository variantRepository,
+                                     ProductSearchDocumentJpaRepository searchDocuments,
+                                     VariantAttributeIndexJpaRepository attributeIndex) {
         this.repository = repository;
         this.variantRepository = variantRepository;
-    }
-
-    // Convenience constructor for tests that only need read/search behavior
-    public ProductPersistenceAdapter(ProductJpaRepository repository) {
-        this(repository, null);
+        this.searchDocuments = searchDocuments;
+        this.attributeIndex = attributeIndex;
     }
 
     @Override
     public Page<Product> findAvailable(Pageable pageable) {
-        return repository.findByAvailableTrue(pageable).map(this::toDomain);
+        return withVariants(repository.findByAvailableTrue(pageable));
     }
 
     @Override
     public Page<Product> findAvailableByCategory(String category, Pageable pageable) {
-        return repository.findByCategoryIgnoreCaseAndAvailableTrue(category, pageable).map(this::toDomain);
+        return withVariants(repository.findByCategoryIgnoreCaseAndAvailableTrue(category, pageable));
+    }
+
+    /** Listings skip the description and attribute columns; see {@link ProductProjection#LISTING}. */
+    @Override
+    public Page<Product> findAvailable(Pageable pageable, ProductProjection projection) {
+        if (projection == ProductProjection.FULL) return findAvailable(pageable);
+        return withVariants(repository.findListingsAvailable(pageable), projection);
+    }
+
+    @Override
+    public Page<Product> findAvailableByCategory(String category, Pageable pageable, ProductProjection projection) {
+        if (projection == ProductProjection.FULL) return findAvailableByCategory(category, pageable);
+        return withVariants(repository.findListingsAvailableByCategory(category, pageable), projection);
     }
 
     /**
-     * Executes a product search using nullable price bounds derived from the incoming query.
+     * Executes a product search against the {@code product_search_document} read model using
+     * nullable price bounds derived from the incoming query.
      * Normalization:
      *  Treats 0 as an unset minimum (converted to null) for this query pathway.
      *  Treats Integer.MAX_VALUE as an unset maximum (converted to null) for this query pathway.
      * Delegation:
-     *  Passes normalized values to the repository method, which applies null-safe guards in JPQL.
+     *  Passes normalized values to the repository method, which leaves unset (null) filters out of the SQL.
      *  Builds a compact JSON object string for attributeFilters, shaped as: {"color":["Red","blue"],"size":["M","L"]}
      * Parameters:
      * @param searchQuery aggregate of user-provided filters (category, key, price bounds)
@@ -80,30 +119,234 @@ public class ProductPersistenceAdapter implements ProductPort {
      */
     @Override
     public Page<Product> search(SearchQuery searchQuery, Pageable pageable) {
-        Integer minPriceCents = (searchQuery.minPriceCents() == 0) ? null : searchQuery.minPriceCents();
-        Integer maxPriceCents = (searchQuery.maxPriceCents() == Integer.MAX_VALUE) ? null : searchQuery.maxPriceCents();
-        String sort = String.valueOf(searchQuery.sortRule());
-
-        // Build JSON for attribute filters only when provided; otherwise pass null to skip JSONB predicate.
-        String attrJson = null;
-        if (searchQuery.attributeFilters() != null && !searchQuery.attributeFilters().isEmpty()) {
-            var map = searchQuery.attributeFilters().stream()
-                    .collect(Collectors.toMap(AttributeFilter::name, AttributeFilter::values));
-            try {
-                attrJson = MAPPER.writeValueAsString(map);
-            } catch (Exception e) {
-                throw new IllegalArgumentException("Invalid attribute filters", e);
-            }
-        }
-        return repository.search(
+        return withVariants(repository.search(
+                searchQuery.category(),
+                searchQuery.key(),
+                minPriceOrNull(searchQuery),
+                maxPriceOrNull(searchQuery),
+                String.valueOf(searchQuery.sortRule()),
+                FUZZY_MATCH_SIMILARITY_THRESHOLD, // similarity cutoff for fuzzy name/description match (pg_trgm)
+                attributeFiltersJson(searchQuery), // JSONB attribute filter blob; null disables attribute filtering
+                pageable));
+    }
+
+    /**
+     * Keyset counterpart of {@link #search}: applies the same parameter shaping, resumes after the
+     * decoded cursor position and fetches one extra row to learn whether another slice exists.
+     * The count query only runs when {@code includeTotal} is set.
+     */
+    @Override
+    public CursorPage<Product> searchAfter(SearchQuery searchQuery, String cursor, int size, boolean includeTotal) {
+        SortRule sort = searchQuery.sortRule();
+        ProductCursorCodec.Position after = ProductCursorCodec.decode(cursor, sort);
+        Integer minPriceCents = minPriceOrNull(searchQuery);
+        Integer maxPriceCents = maxPriceOrNull(searchQuery);
+        String attrJson = attributeFiltersJson(searchQuery);
+        List<ProductSummaryView> rows = repository.searchAfter(
                 searchQuery.category(),
                 searchQuery.key(),
                 minPriceCents,
                 maxPriceCents,
-                sort,
-                FUZZY_MATCH_SIMILARITY_THRESHOLD, // similarity cutoff for fuzzy name/description match (pg_trgm)
-                attrJson, // JSONB attribute filter blob; null disables attribute filtering
-                pageable).map(this::toDomain);
+                String.valueOf(sort),
+                FUZZY_MATCH_SIMILARITY_THRESHOLD,
+                attrJson,
+                after == null ? null : after.productId(),
+                after == null ? null : after.priceCents(),
+                after == null ? null : after.createdAt(),
+                after == null ? null : after.salesRank(),
+                after == null ? null : after.relevance(),
+                after == null ? null : after.similarity(),
+                size + 1);
+        Long total = includeTotal
+                ? repository.countSearch(searchQuery.category(), searchQuery.key(), minPriceCents, maxPriceCents,
+                        String.valueOf(sort), FUZZY_MATCH_SIMILARITY_THRESHOLD, attrJson)
+                : null;
+        return toCursorPage(rows, size, sort, total);
+    }
+
+    /**
+     * Computes facets with the same parameter shaping as {@link #search}; the repository returns
+     * all three facet kinds from one statement, which are split apart here preserving their order.
+     */
+    @Override
+    public SearchFacets facets(SearchQuery searchQuery, FacetLimits limits) {
+        List<FacetRowView> rows = repository.searchFacets(
+                searchQuery.category(),
+                searchQuery.key(),
+                minPriceOrNull(searchQuery),
+                maxPriceOrNull(searchQuery),
+                String.valueOf(searchQuery.sortRule()),
+                FUZZY_MATCH_SIMILARITY_THRESHOLD,
+                attributeFiltersJson(searchQuery),
+                limits.maxCategories(),
+                limits.maxAttributes(),
+                limits.maxValuesPerAttribute(),
+                limits.priceBuckets());
+        List<SearchFacets.ValueCount> categories = new ArrayList<>();
+        Map<String, List<SearchFacets.ValueCount>> attributes = new LinkedHashMap<>();
+        Map<String, Long> keyRanks = new LinkedHashMap<>();
+        List<SearchFacets.PriceBucket> prices = new ArrayList<>();
+        for (FacetRowView row : rows) {
+            long count = row.getCount() == null ? 0 : row.getCount();
+            switch (row.getKind()) {
+                case "CATEGORY" -> categories.add(new SearchFacets.ValueCount(row.getFacetValue(), count));
+                case "ATTRIBUTE" -> {
+                    attributes.computeIfAbsent(row.getFacetKey(), k -> new ArrayList<>())
+                            .add(new SearchFacets.ValueCount(row.getFacetValue(), count));
+                    keyRanks.putIfAbsent(row.getFacetKey(), row.getKeyRank() == null ? Long.MAX_VALUE : row.getKeyRank());
+                }
+                case "PRICE" -> prices.add(new SearchFacets.PriceBucket(row.getLowCents(), row.getHighCents(), count));
+                default -> { }
+            }
+        }
+        // UNION ALL gives no ordering guarantee across or within branches
+        Comparator<SearchFacets.ValueCount> byCount = Comparator.comparingLong(SearchFacets.ValueCount::count).reversed()
+                .thenComparing(SearchFacets.ValueCount::value);
+        categories.sort(byCount);
+        attributes.values().forEach(values -> values.sort(byCount));
+        Map<String, List<SearchFacets.ValueCount>> sortedAttributes = new LinkedHashMap<>();
+        keyRanks.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .forEach(e -> sortedAttributes.put(e.getKey(), attributes.get(e.getKey())));
+        prices.sort(Comparator.comparingInt(SearchFacets.PriceBucket::fromCents));
+        return new SearchFacets(categories, sortedAttributes, prices);
+    }
+
+    @Override
+    public CursorPage<Product> findAvailableAfter(String category, String cursor, int size, boolean includeTotal) {
+        ProductCursorCodec.Position after = ProductCursorCodec.decode(cursor, SortRule.DEFAULT);
+        List<ProductSummaryView> rows = repository.findAvailableAfter(category, after == null ? null : after.productId(), size + 1);
+        Long total = includeTotal ? repository.countAvailable(category) : null;
+        return toCursorPage(rows, size, SortRule.DEFAULT, total);
+    }
+
+    @Override
+    public CursorPage<Product> findAvailableAfter(String category, String cursor, int size, boolean includeTotal,
+                                                  ProductProjection projection) {
+        if (projection == ProductProjection.FULL) return findAvailableAfter(category, cursor, size, includeTotal);
+        ProductCursorCodec.Position after = ProductCursorCodec.decode(cursor, SortRule.DEFAULT);
+        List<ProductSummaryView> rows = repository.findListingsAvailableAfter(category, after == null ? null : after.productId(), size + 1);
+        Long total = includeTotal ? repository.countAvailable(category) : null;
+        return toCursorPage(rows, size, SortRule.DEFAULT, total, projection);
+    }
+
+    /**
+     * Reads one batch of the whole catalog (every product, with or without variants) in internal
+     * id order, costing two statements per batch. Callers stream the catalog by passing the last
+     * id of the previous batch until a batch comes back shorter than {@code limit}.
+     *
+     * @param afterId internal id of the last product already read; {@code null} to start
+     * @param limit   maximum number of products to return
+     */
+    public List<CatalogEntry> scanAfter(Long afterId, int limit) {
+        List<ProductSummaryView> rows = repository.findSummariesAfter(afterId, limit);
+        Map<Long, List<VariantView>> variants = variantsOf(rows);
+        return rows.stream()
+                .map(row -> new CatalogEntry(row.getId(), toDomain(row, variants.getOrDefault(row.getId(), List.of()))))
+                .toList();
+    }
+
+    /**
+     * Reads the given products, and the products of the given variants, as {@link #scanAfter}
+     * does; ids that no longer exist are left out. Ids are read {@value #SCAN_CHUNK} at a time,
+     * two statements per chunk of products plus one per chunk of variants.
+     *
+     * @param productIds public ids of the products to read
+     * @param variantIds public ids of variants whose products to read as well
+     */
+    public List<CatalogEntry> scanChanged(Collection<UUID> productIds, Collection<UUID> variantIds) {
+        Set<UUID> wanted = new LinkedHashSet<>(productIds);
+        List<UUID> variants = new ArrayList<>(variantIds);
+        for (int from = 0; from < variants.size(); from += SCAN_CHUNK) {
+            variantRepository.findOwnersByUuids(variants.subList(from, Math.min(variants.size(), from + SCAN_CHUNK)))
+                    .forEach(o -> wanted.add(o.getProductUuid()));
+        }
+        List<UUID> products = new ArrayList<>(wanted);
+        List<CatalogEntry> entries = new ArrayList<>(products.size());
+        for (int from = 0; from < products.size(); from += SCAN_CHUNK) {
+            List<ProductSummaryView> rows = repository.findSummariesByUuids(
+                    products.subList(from, Math.min(products.size(), from + SCAN_CHUNK)).toArray(UUID[]::new));
+            Map<Long, List<VariantView>> views = variantsOf(rows);
+            for (ProductSummaryView row : rows) {
+                entries.add(new CatalogEntry(row.getId(), toDomain(row, views.getOrDefault(row.getId(), List.of()))));
+            }
+        }
+        return entries;
+    }
+
+    private CursorPage<Product> toCursorPage(List<ProductSummaryView> rows, int size, SortRule sort, Long total) {
+        return toCursorPage(rows, size, sort, total, ProductProjection.FULL);
+    }
+
+    private CursorPage<Product> toCursorPage(List<ProductSummaryView> rows, int size, SortRule sort, Long total,
+                                             ProductProjection projection) {
+        boolean hasNext = rows.size() > size;
+        List<ProductSummaryView> slice = hasNext ? rows.subList(0, size) : rows;
+        Map<Long, List<VariantView>> variants = variantsOf(slice, projection);
+        String next = null;
+        if (hasNext) {
+            ProductSummaryView last = slice.get(slice.size() - 1);
+            List<VariantView> lastVariants = variants.getOrDefault(last.getId(), List.of());
+            next = ProductCursorCodec.encode(sort, last.getId(), last.getCreatedAt(),
+                    lastVariants.stream().mapToInt(VariantView::getPriceCents).min().orElse(0),
+                    lastVariants.stream().mapToInt(VariantView::getPriceCents).max().orElse(0),
+                    last.getSalesRank(), last.getRelevance(), last.getSimilarity());
+        }
+        List<Product> content = slice.stream()
+                .map(row -> toDomain(row, variants.getOrDefault(row.getId(), List.of())))
+                .toList();
+        return new CursorPage<>(content, next, total);
+    }
+
+    /**
+     * Assembles a page of product summaries with their variants, fetched for the whole page in a
+     * single batched query, so every paged read costs the same two statements regardless of size.
+     */
+    private Page<Product> withVariants(Page<ProductSummaryView> page) {
+        return withVariants(page, ProductProjection.FULL);
+    }
+
+    private Page<Product> withVariants(Page<ProductSummaryView> page, ProductProjection projection) {
+        Map<Long, List<VariantView>> variants = variantsOf(page.getContent(), projection);
+        return page.map(row -> toDomain(row, variants.getOrDefault(row.getId(), List.of())));
+    }
+
+    private Map<Long, List<VariantView>> variantsOf(List<ProductSummaryView> rows) {
+        return variantsOf(rows, ProductProjection.FULL);
+    }
+
+    private Map<Long, List<VariantView>> variantsOf(List<ProductSummaryView> rows, ProductProjection projection) {
+        if (rows.isEmpty()) return Map.of();
+        List<Long> ids = rows.stream().map(ProductSummaryView::getId).toList();
+        List<VariantView> views = projection == ProductProjection.LISTING
+                ? variantRepository.findListingViewsByProductIds(ids)
+                : variantRepository.findViewsByProductIds(ids);
+        return views.stream().collect(Collectors.groupingBy(VariantView::getProductId));
+    }
+
+    /** Treats 0 as an unset minimum (converted to null) for the search query pathway. */
+    private static Integer minPriceOrNull(SearchQuery searchQuery) {
+        return (searchQuery.minPriceCents() == 0) ? null : searchQuery.minPriceCents();
+    }
+
+    /** Treats Integer.MAX_VALUE as an unset maximum (converted to null) for the search query pathway. */
+    private static Integer maxPriceOrNull(SearchQuery searchQuery) {
+        return (searchQuery.maxPriceCents() == Integer.MAX_VALUE) ? null : searchQuery.maxPriceCents();
+    }
+
+    /**
+     * Builds JSON for attribute filters only when provided; otherwise returns null to skip the predicate.
+     * Shape: {"color":["Red","blue"],"size":["M","L"]}
+     */
+    private static String attributeFiltersJson(SearchQuery searchQuery) {
+        if (searchQuery.attributeFilters() == null || searchQuery.attributeFilters().isEmpty()) return null;
+        var map = searchQuery.attributeFilters().stream()
+                .collect(Collectors.toMap(AttributeFilter::name, AttributeFilter::values));
+        try {
+            return MAPPER.writeValueAsString(map);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid attribute filters", e);
+        }
     }
 
     @Override
@@ -111,14 +354,33 @@ public class ProductPersistenceAdapter implements ProductPort {
         return repository.findByUuid(id.getId()).map(this::toDomain);
     }
 
+    /** Two statements whatever the number of ids: the products, then all their variants. */
+    @Override
+    public Map<ProductId, Product> findAllByIds(Collection<ProductId> ids) {
+        if (ids.isEmpty()) return Map.of();
+        UUID[] uuids = ids.stream().map(ProductId::getId).distinct().toArray(UUID[]::new);
+        List<ProductSummaryView> rows = repository.findSummariesByUuids(uuids);
+        Map<Long, List<VariantView>> variants = variantsOf(rows);
+        Map<ProductId, Product> found = new LinkedHashMap<>();
+        for (ProductSummaryView row : rows) {
+            found.put(new ProductId(row.getUuid()), toDomain(row, variants.getOrDefault(row.getId(), List.of())));
+        }
+        return found;
+    }
+
     @Override
     public Optional<Product> findByVariantId(VariantId id) {
         return repository.findByVariantUuid(id.getId()).map(this::toDomain);
     }
 
+    @Override
+    public Optional<Instant> findUpdatedAt(ProductId id) {
+        return repository.findUpdatedAtByUuid(id.getId());
+    }
+
     // ---------- Admin CRUD ----------
     @Override
-    public Page<Product> listAll(Pageable pageable) { return repository.findAll(pageable).map(this::toDomain); }
+    public Page<Product> listAll(Pageable pageable) { return withVariants(repository.findAllSummaries(pageable)); }
 
     @Override
     public boolean productExistsByUuid(UUID uuid) { return repository.existsByUuid(uuid); }
@@ -163,6 +425,8 @@ public class ProductPersistenceAdapter implements ProductPort {
         // Remove variants not present in incoming list (orphanRemoval will delete them)
         current.removeIf(ve -> ve.getUuid() != null && !keep.contains(ve.getUuid()));
         ProductEntity saved = repository.save(entity);
+        reindexAttributes(saved.getId());
+        refreshSearchDocument(saved.getId());
         return toDomain(saved);
     }
 
@@ -195,13 +459,37 @@ public class ProductPersistenceAdapter implements ProductPort {
         entity.setAttributes(attributesToJson(variant.getAttributes()));
         entity.setImageUrl(variant.getImageUrl());
         VariantEntity saved = variantRepository.save(entity);
+        reindexAttributes(product.getId());
+        refreshSearchDocument(product.getId());
         return toVariantDomain(saved);
     }
 
     @Override
     @Transactional
     public void deleteVariant(ProductId productId, VariantId variantId) {
-        variantRepository.findByUuid(variantId.getId()).ifPresent(variantRepository::delete);
+        variantRepository.findByUuid(variantId.getId()).ifPresent(ve -> {
+            Long ownerId = ve.getProduct() == null ? null : ve.getProduct().getId();
+            variantRepository.delete(ve);
+            refreshSearchDocument(ownerId);
+        });
+    }
+
+    /**
+     * Re-aggregates the search read model row for one product inside the caller's transaction,
+     * so search results never lag behind a committed catalog write.
+     */
+    private void refreshSearchDocument(Long productId) {
+        if (productId == null) return;
+        searchDocuments.refreshForProduct(productId);
+    }
+
+    /**
+     * Re-projects one product's variant attributes into {@code variant_attribute_values} inside the
+     * caller's transaction; deleted variants lose their rows through the FK cascade instead.
+     */
+    private void reindexAttributes(Long productId) {
+        if (productId == null) return;
+        attributeIndex.reindexProduct(productId);
     }
 
     /**
@@ -213,11 +501,10 @@ public class ProductPersistenceAdapter implements ProductPort {
     private Variant toVariantDomain(VariantEntity variantEntity) {
         String currencyCode = variantEntity.getCurrency();
         Currency currency = currencyCode != null ? Currency.getInstance(currencyCode) : Currency.getInstance("EUR");
-        BigDecimal amount = BigDecimal.valueOf(variantEntity.getPriceCents()).divide(BigDecimal.valueOf(100));
         return new Variant(
                 new VariantId(variantEntity.getUuid()),
                 new Sku(variantEntity.getSku()),
-                new Money(amount, currency),
+                Money.of(variantEntity.getPriceCents(), 2, currency),
                 new Stock(variantEntity.getStockQuantity(), variantEntity.getReservedQuantity()),
                 jsonToAttributes(variantEntity.getAttributes()),
                 variantEntity.getImageUrl()
@@ -247,11 +534,44 @@ public class ProductPersistenceAdapter implements ProductPort {
         );
     }
 
-    private int amountToCents(BigDecimal amount) {
+    /**
+     * Maps a product summary and its batched variant projections to a Product domain object,
+     * using the same availability-derived status as {@link #toDomain(ProductEntity)}.
+     */
+    private Product toDomain(ProductSummaryView row, List<VariantView> variants) {
+        ProductStatus status = variants.stream().anyMatch(VariantView::isAvailable)
+                ? ProductStatus.ACTIVE
+                : ProductStatus.DRAFT;
+        return new Product(
+                new ProductId(row.getUuid()),
+                row.getName(),
+                row.getDescription(),
+                row.getCategory(),
+                status,
+                variants.stream().map(this::toVariantDomain).toList(),
+                row.getCreatedAt(),
+                row.getUpdatedAt()
+        );
+    }
+
+    private Variant toVariantDomain(VariantView view) {
+        String currencyCode = view.getCurrency();
+        Currency currency = currencyCode != null ? Currency.getInstance(currencyCode) : Currency.getInstance("EUR");
+        return new Variant(
+                new VariantId(view.getUuid()),
+                new Sku(view.getSku()),
+                Money.of(view.getPriceCents(), 2, currency),
+                new Stock(view.getStockQuantity(), view.getReservedQuantity()),
+                jsonToAttributes(view.getAttributes()),
+                view.getImageUrl()
+        );
+    }
+
+    static int amountToCents(BigDecimal amount) {
         return amount.multiply(BigDecimal.valueOf(100)).setScale(0, RoundingMode.HALF_UP).intValueExact();
     }
 
-    private JsonNode attributesToJson(List<Attribute> attributes) {
+    static JsonNode attributesToJson(List<Attribute> attributes) {
         if (attributes == null || attributes.isEmpty()) return null;
         ObjectNode obj = MAPPER.createObjectNode();
         attributes.stream().collect(Collectors.groupingBy(Attribute::name))
@@ -266,7 +586,7 @@ public class ProductPersistenceAdapter implements ProductPort {
         return obj;
     }
 
-    private List<Attribute> jsonToAttributes(JsonNode node) {
+    static List<Attribute> jsonToAttributes(JsonNode node) {
         if (node == null || node.isNull()) return List.of();
         List<Attribute> list = new ArrayList<>();
         node.fieldNames().forEachRemaining(fn -> {
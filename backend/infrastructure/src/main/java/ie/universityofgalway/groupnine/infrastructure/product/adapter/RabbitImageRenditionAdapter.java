@@ -0,0 +1,58 @@
+package ie.universityofgalway.groupnine.infrastructure.product.adapter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.service.product.port.EnqueueImageRenditionPort;
+import ie.universityofgalway.groupnine.util.logging.AppLogger;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * RabbitMQ adapter publishing image rendition jobs as {@code {"product_id", "variant_id"}} to the
+ * {@code catalog.images} exchange with routing key {@code image.rendition.request}.
+ *
+ * <p>The original has been stored when a job is published, so a job that cannot be published
+ * is logged rather than failing the upload: the original is served until the image is uploaded
+ * again.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.images.renditions", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RabbitImageRenditionAdapter implements EnqueueImageRenditionPort {
+
+    public static final String EXCHANGE = "catalog.images";
+    public static final String ROUTING_KEY = "image.rendition.request";
+
+    private static final AppLogger LOG = AppLogger.get(RabbitImageRenditionAdapter.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper mapper;
+
+    public RabbitImageRenditionAdapter(RabbitTemplate rabbitTemplate, ObjectMapper mapper) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public void enqueue(ProductId productId, VariantId variantId) {
+        try {
+            byte[] body = mapper.writeValueAsBytes(Map.of(
+                    "product_id", productId.getId().toString(),
+                    "variant_id", variantId.getId().toString()));
+            MessageProperties props = new MessageProperties();
+            props.setContentType("application/json");
+            rabbitTemplate.send(EXCHANGE, ROUTING_KEY, new Message(body, props));
+            LOG.info("image_rendition_enqueued", "productId", productId.getId(), "variantId", variantId.getId());
+        } catch (AmqpException | JsonProcessingException e) {
+            LOG.warn("image_rendition_enqueue_failed", "productId", productId.getId(), "variantId", variantId.getId(),
+                    "error", e.getMessage());
+        }
+    }
+}
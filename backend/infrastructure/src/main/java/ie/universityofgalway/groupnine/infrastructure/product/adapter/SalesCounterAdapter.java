@@ -0,0 +1,181 @@
+package ie.universityofgalway.groupnine.infrastructure.product.adapter;
+
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.infrastructure.product.cache.CoalescingTask;
+import ie.universityofgalway.groupnine.service.product.port.SalesCounterPort;
+import ie.universityofgalway.groupnine.util.logging.AppLogger;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JDBC implementation of {@link SalesCounterPort}, maintaining {@code variant_sales_counters},
+ * {@code product_sales_counters} and the {@code sales_rank} of the search documents
+ * (see {@code V22__product_sales_counters.sql} for what the scores mean).
+ *
+ * <p>Sales are added up per variant in memory and written on a background thread once
+ * {@code app.catalog.sales.flush-delay-ms} has passed since the first unwritten one, so a burst
+ * of confirmed orders costs one statement: an {@code INSERT ... ON CONFLICT} from
+ * {@code unnest(...)} into both counter tables whose results are copied onto the search
+ * documents. Scores are added in log space, as {@code max + ln(1 + exp(min - max))}. Sales that
+ * fail to be written are kept for the next flush.</p>
+ */
+@Component
+public class SalesCounterAdapter implements SalesCounterPort {
+
+    private static final AppLogger LOG = AppLogger.get(SalesCounterAdapter.class);
+
+    /** The forward-decay landmark; scores are relative to it. */
+    private static final Instant LANDMARK = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Duration SHORT_WINDOW = Duration.ofDays(7);
+    private static final Duration LONG_WINDOW = Duration.ofDays(30);
+
+    static final String UPSERT_COUNTERS = """
+            WITH s AS (
+              SELECT v.id AS variant_id, v.product_id, u.units, u.score_7d, u.score_30d, u.sold_at
+              FROM unnest(CAST(? AS uuid[]), CAST(? AS bigint[]), CAST(? AS float8[]), CAST(? AS float8[]),
+                          CAST(? AS timestamptz[])) AS u(variant_uuid, units, score_7d, score_30d, sold_at)
+              JOIN product_variants v ON v.uuid = u.variant_uuid
+            ),
+            variants AS (
+              INSERT INTO variant_sales_counters AS c (variant_id, units_sold, score_7d, score_30d, last_sold_at)
+              SELECT variant_id, units, score_7d, score_30d, sold_at FROM s
+              ON CONFLICT (variant_id) DO UPDATE SET
+                units_sold   = c.units_sold + EXCLUDED.units_sold,
+                score_7d     = GREATEST(c.score_7d, EXCLUDED.score_7d)
+                               + ln(1 + exp(-abs(c.score_7d - EXCLUDED.score_7d))),
+                score_30d    = GREATEST(c.score_30d, EXCLUDED.score_30d)
+                               + ln(1 + exp(-abs(c.score_30d - EXCLUDED.score_30d))),
+                last_sold_at = GREATEST(c.last_sold_at, EXCLUDED.last_sold_at)
+            ),
+            p AS (
+              SELECT product_id, SUM(units) AS units,
+                     MAX(m7) + ln(SUM(exp(score_7d - m7))) AS score_7d,
+                     MAX(m30) + ln(SUM(exp(score_30d - m30))) AS score_30d,
+                     MAX(sold_at) AS sold_at
+              FROM (
+                SELECT s.*, MAX(s.score_7d) OVER w AS m7, MAX(s.score_30d) OVER w AS m30
+                FROM s
+                WINDOW w AS (PARTITION BY s.product_id)
+              ) x
+              GROUP BY product_id
+            ),
+            ranked AS (
+              INSERT INTO product_sales_counters AS c (product_id, units_sold, score_7d, score_30d, last_sold_at)
+              SELECT product_id, units, score_7d, score_30d, sold_at FROM p
+              ON CONFLICT (product_id) DO UPDATE SET
+                units_sold   = c.units_sold + EXCLUDED.units_sold,
+                score_7d     = GREATEST(c.score_7d, EXCLUDED.score_7d)
+                               + ln(1 + exp(-abs(c.score_7d - EXCLUDED.score_7d))),
+                score_30d    = GREATEST(c.score_30d, EXCLUDED.score_30d)
+                               + ln(1 + exp(-abs(c.score_30d - EXCLUDED.score_30d))),
+                last_sold_at = GREATEST(c.last_sold_at, EXCLUDED.last_sold_at)
+              RETURNING c.product_id, c.score_30d
+            )
+            UPDATE product_search_document d
+            SET sales_rank = ranked.score_30d
+            FROM ranked
+            WHERE d.product_id = ranked.product_id
+            """;
+
+    /** Unwritten sales of one variant, with its scores already in log space. */
+    private record Pending(long units, double score7d, double score30d, Instant lastSoldAt) {
+
+        static Pending of(int units, Instant soldAt) {
+            return new Pending(units, score(units, soldAt, SHORT_WINDOW), score(units, soldAt, LONG_WINDOW), soldAt);
+        }
+
+        Pending plus(Pending o) {
+            return new Pending(units + o.units, logSum(score7d, o.score7d), logSum(score30d, o.score30d),
+                    lastSoldAt.isAfter(o.lastSoldAt) ? lastSoldAt : o.lastSoldAt);
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+    private final Map<UUID, Pending> pending = new ConcurrentHashMap<>();
+    private final CoalescingTask flushes;
+
+    public SalesCounterAdapter(JdbcTemplate jdbc, @Value("${app.catalog.sales.flush-delay-ms:1000}") long flushDelayMillis) {
+        this.jdbc = jdbc;
+        this.flushes = new CoalescingTask("catalog-sales-flush", flushDelayMillis, this::flush);
+    }
+
+    @Override
+    public void recordSales(Map<VariantId, Integer> unitsByVariant, Instant soldAt) {
+        boolean recorded = false;
+        for (Map.Entry<VariantId, Integer> sale : unitsByVariant.entrySet()) {
+            Integer units = sale.getValue();
+            if (sale.getKey() == null || units == null || units <= 0) continue;
+            pending.merge(sale.getKey().getId(), Pending.of(units, soldAt), Pending::plus);
+            recorded = true;
+        }
+        if (recorded) flushes.request();
+    }
+
+    /** Writes every sale recorded so far; normally run by the background task. */
+    public void flush() {
+        List<UUID> ids = new ArrayList<>(pending.size());
+        List<Pending> rows = new ArrayList<>(pending.size());
+        for (UUID id : pending.keySet()) {
+            Pending p = pending.remove(id);
+            if (p == null) continue;
+            ids.add(id);
+            rows.add(p);
+        }
+        if (ids.isEmpty()) return;
+        int n = ids.size();
+        Long[] units = new Long[n];
+        Double[] score7d = new Double[n];
+        Double[] score30d = new Double[n];
+        Timestamp[] soldAt = new Timestamp[n];
+        for (int i = 0; i < n; i++) {
+            Pending p = rows.get(i);
+            units[i] = p.units();
+            score7d[i] = p.score7d();
+            score30d[i] = p.score30d();
+            soldAt[i] = Timestamp.from(p.lastSoldAt());
+        }
+        try {
+            jdbc.update(con -> {
+                PreparedStatement ps = con.prepareStatement(UPSERT_COUNTERS);
+                ps.setArray(1, con.createArrayOf("uuid", ids.toArray()));
+                ps.setArray(2, con.createArrayOf("int8", units));
+                ps.setArray(3, con.createArrayOf("float8", score7d));
+                ps.setArray(4, con.createArrayOf("float8", score30d));
+                ps.setArray(5, con.createArrayOf("timestamptz", soldAt));
+                return ps;
+            });
+        } catch (RuntimeException e) {
+            for (int i = 0; i < n; i++) pending.merge(ids.get(i), rows.get(i), Pending::plus);
+            LOG.warn("sales_counter_flush_failed", "variants", n, "error", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushes.shutdown();
+        flush();
+    }
+
+    /** {@code ln(units * exp((soldAt - LANDMARK) / window))}. */
+    private static double score(long units, Instant soldAt, Duration window) {
+        double age = Duration.between(LANDMARK, soldAt).toMillis();
+        return Math.log(units) + age / window.toMillis();
+    }
+
+    /** {@code ln(exp(a) + exp(b))} without leaving log space. */
+    private static double logSum(double a, double b) {
+        return Math.max(a, b) + Math.log1p(Math.exp(-Math.abs(a - b)));
+    }
+}
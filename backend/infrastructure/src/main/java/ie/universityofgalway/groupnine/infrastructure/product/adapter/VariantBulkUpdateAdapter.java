@@ -0,0 +1,103 @@
+package ie.universityofgalway.groupnine.infrastructure.product.adapter;
+
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchDocumentJpaRepository;
+import ie.universityofgalway.groupnine.service.product.admin.VariantPriceStockUpdate;
+import ie.universityofgalway.groupnine.service.product.port.VariantBulkUpdatePort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JDBC implementation of {@link VariantBulkUpdatePort}.
+ *
+ * <p>A chunk is one {@code UPDATE ... FROM unnest(...)} with the rows bound as arrays, resolving
+ * each row by SKU or by variant id through the unique indexes, followed by one refresh of the
+ * search documents of the products whose prices changed; stock is not part of the search
+ * document.</p>
+ *
+ * <p>Rows resolving to the same variant, say once by SKU and once by id, are reduced to the first
+ * of them, and a stock is checked against the variant's live reservations in {@code inventory}.</p>
+ */
+@Component
+public class VariantBulkUpdateAdapter implements VariantBulkUpdatePort {
+
+    static final String UPDATE_PRICE_AND_STOCK = """
+            WITH u AS (
+              SELECT *
+              FROM unnest(CAST(? AS text[]), CAST(? AS uuid[]), CAST(? AS int[]), CAST(? AS int[])) WITH ORDINALITY
+                   AS u(sku, variant_uuid, price_cents, stock_quantity, n)
+            ),
+            r AS (
+              SELECT v.id, u.n, u.price_cents, u.stock_quantity FROM u JOIN product_variants v ON v.sku = u.sku
+              UNION ALL
+              SELECT v.id, u.n, u.price_cents, u.stock_quantity FROM u JOIN product_variants v ON v.uuid = u.variant_uuid
+            ),
+            t AS (
+              SELECT DISTINCT ON (r.id) r.id, r.price_cents, r.stock_quantity, coalesce(i.reserved, 0) AS reserved
+              FROM r
+              JOIN product_variants v ON v.id = r.id
+              LEFT JOIN inventory i ON i.variant_id = v.uuid
+              ORDER BY r.id, r.n
+            )
+            UPDATE product_variants v
+            SET price_cents    = coalesce(t.price_cents, v.price_cents),
+                stock_quantity = coalesce(t.stock_quantity, v.stock_quantity)
+            FROM t, products p
+            WHERE v.id = t.id
+              AND p.id = v.product_id
+              AND (t.stock_quantity IS NULL OR t.stock_quantity >= t.reserved)
+            RETURNING v.sku, v.uuid, p.uuid, p.id, t.price_cents IS NOT NULL
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final ProductSearchDocumentJpaRepository searchDocuments;
+
+    public VariantBulkUpdateAdapter(JdbcTemplate jdbc, ProductSearchDocumentJpaRepository searchDocuments) {
+        this.jdbc = jdbc;
+        this.searchDocuments = searchDocuments;
+    }
+
+    @Override
+    @Transactional
+    public List<UpdatedVariant> updatePriceAndStock(List<VariantPriceStockUpdate> updates) {
+        if (updates.isEmpty()) return List.of();
+        int n = updates.size();
+        String[] skus = new String[n];
+        UUID[] ids = new UUID[n];
+        Integer[] prices = new Integer[n];
+        Integer[] stock = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            VariantPriceStockUpdate u = updates.get(i);
+            skus[i] = u.sku();
+            ids[i] = u.variantId() == null ? null : u.variantId().getId();
+            prices[i] = u.priceCents();
+            stock[i] = u.stockQuantity();
+        }
+        List<UpdatedVariant> updated = new ArrayList<>(n);
+        Set<Long> repriced = new LinkedHashSet<>();
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(UPDATE_PRICE_AND_STOCK);
+            ps.setArray(1, con.createArrayOf("text", skus));
+            ps.setArray(2, con.createArrayOf("uuid", ids));
+            ps.setArray(3, con.createArrayOf("int4", prices));
+            ps.setArray(4, con.createArrayOf("int4", stock));
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            updated.add(new UpdatedVariant(rs.getString(1), new VariantId(rs.getObject(2, UUID.class)),
+                    new ProductId(rs.getObject(3, UUID.class))));
+            if (rs.getBoolean(5)) repriced.add(rs.getLong(4));
+        });
+        if (!repriced.isEmpty()) searchDocuments.refreshForProducts(repriced);
+        return updated;
+    }
+}
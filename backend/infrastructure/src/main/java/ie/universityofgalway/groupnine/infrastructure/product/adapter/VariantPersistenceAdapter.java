@@ -3,11 +3,16 @@ package ie.universityofgalway.groupnine.infrastructure.product.adapter;
 import ie.universityofgalway.groupnine.domain.product.*;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantEntity;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantView;
 import ie.universityofgalway.groupnine.service.product.port.VariantPort;
-import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import org.springframework.stereotype.Component;
 
 /**
@@ -41,6 +46,24 @@ public class VariantPersistenceAdapter implements VariantPort {
         return repository.findByUuid(id.getId()).map(this::toDomain);
     }
 
+    /**
+     * Finds many variants in one statement.
+     *
+     * @param ids The ids of the variants to find.
+     * @return The variants found, keyed by id; unknown ids are absent.
+     */
+    @Override
+    public Map<VariantId, Variant> findAllByIds(Collection<VariantId> ids) {
+        if (ids.isEmpty()) return Map.of();
+        List<UUID> uuids = ids.stream().map(VariantId::getId).distinct().toList();
+        Map<VariantId, Variant> found = new LinkedHashMap<>();
+        for (VariantView view : repository.findViewsByUuids(uuids)) {
+            Variant v = toDomain(view);
+            found.put(v.getId(), v);
+        }
+        return found;
+    }
+
     /**
      * Converts a {@link VariantEntity} persistence object to a {@link Variant} domain object.
      *
@@ -55,10 +78,26 @@ public class VariantPersistenceAdapter implements VariantPort {
         return new Variant(
                 new VariantId(entity.getUuid()),
                 new Sku(entity.getSku()),
-                new Money(BigDecimal.valueOf(entity.getPriceCents() / 100.0), currency),
+                Money.of(entity.getPriceCents(), 2, currency),
                 new Stock(entity.getStockQuantity(), entity.getReservedQuantity()),
                 Collections.emptyList(),
                 entity.getImageUrl()
         );
     }
+
+    /** Converts a {@link VariantView} the same way as {@link #toDomain(VariantEntity)}. */
+    private Variant toDomain(VariantView view) {
+        Currency currency = view.getCurrency() != null
+                ? Currency.getInstance(view.getCurrency())
+                : Currency.getInstance("EUR");
+
+        return new Variant(
+                new VariantId(view.getUuid()),
+                new Sku(view.getSku()),
+                Money.of(view.getPriceCents(), 2, currency),
+                new Stock(view.getStockQuantity(), view.getReservedQuantity()),
+                Collections.emptyList(),
+                view.getImageUrl()
+        );
+    }
 }
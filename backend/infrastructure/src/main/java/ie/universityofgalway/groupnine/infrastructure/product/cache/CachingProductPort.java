@@ -0,0 +1,200 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import ie.universityofgalway.groupnine.domain.product.CursorPage;
+import ie.universityofgalway.groupnine.domain.product.FacetLimits;
+import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.ProductProjection;
+import ie.universityofgalway.groupnine.domain.product.SearchFacets;
+import ie.universityofgalway.groupnine.domain.product.SearchQuery;
+import ie.universityofgalway.groupnine.domain.product.Variant;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductPersistenceAdapter;
+import ie.universityofgalway.groupnine.infrastructure.product.search.EmbeddedProductSearch;
+import ie.universityofgalway.groupnine.service.product.port.ProductPort;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * {@link ProductPort} decorator serving lookups by id from the {@link CatalogNearCache}.
+ *
+ * <p>Listings pass straight through to the persistence adapter. Searches are answered by the
+ * {@link EmbeddedProductSearch} when it is enabled, built and able to answer them; otherwise they go to the persistence
+ * adapter through the {@link SearchResultCache}, when enabled, whose hits are hydrated from the
+ * near cache. Writes made
+ * through this port drop the affected entries on this node; other nodes are told through
+ * the {@code CatalogInvalidationPort} by the admin use cases.</p>
+ */
+@Primary
+@Component
+public class CachingProductPort implements ProductPort {
+
+    private final ProductPort delegate;
+    private final CatalogNearCache cache;
+    private final EmbeddedProductSearch embeddedSearch;
+    private final SearchResultCache searchCache;
+
+    /**
+     * @param embeddedSearch {@code null} unless the embedded search engine is enabled
+     * @param searchCache    {@code null} when the search result cache is disabled
+     */
+    @Autowired
+    public CachingProductPort(ProductPersistenceAdapter delegate, CatalogNearCache cache,
+                              @Nullable EmbeddedProductSearch embeddedSearch,
+                              @Nullable SearchResultCache searchCache) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.embeddedSearch = embeddedSearch;
+        this.searchCache = searchCache;
+    }
+
+    @Override
+    public Optional<Product> findById(ProductId id) {
+        return cache.products().get(id.getId(), uuid -> delegate.findById(id));
+    }
+
+    /** Cached products are served as is; the rest are loaded with one call to the delegate. */
+    @Override
+    public Map<ProductId, Product> findAllByIds(Collection<ProductId> ids) {
+        Map<ProductId, Product> result = new LinkedHashMap<>();
+        cachedProducts(ids.stream().map(ProductId::getId).toList()).forEach((uuid, p) -> result.put(new ProductId(uuid), p));
+        return result;
+    }
+
+    @Override
+    public Optional<Product> findByVariantId(VariantId id) {
+        return cache.productsByVariant().get(id.getId(), uuid -> delegate.findByVariantId(id));
+    }
+
+    /** Answered from a cached product when there is one, so validators match the body it serves. */
+    @Override
+    public Optional<Instant> findUpdatedAt(ProductId id) {
+        Optional<Product> cached = cache.products().peek(id.getId());
+        return cached.isPresent() ? cached.map(Product::getUpdatedAt) : delegate.findUpdatedAt(id);
+    }
+
+    @Override
+    public Optional<Variant> findVariantById(VariantId id) {
+        return cache.productVariants().get(id.getId(), uuid -> delegate.findVariantById(id));
+    }
+
+    @Override
+    public Page<Product> findAvailable(Pageable pageable) {
+        return delegate.findAvailable(pageable);
+    }
+
+    @Override
+    public Page<Product> findAvailableByCategory(String category, Pageable pageable) {
+        return delegate.findAvailableByCategory(category, pageable);
+    }
+
+    @Override
+    public Page<Product> findAvailable(Pageable pageable, ProductProjection projection) {
+        return delegate.findAvailable(pageable, projection);
+    }
+
+    @Override
+    public Page<Product> findAvailableByCategory(String category, Pageable pageable, ProductProjection projection) {
+        return delegate.findAvailableByCategory(category, pageable, projection);
+    }
+
+    @Override
+    public Page<Product> search(SearchQuery query, Pageable pageable) {
+        if (embeddedSearchAnswers(query)) return embeddedSearch.search(query, pageable);
+        if (searchCache == null) return delegate.search(query, pageable);
+        return searchCache.page(query, pageable, () -> delegate.search(query, pageable), this::cachedProducts);
+    }
+
+    @Override
+    public CursorPage<Product> findAvailableAfter(String category, String cursor, int size, boolean includeTotal) {
+        return delegate.findAvailableAfter(category, cursor, size, includeTotal);
+    }
+
+    @Override
+    public CursorPage<Product> findAvailableAfter(String category, String cursor, int size, boolean includeTotal,
+                                                  ProductProjection projection) {
+        return delegate.findAvailableAfter(category, cursor, size, includeTotal, projection);
+    }
+
+    @Override
+    public CursorPage<Product> searchAfter(SearchQuery query, String cursor, int size, boolean includeTotal) {
+        if (embeddedSearchAnswers(query)) return embeddedSearch.searchAfter(query, cursor, size, includeTotal);
+        if (searchCache == null) return delegate.searchAfter(query, cursor, size, includeTotal);
+        return searchCache.slice(query, cursor, size, includeTotal,
+                () -> delegate.searchAfter(query, cursor, size, includeTotal), this::cachedProducts);
+    }
+
+    /** Products from the near cache, its misses loaded with one call to the delegate. */
+    private Map<UUID, Product> cachedProducts(Collection<UUID> ids) {
+        return cache.products().getAll(ids, missing -> {
+            Map<UUID, Product> loaded = new HashMap<>();
+            delegate.findAllByIds(missing.stream().map(ProductId::new).toList())
+                    .forEach((id, p) -> loaded.put(id.getId(), p));
+            return loaded;
+        });
+    }
+
+    private boolean embeddedSearchAnswers(SearchQuery query) {
+        return embeddedSearch != null && embeddedSearch.isReady() && embeddedSearch.answers(query);
+    }
+
+    @Override
+    public SearchFacets facets(SearchQuery query, FacetLimits limits) {
+        return delegate.facets(query, limits);
+    }
+
+    @Override
+    public Page<Product> listAll(Pageable pageable) {
+        return delegate.listAll(pageable);
+    }
+
+    @Override
+    public boolean productExistsByUuid(UUID uuid) {
+        return delegate.productExistsByUuid(uuid);
+    }
+
+    @Override
+    public Product saveProduct(Product product) {
+        Product saved = delegate.saveProduct(product);
+        cache.evictProduct(saved.getId().getId());
+        return saved;
+    }
+
+    @Override
+    public void deleteProduct(ProductId id) {
+        delegate.deleteProduct(id);
+        cache.evictProduct(id.getId());
+    }
+
+    @Override
+    public boolean variantExistsBySku(String sku) {
+        return delegate.variantExistsBySku(sku);
+    }
+
+    @Override
+    public Variant saveVariant(ProductId productId, Variant variant) {
+        Variant saved = delegate.saveVariant(productId, variant);
+        cache.evictVariant(saved.getId().getId());
+        cache.evictProduct(productId.getId());
+        return saved;
+    }
+
+    @Override
+    public void deleteVariant(ProductId productId, VariantId variantId) {
+        delegate.deleteVariant(productId, variantId);
+        cache.evictVariant(variantId.getId());
+        cache.evictProduct(productId.getId());
+    }
+}
@@ -0,0 +1,57 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import ie.universityofgalway.groupnine.domain.product.Variant;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.VariantPersistenceAdapter;
+import ie.universityofgalway.groupnine.service.product.port.VariantPort;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * {@link VariantPort} decorator serving variant lookups (cart rendering, add-to-cart)
+ * from the {@link CatalogNearCache}.
+ */
+@Primary
+@Component
+public class CachingVariantPort implements VariantPort {
+
+    private final VariantPort delegate;
+    private final CatalogNearCache cache;
+
+    @Autowired
+    public CachingVariantPort(VariantPersistenceAdapter delegate, CatalogNearCache cache) {
+        this((VariantPort) delegate, cache);
+    }
+
+    CachingVariantPort(VariantPort delegate, CatalogNearCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Optional<Variant> findById(VariantId id) {
+        return cache.variants().get(id.getId(), uuid -> delegate.findById(id));
+    }
+
+    /** Cached variants are served as is; the rest are loaded with one call to the delegate. */
+    @Override
+    public Map<VariantId, Variant> findAllByIds(Collection<VariantId> ids) {
+        Map<UUID, Variant> found = cache.variants().getAll(ids.stream().map(VariantId::getId).toList(), missing -> {
+            Map<UUID, Variant> loaded = new HashMap<>();
+            delegate.findAllByIds(missing.stream().map(VariantId::new).toList())
+                    .forEach((id, v) -> loaded.put(id.getId(), v));
+            return loaded;
+        });
+        Map<VariantId, Variant> result = new LinkedHashMap<>();
+        found.forEach((uuid, v) -> result.put(new VariantId(uuid), v));
+        return result;
+    }
+}
@@ -0,0 +1,28 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Node-local consumer of catalog change announcements. Every bean implementing it is called by
+ * {@link RedisCatalogInvalidationAdapter}, both for writes made on this node and for messages
+ * received from other nodes, so implementations must be cheap and must not throw.
+ */
+public interface CatalogChangeListener {
+
+    /** A product's own fields changed, or it was deleted. */
+    void onProductChanged(UUID productId);
+
+    /** A variant changed (price, stock, attributes, ...) or was deleted. */
+    void onVariantChanged(UUID variantId);
+
+    /** Many products changed in one bulk write; the default handles them one by one. */
+    default void onProductsChanged(Collection<UUID> productIds) {
+        for (UUID id : productIds) onProductChanged(id);
+    }
+
+    /** Many variants changed in one bulk write; the default handles them one by one. */
+    default void onVariantsChanged(Collection<UUID> variantIds) {
+        for (UUID id : variantIds) onVariantChanged(id);
+    }
+}
@@ -0,0 +1,121 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.Variant;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Node-local cache regions for the hot catalog lookups by id, shared by
+ * {@link CachingProductPort} and {@link CachingVariantPort}.
+ *
+ * <p>Products weigh one unit plus one per variant, so a few very large products cannot
+ * crowd out many small ones unnoticed. Entries are dropped on local writes and on
+ * invalidation messages from other nodes; the TTL only bounds staleness when such a
+ * message is lost.</p>
+ */
+@Component
+public class CatalogNearCache implements CatalogChangeListener {
+
+    private final NearCache<UUID, Product> products;
+    private final NearCache<UUID, Product> productsByVariant;
+    private final NearCache<UUID, Variant> productVariants;
+    private final NearCache<UUID, Variant> variants;
+
+    @Autowired
+    public CatalogNearCache(ObjectProvider<MeterRegistry> meters,
+                            @Value("${app.catalog.cache.max-weight:20000}") long maxWeight,
+                            @Value("${app.catalog.cache.ttl-seconds:300}") long ttlSeconds) {
+        this(meters.getIfAvailable(SimpleMeterRegistry::new), maxWeight, Duration.ofSeconds(ttlSeconds));
+    }
+
+    public CatalogNearCache(MeterRegistry registry, long maxWeight, Duration ttl) {
+        this.products = new NearCache<>("products", maxWeight, ttl, CatalogNearCache::weigh, registry);
+        this.productsByVariant = new NearCache<>("products_by_variant", maxWeight, ttl, CatalogNearCache::weigh, registry);
+        this.productVariants = new NearCache<>("product_variants", maxWeight, ttl, v -> 1, registry);
+        this.variants = new NearCache<>("variants", maxWeight, ttl, v -> 1, registry);
+    }
+
+    private static int weigh(Product p) { return 1 + p.getVariants().size(); }
+
+    /** Products keyed by product id, as returned by {@code ProductPort.findById}. */
+    public NearCache<UUID, Product> products() { return products; }
+
+    /** Owning products keyed by variant id, as returned by {@code ProductPort.findByVariantId}. */
+    public NearCache<UUID, Product> productsByVariant() { return productsByVariant; }
+
+    /** Variants keyed by variant id, as returned by {@code ProductPort.findVariantById}. */
+    public NearCache<UUID, Variant> productVariants() { return productVariants; }
+
+    /** Variants keyed by variant id, as returned by {@code VariantPort.findById}. */
+    public NearCache<UUID, Variant> variants() { return variants; }
+
+    @Override
+    public void onProductChanged(UUID productId) { evictProduct(productId); }
+
+    @Override
+    public void onVariantChanged(UUID variantId) { evictVariant(variantId); }
+
+    @Override
+    public void onProductsChanged(Collection<UUID> productIds) { evictProducts(Set.copyOf(productIds)); }
+
+    @Override
+    public void onVariantsChanged(Collection<UUID> variantIds) { evictVariants(Set.copyOf(variantIds)); }
+
+    /** Drops every cached copy of the product (its variants are left alone). */
+    public void evictProduct(UUID productId) {
+        products.invalidate(productId);
+        productsByVariant.invalidateIf((variantId, p) -> p.getId().getId().equals(productId));
+    }
+
+    /** Drops every cached copy of the variant, including the products that contain it. */
+    public void evictVariant(UUID variantId) {
+        variants.invalidate(variantId);
+        productVariants.invalidate(variantId);
+        productsByVariant.invalidate(variantId);
+        products.invalidateIf((productId, p) -> containsVariant(p, variantId));
+        productsByVariant.invalidateIf((key, p) -> containsVariant(p, variantId));
+    }
+
+    /** {@link #evictProduct} for many products, scanning each region once. */
+    public void evictProducts(Set<UUID> productIds) {
+        productIds.forEach(products::invalidate);
+        productsByVariant.invalidateIf((variantId, p) -> productIds.contains(p.getId().getId()));
+    }
+
+    /** {@link #evictVariant} for many variants, scanning each region once. */
+    public void evictVariants(Set<UUID> variantIds) {
+        for (UUID id : variantIds) {
+            variants.invalidate(id);
+            productVariants.invalidate(id);
+            productsByVariant.invalidate(id);
+        }
+        products.invalidateIf((productId, p) -> containsAnyVariant(p, variantIds));
+        productsByVariant.invalidateIf((key, p) -> containsAnyVariant(p, variantIds));
+    }
+
+    /** Drops everything; used when invalidation messages may have been missed. */
+    public void evictAll() {
+        products.invalidateAll();
+        productsByVariant.invalidateAll();
+        productVariants.invalidateAll();
+        variants.invalidateAll();
+    }
+
+    private static boolean containsAnyVariant(Product p, Set<UUID> variantIds) {
+        return p.getVariants().stream().anyMatch(v -> v.getId() != null && variantIds.contains(v.getId().getId()));
+    }
+
+    private static boolean containsVariant(Product p, UUID variantId) {
+        return p.getVariants().stream().anyMatch(v -> v.getId() != null && variantId.equals(v.getId().getId()));
+    }
+}
@@ -0,0 +1,118 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import ie.universityofgalway.groupnine.service.product.port.CatalogVersionPort;
+import ie.universityofgalway.groupnine.util.logging.AppLogger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cluster-wide catalog version: a Redis counter incremented on every catalog write announced
+ * through the {@link RedisCatalogInvalidationAdapter}.
+ *
+ * <p>Caches of derived results (search pages and the like) put the version into their keys, so
+ * one increment retires every entry at once without enumerating them. Each node keeps the last
+ * value it read and re-reads it whenever a change event arrives, so steady-state reads cost no
+ * round trip.</p>
+ *
+ * <p>Served to HTTP validators through {@link CatalogVersionPort}, where a version that stayed
+ * behind a write would answer 304 for stale pages; {@link #version()} therefore re-reads a value
+ * older than {@link #MAX_AGE}, and a bump that failed is retried on the next read.</p>
+ */
+@Component
+public class CatalogVersion implements CatalogChangeListener, CatalogVersionPort {
+
+    public static final String KEY = "catalog:version";
+    static final Duration MAX_AGE = Duration.ofSeconds(5);
+    private static final long UNKNOWN = -1;
+    private static final AppLogger LOG = AppLogger.get(CatalogVersion.class);
+
+    private final StringRedisTemplate redis;
+    private final AtomicLong current = new AtomicLong(UNKNOWN);
+    private final AtomicBoolean missedBump = new AtomicBoolean();
+    private volatile long readAt;
+
+    @Autowired
+    public CatalogVersion(StringRedisTemplate redis) {
+        this.redis = redis;
+    }
+
+    /**
+     * The current version as last seen by this node, read from Redis on first use.
+     *
+     * @throws RuntimeException when Redis cannot be reached and no version has been read yet
+     */
+    public long current() {
+        long v = current.get();
+        return v == UNKNOWN ? refresh() : v;
+    }
+
+    /** Increments the version; called once per announced write, before anyone is notified. */
+    public void bump() {
+        try {
+            Long v = redis.opsForValue().increment(KEY);
+            missedBump.set(false);
+            if (v != null) remember(v);
+        } catch (RuntimeException e) {
+            // Versioned entries then live until their TTL
+            missedBump.set(true);
+            current.set(UNKNOWN);
+            LOG.warn("catalog_version_bump_failed", "error", e.getMessage());
+        }
+    }
+
+    @Override
+    public OptionalLong version() {
+        try {
+            long v = System.nanoTime() - readAt > MAX_AGE.toNanos() ? refresh() : current();
+            return OptionalLong.of(v);
+        } catch (RuntimeException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    @Override
+    public void onProductChanged(UUID productId) { refreshQuietly(); }
+
+    @Override
+    public void onVariantChanged(UUID variantId) { refreshQuietly(); }
+
+    @Override
+    public void onProductsChanged(Collection<UUID> productIds) { refreshQuietly(); }
+
+    @Override
+    public void onVariantsChanged(Collection<UUID> variantIds) { refreshQuietly(); }
+
+    private long refresh() {
+        if (missedBump.get()) {
+            // The write it stood for has happened; announce it now rather than never
+            Long bumped = redis.opsForValue().increment(KEY);
+            missedBump.set(false);
+            if (bumped != null) return remember(bumped);
+        }
+        String v = redis.opsForValue().get(KEY);
+        return remember(v == null ? 0 : Long.parseLong(v));
+    }
+
+    private long remember(long v) {
+        current.set(v);
+        readAt = System.nanoTime();
+        return v;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            current.set(UNKNOWN);
+            LOG.warn("catalog_version_refresh_failed", "error", e.getMessage());
+        }
+    }
+}
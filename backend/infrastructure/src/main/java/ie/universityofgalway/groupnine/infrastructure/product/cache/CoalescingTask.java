@@ -0,0 +1,53 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a task on a private daemon thread some time after it was requested, folding every
+ * request made before the run starts into that one run. Used to rebuild node-local catalog
+ * indexes once per burst of {@link CatalogChangeListener} events instead of once per event.
+ */
+public final class CoalescingTask {
+
+    private final Runnable task;
+    private final long delayMillis;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    /**
+     * @param threadName  name of the worker thread
+     * @param delayMillis how long to wait for further requests before running
+     * @param task        the work; must handle its own exceptions
+     */
+    public CoalescingTask(String threadName, long delayMillis, Runnable task) {
+        this.task = task;
+        this.delayMillis = Math.max(0, delayMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, threadName);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Schedules a run unless one is already waiting; a no-op after {@link #shutdown()}. */
+    public void request() {
+        if (!pending.compareAndSet(false, true)) return;
+        try {
+            scheduler.schedule(() -> {
+                pending.set(false);
+                task.run();
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            pending.set(false);
+        }
+    }
+
+    /** Stops the worker thread; a run in progress is interrupted. */
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
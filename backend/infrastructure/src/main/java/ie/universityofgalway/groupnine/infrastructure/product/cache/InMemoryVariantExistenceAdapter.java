@@ -0,0 +1,162 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantOwnerView;
+import ie.universityofgalway.groupnine.service.product.port.VariantExistencePort;
+import ie.universityofgalway.groupnine.util.logging.AppLogger;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * {@link VariantExistencePort} answering from a node-local {@link VariantOwnerIndex}.
+ *
+ * <p>The index is loaded once the application is ready. After that, only the products and
+ * variants named by catalog changes are read again, once per burst of changes within
+ * {@code app.catalog.variant-index.update-delay-ms}, and merged into a new index. Changes that
+ * fail to be read are kept for the next update. Lookups never wait: they read whichever index was
+ * published last.</p>
+ *
+ * <p>Publishes a {@code catalog.variant_index.entries} gauge.</p>
+ */
+@Component
+public class InMemoryVariantExistenceAdapter implements VariantExistencePort, CatalogChangeListener {
+
+    private static final AppLogger LOG = AppLogger.get(InMemoryVariantExistenceAdapter.class);
+
+    /** Ids per {@code IN} list when reading changes back. */
+    private static final int CHUNK = 1000;
+
+    private final VariantJpaRepository variants;
+    private final CoalescingTask updates;
+    private final Set<UUID> changedProducts = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> changedVariants = ConcurrentHashMap.newKeySet();
+    private volatile VariantOwnerIndex index = VariantOwnerIndex.EMPTY;
+
+    @Autowired
+    public InMemoryVariantExistenceAdapter(VariantJpaRepository variants,
+                                           ObjectProvider<MeterRegistry> meters,
+                                           @Value("${app.catalog.variant-index.update-delay-ms:500}") long updateDelayMillis) {
+        this(variants, meters.getIfAvailable(SimpleMeterRegistry::new), updateDelayMillis);
+    }
+
+    public InMemoryVariantExistenceAdapter(VariantJpaRepository variants, MeterRegistry registry, long updateDelayMillis) {
+        this.variants = variants;
+        Gauge.builder("catalog.variant_index.entries", this, a -> a.index.size()).register(registry);
+        this.updates = new CoalescingTask("catalog-variant-index-update", updateDelayMillis, this::update);
+    }
+
+    @Override
+    public boolean exists(ProductId productId, VariantId variantId) {
+        return index.contains(productId.getId(), variantId.getId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Override
+    public void onProductChanged(UUID productId) {
+        changedProducts.add(productId);
+        updates.request();
+    }
+
+    @Override
+    public void onProductsChanged(Collection<UUID> productIds) {
+        changedProducts.addAll(productIds);
+        updates.request();
+    }
+
+    @Override
+    public void onVariantChanged(UUID variantId) {
+        changedVariants.add(variantId);
+        updates.request();
+    }
+
+    @Override
+    public void onVariantsChanged(Collection<UUID> variantIds) {
+        changedVariants.addAll(variantIds);
+        updates.request();
+    }
+
+    /** Reloads every variant and publishes a fresh index; keeps the old one on failure. */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        try {
+            VariantOwnerIndex fresh = VariantOwnerIndex.build(owners(variants.findOwners()));
+            index = fresh;
+            LOG.info("variant_index_built", "entries", fresh.size(),
+                    "millis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            LOG.warn("variant_index_build_failed", "error", e.getMessage());
+        }
+    }
+
+    /** Reads back the products and variants changed since the last update and merges them in. */
+    public synchronized void update() {
+        Set<UUID> products = drain(changedProducts);
+        Set<UUID> variantIds = drain(changedVariants);
+        if (products.isEmpty() && variantIds.isEmpty()) return;
+        try {
+            Map<UUID, UUID> owners = new HashMap<>();
+            owners.putAll(owners(inChunks(products, variants::findOwnersByProductUuids)));
+            owners.putAll(owners(inChunks(variantIds, variants::findOwnersByUuids)));
+            index = index.with(owners, products, variantIds);
+        } catch (RuntimeException e) {
+            changedProducts.addAll(products);
+            changedVariants.addAll(variantIds);
+            LOG.warn("variant_index_update_failed", "products", products.size(), "variants", variantIds.size(),
+                    "error", e.getMessage());
+        }
+    }
+
+    private static Set<UUID> drain(Set<UUID> changed) {
+        Set<UUID> out = new HashSet<>();
+        for (UUID id : changed) {
+            if (changed.remove(id)) out.add(id);
+        }
+        return out;
+    }
+
+    private static List<VariantOwnerView> inChunks(Set<UUID> ids, Function<Collection<UUID>, List<VariantOwnerView>> query) {
+        List<UUID> all = new ArrayList<>(ids);
+        List<VariantOwnerView> rows = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += CHUNK) {
+            rows.addAll(query.apply(all.subList(from, Math.min(all.size(), from + CHUNK))));
+        }
+        return rows;
+    }
+
+    private static Map<UUID, UUID> owners(List<VariantOwnerView> rows) {
+        Map<UUID, UUID> out = new HashMap<>(rows.size() * 2);
+        for (VariantOwnerView row : rows) out.put(row.getVariantUuid(), row.getProductUuid());
+        return out;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        updates.shutdown();
+    }
+}
@@ -0,0 +1,208 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Small bounded in-process cache with LRU eviction by total entry weight and a
+ * time-to-live safety net.
+ *
+ * <p>Values are loaded outside the lock. Every invalidation bumps a generation counter and a
+ * load that started before an invalidation is not stored, so a slow read racing a write can
+ * never re-insert the pre-write value. Absent results are not cached.</p>
+ *
+ * <p>Publishes {@code catalog.cache.gets} (tagged {@code result=hit|miss}),
+ * {@code catalog.cache.evictions} (tagged {@code cause=size|expired|explicit}) and a
+ * {@code catalog.cache.weight} gauge, all tagged with the region name.</p>
+ *
+ * @param <K> key type
+ * @param <V> value type; should be immutable
+ */
+public final class NearCache<K, V> {
+
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final ToIntFunction<V> weigher;
+    private final LongSupplier ticker;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalWeight;
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter explicitEvictions;
+
+    private record Entry<V>(V value, int weight, long expiresAt) {}
+
+    /**
+     * @param region    name used to tag metrics
+     * @param maxWeight upper bound on the summed weight of all entries; {@code 0} disables caching
+     * @param ttl       maximum age of an entry
+     * @param weigher   weight of a value, at least 1
+     * @param registry  meter registry receiving the cache metrics
+     */
+    public NearCache(String region, long maxWeight, Duration ttl, ToIntFunction<V> weigher, MeterRegistry registry) {
+        this(region, maxWeight, ttl, weigher, registry, System::nanoTime);
+    }
+
+    NearCache(String region, long maxWeight, Duration ttl, ToIntFunction<V> weigher,
+              MeterRegistry registry, LongSupplier ticker) {
+        this.maxWeight = Math.max(0, maxWeight);
+        this.ttlNanos = ttl.toNanos();
+        this.weigher = weigher;
+        this.ticker = ticker;
+        this.hits = Counter.builder("catalog.cache.gets").tag("cache", region).tag("result", "hit").register(registry);
+        this.misses = Counter.builder("catalog.cache.gets").tag("cache", region).tag("result", "miss").register(registry);
+        this.sizeEvictions = evictions(registry, region, "size");
+        this.expiredEvictions = evictions(registry, region, "expired");
+        this.explicitEvictions = evictions(registry, region, "explicit");
+        Gauge.builder("catalog.cache.weight", this, NearCache::weight).tag("cache", region).register(registry);
+    }
+
+    private static Counter evictions(MeterRegistry registry, String region, String cause) {
+        return Counter.builder("catalog.cache.evictions").tag("cache", region).tag("cause", cause).register(registry);
+    }
+
+    /**
+     * Returns the cached value for {@code key}, loading and caching it on a miss.
+     *
+     * @param loader source of truth, called without holding the cache lock
+     */
+    public Optional<V> get(K key, Function<K, Optional<V>> loader) {
+        long startGeneration;
+        synchronized (this) {
+            V cached = lookup(key);
+            if (cached != null) return Optional.of(cached);
+            startGeneration = generation;
+        }
+        Optional<V> loaded = loader.apply(key);
+        loaded.ifPresent(v -> put(key, v, startGeneration));
+        return loaded;
+    }
+
+    /**
+     * Returns the cached values for {@code keys}, loading every miss with one call to
+     * {@code loader} and caching what it found. Keys found nowhere are absent from the result.
+     *
+     * @param loader source of truth for the missing keys, called without holding the cache lock
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        Map<K, V> found = new LinkedHashMap<>();
+        Set<K> missing = new LinkedHashSet<>();
+        long startGeneration;
+        synchronized (this) {
+            for (K key : keys) {
+                if (found.containsKey(key) || missing.contains(key)) continue;
+                V cached = lookup(key);
+                if (cached != null) found.put(key, cached);
+                else missing.add(key);
+            }
+            startGeneration = generation;
+        }
+        if (missing.isEmpty()) return found;
+        Map<K, V> loaded = loader.apply(missing);
+        for (K key : missing) {
+            V v = loaded.get(key);
+            if (v == null) continue;
+            put(key, v, startGeneration);
+            found.put(key, v);
+        }
+        return found;
+    }
+
+    /** The live entry's value counted as a hit, or {@code null} counted as a miss; caller holds the lock. */
+    private V lookup(K key) {
+        Entry<V> e = entries.get(key);
+        if (e != null) {
+            if (e.expiresAt() - ticker.getAsLong() > 0) {
+                hits.increment();
+                return e.value();
+            }
+            remove(key, e);
+            expiredEvictions.increment();
+        }
+        misses.increment();
+        return null;
+    }
+
+    /** Returns the cached value for {@code key} without loading it or counting a hit or miss. */
+    public synchronized Optional<V> peek(K key) {
+        Entry<V> e = entries.get(key);
+        return e != null && e.expiresAt() - ticker.getAsLong() > 0 ? Optional.of(e.value()) : Optional.empty();
+    }
+
+    private synchronized void put(K key, V value, long startGeneration) {
+        if (startGeneration != generation) return;
+        int weight = Math.max(1, weigher.applyAsInt(value));
+        if (weight > maxWeight) return;
+        Entry<V> previous = entries.put(key, new Entry<>(value, weight, ticker.getAsLong() + ttlNanos));
+        if (previous != null) totalWeight -= previous.weight();
+        totalWeight += weight;
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && eldest.hasNext()) {
+            Map.Entry<K, Entry<V>> victim = eldest.next();
+            totalWeight -= victim.getValue().weight();
+            eldest.remove();
+            sizeEvictions.increment();
+        }
+    }
+
+    /** Drops the entry for {@code key}, if any. */
+    public synchronized void invalidate(K key) {
+        generation++;
+        Entry<V> e = entries.get(key);
+        if (e != null) {
+            remove(key, e);
+            explicitEvictions.increment();
+        }
+    }
+
+    /** Drops every entry matching {@code predicate}. Linear in the number of entries. */
+    public synchronized void invalidateIf(BiPredicate<K, V> predicate) {
+        generation++;
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Entry<V>> e = it.next();
+            if (predicate.test(e.getKey(), e.getValue().value())) {
+                totalWeight -= e.getValue().weight();
+                it.remove();
+                explicitEvictions.increment();
+            }
+        }
+    }
+
+    /** Drops all entries. */
+    public synchronized void invalidateAll() {
+        generation++;
+        explicitEvictions.increment(entries.size());
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    private void remove(K key, Entry<V> e) {
+        entries.remove(key);
+        totalWeight -= e.weight();
+    }
+
+    /** Number of cached entries. */
+    public synchronized int size() { return entries.size(); }
+
+    /** Summed weight of the cached entries. */
+    public synchronized long weight() { return totalWeight; }
+}
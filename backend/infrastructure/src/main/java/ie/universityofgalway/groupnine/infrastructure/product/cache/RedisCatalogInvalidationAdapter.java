@@ -0,0 +1,137 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.service.product.port.CatalogInvalidationPort;
+import ie.universityofgalway.groupnine.util.logging.AppLogger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Redis pub/sub implementation of {@link CatalogInvalidationPort}.
+ *
+ * <p>Each announcement first bumps the {@link CatalogVersion}, retiring every versioned cache
+ * entry cluster-wide, and is then handed to the local {@link CatalogChangeListener}s (such as the
+ * {@link CatalogNearCache}) immediately and is then published on {@link #CHANNEL} as
+ * {@code product:<uuid>} or {@code variant:<uuid>}; a bulk write bumps the version once and
+ * publishes a single {@code products:<uuid>,<uuid>,...} or {@code variants:<uuid>,...}. The same
+ * bean subscribes to the channel (see {@code CatalogCacheConfig}) and notifies the listeners on
+ * every node, including the publisher, which is harmless.</p>
+ */
+@Component
+public class RedisCatalogInvalidationAdapter implements CatalogInvalidationPort, MessageListener {
+
+    public static final String CHANNEL = "catalog:invalidate";
+    private static final String PRODUCT = "product:";
+    private static final String VARIANT = "variant:";
+    private static final String PRODUCTS = "products:";
+    private static final String VARIANTS = "variants:";
+    private static final AppLogger LOG = AppLogger.get(RedisCatalogInvalidationAdapter.class);
+
+    private final StringRedisTemplate redis;
+    private final List<CatalogChangeListener> listeners;
+    private final CatalogVersion version;
+
+    @Autowired
+    public RedisCatalogInvalidationAdapter(StringRedisTemplate redis, List<CatalogChangeListener> listeners,
+                                           CatalogVersion version) {
+        this.redis = redis;
+        this.listeners = List.copyOf(listeners);
+        this.version = version;
+    }
+
+    @Override
+    public void productChanged(ProductId productId) {
+        bumpVersion();
+        productChanged(productId.getId());
+        publish(PRODUCT + productId.getId());
+    }
+
+    @Override
+    public void productsChanged(Collection<ProductId> productIds) {
+        if (productIds.isEmpty()) return;
+        bumpVersion();
+        List<UUID> ids = productIds.stream().map(ProductId::getId).toList();
+        for (CatalogChangeListener l : listeners) l.onProductsChanged(ids);
+        publish(PRODUCTS + join(ids));
+    }
+
+    @Override
+    public void variantChanged(VariantId variantId) {
+        bumpVersion();
+        variantChanged(variantId.getId());
+        publish(VARIANT + variantId.getId());
+    }
+
+    @Override
+    public void variantsChanged(Collection<VariantId> variantIds) {
+        if (variantIds.isEmpty()) return;
+        bumpVersion();
+        List<UUID> ids = variantIds.stream().map(VariantId::getId).toList();
+        for (CatalogChangeListener l : listeners) l.onVariantsChanged(ids);
+        publish(VARIANTS + join(ids));
+    }
+
+    private static String join(List<UUID> ids) {
+        StringJoiner joined = new StringJoiner(",");
+        for (UUID id : ids) joined.add(id.toString());
+        return joined.toString();
+    }
+
+    private static List<UUID> split(String ids) {
+        return Arrays.stream(ids.split(",")).map(UUID::fromString).toList();
+    }
+
+    private void bumpVersion() {
+        version.bump();
+    }
+
+    private void publish(String payload) {
+        try {
+            redis.convertAndSend(CHANNEL, payload);
+        } catch (RuntimeException e) {
+            // Other nodes fall back to the cache TTL
+            LOG.warn("catalog_invalidation_publish_failed", "payload", payload, "error", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            if (payload.startsWith(PRODUCTS)) {
+                List<UUID> ids = split(payload.substring(PRODUCTS.length()));
+                for (CatalogChangeListener l : listeners) l.onProductsChanged(ids);
+            } else if (payload.startsWith(VARIANTS)) {
+                List<UUID> ids = split(payload.substring(VARIANTS.length()));
+                for (CatalogChangeListener l : listeners) l.onVariantsChanged(ids);
+            } else if (payload.startsWith(PRODUCT)) {
+                productChanged(UUID.fromString(payload.substring(PRODUCT.length())));
+            } else if (payload.startsWith(VARIANT)) {
+                variantChanged(UUID.fromString(payload.substring(VARIANT.length())));
+            } else {
+                LOG.warn("catalog_invalidation_unknown_message", "payload", payload);
+            }
+        } catch (IllegalArgumentException e) {
+            LOG.warn("catalog_invalidation_unknown_message", "payload", payload);
+        }
+    }
+
+    private void productChanged(UUID productId) {
+        for (CatalogChangeListener l : listeners) l.onProductChanged(productId);
+    }
+
+    private void variantChanged(UUID variantId) {
+        for (CatalogChangeListener l : listeners) l.onVariantChanged(variantId);
+    }
+}
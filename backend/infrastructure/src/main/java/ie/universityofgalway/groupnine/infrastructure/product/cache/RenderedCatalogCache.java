@@ -0,0 +1,346 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.service.product.port.RenderedCatalogCachePort;
+import ie.universityofgalway.groupnine.util.logging.AppLogger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache of rendered product and listing JSON: a byte-weighted {@link NearCache} per
+ * node in front of Redis entries shared by all nodes.
+ *
+ * <p>Product entries live under {@code catalog:json:product:<uuid>} together with the product's
+ * last-modified time and variant ids, and each variant id is mapped back to its product under
+ * {@code catalog:json:owner:<uuid>} so that announcements naming only a variant find the entry.
+ * A change event drops the node's copy at once and queues the product; a {@link CoalescingTask}
+ * then deletes the shared entry and, for products this node or Redis held, runs the registered
+ * callbacks to render them again. Every node receives every event, so a product cached on
+ * several nodes is rendered once per node; the renders are equivalent and the last one wins.
+ * Like {@link NearCache}, a render that started before a change event for its product is not
+ * stored in Redis: every event bumps the product's generation, and the render is stored only
+ * if the generation is unchanged. Generations are kept in {@value #GENERATION_STRIPES} stripes
+ * by product id, so a change to another product on the same stripe at most drops a write that
+ * was still fresh. A render that is stored just before the event on its node has its entry
+ * deleted by that node's regeneration.</p>
+ *
+ * <p>Pages live under {@code catalog:json:page:<version>:<sha256>} where {@link CatalogVersion}
+ * retires every page on any catalog write, and expire after a short TTL.</p>
+ *
+ * <p>Redis failures degrade to rendering. Publishes {@code catalog.rendered.cache} tagged
+ * {@code result=hit|miss|error} for the shared tier; the node tier reports through
+ * {@code catalog.cache.gets}.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.catalog.rendered-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class RenderedCatalogCache implements RenderedCatalogCachePort, CatalogChangeListener {
+
+    public static final String PRODUCT_PREFIX = "catalog:json:product:";
+    public static final String OWNER_PREFIX = "catalog:json:owner:";
+    public static final String PAGE_PREFIX = "catalog:json:page:";
+    private static final String NO_TIME = "-";
+    private static final int GENERATION_STRIPES = 1024;
+    private static final AppLogger LOG = AppLogger.get(RenderedCatalogCache.class);
+
+    private final StringRedisTemplate redis;
+    private final CatalogNearCache catalog;
+    private final NearCache<UUID, Rendered> products;
+    private final NearCache<String, Rendered> pages;
+    private final Duration ttl;
+    private final Duration pageTtl;
+    private final CoalescingTask regeneration;
+    private final Set<UUID> changedProducts = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> changedVariants = ConcurrentHashMap.newKeySet();
+    /** Products whose node copy was dropped by a change event, so that they are rendered again. */
+    private final Set<UUID> dropped = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<ProductId>> callbacks = new CopyOnWriteArrayList<>();
+    /** Change events seen per stripe of product ids; see {@link #generation}. */
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter errors;
+
+    @Autowired
+    public RenderedCatalogCache(StringRedisTemplate redis, CatalogNearCache catalog, ObjectProvider<MeterRegistry> meters,
+                                @Value("${app.catalog.rendered-cache.max-bytes:33554432}") long maxBytes,
+                                @Value("${app.catalog.rendered-cache.local-ttl-seconds:300}") long localTtlSeconds,
+                                @Value("${app.catalog.rendered-cache.ttl-seconds:3600}") long ttlSeconds,
+                                @Value("${app.catalog.rendered-cache.page-ttl-seconds:60}") long pageTtlSeconds,
+                                @Value("${app.catalog.rendered-cache.regenerate-delay-ms:100}") long delayMillis) {
+        this(redis, catalog, meters.getIfAvailable(SimpleMeterRegistry::new), maxBytes,
+                Duration.ofSeconds(localTtlSeconds), Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(pageTtlSeconds),
+                delayMillis);
+    }
+
+    public RenderedCatalogCache(StringRedisTemplate redis, CatalogNearCache catalog, MeterRegistry registry,
+                                long maxBytes, Duration localTtl, Duration ttl, Duration pageTtl, long delayMillis) {
+        if (ttl.isNegative() || ttl.isZero() || pageTtl.isNegative() || pageTtl.isZero()) {
+            throw new IllegalArgumentException("rendered-cache ttl must be > 0");
+        }
+        this.redis = redis;
+        this.catalog = catalog;
+        this.ttl = ttl;
+        this.pageTtl = pageTtl;
+        // Pages are few and short-lived; a quarter of the budget keeps them from pushing out products
+        this.products = new NearCache<>("rendered_products", maxBytes - maxBytes / 4, localTtl, r -> r.body().length, registry);
+        this.pages = new NearCache<>("rendered_pages", maxBytes / 4, pageTtl.compareTo(localTtl) < 0 ? pageTtl : localTtl,
+                r -> r.body().length, registry);
+        this.regeneration = new CoalescingTask("catalog-json-render", delayMillis, this::regenerate);
+        this.hits = counter(registry, "hit");
+        this.misses = counter(registry, "miss");
+        this.errors = counter(registry, "error");
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("catalog.rendered.cache").tag("result", result).register(registry);
+    }
+
+    @Override
+    public Optional<Rendered> product(ProductId id, Function<ProductId, Optional<Rendered>> render) {
+        return products.get(id.getId(), uuid -> {
+            long generation = generation(uuid);
+            Rendered shared = readProduct(uuid);
+            if (shared != null) {
+                hits.increment();
+                return Optional.of(shared);
+            }
+            misses.increment();
+            Optional<Rendered> rendered = render.apply(id);
+            rendered.ifPresent(r -> writeProduct(uuid, r, generation));
+            return rendered;
+        });
+    }
+
+    @Override
+    public Rendered page(long catalogVersion, String key, Supplier<Rendered> render) {
+        String redisKey = PAGE_PREFIX + catalogVersion + ":" + sha256(key);
+        return pages.get(redisKey, k -> {
+            String body = read(k);
+            if (body != null) {
+                hits.increment();
+                return Optional.of(new Rendered(body.getBytes(StandardCharsets.UTF_8), null, List.of()));
+            }
+            misses.increment();
+            Rendered rendered = render.get();
+            write(k, new String(rendered.body(), StandardCharsets.UTF_8), pageTtl);
+            return Optional.of(rendered);
+        }).orElseThrow();
+    }
+
+    @Override
+    public void regenerateWith(Consumer<ProductId> regenerate) {
+        callbacks.add(regenerate);
+    }
+
+    @Override
+    public void onProductChanged(UUID productId) {
+        changed(productId);
+        if (products.peek(productId).isPresent()) dropped.add(productId);
+        products.invalidate(productId);
+        changedProducts.add(productId);
+        regeneration.request();
+    }
+
+    @Override
+    public void onVariantChanged(UUID variantId) {
+        onVariantsChanged(List.of(variantId));
+    }
+
+    @Override
+    public void onProductsChanged(Collection<UUID> productIds) {
+        for (UUID id : productIds) {
+            changed(id);
+            if (products.peek(id).isPresent()) dropped.add(id);
+        }
+        productIds.forEach(products::invalidate);
+        changedProducts.addAll(productIds);
+        regeneration.request();
+    }
+
+    @Override
+    public void onVariantsChanged(Collection<UUID> variantIds) {
+        Set<UUID> variants = Set.copyOf(variantIds);
+        products.invalidateIf((productId, r) -> {
+            boolean shows = r.variants().stream().anyMatch(v -> variants.contains(v.getId()));
+            if (shows) {
+                changed(productId);
+                dropped.add(productId);
+            }
+            return shows;
+        });
+        changedVariants.addAll(variants);
+        regeneration.request();
+    }
+
+    /** Stops the regeneration worker. */
+    @PreDestroy
+    public void shutdown() {
+        regeneration.shutdown();
+    }
+
+    /** Runs on the worker: drops the shared copies of changed products, then renders them again. */
+    void regenerate() {
+        Set<UUID> changed = take(changedProducts);
+        changed.addAll(owners(take(changedVariants)));
+        if (changed.isEmpty()) return;
+        // Variant events name their products only now
+        changed.forEach(this::changed);
+        // The lookups the callbacks render from must not answer with the pre-change product,
+        // whatever order the listeners were notified in
+        catalog.evictProducts(changed);
+        for (UUID id : changed) {
+            // Also drops a copy read back from Redis between the event and now
+            products.invalidate(id);
+            boolean held = dropped.remove(id) | deleteProduct(id);
+            if (!held) continue;
+            for (Consumer<ProductId> callback : callbacks) {
+                try {
+                    callback.accept(new ProductId(id));
+                } catch (RuntimeException e) {
+                    LOG.warn("rendered_cache_regenerate_failed", "productId", id, "error", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /** Number of change events seen for products on the stripe of {@code id}. */
+    private long generation(UUID id) {
+        return generations.get(stripe(id));
+    }
+
+    private void changed(UUID id) {
+        generations.incrementAndGet(stripe(id));
+    }
+
+    private static int stripe(UUID id) {
+        return id.hashCode() & (GENERATION_STRIPES - 1);
+    }
+
+    private static Set<UUID> take(Set<UUID> queue) {
+        Set<UUID> taken = new HashSet<>(queue);
+        queue.removeAll(taken);
+        return taken;
+    }
+
+    private Set<UUID> owners(Set<UUID> variantIds) {
+        Set<UUID> owners = new HashSet<>();
+        if (variantIds.isEmpty()) return owners;
+        List<String> keys = variantIds.stream().map(v -> OWNER_PREFIX + v).toList();
+        try {
+            List<String> values = redis.opsForValue().multiGet(keys);
+            if (values == null) return owners;
+            for (String v : values) {
+                if (v != null) owners.add(UUID.fromString(v));
+            }
+        } catch (RuntimeException e) {
+            errors.increment();
+            LOG.warn("rendered_cache_owner_lookup_failed", "variants", variantIds.size(), "error", e.getMessage());
+        }
+        return owners;
+    }
+
+    private boolean deleteProduct(UUID id) {
+        try {
+            return Boolean.TRUE.equals(redis.delete(PRODUCT_PREFIX + id));
+        } catch (RuntimeException e) {
+            errors.increment();
+            LOG.warn("rendered_cache_delete_failed", "productId", id, "error", e.getMessage());
+            return false;
+        }
+    }
+
+    /** Product entries are {@code <last-modified>\n<variant ids, comma separated>\n<body>}. */
+    private Rendered readProduct(UUID id) {
+        String value = read(PRODUCT_PREFIX + id);
+        if (value == null) return null;
+        int first = value.indexOf('\n');
+        int second = first < 0 ? -1 : value.indexOf('\n', first + 1);
+        if (second < 0) return null;
+        try {
+            String time = value.substring(0, first);
+            Instant lastModified = time.equals(NO_TIME) ? null : Instant.parse(time);
+            List<VariantId> variants = new ArrayList<>();
+            String ids = value.substring(first + 1, second);
+            if (!ids.isEmpty()) {
+                for (String v : ids.split(",")) variants.add(new VariantId(UUID.fromString(v)));
+            }
+            byte[] body = value.substring(second + 1).getBytes(StandardCharsets.UTF_8);
+            return new Rendered(body, lastModified, variants);
+        } catch (RuntimeException e) {
+            errors.increment();
+            LOG.warn("rendered_cache_entry_unreadable", "productId", id, "error", e.getMessage());
+            return null;
+        }
+    }
+
+    /** Stores a render unless its product changed since {@code generation} was read. */
+    private void writeProduct(UUID id, Rendered rendered, long generation) {
+        StringBuilder value = new StringBuilder(rendered.body().length + 64);
+        value.append(rendered.lastModified() == null ? NO_TIME : rendered.lastModified().toString()).append('\n');
+        for (int i = 0; i < rendered.variants().size(); i++) {
+            if (i > 0) value.append(',');
+            value.append(rendered.variants().get(i).getId());
+        }
+        value.append('\n').append(new String(rendered.body(), StandardCharsets.UTF_8));
+        if (generation(id) != generation) return;
+        for (VariantId v : rendered.variants()) write(OWNER_PREFIX + v.getId(), id.toString(), ttl);
+        write(PRODUCT_PREFIX + id, value.toString(), ttl);
+    }
+
+    private String read(String key) {
+        try {
+            return redis.opsForValue().get(key);
+        } catch (RuntimeException e) {
+            errors.increment();
+            LOG.warn("rendered_cache_read_failed", "key", key, "error", e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String key, String value, Duration expiry) {
+        try {
+            redis.opsForValue().set(key, value, expiry);
+        } catch (RuntimeException e) {
+            errors.increment();
+            LOG.warn("rendered_cache_write_failed", "key", key, "error", e.getMessage());
+        }
+    }
+
+    private static String sha256(String s) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ie.universityofgalway.groupnine.domain.product.AttributeFilter;
+import ie.universityofgalway.groupnine.domain.product.CursorPage;
+import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.SearchQuery;
+import ie.universityofgalway.groupnine.util.logging.AppLogger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Redis cache of search result pages, shared by all nodes.
+ *
+ * <p>An entry holds the product ids of one page plus its total (and next cursor for keyset
+ * pages), never the products themselves; a hit's ids are hydrated together through the
+ * caller's lookup, which is normally the {@link CatalogNearCache} loading its misses in one
+ * batch. Keys are {@code catalog:search:<version>:<sha256>} where the hash covers a canonical
+ * form of the query, so the same search written differently (case of the keyword or category,
+ * order of attribute filters and values) shares one entry, and where {@link CatalogVersion}
+ * retires every entry on any catalog write. Entries also expire after a short TTL in case a
+ * version bump is lost.</p>
+ *
+ * <p>Concurrent misses for the same key on one node wait for a single search instead of each
+ * running it. Redis failures degrade to running the search uncached.</p>
+ *
+ * <p>Publishes {@code catalog.search.cache} tagged {@code result=hit|miss|coalesced|error}.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.catalog.search-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class SearchResultCache {
+
+    public static final String KEY_PREFIX = "catalog:search:";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final AppLogger LOG = AppLogger.get(SearchResultCache.class);
+
+    private final StringRedisTemplate redis;
+    private final CatalogVersion version;
+    private final Duration ttl;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter errors;
+
+    /** Serialized form of one cached page. */
+    record Entry(List<UUID> ids, Long total, String next) {}
+
+    @Autowired
+    public SearchResultCache(StringRedisTemplate redis, CatalogVersion version, ObjectProvider<MeterRegistry> meters,
+                             @Value("${app.catalog.search-cache.ttl-seconds:30}") long ttlSeconds) {
+        this(redis, version, meters.getIfAvailable(SimpleMeterRegistry::new), Duration.ofSeconds(ttlSeconds));
+    }
+
+    public SearchResultCache(StringRedisTemplate redis, CatalogVersion version, MeterRegistry registry, Duration ttl) {
+        if (ttl.isNegative() || ttl.isZero()) throw new IllegalArgumentException("search-cache ttl must be > 0");
+        this.redis = redis;
+        this.version = version;
+        this.ttl = ttl;
+        this.hits = counter(registry, "hit");
+        this.misses = counter(registry, "miss");
+        this.coalesced = counter(registry, "coalesced");
+        this.errors = counter(registry, "error");
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("catalog.search.cache").tag("result", result).register(registry);
+    }
+
+    /**
+     * Offset page of {@code query}, from the cache or else from {@code search}.
+     *
+     * @param search runs the search on a miss
+     * @param lookup resolves the cached product ids at once; an id missing from its result turns
+     *               the hit into a miss
+     */
+    public Page<Product> page(SearchQuery query, Pageable pageable, Supplier<Page<Product>> search,
+                              Function<List<UUID>, Map<UUID, Product>> lookup) {
+        String paging = pageable.isPaged()
+                ? "page=" + pageable.getOffset() + "," + pageable.getPageSize()
+                : "page=all";
+        return cached(canonical(query) + paging, search,
+                page -> new Entry(ids(page.getContent()), page.getTotalElements(), null),
+                entry -> {
+                    List<Product> content = hydrate(entry, lookup);
+                    return content == null ? null : new PageImpl<>(content, pageable, entry.total());
+                });
+    }
+
+    /**
+     * Keyset page of {@code query}, from the cache or else from {@code search}.
+     *
+     * @param search runs the search on a miss
+     * @param lookup resolves the cached product ids at once; an id missing from its result turns
+     *               the hit into a miss
+     */
+    public CursorPage<Product> slice(SearchQuery query, String cursor, int size, boolean includeTotal,
+                                     Supplier<CursorPage<Product>> search,
+                                     Function<List<UUID>, Map<UUID, Product>> lookup) {
+        StringBuilder paging = new StringBuilder();
+        field(paging, "after", cursor == null ? "" : cursor);
+        paging.append("size=").append(size).append(";total=").append(includeTotal);
+        return cached(canonical(query) + paging, search,
+                page -> new Entry(ids(page.content()), page.totalElements(), page.nextCursor()),
+                entry -> {
+                    List<Product> content = hydrate(entry, lookup);
+                    return content == null ? null : new CursorPage<>(content, entry.next(), entry.total());
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T cached(String canonical, Supplier<T> search, Function<T, Entry> toEntry, Function<Entry, T> fromEntry) {
+        String key;
+        try {
+            key = KEY_PREFIX + version.current() + ":" + sha256(canonical);
+        } catch (RuntimeException e) {
+            errors.increment();
+            LOG.warn("search_cache_version_unavailable", "error", e.getMessage());
+            return search.get();
+        }
+        Entry entry = read(key);
+        if (entry != null) {
+            T hit = fromEntry.apply(entry);
+            if (hit != null) {
+                hits.increment();
+                return hit;
+            }
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.increment();
+            return (T) await(leader);
+        }
+        misses.increment();
+        try {
+            T result = search.get();
+            write(key, toEntry.apply(result));
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            // Waiters see the leader's failure as if their own search had failed
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    private Entry read(String key) {
+        try {
+            String json = redis.opsForValue().get(key);
+            return json == null ? null : MAPPER.readValue(json, Entry.class);
+        } catch (Exception e) {
+            errors.increment();
+            LOG.warn("search_cache_read_failed", "key", key, "error", e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String key, Entry entry) {
+        try {
+            redis.opsForValue().set(key, MAPPER.writeValueAsString(entry), ttl);
+        } catch (Exception e) {
+            errors.increment();
+            LOG.warn("search_cache_write_failed", "key", key, "error", e.getMessage());
+        }
+    }
+
+    private static List<UUID> ids(List<Product> products) {
+        return products.stream().map(p -> p.getId().getId()).toList();
+    }
+
+    /** The entry's products in its order, looked up together; {@code null} when one is gone. */
+    private static List<Product> hydrate(Entry entry, Function<List<UUID>, Map<UUID, Product>> lookup) {
+        if (entry.ids().isEmpty()) return List.of();
+        Map<UUID, Product> found = lookup.apply(entry.ids());
+        List<Product> products = new ArrayList<>(entry.ids().size());
+        for (UUID id : entry.ids()) {
+            Product p = found.get(id);
+            if (p == null) return null;
+            products.add(p);
+        }
+        return products;
+    }
+
+    /**
+     * Canonical form of the query: every field length-prefixed so no keyword can imitate another
+     * field. The keyword and category are lower-cased and attribute values lower-cased, de-duplicated
+     * and sorted because the search matches them case-insensitively and as sets; attribute names
+     * are matched exactly and only their order is normalized.
+     */
+    static String canonical(SearchQuery query) {
+        StringBuilder b = new StringBuilder();
+        field(b, "sort", query.sortRule().name());
+        field(b, "key", query.key().toLowerCase(Locale.ROOT));
+        field(b, "category", query.category() == null ? "" : query.category().toLowerCase(Locale.ROOT));
+        field(b, "min", Integer.toString(query.minPriceCents()));
+        field(b, "max", Integer.toString(query.maxPriceCents()));
+        query.attributeFilters().stream()
+                .sorted(Comparator.comparing(AttributeFilter::name))
+                .forEach(f -> {
+                    field(b, "attr", f.name());
+                    (f.values() == null ? List.<String>of() : f.values()).stream()
+                            .map(v -> v.toLowerCase(Locale.ROOT))
+                            .distinct()
+                            .sorted()
+                            .forEach(v -> field(b, "value", v));
+                });
+        return b.toString();
+    }
+
+    private static void field(StringBuilder b, String name, String value) {
+        b.append(name).append('=').append(value.length()).append(':').append(value).append(';');
+    }
+
+    private static String sha256(String s) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
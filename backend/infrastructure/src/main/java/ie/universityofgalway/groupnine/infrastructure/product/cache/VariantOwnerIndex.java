@@ -0,0 +1,114 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable in-memory map from variant id to product id, answering whether a variant belongs to
+ * a product.
+ *
+ * <p>Entries are kept in one flat {@code long[]} open-addressing table of four longs per slot
+ * (variant and product id halves), at most half full, so a lookup is a hash and usually one
+ * probe, with no boxing and no per-entry objects. The nil UUID marks an empty slot and is never
+ * a variant.</p>
+ *
+ * <p>Instances are never modified after they are made; {@link #with} returns a new one.</p>
+ */
+public final class VariantOwnerIndex {
+
+    public static final VariantOwnerIndex EMPTY = build(Map.of());
+
+    private static final int SLOT = 4;
+
+    private final long[] table;
+    private final int mask;
+    private final int size;
+
+    private VariantOwnerIndex(long[] table, int size) {
+        this.table = table;
+        this.mask = table.length / SLOT - 1;
+        this.size = size;
+    }
+
+    /** An index of {@code owners}, product id by variant id. */
+    public static VariantOwnerIndex build(Map<UUID, UUID> owners) {
+        long[] fresh = newTable(owners.size());
+        int n = 0;
+        for (Map.Entry<UUID, UUID> e : owners.entrySet()) {
+            if (put(fresh, e.getKey(), e.getValue())) n++;
+        }
+        return new VariantOwnerIndex(fresh, n);
+    }
+
+    /**
+     * This index with the variants of {@code changedProducts} and {@code changedVariants}
+     * replaced by {@code owners}, their current products: entries for those products or
+     * variants not in {@code owners} are dropped.
+     */
+    public VariantOwnerIndex with(Map<UUID, UUID> owners, Set<UUID> changedProducts, Set<UUID> changedVariants) {
+        long[] fresh = newTable(size + owners.size());
+        int n = 0;
+        for (int at = 0; at < table.length; at += SLOT) {
+            if (table[at] == 0 && table[at + 1] == 0) continue;
+            UUID variant = new UUID(table[at], table[at + 1]);
+            UUID product = new UUID(table[at + 2], table[at + 3]);
+            if (changedVariants.contains(variant) || changedProducts.contains(product) || owners.containsKey(variant)) continue;
+            if (put(fresh, variant, product)) n++;
+        }
+        for (Map.Entry<UUID, UUID> e : owners.entrySet()) {
+            if (put(fresh, e.getKey(), e.getValue())) n++;
+        }
+        return new VariantOwnerIndex(fresh, n);
+    }
+
+    /** Whether {@code variant} is a variant of {@code product}. */
+    public boolean contains(UUID product, UUID variant) {
+        long msb = variant.getMostSignificantBits();
+        long lsb = variant.getLeastSignificantBits();
+        if (msb == 0 && lsb == 0) return false;
+        for (int slot = slot(msb, lsb, mask); ; slot = (slot + 1) & mask) {
+            int at = slot * SLOT;
+            if (table[at] == msb && table[at + 1] == lsb) {
+                return table[at + 2] == product.getMostSignificantBits()
+                        && table[at + 3] == product.getLeastSignificantBits();
+            }
+            if (table[at] == 0 && table[at + 1] == 0) return false;
+        }
+    }
+
+    /** Number of variants indexed. */
+    public int size() {
+        return size;
+    }
+
+    /** A table for {@code expected} entries, at most half full. */
+    private static long[] newTable(int expected) {
+        int slots = Integer.highestOneBit(Math.max(2, expected * 2 - 1)) << 1;
+        return new long[slots * SLOT];
+    }
+
+    /** Puts an entry into a table with a free slot; {@code false} when the variant was there already or is nil. */
+    private static boolean put(long[] table, UUID variant, UUID product) {
+        int mask = table.length / SLOT - 1;
+        long msb = variant.getMostSignificantBits();
+        long lsb = variant.getLeastSignificantBits();
+        if (msb == 0 && lsb == 0) return false;
+        for (int slot = slot(msb, lsb, mask); ; slot = (slot + 1) & mask) {
+            int at = slot * SLOT;
+            boolean free = table[at] == 0 && table[at + 1] == 0;
+            if (free || (table[at] == msb && table[at + 1] == lsb)) {
+                table[at] = msb;
+                table[at + 1] = lsb;
+                table[at + 2] = product.getMostSignificantBits();
+                table[at + 3] = product.getLeastSignificantBits();
+                return free;
+            }
+        }
+    }
+
+    private static int slot(long msb, long lsb, int mask) {
+        long h = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,25 @@
+package ie.universityofgalway.groupnine.infrastructure.product.config;
+
+import ie.universityofgalway.groupnine.infrastructure.product.cache.RedisCatalogInvalidationAdapter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class CatalogCacheConfig {
+
+    /**
+     * Subscribes every node to catalog invalidation messages so that near-cache entries
+     * written elsewhere are dropped as soon as the message arrives.
+     */
+    @Bean
+    public RedisMessageListenerContainer catalogInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                              RedisCatalogInvalidationAdapter listener) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(listener, new ChannelTopic(RedisCatalogInvalidationAdapter.CHANNEL));
+        return container;
+    }
+}
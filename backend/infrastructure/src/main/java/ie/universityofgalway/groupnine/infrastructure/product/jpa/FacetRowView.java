@@ -0,0 +1,21 @@
+package ie.universityofgalway.groupnine.infrastructure.product.jpa;
+
+/**
+ * One row of the {@link ProductSearchRepository#searchFacets} result. The {@code kind} column
+ * says which facet the row belongs to and which of the other columns are set:
+ * <ul>
+ *   <li>{@code CATEGORY}: {@code facetValue}, {@code count}</li>
+ *   <li>{@code ATTRIBUTE}: {@code facetKey}, {@code facetValue}, {@code count} and {@code keyRank},
+ *       the 1-based position of the key by number of matching products</li>
+ *   <li>{@code PRICE}: {@code lowCents} (inclusive), {@code highCents} (exclusive), {@code count}</li>
+ * </ul>
+ */
+public interface FacetRowView {
+  String getKind();
+  String getFacetKey();
+  String getFacetValue();
+  Long getCount();
+  Integer getLowCents();
+  Integer getHighCents();
+  Long getKeyRank();
+}
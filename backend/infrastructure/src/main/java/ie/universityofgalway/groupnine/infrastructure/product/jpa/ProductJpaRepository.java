@@ -1,5 +1,7 @@
 package ie.universityofgalway.groupnine.infrastructure.product.jpa;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
@@ -10,154 +12,219 @@ import org.springframework.data.repository.query.Param;
 
 /**
  * Spring Data JPA repository for {@link ProductEntity}.
- * Provides CRUD operations and custom queries for products.
+ * Provides CRUD operations and custom queries for products; catalog search lives in
+ * {@link ProductSearchRepository}.
  */
-public interface ProductJpaRepository extends JpaRepository<ProductEntity, Long> {
+public interface ProductJpaRepository extends JpaRepository<ProductEntity, Long>, ProductSearchRepository {
+
+  /** Columns of {@link ProductSummaryView}; variants are fetched separately for the whole page. */
+  String SUMMARY_COLUMNS = """
+    SELECT p.id AS id, p.uuid AS uuid, p.name AS name, p.description AS description,
+           p.category AS category, p.created_at AS createdAt, p.updated_at AS updatedAt
+    """;
+
+  /** {@link #SUMMARY_COLUMNS} without the description, which listing tiles do not show. */
+  String LISTING_COLUMNS = """
+    SELECT p.id AS id, p.uuid AS uuid, p.name AS name, NULL AS description,
+           p.category AS category, p.created_at AS createdAt, p.updated_at AS updatedAt
+    """;
 
   /**
    * Finds a page of products that have at least one available variant.
+   * Returns variant-free projections; see {@link VariantJpaRepository#findViewsByProductIds}.
    * @param pageable The pagination information.
    * @return A {@link Page} of available products.
    */
-  @Query("SELECT DISTINCT p FROM ProductEntity p JOIN p.variants v WHERE v.available = true")
-  Page<ProductEntity> findByAvailableTrue(Pageable pageable);
+  @Query(value = """
+      SELECT p.id AS id, p.uuid AS uuid, p.name AS name, p.description AS description,
+             p.category AS category, p.createdAt AS createdAt, p.updatedAt AS updatedAt
+      FROM ProductEntity p
+      WHERE EXISTS (SELECT 1 FROM VariantEntity v WHERE v.product = p AND v.available = true)
+      """,
+      countQuery = """
+      SELECT COUNT(p) FROM ProductEntity p
+      WHERE EXISTS (SELECT 1 FROM VariantEntity v WHERE v.product = p AND v.available = true)
+      """)
+  Page<ProductSummaryView> findByAvailableTrue(Pageable pageable);
 
   /**
    * Finds a page of products in a given category that have at least one available variant.
+   * Returns variant-free projections; see {@link VariantJpaRepository#findViewsByProductIds}.
    * @param category The product category to search for (case-insensitive).
    * @param pageable The pagination information.
    * @return A {@link Page} of available products in the specified category.
    */
-  @Query("SELECT DISTINCT p FROM ProductEntity p JOIN p.variants v WHERE LOWER(p.category) = LOWER(:category) AND v.available = true")
-  Page<ProductEntity> findByCategoryIgnoreCaseAndAvailableTrue(String category, Pageable pageable);
+  @Query(value = """
+      SELECT p.id AS id, p.uuid AS uuid, p.name AS name, p.description AS description,
+             p.category AS category, p.createdAt AS createdAt, p.updatedAt AS updatedAt
+      FROM ProductEntity p
+      WHERE LOWER(p.category) = LOWER(:category)
+        AND EXISTS (SELECT 1 FROM VariantEntity v WHERE v.product = p AND v.available = true)
+      """,
+      countQuery = """
+      SELECT COUNT(p) FROM ProductEntity p
+      WHERE LOWER(p.category) = LOWER(:category)
+        AND EXISTS (SELECT 1 FROM VariantEntity v WHERE v.product = p AND v.available = true)
+      """)
+  Page<ProductSummaryView> findByCategoryIgnoreCaseAndAvailableTrue(@Param("category") String category, Pageable pageable);
 
   /**
-   * Searches for products with optional text, category, and variant-level filters.
+   * {@link #findByAvailableTrue} without reading descriptions; {@code getDescription()} is
+   * {@code null}.
+   */
+  @Query(value = """
+      SELECT p.id AS id, p.uuid AS uuid, p.name AS name, CAST(NULL AS String) AS description,
+             p.category AS category, p.createdAt AS createdAt, p.updatedAt AS updatedAt
+      FROM ProductEntity p
+      WHERE EXISTS (SELECT 1 FROM VariantEntity v WHERE v.product = p AND v.available = true)
+      """,
+      countQuery = """
+      SELECT COUNT(p) FROM ProductEntity p
+      WHERE EXISTS (SELECT 1 FROM VariantEntity v WHERE v.product = p AND v.available = true)
+      """)
+  Page<ProductSummaryView> findListingsAvailable(Pageable pageable);
+
+  /**
+   * {@link #findByCategoryIgnoreCaseAndAvailableTrue} without reading descriptions;
+   * {@code getDescription()} is {@code null}.
+   */
+  @Query(value = """
+      SELECT p.id AS id, p.uuid AS uuid, p.name AS name, CAST(NULL AS String) AS description,
+             p.category AS category, p.createdAt AS createdAt, p.updatedAt AS updatedAt
+      FROM ProductEntity p
+      WHERE LOWER(p.category) = LOWER(:category)
+        AND EXISTS (SELECT 1 FROM VariantEntity v WHERE v.product = p AND v.available = true)
+      """,
+      countQuery = """
+      SELECT COUNT(p) FROM ProductEntity p
+      WHERE LOWER(p.category) = LOWER(:category)
+        AND EXISTS (SELECT 1 FROM VariantEntity v WHERE v.product = p AND v.available = true)
+      """)
+  Page<ProductSummaryView> findListingsAvailableByCategory(@Param("category") String category, Pageable pageable);
+
+  /**
+   * Pages over every product (admin listing) as variant-free projections.
+   * @param pageable The pagination information.
+   * @return A {@link Page} of product summaries.
+   */
+  @Query(value = """
+      SELECT p.id AS id, p.uuid AS uuid, p.name AS name, p.description AS description,
+             p.category AS category, p.createdAt AS createdAt, p.updatedAt AS updatedAt
+      FROM ProductEntity p
+      """,
+      countQuery = "SELECT COUNT(p) FROM ProductEntity p")
+  Page<ProductSummaryView> findAllSummaries(Pageable pageable);
+
+  /**
+   * Keyset listing of products with at least one available variant, ordered by product id. Each
+   * combination of category and position has its own statement, so none is planned around a
+   * parameter that may be {@code null}.
    *
-   * <p>Behavior:</p>
-   * <ul>
-   *   <li><strong>Category:</strong> Ignored when {@code null} or blank; matched using case-insensitive equality
-   *       against the product category.</li>
-   *   <li><strong>Keyword (key):</strong> Ignored when {@code null} or blank; matches when either:
-   *       <ul>
-   *         <li>The product name or description contains the keyword (using {@code ILIKE}), or</li>
-   *         <li>The trigram similarity exceeds {@code simCutoff} (via {@code pg_trgm}).</li>
-   *       </ul>
-   *   </li>
-   *   <li><strong>Price bounds:</strong> A product is included if <em>at least one</em> variant has
-   *       {@code priceCents >= minPrice} (when provided) and {@code priceCents <= maxPrice} (when provided).</li>
-   *   <li><strong>Attributes (JSONB):</strong> Ignored when {@code attrJson} is {@code null}.
-   *       For every requested key in {@code attrJson}:
-   *       <ul>
-   *         <li>The variant must contain that key.</li>
-   *         <li>At least one requested value must match the variant’s value(s), treating both scalars and arrays uniformly.
-   *             Comparisons are case-insensitive.</li>
-   *       </ul>
-   *   </li>
-   *   <li><strong>Results:</strong> Returns distinct products using {@code GROUP BY p.id};
-   *       sorting can use minimum or maximum variant price per product, depending on {@code sort}.</li>
-   * </ul>
+   * @param category optional category filter (case-insensitive); {@code null} for all
+   * @param afterId  product id of the last row already returned; {@code null} for the first slice
+   * @param limit    maximum number of rows to return
+   */
+  default List<ProductSummaryView> findAvailableAfter(String category, Long afterId, int limit) {
+    if (category == null) return afterId == null ? findAvailableFirst(limit) : findAvailableNext(afterId, limit);
+    return afterId == null
+        ? findAvailableInCategoryFirst(category, limit)
+        : findAvailableInCategoryNext(category, afterId, limit);
+  }
+
+  /** {@link #findAvailableAfter} without reading descriptions; {@code getDescription()} is {@code null}. */
+  default List<ProductSummaryView> findListingsAvailableAfter(String category, Long afterId, int limit) {
+    if (category == null) {
+      return afterId == null ? findListingsAvailableFirst(limit) : findListingsAvailableNext(afterId, limit);
+    }
+    return afterId == null
+        ? findListingsAvailableInCategoryFirst(category, limit)
+        : findListingsAvailableInCategoryNext(category, afterId, limit);
+  }
+
+  /** Documents of products with at least one available variant, joined to their products. */
+  String AVAILABLE_FROM = """
+    FROM product_search_document d
+    JOIN products p ON p.id = d.product_id
+    WHERE d.is_available
+    """;
+
+  String IN_CATEGORY = "  AND d.category_lc = LOWER(:category)\n";
+
+  String AFTER_ID = "  AND d.product_id > :afterId\n";
+
+  String BY_ID = "ORDER BY d.product_id\nLIMIT :limit\n";
+
+  @Query(value = SUMMARY_COLUMNS + AVAILABLE_FROM + BY_ID, nativeQuery = true)
+  List<ProductSummaryView> findAvailableFirst(@Param("limit") int limit);
+
+  @Query(value = SUMMARY_COLUMNS + AVAILABLE_FROM + AFTER_ID + BY_ID, nativeQuery = true)
+  List<ProductSummaryView> findAvailableNext(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+  @Query(value = SUMMARY_COLUMNS + AVAILABLE_FROM + IN_CATEGORY + BY_ID, nativeQuery = true)
+  List<ProductSummaryView> findAvailableInCategoryFirst(@Param("category") String category, @Param("limit") int limit);
+
+  @Query(value = SUMMARY_COLUMNS + AVAILABLE_FROM + IN_CATEGORY + AFTER_ID + BY_ID, nativeQuery = true)
+  List<ProductSummaryView> findAvailableInCategoryNext(@Param("category") String category,
+                                                       @Param("afterId") Long afterId,
+                                                       @Param("limit") int limit);
+
+  @Query(value = LISTING_COLUMNS + AVAILABLE_FROM + BY_ID, nativeQuery = true)
+  List<ProductSummaryView> findListingsAvailableFirst(@Param("limit") int limit);
+
+  @Query(value = LISTING_COLUMNS + AVAILABLE_FROM + AFTER_ID + BY_ID, nativeQuery = true)
+  List<ProductSummaryView> findListingsAvailableNext(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+  @Query(value = LISTING_COLUMNS + AVAILABLE_FROM + IN_CATEGORY + BY_ID, nativeQuery = true)
+  List<ProductSummaryView> findListingsAvailableInCategoryFirst(@Param("category") String category,
+                                                                @Param("limit") int limit);
+
+  @Query(value = LISTING_COLUMNS + AVAILABLE_FROM + IN_CATEGORY + AFTER_ID + BY_ID, nativeQuery = true)
+  List<ProductSummaryView> findListingsAvailableInCategoryNext(@Param("category") String category,
+                                                               @Param("afterId") Long afterId,
+                                                               @Param("limit") int limit);
+
+  /** Counts products with at least one available variant, optionally within a category. */
+  default long countAvailable(String category) {
+    return category == null ? countAllAvailable() : countAvailableInCategory(category);
+  }
+
+  @Query(value = "SELECT COUNT(*) FROM product_search_document d WHERE d.is_available", nativeQuery = true)
+  long countAllAvailable();
+
+  @Query(value = "SELECT COUNT(*) FROM product_search_document d WHERE d.is_available\n" + IN_CATEGORY,
+         nativeQuery = true)
+  long countAvailableInCategory(@Param("category") String category);
+
+  /**
+   * Keyset scan over every product in internal id order, as variant-free projections.
    *
-   * @param category   optional category filter (case-insensitive); ignored if {@code null} or blank
-   * @param key        optional search keyword for name or description; ignored if {@code null} or blank
-   * @param minPrice   optional minimum variant price in cents; ignored if {@code null}
-   * @param maxPrice   optional maximum variant price in cents; ignored if {@code null}
-   * @param sort       sort rule controlling ordering (cheapest, most expensive, newest); other values leave natural order
-   * @param simCutoff  similarity threshold used with trigram matching
-   * @param attrJson   JSON string representing attribute filters; {@code null} to skip JSONB comparison
-   * @param pageable   pagination and sorting configuration
-   * @return a {@link Page} of {@link ProductEntity} records matching all applied filters
+   * @param afterId internal id of the last row already read; {@code null} for the first batch
+   * @param limit   maximum number of rows to return
+   */
+  default List<ProductSummaryView> findSummariesAfter(Long afterId, int limit) {
+    return afterId == null ? findSummariesFirst(limit) : findSummariesNext(afterId, limit);
+  }
+
+  @Query(value = SUMMARY_COLUMNS + "FROM products p\nORDER BY p.id\nLIMIT :limit\n", nativeQuery = true)
+  List<ProductSummaryView> findSummariesFirst(@Param("limit") int limit);
+
+  @Query(value = SUMMARY_COLUMNS + "FROM products p\nWHERE p.id > :afterId\nORDER BY p.id\nLIMIT :limit\n",
+         nativeQuery = true)
+  List<ProductSummaryView> findSummariesNext(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+  /**
+   * All products with at least one available variant, as variant-free projections; the source
+   * of the in-memory suggestion index.
    */
   @Query(
-    value = """
-    SELECT p.*
-    FROM products p
-    JOIN product_variants v ON v.product_id = p.id
-    WHERE (:category IS NULL OR :category = '' OR LOWER(p.category) = LOWER(:category))
-      AND (
-        :key IS NULL OR :key = ''
-        OR p.name ILIKE '%' || :key || '%' ESCAPE '\'
-        OR p.description ILIKE '%' || :key || '%' ESCAPE '\'
-        OR similarity(p.name, :key) > :simCutoff
-        OR similarity(p.description, :key) > :simCutoff
-      )
-      AND (:minPrice IS NULL OR v.price_cents >= :minPrice)
-      AND (:maxPrice IS NULL OR v.price_cents <= :maxPrice)
-      AND (
-        :attr IS NULL
-        OR NOT EXISTS (
-          SELECT 1
-          FROM jsonb_object_keys(CAST(:attr AS jsonb)) AS reqk(key)
-          WHERE NOT (
-            jsonb_exists(v.attributes, reqk.key)
-            AND EXISTS (
-              SELECT 1
-              FROM jsonb_array_elements_text(
-                     CASE
-                       WHEN jsonb_typeof(v.attributes -> reqk.key) = 'array'
-                         THEN v.attributes -> reqk.key
-                       ELSE jsonb_build_array(v.attributes -> reqk.key)
-                     END
-                   ) AS cand(val)
-              JOIN jsonb_array_elements_text(CAST(:attr AS jsonb) -> reqk.key) AS req(val2)
-                ON lower(cand.val) = lower(req.val2)
-            )
-          )
-        )
-      )
-    GROUP BY p.id
-    ORDER BY
-      CASE WHEN :sort = 'PRICE_LOW_TO_HIGH' THEN MIN(v.price_cents) END ASC,
-      CASE WHEN :sort = 'PRICE_HIGH_TO_LOW' THEN MAX(v.price_cents) END DESC,
-      CASE WHEN :sort = 'NEWEST_FIRST' THEN p.created_at END DESC
-    """,
-    countQuery = """
-    SELECT COUNT(DISTINCT p.id)
-    FROM products p
-    JOIN product_variants v ON v.product_id = p.id
-    WHERE (:category IS NULL OR :category = '' OR lower(p.category) = lower(:category))
-      AND (
-        :key IS NULL OR :key = ''
-        OR p.name ILIKE '%' || :key || '%'
-        OR p.description ILIKE '%' || :key || '%'
-        OR similarity(p.name, :key) > :simCutoff
-        OR similarity(p.description, :key) > :simCutoff
-      )
-      AND (:minPrice IS NULL OR v.price_cents >= :minPrice)
-      AND (:maxPrice IS NULL OR v.price_cents <= :maxPrice)
-      AND (
-        :attr IS NULL
-        OR NOT EXISTS (
-          SELECT 1
-          FROM jsonb_object_keys(CAST(:attr AS jsonb)) AS reqk(key)
-          WHERE NOT (
-            jsonb_exists(v.attributes, reqk.key)
-            AND EXISTS (
-              SELECT 1
-              FROM jsonb_array_elements_text(
-                     CASE
-                       WHEN jsonb_typeof(v.attributes -> reqk.key) = 'array'
-                         THEN v.attributes -> reqk.key
-                       ELSE jsonb_build_array(v.attributes -> reqk.key)
-                     END
-                   ) AS cand(val)
-              JOIN jsonb_array_elements_text(CAST(:attr AS jsonb) -> reqk.key) AS req(val2)
-                ON lower(cand.val) = lower(req.val2)
-            )
-          )
-        )
-      )
+    value = SUMMARY_COLUMNS + """
+    FROM product_search_document d
+    JOIN products p ON p.id = d.product_id
+    WHERE d.is_available
+    ORDER BY d.product_id
     """,
     nativeQuery = true)
-  Page<ProductEntity> search(@Param("category") String category,
-                             @Param("key") String key,
-                             @Param("minPrice") Integer minPrice,
-                             @Param("maxPrice") Integer maxPrice,
-                             @Param("sort") String sort,
-                             @Param("simCutoff") Double simCutoff,
-                             @Param("attr") String attrJson,
-                             Pageable pageable);
-
+  List<ProductSummaryView> findSuggestionSources();
 
   /**
    * Finds a product by its public UUID identifier.
@@ -168,6 +235,25 @@ public interface ProductJpaRepository extends JpaRepository<ProductEntity, Long>
 
   boolean existsByUuid(UUID uuid);
 
+  /**
+   * Products with the given public ids, as variant-free projections, in one statement. The ids
+   * are bound as a single array so that every batch size shares one prepared statement.
+   */
+  @Query(
+    value = SUMMARY_COLUMNS + """
+    FROM products p
+    WHERE p.uuid = ANY(:uuids)
+    """,
+    nativeQuery = true)
+  List<ProductSummaryView> findSummariesByUuids(@Param("uuids") UUID[] uuids);
+
+  /**
+   * The product's {@code updated_at}, which writes to its variants bump as well (V21); its
+   * version for HTTP validators.
+   */
+  @Query("SELECT p.updatedAt FROM ProductEntity p WHERE p.uuid = :uuid")
+  Optional<Instant> findUpdatedAtByUuid(@Param("uuid") UUID uuid);
+
   @Query("SELECT p FROM ProductEntity p JOIN p.variants v WHERE v.uuid = :variantUuid")
   Optional<ProductEntity> findByVariantUuid(@Param("variantUuid") UUID variantUuid);
 }
@@ -0,0 +1,46 @@
+package ie.universityofgalway.groupnine.infrastructure.product.jpa;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Read model row backing catalog search, one per product.
+ * Mapped to the "product_search_document" table.
+ *
+ * <p>Rows are never written through JPA; they are (re)built by the native upserts on
+ * {@link ProductSearchDocumentJpaRepository} whenever a product, its variants or its
+ * stock change. Only the scalar columns are mapped here; the tsvector, trigram text and
+ * attribute token columns are used exclusively from native SQL.</p>
+ */
+@Entity
+@Immutable
+@Table(name = "product_search_document")
+public class ProductSearchDocumentEntity {
+
+  @Id
+  @Column(name = "product_id")
+  private Long productId;
+
+  @Column(name = "product_uuid", nullable = false) private UUID productUuid;
+  @Column(name = "category_lc", nullable = false)  private String categoryLc;
+  @Column(name = "min_price_cents")                private Integer minPriceCents;
+  @Column(name = "max_price_cents")                private Integer maxPriceCents;
+  @Column(name = "variant_count", nullable = false) private int variantCount;
+  @Column(name = "is_available", nullable = false)  private boolean available;
+  @Column(name = "sales_rank", nullable = false)    private double salesRank;
+  @Column(name = "created_at", nullable = false)    private Instant createdAt;
+  @Column(name = "refreshed_at", nullable = false)  private Instant refreshedAt;
+
+  public Long getProductId() { return productId; }
+  public UUID getProductUuid() { return productUuid; }
+  public String getCategoryLc() { return categoryLc; }
+  public Integer getMinPriceCents() { return minPriceCents; }
+  public Integer getMaxPriceCents() { return maxPriceCents; }
+  public int getVariantCount() { return variantCount; }
+  public double getSalesRank() { return salesRank; }
+  public boolean isAvailable() { return available; }
+  public Instant getCreatedAt() { return createdAt; }
+  public Instant getRefreshedAt() { return refreshedAt; }
+}
@@ -0,0 +1,110 @@
+package ie.universityofgalway.groupnine.infrastructure.product.jpa;
+
+import java.util.Collection;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Spring Data JPA repository maintaining the {@link ProductSearchDocumentEntity} read model.
+ *
+ * <p>Each refresh re-aggregates a single product from {@code products} and
+ * {@code product_variants} and upserts the result, so writers only pay for the product
+ * they touched. Deleting a product removes its document through the FK cascade.</p>
+ */
+public interface ProductSearchDocumentJpaRepository extends JpaRepository<ProductSearchDocumentEntity, Long> {
+
+  /** Aggregation shared by the refresh variants; callers append the product predicate. */
+  String REFRESH_SELECT = """
+    INSERT INTO product_search_document (product_id, product_uuid, category_lc, search_name, search_text, search_tsv,
+                                         search_rank_tsv, min_price_cents, max_price_cents, variant_count,
+                                         is_available, attribute_tokens, sales_rank, created_at, refreshed_at)
+    SELECT p.id,
+           p.uuid,
+           lower(p.category),
+           lower(p.name),
+           lower(p.name || ' ' || coalesce(p.description, '')),
+           to_tsvector('simple', p.name || ' ' || coalesce(p.description, '')),
+           setweight(to_tsvector('simple', p.name), 'A')
+             || setweight(to_tsvector('simple', coalesce(p.category, '')), 'B')
+             || setweight(to_tsvector('simple', coalesce(p.description, '')), 'C')
+             || setweight(to_tsvector('simple', coalesce((SELECT string_agg(DISTINCT e.val, ' ')
+                     FROM product_variants av
+                     CROSS JOIN LATERAL jsonb_each(av.attributes) AS a(key, val)
+                     CROSS JOIN LATERAL jsonb_array_elements_text(
+                       CASE WHEN jsonb_typeof(a.val) = 'array' THEN a.val ELSE jsonb_build_array(a.val) END
+                     ) AS e(val)
+                     WHERE av.product_id = p.id AND av.attributes IS NOT NULL), '')), 'D'),
+           MIN(v.price_cents),
+           MAX(v.price_cents),
+           COUNT(v.id),
+           coalesce(bool_or(v.is_available), FALSE),
+           coalesce((SELECT array_agg(DISTINCT a.key || '=' || lower(e.val))
+                     FROM product_variants av
+                     CROSS JOIN LATERAL jsonb_each(av.attributes) AS a(key, val)
+                     CROSS JOIN LATERAL jsonb_array_elements_text(
+                       CASE WHEN jsonb_typeof(a.val) = 'array' THEN a.val ELSE jsonb_build_array(a.val) END
+                     ) AS e(val)
+                     WHERE av.product_id = p.id AND av.attributes IS NOT NULL), '{}'),
+           coalesce((SELECT c.score_30d FROM product_sales_counters c WHERE c.product_id = p.id), 0),
+           p.created_at,
+           NOW()
+    FROM products p
+    LEFT JOIN product_variants v ON v.product_id = p.id
+    """;
+
+  String REFRESH_UPSERT = """
+    GROUP BY p.id
+    ON CONFLICT (product_id) DO UPDATE SET
+      product_uuid     = EXCLUDED.product_uuid,
+      category_lc      = EXCLUDED.category_lc,
+      search_name      = EXCLUDED.search_name,
+      search_text      = EXCLUDED.search_text,
+      search_tsv       = EXCLUDED.search_tsv,
+      search_rank_tsv  = EXCLUDED.search_rank_tsv,
+      min_price_cents  = EXCLUDED.min_price_cents,
+      max_price_cents  = EXCLUDED.max_price_cents,
+      variant_count    = EXCLUDED.variant_count,
+      is_available     = EXCLUDED.is_available,
+      attribute_tokens = EXCLUDED.attribute_tokens,
+      sales_rank       = EXCLUDED.sales_rank,
+      created_at       = EXCLUDED.created_at,
+      refreshed_at     = EXCLUDED.refreshed_at
+    """;
+
+  /**
+   * Rebuilds the search document of one product from its current rows.
+   * Pending entity changes are flushed first so the aggregation sees them.
+   *
+   * @param productId internal (numeric) product id
+   * @return number of documents written (0 when the product no longer exists)
+   */
+  @Modifying(flushAutomatically = true)
+  @Query(value = REFRESH_SELECT + "WHERE p.id = :productId\n" + REFRESH_UPSERT, nativeQuery = true)
+  int refreshForProduct(@Param("productId") Long productId);
+
+  /**
+   * Rebuilds the search documents of several products in one statement, for bulk writers.
+   *
+   * @param productIds internal (numeric) product ids
+   * @return number of documents written
+   */
+  @Modifying(flushAutomatically = true)
+  @Query(value = REFRESH_SELECT + "WHERE p.id IN (:productIds)\n" + REFRESH_UPSERT, nativeQuery = true)
+  int refreshForProducts(@Param("productIds") Collection<Long> productIds);
+
+  /**
+   * Rebuilds the search document of the product owning the given variant.
+   * Used by writers that only know the variant, such as stock adjustments.
+   *
+   * @param variantUuid public variant id
+   * @return number of documents written (0 when the variant no longer exists)
+   */
+  @Modifying(flushAutomatically = true)
+  @Query(value = REFRESH_SELECT
+      + "WHERE p.id = (SELECT pv.product_id FROM product_variants pv WHERE pv.uuid = :variantUuid)\n"
+      + REFRESH_UPSERT, nativeQuery = true)
+  int refreshForVariant(@Param("variantUuid") UUID variantUuid);
+}
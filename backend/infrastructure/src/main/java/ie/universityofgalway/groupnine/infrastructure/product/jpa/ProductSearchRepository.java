@@ -0,0 +1,105 @@
+package ie.universityofgalway.groupnine.infrastructure.product.jpa;
+
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Catalog search queries of {@link ProductJpaRepository}, implemented by
+ * {@link ProductSearchRepositoryImpl} with statements from {@link ProductSearchSql} instead of
+ * {@code @Query} strings, so that each request only carries the predicates it uses.
+ */
+public interface ProductSearchRepository {
+
+  /**
+   * Searches for products with optional text, category, and variant-level filters.
+   *
+   * <p>Filtering, ordering and counting run against the one-row-per-product
+   * {@code product_search_document} read model (see {@link ProductSearchDocumentJpaRepository});
+   * {@code products} is only joined on its primary key to materialize the page rows.</p>
+   *
+   * <p>Behavior:</p>
+   * <ul>
+   *   <li><strong>Category:</strong> Ignored when {@code null} or blank; matched using case-insensitive equality
+   *       against the pre-lowered document category.</li>
+   *   <li><strong>Keyword (key):</strong> Ignored when {@code null} or blank; matches when either:
+   *       <ul>
+   *         <li>The precomputed {@code simple} tsvector matches the keyword's words,</li>
+   *         <li>The lower-cased name/description text contains the keyword (using {@code ILIKE}), or</li>
+   *         <li>The trigram similarity of the name or full text exceeds {@code simCutoff} (via {@code pg_trgm}).</li>
+   *       </ul>
+   *   </li>
+   *   <li><strong>Price bounds and attributes:</strong> A product is included if <em>one</em> of its
+   *       variants has {@code priceCents >= minPrice} (when provided), {@code priceCents <= maxPrice}
+   *       (when provided) and, for every requested key in {@code attrJson}, a value (scalar or array
+   *       element) equal to one of the requested values, case-insensitively. The document's price range
+   *       and {@code key=value} tokens only narrow the candidates first.</li>
+   *   <li><strong>Results:</strong> One row per product; price sorts use the document's minimum or maximum
+   *       variant price, ties broken by product id. The sort of {@code pageable} is not used.</li>
+   *   <li><strong>Relevance:</strong> With {@code sort = RELEVANCE} and a keyword, the keyword instead matches
+   *       the weighted {@code search_rank_tsv} (name, category, description, attribute values) and rows are
+   *       ordered by {@code ts_rank_cd}. Only when that finds fewer than
+   *       {@link ProductSearchSql#RELEVANCE_MIN_TEXT_HITS} documents are substring and trigram matches
+   *       added, ranked after full-text matches by similarity. Without a keyword it orders like the default.</li>
+   * </ul>
+   *
+   * @param category   optional category filter (case-insensitive); ignored if {@code null} or blank
+   * @param key        optional search keyword for name or description; ignored if {@code null} or blank
+   * @param minPrice   optional minimum variant price in cents; ignored if {@code null}
+   * @param maxPrice   optional maximum variant price in cents; ignored if {@code null}
+   * @param sort       sort rule controlling ordering (cheapest, most expensive, newest, relevance); other values leave natural order
+   * @param simCutoff  similarity threshold used with trigram matching
+   * @param attrJson   JSON object of attribute key to requested values; {@code null} to skip attribute matching
+   * @param pageable   page number and size
+   * @return a {@link Page} of {@link ProductSummaryView} rows matching all applied filters
+   */
+  Page<ProductSummaryView> search(String category, String key, Integer minPrice, Integer maxPrice, String sort,
+                                  Double simCutoff, String attrJson, Pageable pageable);
+
+  /**
+   * Keyset form of {@link #search}: same filters and order, but resumes strictly after the
+   * given position instead of skipping rows with OFFSET, and never counts.
+   *
+   * @param afterId         product id of the last row already returned; {@code null} for the first slice
+   * @param afterPrice      min (ascending) or max (descending) variant price of that row, for price sorts
+   * @param afterCreated    creation time of that row, for {@code NEWEST_FIRST}
+   * @param afterRank       sales rank that row was returned with, for {@code BEST_SELLING}
+   * @param afterRelevance  full-text rank that row was returned with, for keyword {@code RELEVANCE}
+   * @param afterSimilarity trigram similarity that row was returned with, for keyword {@code RELEVANCE}
+   * @param limit           maximum number of rows to return
+   * @return matching products in sort order; for {@code BEST_SELLING} and keyword {@code RELEVANCE} each row
+   *         also carries those sort keys
+   */
+  List<ProductSummaryView> searchAfter(String category, String key, Integer minPrice, Integer maxPrice, String sort,
+                                       Double simCutoff, String attrJson, Long afterId, Integer afterPrice,
+                                       Instant afterCreated, Double afterRank, Double afterRelevance,
+                                       Double afterSimilarity, int limit);
+
+  /**
+   * Counts the matches of {@link #search}; only issued when a caller explicitly asks for a total.
+   * The sort only matters for {@code RELEVANCE}, which can match fewer documents.
+   */
+  long countSearch(String category, String key, Integer minPrice, Integer maxPrice, String sort, Double simCutoff,
+                   String attrJson);
+
+  /**
+   * Computes search facets over every document matching the {@link #search} filters (under {@code sort},
+   * as for {@link #countSearch}), in one statement.
+   *
+   * <p>The matches are materialized once in a CTE and then grouped three ways:</p>
+   * <ul>
+   *   <li><strong>Categories:</strong> products per lower-cased category, top {@code maxCategories}.</li>
+   *   <li><strong>Attributes:</strong> products per {@code key=value} token, top {@code maxValues} per key,
+   *       for the {@code maxAttributes} keys present on the most products.</li>
+   *   <li><strong>Price histogram:</strong> {@code buckets} equal-width buckets over the matches'
+   *       minimum variant price; empty buckets are omitted.</li>
+   * </ul>
+   * Ties are broken by value so the output is deterministic.
+   *
+   * @return rows tagged by {@link FacetRowView#getKind()}
+   */
+  List<FacetRowView> searchFacets(String category, String key, Integer minPrice, Integer maxPrice, String sort,
+                                  Double simCutoff, String attrJson, int maxCategories, int maxAttributes,
+                                  int maxValues, int buckets);
+}
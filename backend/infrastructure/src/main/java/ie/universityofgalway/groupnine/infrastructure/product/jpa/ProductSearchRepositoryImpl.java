@@ -0,0 +1,206 @@
+package ie.universityofgalway.groupnine.infrastructure.product.jpa;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * {@link ProductSearchRepository} over native statements from {@link ProductSearchSql}.
+ *
+ * <p>Statements that contain the trigram {@code %} operator are preceded, in the same read-only
+ * transaction, by {@link ProductSearchSql#TRIGRAM_THRESHOLD_SQL} so that {@code %} uses the
+ * requested similarity cutoff rather than the server default.</p>
+ *
+ * <p>{@code RELEVANCE} searches with a keyword first count, up to
+ * {@link ProductSearchSql#RELEVANCE_MIN_TEXT_HITS}, the full-text matches under the same filters; that
+ * bounded probe runs on the GIN index and decides whether the search also needs the trigram
+ * fallback.</p>
+ *
+ * <p>Attribute filters semi-join on {@code variant_attribute_values} once the
+ * {@link VariantAttributeIndexBackfill} has projected every product, and overlap
+ * {@code attribute_tokens} until then.</p>
+ */
+@Transactional(readOnly = true)
+public class ProductSearchRepositoryImpl implements ProductSearchRepository {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final TypeReference<LinkedHashMap<String, List<String>>> ATTRIBUTES = new TypeReference<>() {};
+  private static final String RELEVANCE = "RELEVANCE";
+
+  private final EntityManager entityManager;
+  private final VariantAttributeIndexBackfill attributeIndex;
+
+  @Autowired
+  public ProductSearchRepositoryImpl(EntityManager entityManager, VariantAttributeIndexBackfill attributeIndex) {
+    this.entityManager = entityManager;
+    this.attributeIndex = attributeIndex;
+  }
+
+  @Override
+  public Page<ProductSummaryView> search(String category, String key, Integer minPrice, Integer maxPrice, String sort,
+                                         Double simCutoff, String attrJson, Pageable pageable) {
+    ProductSearchSql sql = filter(category, key, minPrice, maxPrice, sort, simCutoff, attrJson);
+    prepare(sql, simCutoff);
+    List<ProductSummaryView> rows = pageable.isPaged()
+        ? summaries(sql.page(sort, pageable.getOffset(), pageable.getPageSize()))
+        : summaries(sql.page(sort, 0, Integer.MAX_VALUE));
+    return PageableExecutionUtils.getPage(rows, pageable, () -> count(sql));
+  }
+
+  @Override
+  public List<ProductSummaryView> searchAfter(String category, String key, Integer minPrice, Integer maxPrice,
+                                              String sort, Double simCutoff, String attrJson, Long afterId,
+                                              Integer afterPrice, Instant afterCreated, Double afterRank,
+                                              Double afterRelevance, Double afterSimilarity, int limit) {
+    ProductSearchSql sql = filter(category, key, minPrice, maxPrice, sort, simCutoff, attrJson);
+    prepare(sql, simCutoff);
+    return summaries(sql.after(sort, afterId, afterPrice, afterCreated, afterRank, afterRelevance, afterSimilarity,
+        limit));
+  }
+
+  @Override
+  public long countSearch(String category, String key, Integer minPrice, Integer maxPrice, String sort,
+                          Double simCutoff, String attrJson) {
+    ProductSearchSql sql = filter(category, key, minPrice, maxPrice, sort, simCutoff, attrJson);
+    prepare(sql, simCutoff);
+    return count(sql);
+  }
+
+  @Override
+  public List<FacetRowView> searchFacets(String category, String key, Integer minPrice, Integer maxPrice,
+                                         String sort, Double simCutoff, String attrJson, int maxCategories,
+                                         int maxAttributes, int maxValues, int buckets) {
+    ProductSearchSql sql = filter(category, key, minPrice, maxPrice, sort, simCutoff, attrJson);
+    prepare(sql, simCutoff);
+    return rows(sql.facets(maxCategories, maxAttributes, maxValues, buckets)).stream()
+        .map(ProductSearchRepositoryImpl::facetRow)
+        .toList();
+  }
+
+  /**
+   * The search's filters, ranked when it is a keyword {@code RELEVANCE} search and with indexed
+   * attribute filters once the projection is complete.
+   */
+  private ProductSearchSql filter(String category, String key, Integer minPrice, Integer maxPrice, String sort,
+                                  Double simCutoff, String attrJson) {
+    ProductSearchSql sql = ProductSearchSql.filter(category, key, minPrice, maxPrice, simCutoff, attributes(attrJson));
+    if (attributeIndex.isComplete()) sql = sql.indexedAttributes();
+    if (!RELEVANCE.equals(sort) || !sql.hasKey()) return sql;
+    long textHits = ((Number) query(sql.textHits(ProductSearchSql.RELEVANCE_MIN_TEXT_HITS)).getSingleResult()).longValue();
+    return sql.ranked(textHits >= ProductSearchSql.RELEVANCE_MIN_TEXT_HITS);
+  }
+
+  private void prepare(ProductSearchSql sql, Double simCutoff) {
+    if (!sql.needsTrigramThreshold()) return;
+    entityManager.createNativeQuery(ProductSearchSql.TRIGRAM_THRESHOLD_SQL)
+        .setParameter("threshold", String.valueOf(simCutoff))
+        .getSingleResult();
+  }
+
+  private long count(ProductSearchSql sql) {
+    return ((Number) query(sql.count()).getSingleResult()).longValue();
+  }
+
+  private List<ProductSummaryView> summaries(ProductSearchSql.Statement statement) {
+    return rows(statement).stream().map(ProductSearchRepositoryImpl::summary).toList();
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Object[]> rows(ProductSearchSql.Statement statement) {
+    return query(statement).getResultList();
+  }
+
+  private Query query(ProductSearchSql.Statement statement) {
+    Query query = entityManager.createNativeQuery(statement.sql());
+    statement.parameters().forEach(query::setParameter);
+    return query;
+  }
+
+  private static Map<String, List<String>> attributes(String attrJson) {
+    if (attrJson == null) return null;
+    try {
+      return MAPPER.readValue(attrJson, ATTRIBUTES);
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Invalid attribute filters", e);
+    }
+  }
+
+  /**
+   * Maps the summary columns, then the sort keys {@link ProductSearchSql} selects after them: one
+   * sales rank for {@code BEST_SELLING}, a relevance and a similarity for keyword {@code RELEVANCE}.
+   */
+  private static ProductSummaryView summary(Object[] row) {
+    Double salesRank = row.length == 8 ? toDouble(row[7]) : null;
+    Double relevance = row.length == 9 ? toDouble(row[7]) : null;
+    Double similarity = row.length == 9 ? toDouble(row[8]) : null;
+    return new SummaryRow(toLong(row[0]), toUuid(row[1]), (String) row[2], (String) row[3], (String) row[4],
+        toInstant(row[5]), toInstant(row[6]), salesRank, relevance, similarity);
+  }
+
+  private static FacetRowView facetRow(Object[] row) {
+    return new FacetRow((String) row[0], (String) row[1], (String) row[2], toLong(row[3]), toInteger(row[4]),
+        toInteger(row[5]), toLong(row[6]));
+  }
+
+  private static Long toLong(Object value) {
+    return value == null ? null : ((Number) value).longValue();
+  }
+
+  private static Integer toInteger(Object value) {
+    return value == null ? null : ((Number) value).intValue();
+  }
+
+  private static Double toDouble(Object value) {
+    return value == null ? null : ((Number) value).doubleValue();
+  }
+
+  private static UUID toUuid(Object value) {
+    return value == null || value instanceof UUID ? (UUID) value : UUID.fromString(value.toString());
+  }
+
+  private static Instant toInstant(Object value) {
+    if (value == null || value instanceof Instant) return (Instant) value;
+    if (value instanceof OffsetDateTime odt) return odt.toInstant();
+    if (value instanceof Timestamp ts) return ts.toInstant();
+    throw new IllegalStateException("Unexpected timestamp type " + value.getClass().getName());
+  }
+
+  private record SummaryRow(Long id, UUID uuid, String name, String description, String category,
+                            Instant createdAt, Instant updatedAt, Double salesRank, Double relevance,
+                            Double similarity) implements ProductSummaryView {
+    @Override public Long getId() { return id; }
+    @Override public UUID getUuid() { return uuid; }
+    @Override public String getName() { return name; }
+    @Override public String getDescription() { return description; }
+    @Override public String getCategory() { return category; }
+    @Override public Instant getCreatedAt() { return createdAt; }
+    @Override public Instant getUpdatedAt() { return updatedAt; }
+    @Override public Double getSalesRank() { return salesRank; }
+    @Override public Double getRelevance() { return relevance; }
+    @Override public Double getSimilarity() { return similarity; }
+  }
+
+  private record FacetRow(String kind, String facetKey, String facetValue, Long count, Integer lowCents,
+                          Integer highCents, Long keyRank) implements FacetRowView {
+    @Override public String getKind() { return kind; }
+    @Override public String getFacetKey() { return facetKey; }
+    @Override public String getFacetValue() { return facetValue; }
+    @Override public Long getCount() { return count; }
+    @Override public Integer getLowCents() { return lowCents; }
+    @Override public Integer getHighCents() { return highCents; }
+    @Override public Long getKeyRank() { return keyRank; }
+  }
+}
@@ -0,0 +1,501 @@
+package ie.universityofgalway.groupnine.infrastructure.product.jpa;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Builds the catalog search statements from only the predicates and ordering a request uses.
+ *
+ * <p>A single statement guarded by {@code (:param IS NULL OR ...)} and ordered by
+ * {@code CASE WHEN :sort = ...} gets one generic plan that can use neither the GIN indexes of
+ * {@code product_search_document} nor its sort-order indexes. Instead, each combination of
+ * present filters, sort rule and statement kind (a <em>shape</em>) has its own SQL text. The text
+ * is built once per shape and cached, so Hibernate and the JDBC driver see a small, fixed set of
+ * statements that are planned and server-side prepared once per connection. The number of values
+ * per attribute filter is part of the shape and comes from the request, so the cache keeps only the
+ * {@link #MAX_CACHED_SHAPES} shapes used most recently.</p>
+ *
+ * <p>Matching, ordering and counting are those documented on {@link ProductSearchRepository#search}.
+ * Each emitted predicate has a matching index (see {@code V18__search_shape_indexes.sql}):</p>
+ * <ul>
+ *   <li>the key predicates are OR-ed index conditions: {@code search_tsv @@} (GIN), {@code ILIKE}
+ *       and {@code %} (trigram GIN, with {@code similarity(..) > :simCutoff} rechecked on the hits);
+ *       the caller must set {@code pg_trgm.similarity_threshold} to the cutoff first, see
+ *       {@link #TRIGRAM_THRESHOLD_SQL};</li>
+ *   <li>{@code RELEVANCE} statements match and rank on the weighted {@code search_rank_tsv} (GIN); only
+ *       when that finds fewer than {@link #RELEVANCE_MIN_TEXT_HITS} documents, see {@link #textHits}, do
+ *       they add the substring and trigram predicates above, see {@link #ranked};</li>
+ *   <li>every attribute filter is one {@code attribute_tokens && ARRAY[...]} overlap (GIN) or, once
+ *       {@code variant_attribute_values} is populated (see {@link #indexedAttributes}), one integer
+ *       semi-join on it ({@code idx_vav_key_value}, V20);</li>
+ *   <li>category, price bounds and each sort order are served by partial B-tree indexes over
+ *       searchable documents ({@code variant_count > 0}) ending in {@code product_id}, which also
+ *       carry the keyset predicates.</li>
+ * </ul>
+ *
+ * <p>The document's price range and attribute tokens cover all of a product's variants, so they
+ * only narrow the candidates: price bounds and attribute filters must hold for one and the same
+ * variant, which one {@code EXISTS} over {@code product_variants} checks on the documents that
+ * pass them, see {@link #variantFilter}.</p>
+ */
+public final class ProductSearchSql {
+
+    /** Makes {@code %} match exactly the rows {@code similarity(..) >= :threshold} for the current transaction. */
+    public static final String TRIGRAM_THRESHOLD_SQL =
+            "SELECT set_config('pg_trgm.similarity_threshold', CAST(:threshold AS text), true)";
+
+    /**
+     * Full-text matches a {@code RELEVANCE} search needs before it stops matching by substring and
+     * trigram similarity as well.
+     */
+    public static final int RELEVANCE_MIN_TEXT_HITS = 10;
+
+    /** A statement ready to run: SQL text with named parameters, and their values. */
+    public record Statement(String sql, Map<String, Object> parameters) {}
+
+    private enum Kind { PAGE, KEYSET, COUNT, FACETS, TEXT_HITS }
+
+    /**
+     * How the keyword matches: not at all, by the usual predicates, by the weighted vector alone,
+     * or by the weighted vector or the usual substring and trigram predicates.
+     */
+    private enum KeyMode { NONE, ANY, RANKED_TEXT, RANKED_ANY }
+
+    private record Shape(Kind kind, String sort, boolean category, KeyMode key, boolean minPrice,
+                         boolean maxPrice, List<Integer> attributeValueCounts, boolean attributeIndex) {}
+
+    /** Shapes whose SQL text is kept, least recently used dropped first. */
+    public static final int MAX_CACHED_SHAPES = 2048;
+
+    private static final Map<Shape, String> SQL_BY_SHAPE = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Shape, String> eldest) {
+                    return size() > MAX_CACHED_SHAPES;
+                }
+            });
+
+    private static final String SUMMARY_FROM = """
+        FROM product_search_document d
+        JOIN products p ON p.id = d.product_id
+        """;
+
+    private static final String FUZZY_KEY_MATCHES = """
+            OR d.search_text ILIKE '%' || :key || '%'
+            OR (d.search_name % :key AND similarity(d.search_name, :key) > :simCutoff)
+            OR (d.search_text % :key AND similarity(d.search_text, :key) > :simCutoff)
+          )
+        """;
+
+    private static final String KEY_FILTER = """
+          AND (
+            d.search_tsv @@ plainto_tsquery('simple', :key)
+        """ + FUZZY_KEY_MATCHES;
+
+    // search_rank_tsv holds every word of search_tsv, so it replaces rather than joins that branch
+    private static final String RANKED_KEY_FILTER = """
+          AND (
+            d.search_rank_tsv @@ plainto_tsquery('simple', :key)
+        """ + FUZZY_KEY_MATCHES;
+
+    private static final String RANKED_TEXT_FILTER = "  AND d.search_rank_tsv @@ plainto_tsquery('simple', :key)\n";
+
+    /** Full-text rank of document alias {@code %1$s}; weights A-D are name, category, description, attribute values. */
+    private static final String RANK = "ts_rank_cd(%1$s.search_rank_tsv, plainto_tsquery('simple', :key))";
+
+    /** Trigram closeness of document alias {@code %1$s}, ordering the fuzzy fallback matches. */
+    private static final String SIMILARITY = "GREATEST(similarity(%1$s.search_name, :key), similarity(%1$s.search_text, :key))";
+
+    private static final String FACETS_TAIL = """
+        ),
+        categories AS (
+          SELECT m.category_lc AS v, COUNT(*) AS cnt,
+                 ROW_NUMBER() OVER (ORDER BY COUNT(*) DESC, m.category_lc) AS rn
+          FROM matched m
+          GROUP BY m.category_lc
+        ),
+        tokens AS (
+          SELECT m.product_id, split_part(t.tok, '=', 1) AS k, substr(t.tok, strpos(t.tok, '=') + 1) AS v
+          FROM matched m
+          CROSS JOIN LATERAL unnest(m.attribute_tokens) AS t(tok)
+        ),
+        attr_keys AS (
+          SELECT k, ROW_NUMBER() OVER (ORDER BY COUNT(DISTINCT product_id) DESC, k) AS rn
+          FROM tokens
+          GROUP BY k
+        ),
+        attr_values AS (
+          SELECT k, v, COUNT(DISTINCT product_id) AS cnt,
+                 ROW_NUMBER() OVER (PARTITION BY k ORDER BY COUNT(DISTINCT product_id) DESC, v) AS rn
+          FROM tokens
+          GROUP BY k, v
+        ),
+        bounds AS (
+          SELECT MIN(min_price_cents) AS lo,
+                 GREATEST(1, CAST(CEIL((MAX(min_price_cents) - MIN(min_price_cents) + 1) / CAST(:buckets AS numeric)) AS integer)) AS width
+          FROM matched
+          WHERE :buckets > 0
+        ),
+        prices AS (
+          SELECT (m.min_price_cents - b.lo) / b.width AS idx, b.lo, b.width
+          FROM matched m CROSS JOIN bounds b
+          WHERE b.lo IS NOT NULL
+        )
+        SELECT 'CATEGORY' AS kind, CAST(NULL AS text) AS facetKey, c.v AS facetValue, c.cnt AS count,
+               CAST(NULL AS integer) AS lowCents, CAST(NULL AS integer) AS highCents, CAST(NULL AS bigint) AS keyRank
+        FROM categories c
+        WHERE c.rn <= :maxCategories
+        UNION ALL
+        SELECT 'ATTRIBUTE', a.k, a.v, a.cnt, NULL, NULL, ak.rn
+        FROM attr_values a
+        JOIN attr_keys ak ON ak.k = a.k
+        WHERE a.rn <= :maxValues AND ak.rn <= :maxAttributes
+        UNION ALL
+        SELECT 'PRICE', NULL, NULL, COUNT(*), p.lo + p.idx * p.width, p.lo + (p.idx + 1) * p.width, NULL
+        FROM prices p
+        GROUP BY p.idx, p.lo, p.width
+        """;
+
+    private final String category;
+    private final String key;
+    private final Integer minPrice;
+    private final Integer maxPrice;
+    private final Double simCutoff;
+    private final Map<String, List<String>> attributes;
+    private final KeyMode keyMode;
+    private final boolean attributeIndex;
+
+    private ProductSearchSql(String category, String key, Integer minPrice, Integer maxPrice, Double simCutoff,
+                             Map<String, List<String>> attributes, KeyMode keyMode, boolean attributeIndex) {
+        this.category = category == null || category.isEmpty() ? null : category;
+        this.key = key == null || key.isEmpty() ? null : key;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.simCutoff = simCutoff;
+        this.attributes = attributes == null ? Map.of() : new LinkedHashMap<>(attributes);
+        this.keyMode = this.key == null ? KeyMode.NONE : keyMode;
+        this.attributeIndex = attributeIndex;
+    }
+
+    /**
+     * Starts a search over the given filters; {@code null} or empty arguments are left out of the SQL.
+     *
+     * @param attributes requested values per attribute key; a key with no (non-null) values matches nothing
+     */
+    public static ProductSearchSql filter(String category, String key, Integer minPrice, Integer maxPrice,
+                                          Double simCutoff, Map<String, List<String>> attributes) {
+        return new ProductSearchSql(category, key, minPrice, maxPrice, simCutoff, attributes, KeyMode.ANY, false);
+    }
+
+    /**
+     * The same filters with each attribute filter resolved through the dictionary-encoded
+     * {@code variant_attribute_values} instead of the document's {@code attribute_tokens}: the
+     * name and values are looked up once in {@code attribute_keys} and {@code attribute_values}
+     * and the filter becomes a semi-join on integer ids. Both forms match the same products, but
+     * this one only once every product's attributes have been projected.
+     */
+    public ProductSearchSql indexedAttributes() {
+        return new ProductSearchSql(category, key, minPrice, maxPrice, simCutoff, attributes, keyMode, true);
+    }
+
+    /**
+     * The same filters matched and ordered for {@code RELEVANCE}: on the weighted full-text vector
+     * alone when {@code textOnly}, otherwise on it or the substring and trigram predicates. Pages
+     * are ordered by {@code ts_rank_cd}, then (fuzzy matches) by trigram similarity, then by id.
+     * Without a keyword there is nothing to rank, and {@code RELEVANCE} orders like {@code DEFAULT}.
+     */
+    public ProductSearchSql ranked(boolean textOnly) {
+        return new ProductSearchSql(category, key, minPrice, maxPrice, simCutoff, attributes,
+                textOnly ? KeyMode.RANKED_TEXT : KeyMode.RANKED_ANY, attributeIndex);
+    }
+
+    /** Whether a keyword is present. */
+    public boolean hasKey() {
+        return key != null;
+    }
+
+    /** Whether the statements use the {@code %} operator, i.e. need {@link #TRIGRAM_THRESHOLD_SQL} first. */
+    public boolean needsTrigramThreshold() {
+        return keyMode == KeyMode.ANY || keyMode == KeyMode.RANKED_ANY;
+    }
+
+    /** One page of summaries in sort order, skipping {@code offset} rows. */
+    public Statement page(String sort, long offset, int limit) {
+        Map<String, Object> params = filterParameters();
+        params.put("limit", limit);
+        params.put("offset", offset);
+        return new Statement(sql(shape(Kind.PAGE, sort)), params);
+    }
+
+    /**
+     * Up to {@code limit} summaries in sort order, strictly after the given position;
+     * from the start when {@code afterId} is {@code null}. Only the sort keys of {@code sort} are read.
+     */
+    public Statement after(String sort, Long afterId, Integer afterPrice, Instant afterCreated, Double afterRank,
+                           Double afterRelevance, Double afterSimilarity, int limit) {
+        Map<String, Object> params = filterParameters();
+        params.put("limit", limit);
+        if (afterId == null) return new Statement(sql(shape(Kind.PAGE, sort)), withOffset(params));
+        String order = order(sort, keyMode);
+        params.put("afterId", afterId);
+        if (order.equals("PRICE_LOW_TO_HIGH") || order.equals("PRICE_HIGH_TO_LOW")) params.put("afterPrice", afterPrice);
+        if (order.equals("NEWEST_FIRST")) params.put("afterCreated", afterCreated);
+        if (order.equals("BEST_SELLING")) params.put("afterRank", afterRank);
+        if (order.equals("RELEVANCE")) params.put("afterRelevance", afterRelevance);
+        if (order.equals("RELEVANCE") && keyMode == KeyMode.RANKED_ANY) params.put("afterSimilarity", afterSimilarity);
+        return new Statement(sql(shape(Kind.KEYSET, sort)), params);
+    }
+
+    /** Number of matching documents. */
+    public Statement count() {
+        return new Statement(sql(shape(Kind.COUNT, null)), filterParameters());
+    }
+
+    /**
+     * Number of documents whose weighted full-text vector matches the keyword under these filters,
+     * counting no further than {@code cap}; decides between the two {@link #ranked} forms.
+     */
+    public Statement textHits(int cap) {
+        ProductSearchSql text = ranked(true);
+        Map<String, Object> params = text.filterParameters();
+        params.put("cap", cap);
+        return new Statement(sql(text.shape(Kind.TEXT_HITS, null)), params);
+    }
+
+    /** The facet rows described on {@link ProductSearchRepository#searchFacets}. */
+    public Statement facets(int maxCategories, int maxAttributes, int maxValues, int buckets) {
+        Map<String, Object> params = filterParameters();
+        params.put("maxCategories", maxCategories);
+        params.put("maxAttributes", maxAttributes);
+        params.put("maxValues", maxValues);
+        params.put("buckets", buckets);
+        return new Statement(sql(shape(Kind.FACETS, null)), params);
+    }
+
+    private static Map<String, Object> withOffset(Map<String, Object> params) {
+        params.put("offset", 0L);
+        return params;
+    }
+
+    private Shape shape(Kind kind, String sort) {
+        List<Integer> counts = new ArrayList<>(attributes.size());
+        attributes.values().forEach(values -> counts.add(nonNull(values).size()));
+        boolean ordered = kind == Kind.PAGE || kind == Kind.KEYSET;
+        return new Shape(kind, ordered ? order(sort, keyMode) : null,
+                category != null, keyMode, minPrice != null, maxPrice != null, List.copyOf(counts),
+                attributeIndex && !counts.isEmpty());
+    }
+
+    private Map<String, Object> filterParameters() {
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (category != null) params.put("category", category);
+        if (key != null) params.put("key", key);
+        if (needsTrigramThreshold()) params.put("simCutoff", simCutoff);
+        if (minPrice != null) params.put("minPrice", minPrice);
+        if (maxPrice != null) params.put("maxPrice", maxPrice);
+        int i = 0;
+        for (Map.Entry<String, List<String>> filter : attributes.entrySet()) {
+            List<String> values = nonNull(filter.getValue());
+            if (!values.isEmpty()) params.put("attrKey" + i, filter.getKey());
+            for (int j = 0; j < values.size(); j++) params.put("attrValue" + i + "_" + j, values.get(j));
+            i++;
+        }
+        return params;
+    }
+
+    private static String sql(Shape shape) {
+        String cached = SQL_BY_SHAPE.get(shape);
+        if (cached != null) return cached;
+        String sql = render(shape);
+        cached = SQL_BY_SHAPE.putIfAbsent(shape, sql);
+        return cached != null ? cached : sql;
+    }
+
+    private static String render(Shape shape) {
+        StringBuilder sql = new StringBuilder();
+        switch (shape.kind()) {
+            case PAGE, KEYSET -> sql.append(summaryColumns(shape)).append(SUMMARY_FROM);
+            case COUNT -> sql.append("SELECT COUNT(*)\nFROM product_search_document d\n");
+            case FACETS -> sql.append("""
+                WITH matched AS (
+                  SELECT d.product_id, d.category_lc, d.min_price_cents, d.attribute_tokens
+                  FROM product_search_document d
+                """);
+            case TEXT_HITS -> sql.append("SELECT COUNT(*)\nFROM (\n  SELECT 1\n  FROM product_search_document d\n");
+        }
+        sql.append("WHERE d.variant_count > 0\n");
+        if (shape.category()) sql.append("  AND d.category_lc = lower(:category)\n");
+        switch (shape.key()) {
+            case ANY -> sql.append(KEY_FILTER);
+            case RANKED_TEXT -> sql.append(RANKED_TEXT_FILTER);
+            case RANKED_ANY -> sql.append(RANKED_KEY_FILTER);
+            case NONE -> { }
+        }
+        if (shape.minPrice()) sql.append("  AND d.max_price_cents >= :minPrice\n");
+        if (shape.maxPrice()) sql.append("  AND d.min_price_cents <= :maxPrice\n");
+        List<Integer> counts = shape.attributeValueCounts();
+        for (int i = 0; i < counts.size(); i++) {
+            if (counts.get(i) == 0) {
+                sql.append("  AND FALSE\n");
+                continue;
+            }
+            if (shape.attributeIndex()) {
+                sql.append(attributeSemiJoin(i, counts.get(i)));
+                continue;
+            }
+            sql.append("  AND d.attribute_tokens && ARRAY[");
+            for (int j = 0; j < counts.get(i); j++) {
+                if (j > 0) sql.append(", ");
+                sql.append("CAST(:attrKey").append(i).append(" AS text) || '=' || lower(:attrValue")
+                        .append(i).append('_').append(j).append(')');
+            }
+            sql.append("]\n");
+        }
+        sql.append(variantFilter(shape));
+        switch (shape.kind()) {
+            case PAGE -> sql.append(orderBy(shape)).append("LIMIT :limit OFFSET :offset\n");
+            case KEYSET -> sql.append(keyset(shape)).append(orderBy(shape)).append("LIMIT :limit\n");
+            case COUNT -> { }
+            case FACETS -> sql.append(FACETS_TAIL);
+            case TEXT_HITS -> sql.append("  LIMIT :cap\n) hits\n");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Products with one variant within the price bounds and carrying every filtered attribute with
+     * one of its requested values; empty without price or attribute filters. Attribute values are
+     * read from the variant's JSON, or from {@code variant_attribute_values} when it is in use.
+     */
+    private static String variantFilter(Shape shape) {
+        List<Integer> counts = shape.attributeValueCounts();
+        if (!shape.minPrice() && !shape.maxPrice() && counts.isEmpty()) return "";
+        StringBuilder sql = new StringBuilder()
+                .append("  AND EXISTS (\n")
+                .append("    SELECT 1\n")
+                .append("    FROM product_variants v\n")
+                .append("    WHERE v.product_id = d.product_id\n");
+        if (shape.minPrice()) sql.append("      AND v.price_cents >= :minPrice\n");
+        if (shape.maxPrice()) sql.append("      AND v.price_cents <= :maxPrice\n");
+        for (int i = 0; i < counts.size(); i++) {
+            if (counts.get(i) == 0) continue;
+            if (shape.attributeIndex()) {
+                sql.append("      AND EXISTS (SELECT 1 FROM variant_attribute_values vx WHERE vx.variant_id = v.id")
+                        .append(" AND vx.key_id = (SELECT k.id FROM attribute_keys k WHERE k.name = :attrKey").append(i).append(")")
+                        .append(" AND vx.value_id IN (SELECT w.id FROM attribute_values w WHERE w.value_lc IN (");
+            } else {
+                String attr = "v.attributes -> CAST(:attrKey" + i + " AS text)";
+                sql.append("      AND EXISTS (SELECT 1 FROM jsonb_array_elements_text(CASE WHEN jsonb_typeof(").append(attr)
+                        .append(") = 'array' THEN ").append(attr).append(" ELSE jsonb_build_array(").append(attr)
+                        .append(") END) AS e(val) WHERE lower(e.val) IN (");
+            }
+            for (int j = 0; j < counts.get(i); j++) {
+                if (j > 0) sql.append(", ");
+                sql.append("lower(:attrValue").append(i).append('_').append(j).append(')');
+            }
+            sql.append(shape.attributeIndex() ? ")))\n" : "))\n");
+        }
+        return sql.append("  )\n").toString();
+    }
+
+    /** Products with a variant carrying attribute {@code :attrKey<i>} with one of the {@code count} values. */
+    private static String attributeSemiJoin(int i, int count) {
+        StringBuilder sql = new StringBuilder()
+                .append("  AND d.product_id IN (\n")
+                .append("    SELECT x.product_id\n")
+                .append("    FROM variant_attribute_values x\n")
+                .append("    WHERE x.key_id = (SELECT k.id FROM attribute_keys k WHERE k.name = :attrKey").append(i).append(")\n")
+                .append("      AND x.value_id IN (SELECT w.id FROM attribute_values w WHERE w.value_lc IN (");
+        for (int j = 0; j < count; j++) {
+            if (j > 0) sql.append(", ");
+            sql.append("lower(:attrValue").append(i).append('_').append(j).append(')');
+        }
+        return sql.append("))\n  )\n").toString();
+    }
+
+    /**
+     * The summary columns, followed by the sort keys a cursor cannot read off the product itself:
+     * {@code salesRank} for {@code BEST_SELLING}, {@code relevance} and {@code similarity} for
+     * {@code RELEVANCE}. Similarity is selected even when it does not order the page, so a walk
+     * whose full-text hits cross {@link #RELEVANCE_MIN_TEXT_HITS} can resume in either form.
+     */
+    private static String summaryColumns(Shape shape) {
+        String keys = switch (shape.sort()) {
+            case "BEST_SELLING" -> "d.sales_rank AS salesRank";
+            case "RELEVANCE" -> RANK.formatted("d") + " AS relevance,\n       " + SIMILARITY.formatted("d") + " AS similarity";
+            default -> null;
+        };
+        if (keys == null) return ProductJpaRepository.SUMMARY_COLUMNS;
+        return ProductJpaRepository.SUMMARY_COLUMNS.stripTrailing() + ",\n       " + keys + "\n";
+    }
+
+    private static String orderBy(Shape shape) {
+        return switch (shape.sort()) {
+            case "PRICE_LOW_TO_HIGH" -> "ORDER BY d.min_price_cents, d.product_id\n";
+            case "PRICE_HIGH_TO_LOW" -> "ORDER BY d.max_price_cents DESC, d.product_id\n";
+            case "NEWEST_FIRST" -> "ORDER BY d.created_at DESC, d.product_id\n";
+            case "BEST_SELLING" -> "ORDER BY d.sales_rank DESC, d.product_id\n";
+            case "RELEVANCE" -> shape.key() == KeyMode.RANKED_TEXT
+                    ? "ORDER BY " + RANK.formatted("d") + " DESC, d.product_id\n"
+                    : "ORDER BY " + RANK.formatted("d") + " DESC, " + SIMILARITY.formatted("d") + " DESC, d.product_id\n";
+            default -> "ORDER BY d.product_id\n";
+        };
+    }
+
+    /**
+     * Rows strictly after the cursor in {@link #orderBy} order. For the descending sorts the
+     * redundant {@code <=} bound lets the index scan start at the cursor instead of filtering.
+     * Relevance has no index order to resume in, so its descending keys are negated into one row
+     * comparison. Sales ranks and a document's relevance change after the row was returned, so
+     * the cursor carries the values the row was returned with and the walk resumes after that
+     * position, not after wherever the product ranks now. Relevance keys are {@code real}, like
+     * the expressions they were read from, so the comparison is exact.
+     */
+    private static String keyset(Shape shape) {
+        if (shape.sort().equals("RELEVANCE")) {
+            String keys = shape.key() == KeyMode.RANKED_TEXT ? "-" + RANK : "-" + RANK + ", -" + SIMILARITY;
+            String after = shape.key() == KeyMode.RANKED_TEXT
+                    ? "-CAST(:afterRelevance AS real)"
+                    : "-CAST(:afterRelevance AS real), -CAST(:afterSimilarity AS real)";
+            return "  AND (" + keys.formatted("d") + ", d.product_id) > (" + after + ", :afterId)\n";
+        }
+        return switch (shape.sort()) {
+            case "PRICE_LOW_TO_HIGH" -> "  AND (d.min_price_cents, d.product_id) > (:afterPrice, :afterId)\n";
+            case "PRICE_HIGH_TO_LOW" -> """
+                  AND d.max_price_cents <= :afterPrice
+                  AND (d.max_price_cents < :afterPrice OR d.product_id > :afterId)
+                """;
+            case "NEWEST_FIRST" -> """
+                  AND d.created_at <= CAST(:afterCreated AS timestamptz)
+                  AND (d.created_at < CAST(:afterCreated AS timestamptz) OR d.product_id > :afterId)
+                """;
+            case "BEST_SELLING" -> """
+                  AND d.sales_rank <= CAST(:afterRank AS double precision)
+                  AND (d.sales_rank < CAST(:afterRank AS double precision) OR d.product_id > :afterId)
+                """;
+            default -> "  AND d.product_id > :afterId\n";
+        };
+    }
+
+    /**
+     * Sort rules without a dedicated order collapse to the default so they share one shape;
+     * {@code RELEVANCE} only has one when the filters were {@link #ranked}.
+     */
+    private static String order(String sort, KeyMode keyMode) {
+        if (sort == null) return "DEFAULT";
+        return switch (sort) {
+            case "PRICE_LOW_TO_HIGH", "PRICE_HIGH_TO_LOW", "NEWEST_FIRST", "BEST_SELLING" -> sort;
+            case "RELEVANCE" -> keyMode == KeyMode.RANKED_TEXT || keyMode == KeyMode.RANKED_ANY ? sort : "DEFAULT";
+            default -> "DEFAULT";
+        };
+    }
+
+    private static List<String> nonNull(List<String> values) {
+        return values == null ? List.of() : values.stream().filter(Objects::nonNull).toList();
+    }
+}
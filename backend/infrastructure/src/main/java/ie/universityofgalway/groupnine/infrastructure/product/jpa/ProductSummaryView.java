@@ -0,0 +1,35 @@
+package ie.universityofgalway.groupnine.infrastructure.product.jpa;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Lightweight projection of a {@code products} row used by paged catalog queries.
+ * Unlike {@link ProductEntity} it carries no variant collection, so loading a page never
+ * triggers the per-product variant selects of the EAGER association; variants are fetched
+ * afterwards for the whole page via {@link VariantJpaRepository#findViewsByProductIds}.
+ */
+public interface ProductSummaryView {
+  Long getId();
+  UUID getUuid();
+  String getName();
+  String getDescription();
+  String getCategory();
+  Instant getCreatedAt();
+  Instant getUpdatedAt();
+
+  /** Sales rank of the product's search document; only selected by {@code BEST_SELLING} searches. */
+  default Double getSalesRank() {
+    return null;
+  }
+
+  /** Full-text rank of the product's search document; only selected by keyword {@code RELEVANCE} searches. */
+  default Double getRelevance() {
+    return null;
+  }
+
+  /** Trigram similarity of the product's search document; only selected by keyword {@code RELEVANCE} searches. */
+  default Double getSimilarity() {
+    return null;
+  }
+}
@@ -0,0 +1,80 @@
+package ie.universityofgalway.groupnine.infrastructure.product.jpa;
+
+import ie.universityofgalway.groupnine.infrastructure.product.cache.CoalescingTask;
+import ie.universityofgalway.groupnine.util.logging.AppLogger;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Projects the attributes of products written before {@code variant_attribute_values} existed,
+ * and tells searches when they may filter on it.
+ *
+ * <p>Once the application is ready, a background thread walks the products that have attributes
+ * but no attribute rows in batches of {@code app.catalog.attribute-index.backfill-batch-size},
+ * rebuilding each in its own transaction, until a pass finds none. Until then
+ * {@link #isComplete()} is false and searches keep filtering on {@code attribute_tokens}, which
+ * matches the same products. Catalog writes project their own products in the meantime, and
+ * running on several nodes at once is harmless because a rebuild is idempotent.</p>
+ */
+@Component
+public class VariantAttributeIndexBackfill {
+
+    private static final AppLogger LOG = AppLogger.get(VariantAttributeIndexBackfill.class);
+
+    private final VariantAttributeIndexJpaRepository index;
+    private final int batchSize;
+    private final CoalescingTask task;
+    private volatile boolean complete;
+
+    @Autowired
+    public VariantAttributeIndexBackfill(VariantAttributeIndexJpaRepository index,
+                                         @Value("${app.catalog.attribute-index.backfill-batch-size:500}") int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("backfill-batch-size must be > 0");
+        this.index = index;
+        this.batchSize = batchSize;
+        this.task = new CoalescingTask("attribute-index-backfill", 0, this::run);
+    }
+
+    /** Whether every product's attributes have been projected, so filters may semi-join on them. */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        task.request();
+    }
+
+    /** Projects every unindexed product; leaves {@link #isComplete()} false on failure. */
+    public void run() {
+        long start = System.nanoTime();
+        long products = 0;
+        try {
+            long after = 0;
+            while (true) {
+                List<Long> batch = index.findUnindexedProductIds(after, batchSize);
+                for (Long productId : batch) index.reindexProduct(productId);
+                products += batch.size();
+                if (batch.size() < batchSize) break;
+                after = batch.get(batch.size() - 1);
+            }
+            complete = true;
+            LOG.info("attribute_index_backfilled", "products", products,
+                    "millis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            LOG.warn("attribute_index_backfill_failed", "products", products, "error", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        task.shutdown();
+    }
+}
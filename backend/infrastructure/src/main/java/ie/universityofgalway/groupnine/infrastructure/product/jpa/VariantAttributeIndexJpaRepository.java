@@ -0,0 +1,101 @@
+package ie.universityofgalway.groupnine.infrastructure.product.jpa;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Native statements maintaining {@code variant_attribute_values}, the dictionary-encoded
+ * projection of {@code product_variants.attributes} that attribute filters semi-join against.
+ *
+ * <p>Like the search document, the projection is rebuilt a whole product at a time from the
+ * JSONB column, which remains the source of truth: new names and values are added to
+ * {@code attribute_keys} and {@code attribute_values}, then the product's rows are replaced.
+ * Deleting a variant or product removes its rows through the FK cascade.</p>
+ */
+public interface VariantAttributeIndexJpaRepository extends Repository<VariantEntity, UUID> {
+
+  /** Every (variant, name, value) of the variants; callers add the select list and {@link #OF_PRODUCTS}. */
+  String ATTRIBUTE_ROWS = """
+    FROM product_variants v
+    CROSS JOIN LATERAL jsonb_each(v.attributes) AS a(key, val)
+    CROSS JOIN LATERAL jsonb_array_elements_text(
+      CASE WHEN jsonb_typeof(a.val) = 'array' THEN a.val ELSE jsonb_build_array(a.val) END
+    ) AS e(val)
+    """;
+
+  String OF_PRODUCTS = "WHERE v.product_id IN (:productIds) AND v.attributes IS NOT NULL\n";
+
+  /**
+   * Rebuilds the attribute rows of one product from its variants' current attributes.
+   * Pending entity changes are flushed first so the rebuild sees them.
+   *
+   * @param productId internal (numeric) product id
+   */
+  @Transactional
+  default void reindexProduct(Long productId) {
+    reindexProducts(List.of(productId));
+  }
+
+  /**
+   * Rebuilds the attribute rows of several products with one statement per step, for bulk writers.
+   *
+   * @param productIds internal (numeric) product ids
+   */
+  @Transactional
+  default void reindexProducts(Collection<Long> productIds) {
+    if (productIds.isEmpty()) return;
+    insertKeys(productIds);
+    insertValues(productIds);
+    deleteForProducts(productIds);
+    insertForProducts(productIds);
+  }
+
+  // Sorted so concurrent writers take the dictionaries' unique-index locks in the same order
+  @Modifying(flushAutomatically = true)
+  @Query(value = "INSERT INTO attribute_keys (name)\nSELECT DISTINCT a.key\n" + ATTRIBUTE_ROWS + OF_PRODUCTS
+      + "ORDER BY 1\nON CONFLICT (name) DO NOTHING", nativeQuery = true)
+  int insertKeys(@Param("productIds") Collection<Long> productIds);
+
+  @Modifying
+  @Query(value = "INSERT INTO attribute_values (value_lc)\nSELECT DISTINCT lower(e.val)\n" + ATTRIBUTE_ROWS
+      + OF_PRODUCTS + "ORDER BY 1\nON CONFLICT (value_lc) DO NOTHING", nativeQuery = true)
+  int insertValues(@Param("productIds") Collection<Long> productIds);
+
+  @Modifying
+  @Query(value = "DELETE FROM variant_attribute_values WHERE product_id IN (:productIds)", nativeQuery = true)
+  int deleteForProducts(@Param("productIds") Collection<Long> productIds);
+
+  @Modifying
+  @Query(value = """
+      INSERT INTO variant_attribute_values (variant_id, product_id, key_id, value_id)
+      SELECT DISTINCT v.id, v.product_id, k.id, d.id
+      """ + ATTRIBUTE_ROWS + """
+      JOIN attribute_keys k ON k.name = a.key
+      JOIN attribute_values d ON d.value_lc = lower(e.val)
+      """ + OF_PRODUCTS + "ON CONFLICT DO NOTHING", nativeQuery = true)
+  int insertForProducts(@Param("productIds") Collection<Long> productIds);
+
+  /**
+   * Products, in id order after {@code afterId}, that have a variant with attributes but no
+   * attribute rows: those written before the projection existed. Drives the backfill.
+   *
+   * @param afterId last product id already visited; {@code 0} to start
+   */
+  @Query(value = """
+      SELECT DISTINCT v.product_id
+      FROM product_variants v
+      WHERE v.product_id > :afterId
+        AND v.attributes IS NOT NULL
+        AND v.attributes <> CAST('{}' AS jsonb)
+        AND NOT EXISTS (SELECT 1 FROM variant_attribute_values x WHERE x.variant_id = v.id)
+      ORDER BY v.product_id
+      LIMIT :limit
+      """, nativeQuery = true)
+  List<Long> findUnindexedProductIds(@Param("afterId") long afterId, @Param("limit") int limit);
+}
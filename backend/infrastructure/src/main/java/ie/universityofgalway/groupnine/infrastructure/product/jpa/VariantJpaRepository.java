@@ -1,10 +1,80 @@
 package ie.universityofgalway.groupnine.infrastructure.product.jpa;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface VariantJpaRepository extends JpaRepository<VariantEntity, UUID> {
     Optional<VariantEntity> findByUuid(UUID uuid);
     boolean existsBySku(String sku);
+
+    /**
+     * Loads the variants of many products in one statement, ordered by product then insertion.
+     * Used to assemble a page of {@link ProductSummaryView} rows without N+1 selects.
+     *
+     * @param productIds internal ids of the products on the current page
+     * @return variant projections for all given products
+     */
+    @Query("""
+        SELECT v.product.id AS productId, v.uuid AS uuid, v.sku AS sku, v.priceCents AS priceCents,
+               v.currency AS currency, v.imageUrl AS imageUrl, v.stockQuantity AS stockQuantity,
+               v.reservedQuantity AS reservedQuantity, v.available AS available, v.attributes AS attributes
+        FROM VariantEntity v
+        WHERE v.product.id IN :productIds
+        ORDER BY v.product.id, v.id
+        """)
+    List<VariantView> findViewsByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * {@link #findViewsByProductIds} without reading the attributes, which listing tiles do not
+     * show; {@code getAttributes()} is {@code null}.
+     */
+    @Query("""
+        SELECT v.product.id AS productId, v.uuid AS uuid, v.sku AS sku, v.priceCents AS priceCents,
+               v.currency AS currency, v.imageUrl AS imageUrl, v.stockQuantity AS stockQuantity,
+               v.reservedQuantity AS reservedQuantity, v.available AS available, CAST(NULL AS String) AS attributes
+        FROM VariantEntity v
+        WHERE v.product.id IN :productIds
+        ORDER BY v.product.id, v.id
+        """)
+    List<VariantView> findListingViewsByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Loads many variants by public id in one statement.
+     *
+     * @param uuids public ids of the variants
+     * @return variant projections for the ids that exist
+     */
+    @Query("""
+        SELECT v.product.id AS productId, v.uuid AS uuid, v.sku AS sku, v.priceCents AS priceCents,
+               v.currency AS currency, v.imageUrl AS imageUrl, v.stockQuantity AS stockQuantity,
+               v.reservedQuantity AS reservedQuantity, v.available AS available, v.attributes AS attributes
+        FROM VariantEntity v
+        WHERE v.uuid IN :uuids
+        """)
+    List<VariantView> findViewsByUuids(@Param("uuids") Collection<UUID> uuids);
+
+    /** The product of every variant, for the in-memory variant index. */
+    @Query("SELECT v.product.uuid AS productUuid, v.uuid AS variantUuid FROM VariantEntity v")
+    List<VariantOwnerView> findOwners();
+
+    /**
+     * The products of the given variants; variants that do not exist are left out.
+     *
+     * @param uuids public ids of the variants
+     */
+    @Query("SELECT v.product.uuid AS productUuid, v.uuid AS variantUuid FROM VariantEntity v WHERE v.uuid IN :uuids")
+    List<VariantOwnerView> findOwnersByUuids(@Param("uuids") Collection<UUID> uuids);
+
+    /**
+     * The variants of the given products, by public id.
+     *
+     * @param productUuids public ids of the products
+     */
+    @Query("SELECT v.product.uuid AS productUuid, v.uuid AS variantUuid FROM VariantEntity v WHERE v.product.uuid IN :productUuids")
+    List<VariantOwnerView> findOwnersByProductUuids(@Param("productUuids") Collection<UUID> productUuids);
 }
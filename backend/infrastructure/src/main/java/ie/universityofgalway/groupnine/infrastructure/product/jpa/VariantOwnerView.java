@@ -0,0 +1,12 @@
+package ie.universityofgalway.groupnine.infrastructure.product.jpa;
+
+import java.util.UUID;
+
+/**
+ * Projection pairing a variant's public id with its product's, and nothing else; see
+ * {@link VariantJpaRepository#findOwners}.
+ */
+public interface VariantOwnerView {
+  UUID getProductUuid();
+  UUID getVariantUuid();
+}
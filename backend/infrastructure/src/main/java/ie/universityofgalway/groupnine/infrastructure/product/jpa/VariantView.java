@@ -0,0 +1,21 @@
+package ie.universityofgalway.groupnine.infrastructure.product.jpa;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.UUID;
+
+/**
+ * Lightweight projection of a {@code product_variants} row, keyed by its owning product's
+ * internal id so a page of products can be assembled from a single batched variant query.
+ */
+public interface VariantView {
+  Long getProductId();
+  UUID getUuid();
+  String getSku();
+  int getPriceCents();
+  String getCurrency();
+  String getImageUrl();
+  int getStockQuantity();
+  int getReservedQuantity();
+  boolean isAvailable();
+  JsonNode getAttributes();
+}
@@ -0,0 +1,417 @@
+package ie.universityofgalway.groupnine.infrastructure.product.search;
+
+import ie.universityofgalway.groupnine.domain.product.Attribute;
+import ie.universityofgalway.groupnine.domain.product.AttributeFilter;
+import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.SearchQuery;
+import ie.universityofgalway.groupnine.domain.product.SortRule;
+import ie.universityofgalway.groupnine.domain.product.Variant;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductCursorCodec;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductPersistenceAdapter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.IntToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable in-process search index over the whole catalog, answering the same queries as
+ * {@code ProductJpaRepository.search} without a database round trip.
+ *
+ * <p>Documents are numbered in ascending internal product id, which is also the SQL tiebreaker,
+ * so "ascending document number" and "ascending product id" are the same order. The index holds:</p>
+ * <ul>
+ *   <li>word postings over name and description, for the full-text predicate;</li>
+ *   <li>{@link CompressedBitmap}s per lower-cased category and per {@code key=value} attribute token;</li>
+ *   <li>document numbers sorted by lowest price, highest price and creation time, with the sort keys
+ *       in parallel primitive arrays: price bounds become binary searches, and results are ordered by
+ *       walking the precomputed order (or, for few matches, by sorting their ranks in it);</li>
+ *   <li>per-document lower-cased text and trigram sets for the substring and similarity predicates,
+ *       which are only evaluated for documents surviving every other filter.</li>
+ * </ul>
+ *
+ * <p>As in SQL, price bounds and attribute filters must hold for one and the same variant. The
+ * price orders and attribute-token bitmaps cover all of a product's variants, so they only narrow
+ * the candidates; each survivor's variants are then checked one by one.</p>
+ *
+ * <p>{@link #with} returns a new index with some products replaced, built from the entries
+ * already held, so that a catalog change does not need the whole catalog to be read again.</p>
+ */
+final class CatalogSearchIndex {
+
+    static final CatalogSearchIndex EMPTY = build(List.of());
+
+    /** Below one match in this many documents, matches are ranked directly rather than by walking a sort order. */
+    private static final int SPARSE_RATIO = 8;
+
+    /** One page of hits plus the total number of matches. */
+    record Hits(List<Hit> hits, int total) {}
+
+    /** A matching product with the keys a keyset cursor needs. */
+    record Hit(long id, Product product, int minPriceCents, int maxPriceCents) {}
+
+    private final long[] ids;
+    private final Product[] products;
+    private final int[] minPrice;
+    private final int[] maxPrice;
+    private final int[][] variantPrices;
+    private final String[] searchText;
+    private final long[][] nameTrigrams;
+    private final long[][] textTrigrams;
+
+    private final CompressedBitmap searchable;
+    private final Map<String, CompressedBitmap> words;
+    private final Map<String, CompressedBitmap> categories;
+    private final Map<String, CompressedBitmap> attributeTokens;
+
+    private final SortedDocs byMinPrice;
+    private final SortedDocs byMaxPriceDesc;
+    private final SortedDocs byCreatedDesc;
+    private final SortedDocs byId;
+
+    private CatalogSearchIndex(List<ProductPersistenceAdapter.CatalogEntry> entries) {
+        int n = entries.size();
+        ids = new long[n];
+        products = new Product[n];
+        minPrice = new int[n];
+        maxPrice = new int[n];
+        variantPrices = new int[n][];
+        searchText = new String[n];
+        nameTrigrams = new long[n][];
+        textTrigrams = new long[n][];
+        long[] created = new long[n];
+
+        Map<String, IntList> wordDocs = new HashMap<>();
+        Map<String, IntList> categoryDocs = new HashMap<>();
+        Map<String, IntList> tokenDocs = new HashMap<>();
+        IntList searchableDocs = new IntList();
+        for (int d = 0; d < n; d++) {
+            ProductPersistenceAdapter.CatalogEntry e = entries.get(d);
+            Product p = e.product();
+            ids[d] = e.id();
+            products[d] = p;
+            searchText[d] = PgTextMatching.lower(p.getName() + " " + (p.getDescription() == null ? "" : p.getDescription()));
+            nameTrigrams[d] = PgTextMatching.trigrams(p.getName());
+            textTrigrams[d] = PgTextMatching.trigrams(searchText[d]);
+            created[d] = p.getCreatedAt() == null ? Long.MIN_VALUE : nanos(p.getCreatedAt());
+
+            List<Variant> variants = p.getVariants();
+            if (!variants.isEmpty()) searchableDocs.add(d);
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            variantPrices[d] = new int[variants.size()];
+            TreeSet<String> tokens = new TreeSet<>();
+            for (int i = 0; i < variants.size(); i++) {
+                Variant v = variants.get(i);
+                int cents = cents(v.getPrice().getAmount());
+                variantPrices[d][i] = cents;
+                min = Math.min(min, cents);
+                max = Math.max(max, cents);
+                for (Attribute a : v.getAttributes()) {
+                    if (a.value() != null) tokens.add(a.name() + "=" + PgTextMatching.lower(a.value()));
+                }
+            }
+            minPrice[d] = min;
+            maxPrice[d] = max;
+            for (String word : PgTextMatching.words(searchText[d])) wordDocs.computeIfAbsent(word, k -> new IntList()).add(d);
+            categoryDocs.computeIfAbsent(PgTextMatching.lower(p.getCategory()), k -> new IntList()).add(d);
+            for (String token : tokens) tokenDocs.computeIfAbsent(token, k -> new IntList()).add(d);
+        }
+
+        searchable = searchableDocs.toBitmap();
+        words = toBitmaps(wordDocs);
+        categories = toBitmaps(categoryDocs);
+        attributeTokens = toBitmaps(tokenDocs);
+
+        byMinPrice = SortedDocs.of(n, d -> minPrice[d]);
+        byMaxPriceDesc = SortedDocs.of(n, d -> -(long) maxPrice[d]);
+        byCreatedDesc = SortedDocs.of(n, d -> created[d] == Long.MIN_VALUE ? Long.MIN_VALUE : -created[d]);
+        byId = SortedDocs.of(n, d -> 0L);
+    }
+
+    /** Builds an index from entries in any order; duplicate ids are not allowed. */
+    static CatalogSearchIndex build(List<ProductPersistenceAdapter.CatalogEntry> entries) {
+        List<ProductPersistenceAdapter.CatalogEntry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparingLong(ProductPersistenceAdapter.CatalogEntry::id));
+        return new CatalogSearchIndex(sorted);
+    }
+
+    /**
+     * This index with the products {@code changed} replaced by {@code fresh}, their current
+     * state: changed products missing from {@code fresh} are dropped, and a product in
+     * {@code fresh} replaces any entry with its id.
+     */
+    CatalogSearchIndex with(List<ProductPersistenceAdapter.CatalogEntry> fresh, Set<UUID> changed) {
+        Set<Long> freshIds = new HashSet<>();
+        for (ProductPersistenceAdapter.CatalogEntry e : fresh) freshIds.add(e.id());
+        List<ProductPersistenceAdapter.CatalogEntry> entries = new ArrayList<>(ids.length + fresh.size());
+        for (int d = 0; d < ids.length; d++) {
+            if (freshIds.contains(ids[d]) || changed.contains(products[d].getId().getId())) continue;
+            entries.add(new ProductPersistenceAdapter.CatalogEntry(ids[d], products[d]));
+        }
+        entries.addAll(fresh);
+        return build(entries);
+    }
+
+    /** Public ids of the indexed products holding any of {@code variantIds}. */
+    Set<UUID> productsOf(Collection<UUID> variantIds) {
+        Set<UUID> owners = new HashSet<>();
+        if (variantIds.isEmpty()) return owners;
+        Set<UUID> wanted = variantIds instanceof Set<UUID> set ? set : new HashSet<>(variantIds);
+        for (Product p : products) {
+            for (Variant v : p.getVariants()) {
+                if (wanted.contains(v.getId().getId())) {
+                    owners.add(p.getId().getId());
+                    break;
+                }
+            }
+        }
+        return owners;
+    }
+
+    /** Number of indexed products, including ones without variants. */
+    int size() { return ids.length; }
+
+    /**
+     * Finds matching products in sort order.
+     *
+     * @param after  position to resume strictly after, or {@code null} to start at the first match
+     * @param offset matches to skip (after {@code after})
+     * @param limit  maximum number of hits to return
+     */
+    Hits search(SearchQuery query, ProductCursorCodec.Position after, long offset, int limit) {
+        CompressedBitmap matches = filter(query);
+        SortedDocs order = switch (query.sortRule()) {
+            case PRICE_LOW_TO_HIGH -> byMinPrice;
+            case PRICE_HIGH_TO_LOW -> byMaxPriceDesc;
+            case NEWEST_FIRST -> byCreatedDesc;
+            default -> byId;
+        };
+        List<Hit> hits = new ArrayList<>(Math.max(0, Math.min(limit, matches.cardinality())));
+        if (limit <= 0 || matches.isEmpty()) return new Hits(hits, matches.cardinality());
+
+        int start = after == null ? 0 : order.firstAfter(sortKey(query.sortRule(), after), after.productId(), ids);
+        long skipped = 0;
+        if (matches.cardinality() < order.docs.length / SPARSE_RATIO) {
+            // few matches: sort their positions in the precomputed order instead of walking all of it
+            int[] positions = matches.toArray();
+            for (int i = 0; i < positions.length; i++) positions[i] = order.rank[positions[i]];
+            Arrays.sort(positions);
+            for (int i = lowerBound(positions, start); i < positions.length && hits.size() < limit; i++) {
+                if (skipped++ < offset) continue;
+                hits.add(hit(order.docs[positions[i]]));
+            }
+        } else {
+            for (int i = start; i < order.docs.length && hits.size() < limit; i++) {
+                int d = order.docs[i];
+                if (!matches.contains(d) || skipped++ < offset) continue;
+                hits.add(hit(d));
+            }
+        }
+        return new Hits(hits, matches.cardinality());
+    }
+
+    private Hit hit(int d) {
+        return new Hit(ids[d], products[d], minPrice[d], maxPrice[d]);
+    }
+
+    private static int lowerBound(int[] sorted, int value) {
+        int i = Arrays.binarySearch(sorted, value);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private static long sortKey(SortRule sort, ProductCursorCodec.Position p) {
+        return switch (sort) {
+            case PRICE_LOW_TO_HIGH -> p.priceCents();
+            case PRICE_HIGH_TO_LOW -> -(long) p.priceCents();
+            case NEWEST_FIRST -> -nanos(p.createdAt());
+            default -> 0L;
+        };
+    }
+
+    private CompressedBitmap filter(SearchQuery q) {
+        CompressedBitmap result = searchable;
+        if (q.category() != null && !q.category().isEmpty()) {
+            result = result.and(categories.getOrDefault(PgTextMatching.lower(q.category()), CompressedBitmap.EMPTY));
+        }
+        if (q.minPriceCents() != 0) {
+            result = result.and(byMaxPriceDesc.prefixUpTo(-(long) q.minPriceCents()));
+        }
+        if (q.maxPriceCents() != Integer.MAX_VALUE) {
+            result = result.and(byMinPrice.prefixUpTo(q.maxPriceCents()));
+        }
+        for (AttributeFilter f : q.attributeFilters()) {
+            if (result.isEmpty()) break;
+            List<CompressedBitmap> any = new ArrayList<>();
+            for (String value : f.values() == null ? List.<String>of() : f.values()) {
+                CompressedBitmap b = value == null ? null : attributeTokens.get(f.name() + "=" + PgTextMatching.lower(value));
+                if (b != null) any.add(b);
+            }
+            result = result.and(CompressedBitmap.orAll(any));
+        }
+        boolean priced = q.minPriceCents() != 0 || q.maxPriceCents() != Integer.MAX_VALUE;
+        if ((priced || !q.attributeFilters().isEmpty()) && !result.isEmpty()) result = matchVariant(result, q);
+        if (!q.key().isEmpty() && !result.isEmpty()) result = matchKey(result, q.key());
+        return result;
+    }
+
+    /** Keeps the candidates with one variant within the price bounds and matching every attribute filter. */
+    private CompressedBitmap matchVariant(CompressedBitmap candidates, SearchQuery q) {
+        List<AttributeFilter> filters = q.attributeFilters();
+        List<Set<String>> wanted = new ArrayList<>(filters.size());
+        for (AttributeFilter f : filters) {
+            Set<String> values = new HashSet<>();
+            if (f.values() != null) {
+                for (String v : f.values()) if (v != null) values.add(PgTextMatching.lower(v));
+            }
+            wanted.add(values);
+        }
+        CompressedBitmap.Builder out = new CompressedBitmap.Builder();
+        candidates.forEach(d -> {
+            List<Variant> variants = products[d].getVariants();
+            for (int i = 0; i < variants.size(); i++) {
+                int cents = variantPrices[d][i];
+                if (cents < q.minPriceCents() || cents > q.maxPriceCents()) continue;
+                if (hasAll(variants.get(i), filters, wanted)) {
+                    out.add(d);
+                    return;
+                }
+            }
+        });
+        return out.build();
+    }
+
+    /** Whether the variant has, for every filter, that attribute with one of its wanted values. */
+    private static boolean hasAll(Variant v, List<AttributeFilter> filters, List<Set<String>> wanted) {
+        for (int f = 0; f < filters.size(); f++) {
+            boolean found = false;
+            for (Attribute a : v.getAttributes()) {
+                if (a.value() != null && a.name().equals(filters.get(f).name())
+                        && wanted.get(f).contains(PgTextMatching.lower(a.value()))) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    /** Applies the keyword predicate to the survivors of the cheaper filters. */
+    private CompressedBitmap matchKey(CompressedBitmap candidates, String key) {
+        CompressedBitmap allWords = null;
+        for (String word : PgTextMatching.words(key)) {
+            CompressedBitmap b = words.getOrDefault(word, CompressedBitmap.EMPTY);
+            allWords = allWords == null ? b : allWords.and(b);
+        }
+        CompressedBitmap fullText = allWords == null ? CompressedBitmap.EMPTY : allWords;
+        long[] keyTrigrams = PgTextMatching.trigrams(key);
+        CompressedBitmap.Builder out = new CompressedBitmap.Builder();
+        candidates.forEach(d -> {
+            if (fullText.contains(d)
+                    || PgTextMatching.containsLike(searchText[d], key)
+                    || PgTextMatching.similarity(nameTrigrams[d], keyTrigrams) > ProductPersistenceAdapter.FUZZY_MATCH_SIMILARITY_THRESHOLD
+                    || PgTextMatching.similarity(textTrigrams[d], keyTrigrams) > ProductPersistenceAdapter.FUZZY_MATCH_SIMILARITY_THRESHOLD) {
+                out.add(d);
+            }
+        });
+        return out.build();
+    }
+
+    private static Map<String, CompressedBitmap> toBitmaps(Map<String, IntList> postings) {
+        Map<String, CompressedBitmap> out = new HashMap<>(postings.size() * 2);
+        postings.forEach((k, v) -> out.put(k, v.toBitmap()));
+        return out;
+    }
+
+    private static int cents(BigDecimal amount) {
+        return amount.movePointRight(2).intValue();
+    }
+
+    private static long nanos(Instant t) {
+        return t.getEpochSecond() * 1_000_000_000L + t.getNano();
+    }
+
+    /** Document numbers ordered by a long key, ties by document number, with the keys alongside. */
+    private static final class SortedDocs {
+        final int[] docs;
+        final long[] keys;
+        final int[] rank;
+
+        private SortedDocs(int[] docs, long[] keys) {
+            this.docs = docs;
+            this.keys = keys;
+            this.rank = new int[docs.length];
+            for (int i = 0; i < docs.length; i++) rank[docs[i]] = i;
+        }
+
+        static SortedDocs of(int n, IntToLongFunction key) {
+            long[] byDoc = new long[n];
+            for (int d = 0; d < n; d++) byDoc[d] = key.applyAsLong(d);
+            int[] docs = IntStream.range(0, n).boxed()
+                    .sorted(Comparator.<Integer>comparingLong(d -> byDoc[d]).thenComparingInt(d -> d))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            long[] keys = new long[n];
+            for (int i = 0; i < n; i++) keys[i] = byDoc[docs[i]];
+            return new SortedDocs(docs, keys);
+        }
+
+        /** Documents whose key is at most {@code bound}. */
+        CompressedBitmap prefixUpTo(long bound) {
+            int end = upperBound(bound);
+            int[] members = Arrays.copyOf(docs, end);
+            Arrays.sort(members);
+            return CompressedBitmap.ofSorted(members, end);
+        }
+
+        /** First position strictly after {@code (key, id)}; document numbers follow id order. */
+        int firstAfter(long key, long id, long[] ids) {
+            int lo = 0;
+            int hi = docs.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = keys[mid] != key ? Long.compare(keys[mid], key) : Long.compare(ids[docs[mid]], id);
+                if (cmp <= 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        private int upperBound(long bound) {
+            int lo = 0;
+            int hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid] <= bound) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+
+        CompressedBitmap toBitmap() {
+            return CompressedBitmap.ofSorted(values, size);
+        }
+    }
+}
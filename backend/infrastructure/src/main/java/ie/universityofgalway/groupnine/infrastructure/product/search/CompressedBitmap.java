@@ -0,0 +1,261 @@
+package ie.universityofgalway.groupnine.infrastructure.product.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable compressed set of non-negative ints, laid out like a roaring bitmap: values are
+ * grouped by their high 16 bits into chunks, and each chunk is either a sorted {@code char[]}
+ * of low bits (up to {@value #ARRAY_LIMIT} values) or a 65536-bit {@code long[]} bitset.
+ *
+ * <p>Sparse sets (a rare attribute value) cost two bytes per member and dense ones (a large
+ * category) one bit per possible member, and intersections and unions work chunk by chunk.</p>
+ */
+final class CompressedBitmap {
+
+    static final int ARRAY_LIMIT = 4096;
+    private static final int WORDS = 1024;
+
+    static final CompressedBitmap EMPTY = new CompressedBitmap(new char[0], new Object[0]);
+
+    private final char[] keys;
+    private final Object[] chunks;
+    private final int cardinality;
+
+    private CompressedBitmap(char[] keys, Object[] chunks) {
+        this.keys = keys;
+        this.chunks = chunks;
+        int c = 0;
+        for (Object chunk : chunks) c += size(chunk);
+        this.cardinality = c;
+    }
+
+    /** Builds a bitmap from strictly ascending values. */
+    static CompressedBitmap ofSorted(int[] values, int length) {
+        Builder b = new Builder();
+        for (int i = 0; i < length; i++) b.add(values[i]);
+        return b.build();
+    }
+
+    /** Every value in {@code [0, n)}. */
+    static CompressedBitmap range(int n) {
+        Builder b = new Builder();
+        for (int i = 0; i < n; i++) b.add(i);
+        return b.build();
+    }
+
+    int cardinality() { return cardinality; }
+
+    boolean isEmpty() { return cardinality == 0; }
+
+    boolean contains(int value) {
+        int k = Arrays.binarySearch(keys, (char) (value >>> 16));
+        if (k < 0) return false;
+        char low = (char) value;
+        Object chunk = chunks[k];
+        return chunk instanceof char[] a
+                ? Arrays.binarySearch(a, low) >= 0
+                : (((long[]) chunk)[low >>> 6] & (1L << low)) != 0;
+    }
+
+    /** Calls {@code action} for every member in ascending order. */
+    void forEach(IntConsumer action) {
+        for (int k = 0; k < keys.length; k++) {
+            int high = keys[k] << 16;
+            if (chunks[k] instanceof char[] a) {
+                for (char low : a) action.accept(high | low);
+            } else {
+                long[] words = (long[]) chunks[k];
+                for (int w = 0; w < WORDS; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        action.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /** Members in ascending order. */
+    int[] toArray() {
+        int[] out = new int[cardinality];
+        int[] at = {0};
+        forEach(v -> out[at[0]++] = v);
+        return out;
+    }
+
+    CompressedBitmap and(CompressedBitmap other) {
+        char[] k = new char[Math.min(keys.length, other.keys.length)];
+        Object[] c = new Object[k.length];
+        int n = 0;
+        for (int i = 0, j = 0; i < keys.length && j < other.keys.length; ) {
+            if (keys[i] < other.keys[j]) i++;
+            else if (keys[i] > other.keys[j]) j++;
+            else {
+                Object chunk = and(chunks[i], other.chunks[j]);
+                if (size(chunk) > 0) {
+                    k[n] = keys[i];
+                    c[n++] = chunk;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new CompressedBitmap(Arrays.copyOf(k, n), Arrays.copyOf(c, n));
+    }
+
+    CompressedBitmap or(CompressedBitmap other) {
+        char[] k = new char[keys.length + other.keys.length];
+        Object[] c = new Object[k.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                k[n] = keys[i];
+                c[n++] = chunks[i++];
+            } else if (i == keys.length || keys[i] > other.keys[j]) {
+                k[n] = other.keys[j];
+                c[n++] = other.chunks[j++];
+            } else {
+                k[n] = keys[i];
+                c[n++] = or(chunks[i++], other.chunks[j++]);
+            }
+        }
+        return new CompressedBitmap(Arrays.copyOf(k, n), Arrays.copyOf(c, n));
+    }
+
+    /** Union of all {@code bitmaps}; empty for an empty list. */
+    static CompressedBitmap orAll(List<CompressedBitmap> bitmaps) {
+        CompressedBitmap out = EMPTY;
+        for (CompressedBitmap b : bitmaps) out = out.or(b);
+        return out;
+    }
+
+    private static Object and(Object a, Object b) {
+        if (a instanceof char[] x && b instanceof char[] y) {
+            char[] out = new char[Math.min(x.length, y.length)];
+            int n = 0;
+            for (int i = 0, j = 0; i < x.length && j < y.length; ) {
+                if (x[i] < y[j]) i++;
+                else if (x[i] > y[j]) j++;
+                else {
+                    out[n++] = x[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
+        if (a instanceof char[] || b instanceof char[]) {
+            char[] x = a instanceof char[] arr ? arr : (char[]) b;
+            long[] words = (long[]) (a instanceof char[] ? b : a);
+            char[] out = new char[x.length];
+            int n = 0;
+            for (char v : x) {
+                if ((words[v >>> 6] & (1L << v)) != 0) out[n++] = v;
+            }
+            return Arrays.copyOf(out, n);
+        }
+        long[] x = (long[]) a;
+        long[] y = (long[]) b;
+        long[] out = new long[WORDS];
+        for (int w = 0; w < WORDS; w++) out[w] = x[w] & y[w];
+        return compact(out);
+    }
+
+    private static Object or(Object a, Object b) {
+        long[] out = new long[WORDS];
+        setAll(out, a);
+        setAll(out, b);
+        return compact(out);
+    }
+
+    private static void setAll(long[] words, Object chunk) {
+        if (chunk instanceof char[] a) {
+            for (char v : a) words[v >>> 6] |= 1L << v;
+        } else {
+            long[] other = (long[]) chunk;
+            for (int w = 0; w < WORDS; w++) words[w] |= other[w];
+        }
+    }
+
+    /** Keeps a bitset only while it is denser than the sorted-array form. */
+    private static Object compact(long[] words) {
+        int count = 0;
+        for (long w : words) count += Long.bitCount(w);
+        if (count > ARRAY_LIMIT) return words;
+        char[] out = new char[count];
+        int n = 0;
+        for (int w = 0; w < WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                out[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return out;
+    }
+
+    private static int size(Object chunk) {
+        if (chunk instanceof char[] a) return a.length;
+        int count = 0;
+        for (long w : (long[]) chunk) count += Long.bitCount(w);
+        return count;
+    }
+
+    /** Accumulates strictly ascending values. */
+    static final class Builder {
+        private char[] keys = new char[4];
+        private Object[] chunks = new Object[4];
+        private int n;
+        private char[] current = new char[16];
+        private long[] currentWords;
+        private int currentSize;
+        private int currentKey = -1;
+        private int last = -1;
+
+        void add(int value) {
+            if (value <= last) throw new IllegalArgumentException("values must be strictly ascending");
+            last = value;
+            int key = value >>> 16;
+            if (key != currentKey) {
+                flush();
+                currentKey = key;
+            }
+            char low = (char) value;
+            if (currentWords != null) {
+                currentWords[low >>> 6] |= 1L << low;
+            } else if (currentSize == ARRAY_LIMIT) {
+                currentWords = new long[WORDS];
+                for (int i = 0; i < currentSize; i++) currentWords[current[i] >>> 6] |= 1L << current[i];
+                currentWords[low >>> 6] |= 1L << low;
+            } else {
+                if (currentSize == current.length) current = Arrays.copyOf(current, currentSize * 2);
+                current[currentSize] = low;
+            }
+            currentSize++;
+        }
+
+        private void flush() {
+            if (currentKey < 0 || currentSize == 0) return;
+            if (n == keys.length) {
+                keys = Arrays.copyOf(keys, n * 2);
+                chunks = Arrays.copyOf(chunks, n * 2);
+            }
+            keys[n] = (char) currentKey;
+            chunks[n++] = currentWords != null ? currentWords : Arrays.copyOf(current, currentSize);
+            current = new char[16];
+            currentWords = null;
+            currentSize = 0;
+        }
+
+        CompressedBitmap build() {
+            flush();
+            currentKey = -1;
+            return new CompressedBitmap(Arrays.copyOf(keys, n), Arrays.copyOf(chunks, n));
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package ie.universityofgalway.groupnine.infrastructure.product.search;
+
+import ie.universityofgalway.groupnine.domain.product.CursorPage;
+import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.SearchQuery;
+import ie.universityofgalway.groupnine.domain.product.SortRule;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductCursorCodec;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductPersistenceAdapter;
+import ie.universityofgalway.groupnine.infrastructure.product.cache.CatalogChangeListener;
+import ie.universityofgalway.groupnine.infrastructure.product.cache.CoalescingTask;
+import ie.universityofgalway.groupnine.util.logging.AppLogger;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database-free implementation of {@code ProductPort.search} and {@code searchAfter} for
+ * read-heavy nodes, enabled with {@code app.catalog.search.engine=embedded}.
+ *
+ * <p>The whole catalog is streamed from the database in batches of
+ * {@code app.catalog.search.scan-batch-size} products once the application is ready. After that,
+ * only the products and variants named by catalog changes are read again, once per burst of
+ * changes within {@code app.catalog.search.rebuild-delay-ms}, and merged into a new index.
+ * Changes that fail to be read are kept for the next update. Each build or update produces an
+ * immutable {@link CatalogSearchIndex} that replaces the previous one, so searches never block.
+ * Until the first build completes, {@link #isReady()} is false and callers should use the SQL
+ * path.</p>
+ *
+ * <p>Results, totals and cursors are the same as those of {@link ProductPersistenceAdapter}, for every
+ * query it {@link #answers}: keyword {@code RELEVANCE} searches are ranked by Postgres'
+ * {@code ts_rank_cd}, which is not reproduced here, and {@code BEST_SELLING} by sales counters
+ * that change without a catalog change, so an index built from them would go stale.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.catalog.search.engine", havingValue = "embedded")
+public class EmbeddedProductSearch implements CatalogChangeListener {
+
+    private static final AppLogger LOG = AppLogger.get(EmbeddedProductSearch.class);
+
+    private final ProductPersistenceAdapter source;
+    private final int batchSize;
+    private final CoalescingTask updates;
+    private final Set<UUID> changedProducts = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> changedVariants = ConcurrentHashMap.newKeySet();
+    private volatile CatalogSearchIndex index;
+
+    @Autowired
+    public EmbeddedProductSearch(ProductPersistenceAdapter source,
+                                 @Value("${app.catalog.search.scan-batch-size:500}") int batchSize,
+                                 @Value("${app.catalog.search.rebuild-delay-ms:2000}") long rebuildDelayMillis) {
+        if (batchSize < 1) throw new IllegalArgumentException("scan-batch-size must be > 0");
+        this.source = source;
+        this.batchSize = batchSize;
+        this.updates = new CoalescingTask("catalog-search-update", rebuildDelayMillis, this::update);
+    }
+
+    /** Whether an index has been built; searches must not be routed here before that. */
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /** Whether this index returns the SQL path's results for the query; relevance and sales ranking it does not. */
+    public boolean answers(SearchQuery query) {
+        if (query.sortRule() == SortRule.BEST_SELLING) return false;
+        return query.sortRule() != SortRule.RELEVANCE || query.key().isEmpty();
+    }
+
+    /** Offset-paged search with the semantics of {@code ProductPort.search(SearchQuery, Pageable)}. */
+    public Page<Product> search(SearchQuery query, Pageable pageable) {
+        CatalogSearchIndex.Hits hits = current().search(query, null, pageable.getOffset(), pageable.getPageSize());
+        List<Product> content = hits.hits().stream().map(CatalogSearchIndex.Hit::product).toList();
+        return new PageImpl<>(content, pageable, hits.total());
+    }
+
+    /** Keyset search with the semantics of {@code ProductPort.searchAfter}. */
+    public CursorPage<Product> searchAfter(SearchQuery query, String cursor, int size, boolean includeTotal) {
+        SortRule sort = query.sortRule();
+        ProductCursorCodec.Position after = ProductCursorCodec.decode(cursor, sort);
+        CatalogSearchIndex.Hits hits = current().search(query, after, 0, size + 1);
+        boolean hasNext = hits.hits().size() > size;
+        List<CatalogSearchIndex.Hit> slice = hasNext ? hits.hits().subList(0, size) : hits.hits();
+        String next = null;
+        if (hasNext) {
+            CatalogSearchIndex.Hit last = slice.get(slice.size() - 1);
+            next = ProductCursorCodec.encode(sort, last.id(), last.product().getCreatedAt(),
+                    last.minPriceCents(), last.maxPriceCents(), null, null, null);
+        }
+        List<Product> content = slice.stream().map(CatalogSearchIndex.Hit::product).toList();
+        return new CursorPage<>(content, next, includeTotal ? (long) hits.total() : null);
+    }
+
+    private CatalogSearchIndex current() {
+        CatalogSearchIndex i = index;
+        if (i == null) throw new IllegalStateException("Embedded search index is not built yet");
+        return i;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Override
+    public void onProductChanged(UUID productId) {
+        changedProducts.add(productId);
+        updates.request();
+    }
+
+    @Override
+    public void onProductsChanged(Collection<UUID> productIds) {
+        changedProducts.addAll(productIds);
+        updates.request();
+    }
+
+    @Override
+    public void onVariantChanged(UUID variantId) {
+        changedVariants.add(variantId);
+        updates.request();
+    }
+
+    @Override
+    public void onVariantsChanged(Collection<UUID> variantIds) {
+        changedVariants.addAll(variantIds);
+        updates.request();
+    }
+
+    /** Streams the catalog and publishes a fresh index; keeps the old one on failure. */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        try {
+            List<ProductPersistenceAdapter.CatalogEntry> all = new ArrayList<>();
+            Long after = null;
+            while (true) {
+                List<ProductPersistenceAdapter.CatalogEntry> batch = source.scanAfter(after, batchSize);
+                all.addAll(batch);
+                if (batch.size() < batchSize) break;
+                after = batch.get(batch.size() - 1).id();
+            }
+            CatalogSearchIndex fresh = CatalogSearchIndex.build(all);
+            index = fresh;
+            LOG.info("search_index_built", "products", fresh.size(),
+                    "millis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            LOG.warn("search_index_build_failed", "error", e.getMessage());
+        }
+    }
+
+    /**
+     * Reads back the products changed since the last update, and those holding changed variants
+     * before or after the change, and merges them in. Builds the whole index instead while there
+     * is none.
+     */
+    public synchronized void update() {
+        Set<UUID> products = drain(changedProducts);
+        Set<UUID> variants = drain(changedVariants);
+        CatalogSearchIndex current = index;
+        if (current == null) {
+            rebuild();
+            return;
+        }
+        if (products.isEmpty() && variants.isEmpty()) return;
+        try {
+            Set<UUID> changed = new HashSet<>(products);
+            // Products that held a variant which has since moved or been deleted
+            changed.addAll(current.productsOf(variants));
+            index = current.with(source.scanChanged(changed, variants), changed);
+        } catch (RuntimeException e) {
+            changedProducts.addAll(products);
+            changedVariants.addAll(variants);
+            LOG.warn("search_index_update_failed", "products", products.size(), "variants", variants.size(),
+                    "error", e.getMessage());
+        }
+    }
+
+    private static Set<UUID> drain(Set<UUID> changed) {
+        Set<UUID> out = new HashSet<>();
+        for (UUID id : changed) {
+            if (changed.remove(id)) out.add(id);
+        }
+        return out;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        updates.shutdown();
+    }
+}
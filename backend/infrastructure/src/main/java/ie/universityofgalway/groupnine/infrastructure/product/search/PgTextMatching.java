@@ -0,0 +1,140 @@
+package ie.universityofgalway.groupnine.infrastructure.product.search;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Java counterparts of the three text predicates in {@code ProductSearchSql},
+ * so the embedded index can decide matches exactly as Postgres does:
+ * <ul>
+ *   <li>{@code search_tsv @@ plainto_tsquery('simple', key)}: every word of the key is a word of the text;</li>
+ *   <li>{@code search_text ILIKE '%' || key || '%'}, including the {@code %} and {@code _}
+ *       wildcards a key may contain and the default {@code \} escape;</li>
+ *   <li>{@code similarity(a, key) > cutoff} from {@code pg_trgm}: distinct trigrams of each word padded
+ *       as {@code "  word "}, compared as {@code shared / (|a| + |b| - shared)} in single precision.</li>
+ * </ul>
+ *
+ * <p>Words are maximal runs of letters and digits. That is exactly what {@code pg_trgm} uses; the
+ * full-text parser also recognises e-mail addresses, URLs and decimal numbers as single tokens,
+ * which this class splits further. The {@code ILIKE} branch covers those cases for single-word keys.</p>
+ */
+final class PgTextMatching {
+
+    private static final long[] NO_TRIGRAMS = new long[0];
+
+    private PgTextMatching() {}
+
+    static String lower(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+    }
+
+    /** Distinct lower-cased words in ascending order. */
+    static String[] words(String text) {
+        String s = lower(text);
+        String[] out = new String[8];
+        int n = 0;
+        int start = -1;
+        for (int i = 0; i <= s.length(); i++) {
+            boolean word = i < s.length() && Character.isLetterOrDigit(s.charAt(i));
+            if (word && start < 0) start = i;
+            if (!word && start >= 0) {
+                if (n == out.length) out = Arrays.copyOf(out, n * 2);
+                out[n++] = s.substring(start, i);
+                start = -1;
+            }
+        }
+        String[] sorted = Arrays.copyOf(out, n);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (distinct == 0 || !sorted[distinct - 1].equals(sorted[i])) sorted[distinct++] = sorted[i];
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    /** Distinct {@code pg_trgm} trigrams of {@code text}, packed three chars per long, ascending. */
+    static long[] trigrams(String text) {
+        String s = lower(text);
+        if (s.isEmpty()) return NO_TRIGRAMS;
+        long[] grams = new long[s.length() * 3 + 3];
+        int n = 0;
+        int start = -1;
+        for (int i = 0; i <= s.length(); i++) {
+            boolean word = i < s.length() && Character.isLetterOrDigit(s.charAt(i));
+            if (word && start < 0) start = i;
+            if (!word && start >= 0) {
+                char a = ' ';
+                char b = ' ';
+                for (int j = start; j <= i; j++) {
+                    char c = j < i ? s.charAt(j) : ' ';
+                    grams[n++] = ((long) a << 32) | ((long) b << 16) | c;
+                    a = b;
+                    b = c;
+                }
+                start = -1;
+            }
+        }
+        Arrays.sort(grams, 0, n);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || grams[distinct - 1] != grams[i]) grams[distinct++] = grams[i];
+        }
+        return distinct == 0 ? NO_TRIGRAMS : Arrays.copyOf(grams, distinct);
+    }
+
+    /** {@code pg_trgm} similarity of two trigram sets from {@link #trigrams}. */
+    static float similarity(long[] a, long[] b) {
+        if (a.length == 0 || b.length == 0) return 0f;
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                shared++;
+                i++;
+                j++;
+            }
+        }
+        return (float) shared / (float) (a.length + b.length - shared);
+    }
+
+    /**
+     * Whether the lower-cased {@code text} matches {@code '%' || key || '%'} under {@code ILIKE}
+     * with {@code \} as the escape character.
+     */
+    static boolean containsLike(String text, String key) {
+        String k = lower(key);
+        if (k.indexOf('%') < 0 && k.indexOf('_') < 0 && k.indexOf('\\') < 0) return text.contains(k);
+        return like(text, "%" + k + "%");
+    }
+
+    /** SQL {@code LIKE} with {@code %}, {@code _} and {@code \} escapes; greedy with single backtrack point. */
+    private static boolean like(String s, String p) {
+        int si = 0;
+        int pi = 0;
+        int starP = -1;
+        int starS = -1;
+        while (si < s.length()) {
+            if (pi < p.length()) {
+                char c = p.charAt(pi);
+                if (c == '%') {
+                    starP = ++pi;
+                    starS = si;
+                    continue;
+                }
+                boolean escaped = c == '\\' && pi + 1 < p.length();
+                char literal = escaped ? p.charAt(pi + 1) : c;
+                if ((!escaped && c == '_') || literal == s.charAt(si)) {
+                    si++;
+                    pi += escaped ? 2 : 1;
+                    continue;
+                }
+            }
+            if (starP < 0) return false;
+            pi = starP;
+            si = ++starS;
+        }
+        while (pi < p.length() && p.charAt(pi) == '%') pi++;
+        return pi == p.length();
+    }
+}
@@ -0,0 +1,122 @@
+package ie.universityofgalway.groupnine.infrastructure.product.suggest;
+
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.ProductSuggestion;
+import ie.universityofgalway.groupnine.infrastructure.product.cache.CatalogChangeListener;
+import ie.universityofgalway.groupnine.infrastructure.product.cache.CoalescingTask;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSummaryView;
+import ie.universityofgalway.groupnine.service.product.port.ProductSuggestionPort;
+import ie.universityofgalway.groupnine.util.logging.AppLogger;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductSuggestionPort} answering from a node-local {@link SuggestionIndex}.
+ *
+ * <p>The index is built once the application is ready and rebuilt in the background after
+ * catalog changes; bursts of changes within {@code app.catalog.suggest.rebuild-delay-ms}
+ * collapse into one rebuild. Lookups never wait for a rebuild: they read whichever index
+ * was published last.</p>
+ *
+ * <p>Publishes a {@code catalog.suggest.latency} timer (with p50/p99) and a
+ * {@code catalog.suggest.entries} gauge.</p>
+ */
+@Component
+public class InMemoryProductSuggestionAdapter implements ProductSuggestionPort, CatalogChangeListener {
+
+    private static final AppLogger LOG = AppLogger.get(InMemoryProductSuggestionAdapter.class);
+
+    private final ProductJpaRepository products;
+    private final Timer latency;
+    private final CoalescingTask rebuilds;
+    private volatile SuggestionIndex index = SuggestionIndex.EMPTY;
+
+    @Autowired
+    public InMemoryProductSuggestionAdapter(ProductJpaRepository products,
+                                            ObjectProvider<MeterRegistry> meters,
+                                            @Value("${app.catalog.suggest.rebuild-delay-ms:2000}") long rebuildDelayMillis) {
+        this(products, meters.getIfAvailable(SimpleMeterRegistry::new), rebuildDelayMillis);
+    }
+
+    public InMemoryProductSuggestionAdapter(ProductJpaRepository products, MeterRegistry registry, long rebuildDelayMillis) {
+        this.products = products;
+        this.latency = Timer.builder("catalog.suggest.latency")
+                .description("Time to answer a suggestion lookup from the in-memory index")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        Gauge.builder("catalog.suggest.entries", this, a -> a.index.size()).register(registry);
+        this.rebuilds = new CoalescingTask("catalog-suggest-rebuild", rebuildDelayMillis, this::rebuild);
+    }
+
+    @Override
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        long start = System.nanoTime();
+        try {
+            return index.suggest(prefix, limit);
+        } finally {
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Override
+    public void onProductChanged(UUID productId) {
+        rebuilds.request();
+    }
+
+    /** Stock changes can make a product (un)available, so variant changes rebuild too. */
+    @Override
+    public void onVariantChanged(UUID variantId) {
+        rebuilds.request();
+    }
+
+    /** Reloads all available products and publishes a fresh index; keeps the old one on failure. */
+    public void rebuild() {
+        long start = System.nanoTime();
+        try {
+            SuggestionIndex fresh = SuggestionIndex.build(toSuggestions(products.findSuggestionSources()));
+            index = fresh;
+            LOG.info("suggest_index_built", "entries", fresh.size(),
+                    "millis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            LOG.warn("suggest_index_build_failed", "error", e.getMessage());
+        }
+    }
+
+    private static List<ProductSuggestion> toSuggestions(List<ProductSummaryView> rows) {
+        List<ProductSuggestion> out = new ArrayList<>(rows.size() * 2);
+        for (ProductSummaryView row : rows) {
+            if (row.getName() != null) {
+                out.add(new ProductSuggestion(row.getName(), ProductSuggestion.Type.PRODUCT, new ProductId(row.getUuid())));
+            }
+            if (row.getCategory() != null) {
+                out.add(new ProductSuggestion(row.getCategory(), ProductSuggestion.Type.CATEGORY, null));
+            }
+        }
+        return out;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilds.shutdown();
+    }
+}
@@ -0,0 +1,373 @@
+package ie.universityofgalway.groupnine.infrastructure.product.suggest;
+
+import ie.universityofgalway.groupnine.domain.product.ProductSuggestion;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable in-memory type-ahead index over product names and categories.
+ *
+ * <p>Entries are numbered in rank order (categories first, then shorter and alphabetically
+ * earlier texts) so that a lower number always means a better suggestion. Two structures are
+ * kept, both in flat primitive arrays:</p>
+ * <ul>
+ *   <li>a prefix trie holding the normalized text and every suffix starting at a word, where each
+ *       node stores the first {@value #TOP_K} entry numbers below it, so a prefix lookup is one
+ *       walk down the trie and a copy of at most {@value #TOP_K} ints;</li>
+ *   <li>per-word trigram postings (sorted trigram keys and CSR entry lists), used to fill up the
+ *       result with typo-tolerant matches when the prefix alone yields too few.</li>
+ * </ul>
+ *
+ * <p>Instances are never modified after {@link #build}; callers swap in a fresh one on change.</p>
+ */
+public final class SuggestionIndex {
+
+    /** Completions kept per trie node, and therefore the largest useful {@code limit}. */
+    public static final int TOP_K = 10;
+
+    /** Longest indexed key; longer prefixes are matched on their first characters only. */
+    static final int MAX_KEY_LENGTH = 48;
+
+    /** Minimum share of the query's trigrams an entry must contain to be a fuzzy match. */
+    private static final double MIN_TRIGRAM_SHARE = 0.5;
+
+    /** Queries shorter than this get prefix matches only. */
+    private static final int MIN_FUZZY_LENGTH = 3;
+
+    public static final SuggestionIndex EMPTY = build(List.of());
+
+    private final ProductSuggestion[] entries;
+
+    // trie; node 0 is the root
+    private final char[] label;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] topStart;
+    private final int[] topEntries;
+
+    // trigram postings
+    private final long[] gramKeys;
+    private final int[] gramStart;
+    private final int[] gramEntries;
+
+    // per-thread hit counters for fuzzy scoring, sized to this index and reset after each query
+    private final ThreadLocal<int[]> hitCounters;
+
+    private SuggestionIndex(ProductSuggestion[] entries, TrieBuilder trie, Map<Long, IntList> postings) {
+        this.entries = entries;
+        this.label = Arrays.copyOf(trie.label, trie.nodes);
+        this.firstChild = Arrays.copyOf(trie.firstChild, trie.nodes);
+        this.nextSibling = Arrays.copyOf(trie.nextSibling, trie.nodes);
+        this.topStart = new int[trie.nodes + 1];
+        this.topEntries = new int[trie.pool];
+        int at = 0;
+        for (int node = 0; node < trie.nodes; node++) {
+            topStart[node] = at;
+            for (int p = trie.topHead[node]; p != -1; p = trie.poolNext[p]) topEntries[at++] = trie.poolEntry[p];
+        }
+        topStart[trie.nodes] = at;
+
+        this.gramKeys = postings.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        this.gramStart = new int[gramKeys.length + 1];
+        int total = 0;
+        for (IntList l : postings.values()) total += l.size;
+        this.gramEntries = new int[total];
+        at = 0;
+        for (int g = 0; g < gramKeys.length; g++) {
+            gramStart[g] = at;
+            IntList l = postings.get(gramKeys[g]);
+            System.arraycopy(l.values, 0, gramEntries, at, l.size);
+            at += l.size;
+        }
+        gramStart[gramKeys.length] = at;
+        this.hitCounters = ThreadLocal.withInitial(() -> new int[entries.length]);
+    }
+
+    /**
+     * Builds an index over {@code suggestions}. Categories are de-duplicated by normalized text,
+     * products by id; entries whose text normalizes to nothing are skipped.
+     */
+    public static SuggestionIndex build(Collection<ProductSuggestion> suggestions) {
+        Map<String, Ranked> unique = new HashMap<>();
+        for (ProductSuggestion s : suggestions) {
+            String key = normalize(s.text());
+            if (key.isEmpty()) continue;
+            String identity = s.type() == ProductSuggestion.Type.CATEGORY
+                    ? "c:" + key
+                    : "p:" + s.productId().getId();
+            unique.putIfAbsent(identity, new Ranked(s, key));
+        }
+        List<Ranked> ranked = new ArrayList<>(unique.values());
+        ranked.sort(Comparator
+                .comparingInt((Ranked r) -> r.suggestion.type() == ProductSuggestion.Type.CATEGORY ? 0 : 1)
+                .thenComparingInt(r -> r.key.length())
+                .thenComparing(r -> r.key)
+                .thenComparing(r -> r.suggestion.text()));
+
+        ProductSuggestion[] entries = new ProductSuggestion[ranked.size()];
+        TrieBuilder trie = new TrieBuilder();
+        Map<Long, IntList> postings = new HashMap<>();
+        for (int e = 0; e < entries.length; e++) {
+            Ranked r = ranked.get(e);
+            entries[e] = r.suggestion;
+            String key = r.key;
+            for (int start = 0; start < key.length(); start++) {
+                if (start == 0 || key.charAt(start - 1) == ' ') {
+                    trie.insert(key, start, Math.min(key.length(), start + MAX_KEY_LENGTH), e);
+                }
+            }
+            for (long gram : trigrams(key)) {
+                postings.computeIfAbsent(gram, g -> new IntList()).add(e);
+            }
+        }
+        return new SuggestionIndex(entries, trie, postings);
+    }
+
+    /** Number of indexed entries. */
+    public int size() { return entries.length; }
+
+    /**
+     * Returns up to {@code limit} suggestions (at most {@value #TOP_K}) for {@code query}:
+     * prefix matches in rank order, then fuzzy matches by trigram overlap.
+     */
+    public List<ProductSuggestion> suggest(String query, int limit) {
+        String q = normalize(query);
+        int max = Math.min(limit, TOP_K);
+        if (q.isEmpty() || max <= 0 || entries.length == 0) return List.of();
+
+        int[] found = new int[max];
+        int n = 0;
+        int node = find(q.length() > MAX_KEY_LENGTH ? q.substring(0, MAX_KEY_LENGTH) : q);
+        if (node >= 0) {
+            for (int i = topStart[node]; i < topStart[node + 1] && n < max; i++) found[n++] = topEntries[i];
+        }
+        if (n < max && q.length() >= MIN_FUZZY_LENGTH) n = fuzzy(q, found, n);
+
+        List<ProductSuggestion> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) out.add(entries[found[i]]);
+        return out;
+    }
+
+    private int find(String key) {
+        int node = 0;
+        for (int i = 0; i < key.length() && node >= 0; i++) node = child(node, key.charAt(i));
+        return node;
+    }
+
+    private int child(int node, char c) {
+        for (int n = firstChild[node]; n != -1; n = nextSibling[n]) {
+            if (label[n] == c) return n;
+        }
+        return -1;
+    }
+
+    /**
+     * Appends fuzzy matches not already in {@code found[0..n)} until the array is full. Entries are
+     * scored by the number of query trigrams they contain and ties keep rank order.
+     */
+    private int fuzzy(String q, int[] found, int n) {
+        long[] grams = trigrams(q);
+        int required = (int) Math.ceil(grams.length * MIN_TRIGRAM_SHARE);
+        int[] hits = hitCounters.get();
+        int[] touched = new int[Math.min(entries.length, postingsLength(grams))];
+        int touchedCount = 0;
+        for (long gram : grams) {
+            int g = Arrays.binarySearch(gramKeys, gram);
+            if (g < 0) continue;
+            for (int i = gramStart[g]; i < gramStart[g + 1]; i++) {
+                int e = gramEntries[i];
+                if (hits[e]++ == 0) touched[touchedCount++] = e;
+            }
+        }
+
+        // best (most hits, then lowest entry number) first; bounded insertion keeps this O(touched * slots)
+        int slots = found.length - n;
+        int[] best = new int[slots];
+        int bestCount = 0;
+        for (int t = 0; t < touchedCount; t++) {
+            int e = touched[t];
+            if (hits[e] < required || contains(found, n, e)) continue;
+            if (bestCount == slots && !better(e, best[slots - 1], hits)) continue;
+            int pos = bestCount < slots ? bestCount++ : slots - 1;
+            while (pos > 0 && better(e, best[pos - 1], hits)) {
+                best[pos] = best[pos - 1];
+                pos--;
+            }
+            best[pos] = e;
+        }
+        for (int t = 0; t < touchedCount; t++) hits[touched[t]] = 0;
+        System.arraycopy(best, 0, found, n, bestCount);
+        return n + bestCount;
+    }
+
+    private int postingsLength(long[] grams) {
+        int total = 0;
+        for (long gram : grams) {
+            int g = Arrays.binarySearch(gramKeys, gram);
+            if (g >= 0) total += gramStart[g + 1] - gramStart[g];
+        }
+        return total;
+    }
+
+    private static boolean better(int a, int b, int[] hits) {
+        return hits[a] != hits[b] ? hits[a] > hits[b] : a < b;
+    }
+
+    private static boolean contains(int[] values, int n, int value) {
+        for (int i = 0; i < n; i++) if (values[i] == value) return true;
+        return false;
+    }
+
+    /**
+     * Lower-cases, strips accents and collapses everything that is not a letter or digit into
+     * single spaces, e.g. {@code " Café-Crème  Mug"} becomes {@code "cafe creme mug"}.
+     */
+    static String normalize(String text) {
+        if (text == null) return "";
+        String s = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder out = new StringBuilder(s.length());
+        boolean space = true;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+            if (Character.isLetterOrDigit(c)) {
+                out.append(c);
+                space = false;
+            } else if (!space) {
+                out.append(' ');
+                space = true;
+            }
+        }
+        int len = out.length();
+        if (len > 0 && out.charAt(len - 1) == ' ') out.setLength(len - 1);
+        return out.toString();
+    }
+
+    /** Distinct trigrams of every word padded as {@code "  word "}, packed into longs, sorted. */
+    static long[] trigrams(String normalized) {
+        long[] grams = new long[normalized.length() * 3 + 3];
+        int n = 0;
+        char a = ' ';
+        char b = ' ';
+        for (int i = 0; i <= normalized.length(); i++) {
+            char c = i < normalized.length() ? normalized.charAt(i) : ' ';
+            if (c == ' ' && b == ' ') {
+                a = ' ';
+                continue;
+            }
+            grams[n++] = ((long) a << 32) | ((long) b << 16) | c;
+            if (c == ' ') {
+                a = ' ';
+                b = ' ';
+            } else {
+                a = b;
+                b = c;
+            }
+        }
+        Arrays.sort(grams, 0, n);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || grams[distinct - 1] != grams[i]) grams[distinct++] = grams[i];
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    private record Ranked(ProductSuggestion suggestion, String key) {}
+
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int v) {
+            if (size > 0 && values[size - 1] == v) return;
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+    }
+
+    /**
+     * Growable first-child/next-sibling trie. Each node's top list is a linked list in a shared
+     * pool; entries arrive in rank order, so appending keeps every list sorted.
+     */
+    private static final class TrieBuilder {
+        char[] label = new char[256];
+        int[] firstChild = filled(256);
+        int[] nextSibling = filled(256);
+        int[] topHead = filled(256);
+        int[] topTail = filled(256);
+        int[] topCount = new int[256];
+        int[] lastEntry = filled(256);
+        int nodes = 1;
+
+        int[] poolEntry = new int[256];
+        int[] poolNext = new int[256];
+        int pool;
+
+        void insert(String key, int from, int to, int entry) {
+            int node = 0;
+            for (int i = from; i < to; i++) {
+                node = childOrCreate(node, key.charAt(i));
+                if (topCount[node] < TOP_K && lastEntry[node] != entry) append(node, entry);
+            }
+        }
+
+        private int childOrCreate(int node, char c) {
+            for (int n = firstChild[node]; n != -1; n = nextSibling[n]) {
+                if (label[n] == c) return n;
+            }
+            if (nodes == label.length) growNodes();
+            int n = nodes++;
+            label[n] = c;
+            nextSibling[n] = firstChild[node];
+            firstChild[node] = n;
+            return n;
+        }
+
+        private void append(int node, int entry) {
+            if (pool == poolEntry.length) {
+                poolEntry = Arrays.copyOf(poolEntry, pool * 2);
+                poolNext = Arrays.copyOf(poolNext, pool * 2);
+            }
+            int p = pool++;
+            poolEntry[p] = entry;
+            poolNext[p] = -1;
+            if (topTail[node] == -1) topHead[node] = p;
+            else poolNext[topTail[node]] = p;
+            topTail[node] = p;
+            topCount[node]++;
+            lastEntry[node] = entry;
+        }
+
+        private void growNodes() {
+            int size = label.length * 2;
+            label = Arrays.copyOf(label, size);
+            firstChild = grow(firstChild, size);
+            nextSibling = grow(nextSibling, size);
+            topHead = grow(topHead, size);
+            topTail = grow(topTail, size);
+            topCount = Arrays.copyOf(topCount, size);
+            lastEntry = grow(lastEntry, size);
+        }
+
+        private static int[] filled(int size) {
+            int[] a = new int[size];
+            Arrays.fill(a, -1);
+            return a;
+        }
+
+        private static int[] grow(int[] a, int size) {
+            int old = a.length;
+            a = Arrays.copyOf(a, size);
+            Arrays.fill(a, old, size, -1);
+            return a;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ie.universityofgalway.groupnine.infrastructure.inventory.adapter;
 
 import ie.universityofgalway.groupnine.domain.product.VariantId;
 import ie.universityofgalway.groupnine.infrastructure.inventory.jpa.InventoryAggregateJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchDocumentJpaRepository;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantEntity;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantJpaRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,13 +21,15 @@ class InventoryAdjustmentAdapterTest {
 
     private InventoryAggregateJpaRepository inventory;
     private VariantJpaRepository variants;
+    private ProductSearchDocumentJpaRepository docs;
     private InventoryAdjustmentAdapter adapter;
 
     @BeforeEach
     void setup() {
         inventory = Mockito.mock(InventoryAggregateJpaRepository.class);
         variants = Mockito.mock(VariantJpaRepository.class);
-        adapter = new InventoryAdjustmentAdapter(inventory, variants);
+        docs = Mockito.mock(ProductSearchDocumentJpaRepository.class);
+        adapter = new InventoryAdjustmentAdapter(inventory, variants, docs);
     }
 
     @Test
@@ -77,5 +80,16 @@ class InventoryAdjustmentAdapterTest {
         assertEquals(0, cap.getValue().getStockQuantity());
         assertFalse(cap.getValue().isAvailable());
     }
-}
 
+    @Test
+    void decrementTotalStock_refreshes_search_document_of_owning_product() {
+        UUID vid = UUID.randomUUID();
+        VariantEntity ve = new VariantEntity();
+        ve.setStockQuantity(2);
+        when(variants.findByUuid(eq(vid))).thenReturn(Optional.of(ve));
+
+        adapter.decrementTotalStock(new VariantId(vid), 2);
+
+        verify(docs).refreshForVariant(eq(vid));
+    }
+}
@@ -0,0 +1,115 @@
+package ie.universityofgalway.groupnine.infrastructure.product;
+
+import ie.universityofgalway.groupnine.domain.product.*;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.CatalogExportAdapter;
+import ie.universityofgalway.groupnine.service.product.admin.ProductFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CatalogExportAdapterTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final CatalogExportAdapter adapter = new CatalogExportAdapter(jdbc, 250);
+
+    /** One result row: a product and optionally one of its variants. */
+    private static ResultSet row(UUID product, String name, UUID variant, String sku, String attributes) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        OffsetDateTime at = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        when(rs.getObject(1, UUID.class)).thenReturn(product);
+        when(rs.getString(2)).thenReturn(name);
+        when(rs.getString(4)).thenReturn("coffee");
+        when(rs.getString(5)).thenReturn("ACTIVE");
+        when(rs.getObject(6, OffsetDateTime.class)).thenReturn(at);
+        when(rs.getObject(7, OffsetDateTime.class)).thenReturn(at);
+        when(rs.getObject(8, UUID.class)).thenReturn(variant);
+        when(rs.getString(9)).thenReturn(sku);
+        when(rs.getInt(10)).thenReturn(450);
+        when(rs.getString(11)).thenReturn("EUR");
+        when(rs.getInt(12)).thenReturn(5);
+        when(rs.getInt(13)).thenReturn(1);
+        when(rs.getString(14)).thenReturn(attributes);
+        return rs;
+    }
+
+    @Test
+    void consecutive_rows_are_folded_into_one_product() throws Exception {
+        UUID beans = UUID.randomUUID();
+        UUID kettle = UUID.randomUUID();
+        List<ResultSet> rows = List.of(
+                row(beans, "Beans", UUID.randomUUID(), "B-1", "{\"size\":[\"M\",\"L\"]}"),
+                row(beans, "Beans", UUID.randomUUID(), "B-2", null),
+                row(kettle, "Kettle", null, null, null));
+        List<PreparedStatementCreator> statements = new ArrayList<>();
+        List<List<Product>> seenWhileReading = new ArrayList<>();
+        List<Product> exported = new ArrayList<>();
+        doAnswer(inv -> {
+            statements.add(inv.getArgument(0));
+            RowCallbackHandler handler = inv.getArgument(1);
+            for (ResultSet rs : rows) {
+                handler.processRow(rs);
+                seenWhileReading.add(List.copyOf(exported));
+            }
+            return null;
+        }).when(jdbc).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        adapter.forEachProduct(new ProductFilter(), null, exported::add);
+
+        assertEquals(2, exported.size());
+        // Beans goes out as soon as the first Kettle row arrives
+        assertEquals(List.of(0, 0, 1), seenWhileReading.stream().map(List::size).toList());
+        Product first = exported.get(0);
+        assertEquals(beans, first.getId().getId());
+        assertEquals(ProductStatus.ACTIVE, first.getStatus());
+        assertEquals(List.of("B-1", "B-2"), first.getVariants().stream().map(v -> v.getSku().getValue()).toList());
+        Variant b1 = first.getVariants().get(0);
+        assertEquals(0, new BigDecimal("4.50").compareTo(b1.getPrice().getAmount()));
+        assertEquals(1, b1.getStock().getReserved());
+        assertEquals(List.of(new Attribute("size", "M"), new Attribute("size", "L")), b1.getAttributes());
+        assertTrue(exported.get(1).getVariants().isEmpty());
+
+        Connection con = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(con.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(ps);
+        statements.get(0).createPreparedStatement(con);
+        verify(con).prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY));
+        verify(ps).setFetchSize(250);
+    }
+
+    @Test
+    void filters_and_resume_point_become_bound_predicates() throws Exception {
+        List<PreparedStatementCreator> statements = new ArrayList<>();
+        doAnswer(inv -> {
+            statements.add(inv.getArgument(0));
+            return null;
+        }).when(jdbc).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        UUID after = UUID.randomUUID();
+        List<Product> exported = new ArrayList<>();
+
+        adapter.forEachProduct(new ProductFilter("Coffee", ProductStatus.DRAFT), new ProductId(after), exported::add);
+
+        assertTrue(exported.isEmpty());
+        Connection con = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(con.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(ps);
+        statements.get(0).createPreparedStatement(con);
+        verify(ps).setObject(1, after);
+        verify(ps).setString(2, "Coffee");
+        verify(ps).setString(3, "DRAFT");
+    }
+}
@@ -0,0 +1,117 @@
+package ie.universityofgalway.groupnine.infrastructure.product;
+
+import ie.universityofgalway.groupnine.domain.product.*;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.CatalogImportAdapter;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchDocumentJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantAttributeIndexJpaRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CatalogImportAdapterTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final ProductSearchDocumentJpaRepository searchDocuments = mock(ProductSearchDocumentJpaRepository.class);
+    private final VariantAttributeIndexJpaRepository attributeIndex = mock(VariantAttributeIndexJpaRepository.class);
+    private final CatalogImportAdapter adapter = new CatalogImportAdapter(jdbc, searchDocuments, attributeIndex);
+
+    private static Variant variant(String sku, String price, List<Attribute> attributes) {
+        return new Variant(new VariantId(UUID.randomUUID()), new Sku(sku),
+                new Money(new BigDecimal(price), Currency.getInstance("EUR")), new Stock(4, 0), attributes);
+    }
+
+    private static Product product(String name, Variant... variants) {
+        return new Product(new ProductId(UUID.randomUUID()), name, null, "coffee", ProductStatus.ACTIVE,
+                List.of(variants), Instant.now(), Instant.now());
+    }
+
+    @Test
+    void sku_owners_are_read_in_one_pass() throws Exception {
+        UUID owner = UUID.randomUUID();
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(1)).thenReturn("SKU-1");
+        when(rs.getObject(2, UUID.class)).thenReturn(owner);
+        doAnswer(inv -> {
+            inv.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbc).query(anyString(), any(RowCallbackHandler.class));
+
+        assertEquals(Map.of("SKU-1", owner), adapter.skuOwners());
+    }
+
+    @Test
+    void a_batch_is_two_array_upserts_then_one_rebuild_of_its_products() throws Exception {
+        List<PreparedStatementCreator> statements = new ArrayList<>();
+        when(jdbc.query(any(PreparedStatementCreator.class), any(RowMapper.class))).thenAnswer(inv -> {
+            statements.add(inv.getArgument(0));
+            return List.of(7L, 9L);
+        });
+        UUID existing = UUID.randomUUID();
+        doAnswer(inv -> {
+            statements.add(inv.getArgument(0));
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getString(1)).thenReturn("A");
+            when(rs.getObject(2, UUID.class)).thenReturn(existing);
+            inv.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbc).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        Product grinder = product("Grinder", variant("B", "30.00", List.of()));
+        Product beans = product("Beans", variant("A", "4.50",
+                List.of(new Attribute("size", "M"), new Attribute("size", "L"))));
+
+        Map<String, VariantId> written = adapter.upsert(List.of(grinder, beans));
+
+        // B was taken by another product meanwhile; A kept the id it already had
+        assertEquals(Map.of("A", new VariantId(existing)), written);
+        InOrder order = inOrder(attributeIndex, searchDocuments);
+        order.verify(attributeIndex).reindexProducts(List.of(7L, 9L));
+        order.verify(searchDocuments).refreshForProducts(List.of(7L, 9L));
+
+        Connection con = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(con.prepareStatement(anyString())).thenReturn(ps);
+        List<Object[]> arrays = new ArrayList<>();
+        when(con.createArrayOf(anyString(), any())).thenAnswer(inv -> {
+            arrays.add(inv.getArgument(1));
+            return mock(Array.class);
+        });
+        statements.get(0).createPreparedStatement(con);
+        statements.get(1).createPreparedStatement(con);
+
+        verify(con).prepareStatement(contains("ON CONFLICT (uuid) DO UPDATE"));
+        verify(con).prepareStatement(contains("ON CONFLICT (sku) DO UPDATE"));
+        verify(ps, times(12)).setArray(anyInt(), any());
+        // Variants are sent in SKU order
+        assertArrayEquals(new Object[]{"A", "B"}, arrays.get(7));
+        assertArrayEquals(new Object[]{450, 3000}, arrays.get(8));
+        assertArrayEquals(new Object[]{4, 4}, arrays.get(10));
+        assertEquals("{\"size\":[\"M\",\"L\"]}", arrays.get(11)[0]);
+        assertNull(arrays.get(11)[1]);
+        assertArrayEquals(new Object[]{beans.getId().getId(), grinder.getId().getId()}, arrays.get(6));
+    }
+
+    @Test
+    void an_empty_batch_writes_nothing() {
+        assertEquals(Map.of(), adapter.upsert(List.of()));
+        verifyNoInteractions(jdbc, searchDocuments, attributeIndex);
+    }
+}
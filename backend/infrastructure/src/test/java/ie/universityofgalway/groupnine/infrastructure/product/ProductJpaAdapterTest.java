@@ -14,7 +14,10 @@ import java.util.UUID;
 import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductPersistenceAdapter;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductEntity;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchDocumentJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantAttributeIndexJpaRepository;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantEntity;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantJpaRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -30,6 +33,15 @@ class ProductJpaAdapterTest {
     @Mock
     private ProductJpaRepository productJpaRepository;
 
+    @Mock
+    private VariantJpaRepository variantJpaRepository;
+
+    @Mock
+    private ProductSearchDocumentJpaRepository searchDocuments;
+
+    @Mock
+    private VariantAttributeIndexJpaRepository attributeIndex;
+
     @InjectMocks
     private ProductPersistenceAdapter productPersistenceAdapter;
 
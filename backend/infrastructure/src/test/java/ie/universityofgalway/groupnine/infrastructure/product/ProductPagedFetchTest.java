@@ -0,0 +1,215 @@
+package ie.universityofgalway.groupnine.infrastructure.product;
+
+import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.ProductProjection;
+import ie.universityofgalway.groupnine.domain.product.SearchQuery;
+import ie.universityofgalway.groupnine.domain.product.SortRule;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductPersistenceAdapter;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchDocumentJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSummaryView;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantAttributeIndexJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantView;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Verifies the batched read-side fetch strategy for paged catalog queries:
+ * one statement for the page of product summaries and one for all of their variants,
+ * independent of how many products the page holds.
+ */
+class ProductPagedFetchTest {
+
+    @Test
+    @DisplayName("findAvailable issues exactly two repository queries per page")
+    void findAvailable_usesTwoQueries_regardlessOfPageSize() {
+        for (int pageSize : new int[]{1, 10, 50}) {
+            assertTwoQueriesForAvailablePage(pageSize);
+        }
+    }
+
+    @Test
+    @DisplayName("search issues exactly two repository queries per page")
+    void search_usesTwoQueries_regardlessOfPageSize() {
+        for (int pageSize : new int[]{1, 25}) {
+            assertTwoQueriesForSearchPage(pageSize);
+        }
+    }
+
+    private void assertTwoQueriesForAvailablePage(int pageSize) {
+        ProductJpaRepository repo = mock(ProductJpaRepository.class);
+        VariantJpaRepository vrepo = mock(VariantJpaRepository.class);
+        List<ProductSummaryView> rows = rows(pageSize);
+        when(repo.findByAvailableTrue(any())).thenReturn(new PageImpl<>(rows));
+        when(vrepo.findViewsByProductIds(anyCollection())).thenReturn(variantsFor(rows, 3));
+
+        Page<Product> page = adapterWith(repo, vrepo).findAvailable(PageRequest.of(0, pageSize));
+
+        assertEquals(pageSize, page.getContent().size());
+        page.getContent().forEach(p -> assertEquals(3, p.getVariants().size()));
+        verify(repo, times(1)).findByAvailableTrue(any());
+        verify(vrepo, times(1)).findViewsByProductIds(argThat(ids -> ids.size() == pageSize));
+        verifyNoMoreInteractions(repo, vrepo);
+    }
+
+    private void assertTwoQueriesForSearchPage(int pageSize) {
+        ProductJpaRepository repo = mock(ProductJpaRepository.class);
+        VariantJpaRepository vrepo = mock(VariantJpaRepository.class);
+        List<ProductSummaryView> rows = rows(pageSize);
+        when(repo.search(any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(new PageImpl<>(rows));
+        when(vrepo.findViewsByProductIds(anyCollection())).thenReturn(variantsFor(rows, 2));
+
+        SearchQuery q = SearchQuery.builder("", null, 0, Integer.MAX_VALUE, SortRule.DEFAULT, List.of());
+        Page<Product> page = adapterWith(repo, vrepo).search(q, PageRequest.of(0, pageSize));
+
+        assertEquals(pageSize, page.getContent().size());
+        verify(repo, times(1)).search(any(), any(), any(), any(), any(), any(), any(), any());
+        verify(vrepo, times(1)).findViewsByProductIds(anyCollection());
+        verifyNoMoreInteractions(repo, vrepo);
+    }
+
+    @Test
+    @DisplayName("empty page skips the variant query")
+    void emptyPage_skipsVariantQuery() {
+        ProductJpaRepository repo = mock(ProductJpaRepository.class);
+        VariantJpaRepository vrepo = mock(VariantJpaRepository.class);
+        when(repo.findAllSummaries(any())).thenReturn(new PageImpl<>(List.of()));
+
+        assertTrue(adapterWith(repo, vrepo).listAll(PageRequest.of(0, 10)).isEmpty());
+        verifyNoInteractions(vrepo);
+    }
+
+    @Test
+    @DisplayName("findAllByIds issues one product and one variant query for any number of ids")
+    void findAllByIds_usesTwoQueries() {
+        ProductJpaRepository repo = mock(ProductJpaRepository.class);
+        VariantJpaRepository vrepo = mock(VariantJpaRepository.class);
+        List<ProductSummaryView> rows = rows(3);
+        when(repo.findSummariesByUuids(any())).thenReturn(rows);
+        when(vrepo.findViewsByProductIds(anyCollection())).thenReturn(variantsFor(rows, 2));
+        List<ProductId> ids = new ArrayList<>(rows.stream().map(r -> new ProductId(r.getUuid())).toList());
+        ids.add(new ProductId(UUID.randomUUID()));
+
+        Map<ProductId, Product> found = adapterWith(repo, vrepo).findAllByIds(ids);
+
+        assertEquals(3, found.size());
+        assertEquals("P2", found.get(ids.get(1)).getName());
+        assertEquals(2, found.get(ids.get(1)).getVariants().size());
+        verify(repo, times(1)).findSummariesByUuids(argThat(uuids -> uuids.length == 4));
+        verify(vrepo, times(1)).findViewsByProductIds(anyCollection());
+        verifyNoMoreInteractions(repo, vrepo);
+    }
+
+    @Test
+    @DisplayName("listing reads skip descriptions and attributes and keep the two queries")
+    void listingProjection_usesLeanQueries() {
+        ProductJpaRepository repo = mock(ProductJpaRepository.class);
+        VariantJpaRepository vrepo = mock(VariantJpaRepository.class);
+        List<ProductSummaryView> rows = rows(4);
+        when(repo.findListingsAvailableByCategory(eq("c"), any())).thenReturn(new PageImpl<>(rows));
+        when(repo.findListingsAvailableAfter(any(), any(), anyInt())).thenReturn(rows);
+        when(vrepo.findListingViewsByProductIds(anyCollection())).thenReturn(variantsFor(rows, 2));
+        ProductPersistenceAdapter adapter = adapterWith(repo, vrepo);
+
+        Page<Product> page = adapter.findAvailableByCategory("c", PageRequest.of(0, 4), ProductProjection.LISTING);
+        var slice = adapter.findAvailableAfter(null, null, 3, false, ProductProjection.LISTING);
+
+        assertEquals(4, page.getContent().size());
+        page.getContent().forEach(p -> {
+            assertNull(p.getDescription());
+            assertEquals(2, p.getVariants().size());
+            assertTrue(p.getVariants().get(0).getAttributes().isEmpty());
+        });
+        assertEquals(3, slice.content().size());
+        assertNotNull(slice.nextCursor());
+        verify(repo, times(1)).findListingsAvailableByCategory(eq("c"), any());
+        verify(repo, times(1)).findListingsAvailableAfter(null, null, 4);
+        verify(vrepo, times(2)).findListingViewsByProductIds(anyCollection());
+        verifyNoMoreInteractions(repo, vrepo);
+    }
+
+    @Test
+    @DisplayName("keyset listings run the statement written for their category and position")
+    void keysetListings_pickAStatementPerShape() {
+        ProductJpaRepository repo = mock(ProductJpaRepository.class);
+        when(repo.findAvailableAfter(any(), any(), anyInt())).thenCallRealMethod();
+        when(repo.findListingsAvailableAfter(any(), any(), anyInt())).thenCallRealMethod();
+        when(repo.countAvailable(any())).thenCallRealMethod();
+        when(repo.findSummariesAfter(any(), anyInt())).thenCallRealMethod();
+
+        repo.findAvailableAfter(null, null, 5);
+        repo.findAvailableAfter(null, 7L, 5);
+        repo.findAvailableAfter("c", null, 5);
+        repo.findAvailableAfter("c", 7L, 5);
+        repo.findListingsAvailableAfter(null, null, 5);
+        repo.findListingsAvailableAfter(null, 7L, 5);
+        repo.findListingsAvailableAfter("c", null, 5);
+        repo.findListingsAvailableAfter("c", 7L, 5);
+        repo.countAvailable(null);
+        repo.countAvailable("c");
+        repo.findSummariesAfter(null, 5);
+        repo.findSummariesAfter(7L, 5);
+
+        verify(repo).findAvailableFirst(5);
+        verify(repo).findAvailableNext(7L, 5);
+        verify(repo).findAvailableInCategoryFirst("c", 5);
+        verify(repo).findAvailableInCategoryNext("c", 7L, 5);
+        verify(repo).findListingsAvailableFirst(5);
+        verify(repo).findListingsAvailableNext(7L, 5);
+        verify(repo).findListingsAvailableInCategoryFirst("c", 5);
+        verify(repo).findListingsAvailableInCategoryNext("c", 7L, 5);
+        verify(repo).countAllAvailable();
+        verify(repo).countAvailableInCategory("c");
+        verify(repo).findSummariesFirst(5);
+        verify(repo).findSummariesNext(7L, 5);
+    }
+
+    private static List<ProductSummaryView> rows(int n) {
+        List<ProductSummaryView> rows = new ArrayList<>();
+        for (long id = 1; id <= n; id++) {
+            ProductSummaryView row = mock(ProductSummaryView.class);
+            when(row.getId()).thenReturn(id);
+            when(row.getUuid()).thenReturn(UUID.randomUUID());
+            when(row.getName()).thenReturn("P" + id);
+            when(row.getCategory()).thenReturn("c");
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static List<VariantView> variantsFor(List<ProductSummaryView> rows, int perProduct) {
+        List<VariantView> out = new ArrayList<>();
+        for (ProductSummaryView row : rows) {
+            Long productId = row.getId();
+            for (int i = 0; i < perProduct; i++) {
+                VariantView v = mock(VariantView.class);
+                when(v.getProductId()).thenReturn(productId);
+                when(v.getUuid()).thenReturn(UUID.randomUUID());
+                when(v.getSku()).thenReturn("SKU-" + productId + "-" + i);
+                when(v.getPriceCents()).thenReturn(100 * (i + 1));
+                when(v.getCurrency()).thenReturn("EUR");
+                out.add(v);
+            }
+        }
+        return out;
+    }
+
+    private static ProductPersistenceAdapter adapterWith(ProductJpaRepository repo, VariantJpaRepository vrepo) {
+        return new ProductPersistenceAdapter(repo, vrepo, mock(ProductSearchDocumentJpaRepository.class),
+                mock(VariantAttributeIndexJpaRepository.class));
+    }
+}
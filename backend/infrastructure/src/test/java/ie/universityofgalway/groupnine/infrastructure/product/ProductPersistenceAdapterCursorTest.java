@@ -0,0 +1,230 @@
+package ie.universityofgalway.groupnine.infrastructure.product;
+
+import ie.universityofgalway.groupnine.domain.product.CursorPage;
+import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.SearchQuery;
+import ie.universityofgalway.groupnine.domain.product.SortRule;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductPersistenceAdapter;
+import com.fasterxml.jackson.databind.JsonNode;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchDocumentJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSummaryView;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantAttributeIndexJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the keyset (cursor) pathway of {@link ProductPersistenceAdapter}.
+ * Verifies limit+1 probing, cursor round-tripping per sort rule and that counting is opt-in.
+ */
+class ProductPersistenceAdapterCursorTest {
+
+    private final Map<Long, Integer> prices = new HashMap<>();
+    private VariantJpaRepository vrepo;
+
+    @BeforeEach
+    void setup() {
+        vrepo = mock(VariantJpaRepository.class);
+        when(vrepo.findViewsByProductIds(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().map(id -> variant(id, prices.getOrDefault(id, 0))).toList();
+        });
+    }
+
+    @Test
+    @DisplayName("first slice probes size+1 rows, skips count and emits a cursor")
+    void firstSlice_probesOneExtra_andSkipsCount() {
+        ProductJpaRepository repo = mock(ProductJpaRepository.class);
+        when(repo.searchAfter(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                anyInt()))
+                .thenReturn(List.of(product(1L, 500), product(2L, 700), product(3L, 900)));
+        var adapter = adapterWith(repo, vrepo);
+
+        SearchQuery q = SearchQuery.builder("", null, 0, Integer.MAX_VALUE, SortRule.PRICE_LOW_TO_HIGH, List.of());
+        CursorPage<Product> slice = adapter.searchAfter(q, null, 2, false);
+
+        assertEquals(2, slice.content().size());
+        assertTrue(slice.hasNext());
+        assertNull(slice.totalElements());
+        verify(repo).searchAfter(isNull(), eq(""), isNull(), isNull(), eq("PRICE_LOW_TO_HIGH"), eq(0.14), isNull(),
+                isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), eq(3));
+        verify(repo, never()).countSearch(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("next cursor resumes after the last row's price and id")
+    void nextCursor_resumesAfterLastRow() {
+        ProductJpaRepository repo = mock(ProductJpaRepository.class);
+        when(repo.searchAfter(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                anyInt()))
+                .thenReturn(List.of(product(7L, 300), product(9L, 450)))
+                .thenReturn(List.of());
+        when(repo.countSearch(any(), any(), any(), any(), eq("PRICE_HIGH_TO_LOW"), any(), any())).thenReturn(42L);
+        var adapter = adapterWith(repo, vrepo);
+
+        SearchQuery q = SearchQuery.builder("", null, 0, Integer.MAX_VALUE, SortRule.PRICE_HIGH_TO_LOW, List.of());
+        CursorPage<Product> first = adapter.searchAfter(q, "", 1, false);
+        CursorPage<Product> second = adapter.searchAfter(q, first.nextCursor(), 1, true);
+
+        verify(repo).searchAfter(any(), any(), any(), any(), eq("PRICE_HIGH_TO_LOW"), any(), any(),
+                eq(7L), eq(300), isNull(), isNull(), isNull(), isNull(), eq(2));
+        assertEquals(42L, second.totalElements());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    @DisplayName("NEWEST_FIRST cursor carries the creation time")
+    void newestFirst_cursorCarriesCreatedAt() {
+        ProductJpaRepository repo = mock(ProductJpaRepository.class);
+        Instant created = Instant.parse("2024-03-01T10:15:30.123456Z");
+        ProductSummaryView last = product(5L, 100, created);
+        when(repo.searchAfter(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                anyInt()))
+                .thenReturn(List.of(last, product(6L, 100)))
+                .thenReturn(List.of());
+        var adapter = adapterWith(repo, vrepo);
+
+        SearchQuery q = SearchQuery.builder("", null, 0, Integer.MAX_VALUE, SortRule.NEWEST_FIRST, List.of());
+        String cursor = adapter.searchAfter(q, null, 1, false).nextCursor();
+        adapter.searchAfter(q, cursor, 1, false);
+
+        verify(repo).searchAfter(any(), any(), any(), any(), eq("NEWEST_FIRST"), any(), any(),
+                eq(5L), isNull(), eq(created), isNull(), isNull(), isNull(), eq(2));
+    }
+
+    @Test
+    @DisplayName("BEST_SELLING cursor carries the sales rank the row was returned with")
+    void bestSelling_cursorCarriesSalesRank() {
+        ProductJpaRepository repo = mock(ProductJpaRepository.class);
+        when(repo.searchAfter(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                anyInt()))
+                .thenReturn(List.of(ranked(product(5L, 100), 3.0000000000000004, null, null),
+                        ranked(product(6L, 100), 2.5, null, null)))
+                .thenReturn(List.of());
+        var adapter = adapterWith(repo, vrepo);
+
+        SearchQuery q = SearchQuery.builder("", null, 0, Integer.MAX_VALUE, SortRule.BEST_SELLING, List.of());
+        String cursor = adapter.searchAfter(q, null, 1, false).nextCursor();
+        adapter.searchAfter(q, cursor, 1, false);
+
+        verify(repo).searchAfter(any(), any(), any(), any(), eq("BEST_SELLING"), any(), any(),
+                eq(5L), isNull(), isNull(), eq(3.0000000000000004), isNull(), isNull(), eq(2));
+    }
+
+    @Test
+    @DisplayName("keyword RELEVANCE cursor carries the rank and similarity the row was returned with")
+    void relevance_cursorCarriesRankAndSimilarity() {
+        ProductJpaRepository repo = mock(ProductJpaRepository.class);
+        double rank = (double) 0.1f;
+        double similarity = (double) 0.3f;
+        when(repo.searchAfter(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                anyInt()))
+                .thenReturn(List.of(ranked(product(5L, 100), null, rank, similarity),
+                        ranked(product(6L, 100), null, 0.05, 0.2)))
+                .thenReturn(List.of());
+        var adapter = adapterWith(repo, vrepo);
+
+        SearchQuery q = SearchQuery.builder("moka", null, 0, Integer.MAX_VALUE, SortRule.RELEVANCE, List.of());
+        String cursor = adapter.searchAfter(q, null, 1, false).nextCursor();
+        adapter.searchAfter(q, cursor, 1, false);
+
+        verify(repo).searchAfter(any(), eq("moka"), any(), any(), eq("RELEVANCE"), any(), any(),
+                eq(5L), isNull(), isNull(), isNull(), eq(rank), eq(similarity), eq(2));
+    }
+
+    @Test
+    @DisplayName("malformed or foreign-sort cursors are rejected")
+    void invalidCursors_rejected() {
+        ProductJpaRepository repo = mock(ProductJpaRepository.class);
+        when(repo.findAvailableAfter(any(), any(), anyInt())).thenReturn(List.of(product(1L, 100), product(2L, 100)));
+        var adapter = adapterWith(repo, vrepo);
+
+        String defaultCursor = adapter.findAvailableAfter(null, null, 1, false).nextCursor();
+        SearchQuery priceSort = SearchQuery.builder("", null, 0, Integer.MAX_VALUE, SortRule.PRICE_LOW_TO_HIGH, List.of());
+
+        assertThrows(IllegalArgumentException.class, () -> adapter.searchAfter(priceSort, defaultCursor, 1, false));
+        assertThrows(IllegalArgumentException.class, () -> adapter.findAvailableAfter(null, "not*base64", 1, false));
+    }
+
+    @Test
+    @DisplayName("available listing counts only when asked")
+    void availableListing_countsOnlyWhenAsked() {
+        ProductJpaRepository repo = mock(ProductJpaRepository.class);
+        when(repo.findAvailableAfter(any(), any(), anyInt())).thenReturn(List.of(product(1L, 100)));
+        when(repo.countAvailable("coffee")).thenReturn(1L);
+        var adapter = adapterWith(repo, vrepo);
+
+        assertNull(adapter.findAvailableAfter("coffee", null, 10, false).totalElements());
+        assertEquals(1L, adapter.findAvailableAfter("coffee", null, 10, true).totalElements());
+        verify(repo, times(1)).countAvailable("coffee");
+    }
+
+    private ProductSummaryView product(long id, int priceCents) {
+        return product(id, priceCents, Instant.parse("2024-01-01T00:00:00Z"));
+    }
+
+    private ProductSummaryView product(long id, int priceCents, Instant createdAt) {
+        prices.put(id, priceCents);
+        UUID uuid = UUID.randomUUID();
+        return new ProductSummaryView() {
+            @Override public Long getId() { return id; }
+            @Override public UUID getUuid() { return uuid; }
+            @Override public String getName() { return "P" + id; }
+            @Override public String getDescription() { return null; }
+            @Override public String getCategory() { return "c"; }
+            @Override public Instant getCreatedAt() { return createdAt; }
+            @Override public Instant getUpdatedAt() { return createdAt; }
+        };
+    }
+
+    private static ProductSummaryView ranked(ProductSummaryView row, Double salesRank, Double relevance,
+                                             Double similarity) {
+        return new ProductSummaryView() {
+            @Override public Long getId() { return row.getId(); }
+            @Override public UUID getUuid() { return row.getUuid(); }
+            @Override public String getName() { return row.getName(); }
+            @Override public String getDescription() { return row.getDescription(); }
+            @Override public String getCategory() { return row.getCategory(); }
+            @Override public Instant getCreatedAt() { return row.getCreatedAt(); }
+            @Override public Instant getUpdatedAt() { return row.getUpdatedAt(); }
+            @Override public Double getSalesRank() { return salesRank; }
+            @Override public Double getRelevance() { return relevance; }
+            @Override public Double getSimilarity() { return similarity; }
+        };
+    }
+
+    private static VariantView variant(long productId, int priceCents) {
+        UUID uuid = UUID.randomUUID();
+        return new VariantView() {
+            @Override public Long getProductId() { return productId; }
+            @Override public UUID getUuid() { return uuid; }
+            @Override public String getSku() { return "SKU-" + productId; }
+            @Override public int getPriceCents() { return priceCents; }
+            @Override public String getCurrency() { return "EUR"; }
+            @Override public String getImageUrl() { return null; }
+            @Override public int getStockQuantity() { return 1; }
+            @Override public int getReservedQuantity() { return 0; }
+            @Override public boolean isAvailable() { return true; }
+            @Override public JsonNode getAttributes() { return null; }
+        };
+    }
+
+    private static ProductPersistenceAdapter adapterWith(ProductJpaRepository repo, VariantJpaRepository vrepo) {
+        return new ProductPersistenceAdapter(repo, vrepo, mock(ProductSearchDocumentJpaRepository.class),
+                mock(VariantAttributeIndexJpaRepository.class));
+    }
+}
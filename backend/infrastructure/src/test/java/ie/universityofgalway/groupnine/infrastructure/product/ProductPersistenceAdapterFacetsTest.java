@@ -0,0 +1,88 @@
+package ie.universityofgalway.groupnine.infrastructure.product;
+
+import ie.universityofgalway.groupnine.domain.product.AttributeFilter;
+import ie.universityofgalway.groupnine.domain.product.FacetLimits;
+import ie.universityofgalway.groupnine.domain.product.SearchFacets;
+import ie.universityofgalway.groupnine.domain.product.SearchQuery;
+import ie.universityofgalway.groupnine.domain.product.SortRule;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductPersistenceAdapter;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.FacetRowView;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchDocumentJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantAttributeIndexJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantJpaRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the facet pathway of {@link ProductPersistenceAdapter}: parameter shaping
+ * (shared with search) and assembly of the single tagged result set into {@link SearchFacets}.
+ */
+class ProductPersistenceAdapterFacetsTest {
+
+    @Test
+    @DisplayName("issues one aggregate query with the search filters and limits")
+    void singleQuery_withSearchFiltersAndLimits() {
+        ProductJpaRepository repo = mock(ProductJpaRepository.class);
+        when(repo.searchFacets(any(), any(), any(), any(), any(), any(), any(), anyInt(), anyInt(), anyInt(), anyInt()))
+                .thenReturn(List.of());
+
+        SearchQuery q = SearchQuery.builder("mug", "Kitchen", 500, Integer.MAX_VALUE, SortRule.DEFAULT,
+                List.of(new AttributeFilter("color", List.of("Red"))));
+        SearchFacets facets = adapterWith(repo).facets(q, new FacetLimits(3, 4, 5, 6));
+
+        assertTrue(facets.categories().isEmpty());
+        verify(repo, times(1)).searchFacets(eq("Kitchen"), eq("mug"), eq(500), isNull(), eq("DEFAULT"), eq(0.14),
+                eq("{\"color\":[\"Red\"]}"), eq(3), eq(4), eq(5), eq(6));
+        verifyNoMoreInteractions(repo);
+    }
+
+    @Test
+    @DisplayName("splits tagged rows into ordered categories, attributes and histogram")
+    void assemblesTaggedRows() {
+        ProductJpaRepository repo = mock(ProductJpaRepository.class);
+        when(repo.searchFacets(any(), any(), any(), any(), any(), any(), any(), anyInt(), anyInt(), anyInt(), anyInt()))
+                .thenReturn(List.of(
+                        row("PRICE", null, null, 2L, 2000, 3000, null),
+                        row("ATTRIBUTE", "size", "l", 1L, null, null, 2L),
+                        row("CATEGORY", null, "tea", 2L, null, null, null),
+                        row("ATTRIBUTE", "color", "red", 2L, null, null, 1L),
+                        row("ATTRIBUTE", "color", "blue", 5L, null, null, 1L),
+                        row("CATEGORY", null, "coffee", 7L, null, null, null),
+                        row("PRICE", null, null, 7L, 1000, 2000, null)));
+
+        SearchQuery q = SearchQuery.builder("", null, 0, Integer.MAX_VALUE, SortRule.DEFAULT, List.of());
+        SearchFacets facets = adapterWith(repo).facets(q, new FacetLimits(10, 10, 10, 10));
+
+        assertEquals(List.of(new SearchFacets.ValueCount("coffee", 7), new SearchFacets.ValueCount("tea", 2)),
+                facets.categories());
+        assertEquals(List.of("color", "size"), List.copyOf(facets.attributes().keySet()));
+        assertEquals("blue", facets.attributes().get("color").get(0).value());
+        assertEquals(List.of(new SearchFacets.PriceBucket(1000, 2000, 7), new SearchFacets.PriceBucket(2000, 3000, 2)),
+                facets.priceHistogram());
+    }
+
+    private static FacetRowView row(String kind, String key, String value, Long count,
+                                    Integer low, Integer high, Long keyRank) {
+        return new FacetRowView() {
+            @Override public String getKind() { return kind; }
+            @Override public String getFacetKey() { return key; }
+            @Override public String getFacetValue() { return value; }
+            @Override public Long getCount() { return count; }
+            @Override public Integer getLowCents() { return low; }
+            @Override public Integer getHighCents() { return high; }
+            @Override public Long getKeyRank() { return keyRank; }
+        };
+    }
+
+    private static ProductPersistenceAdapter adapterWith(ProductJpaRepository repo) {
+        return new ProductPersistenceAdapter(repo, mock(VariantJpaRepository.class),
+                mock(ProductSearchDocumentJpaRepository.class), mock(VariantAttributeIndexJpaRepository.class));
+    }
+}
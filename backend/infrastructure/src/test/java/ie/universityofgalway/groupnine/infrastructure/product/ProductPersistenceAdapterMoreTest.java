@@ -6,8 +6,12 @@ import ie.universityofgalway.groupnine.domain.product.*;
 import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductPersistenceAdapter;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductEntity;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchDocumentJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSummaryView;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantAttributeIndexJpaRepository;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantEntity;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantView;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.data.domain.Page;
@@ -31,27 +35,31 @@ class ProductPersistenceAdapterMoreTest {
     void findAvailable_and_byCategory_delegate_and_map() {
         ProductJpaRepository repo = mock(ProductJpaRepository.class);
         VariantJpaRepository vrepo = mock(VariantJpaRepository.class);
-        ProductPersistenceAdapter adapter = new ProductPersistenceAdapter(repo, vrepo);
-
-        VariantEntity ve = new VariantEntity();
-        setField(ve, "uuid", UUID.randomUUID());
-        ve.setSku("SKU");
-        ve.setPriceCents(250);
-        ve.setCurrency("EUR");
-        ve.setStockQuantity(2); ve.setReservedQuantity(0);
-        // mark available indirectly by default (isAvailable true if set in entity; here defaults true)
-
-        ProductEntity pe = new ProductEntity();
-        setField(pe, "uuid", UUID.randomUUID());
-        pe.setName("P"); pe.setDescription("d"); pe.setCategory("c");
-        pe.setVariants(new java.util.ArrayList<>(List.of(ve)));
-
-        when(repo.findByAvailableTrue(any())).thenReturn(new PageImpl<>(List.of(pe)));
-        when(repo.findByCategoryIgnoreCaseAndAvailableTrue(eq("coffee"), any())).thenReturn(new PageImpl<>(List.of(pe)));
+        ProductPersistenceAdapter adapter = adapterWith(repo, vrepo);
+
+        ProductSummaryView row = mock(ProductSummaryView.class);
+        when(row.getId()).thenReturn(1L);
+        when(row.getUuid()).thenReturn(UUID.randomUUID());
+        when(row.getName()).thenReturn("P");
+        when(row.getCategory()).thenReturn("c");
+
+        VariantView vv = mock(VariantView.class);
+        when(vv.getProductId()).thenReturn(1L);
+        when(vv.getUuid()).thenReturn(UUID.randomUUID());
+        when(vv.getSku()).thenReturn("SKU");
+        when(vv.getPriceCents()).thenReturn(250);
+        when(vv.getCurrency()).thenReturn("EUR");
+        when(vv.getStockQuantity()).thenReturn(2);
+        when(vv.isAvailable()).thenReturn(true);
+
+        when(repo.findByAvailableTrue(any())).thenReturn(new PageImpl<>(List.of(row)));
+        when(repo.findByCategoryIgnoreCaseAndAvailableTrue(eq("coffee"), any())).thenReturn(new PageImpl<>(List.of(row)));
+        when(vrepo.findViewsByProductIds(List.of(1L))).thenReturn(List.of(vv));
 
         Page<Product> p1 = adapter.findAvailable(PageRequest.of(0, 5));
         assertEquals(1, p1.getContent().size());
         assertEquals(ProductStatus.ACTIVE, p1.getContent().get(0).getStatus());
+        assertEquals(new BigDecimal("2.5"), p1.getContent().get(0).getVariants().get(0).getPrice().getAmount());
 
         Page<Product> p2 = adapter.findAvailableByCategory("coffee", PageRequest.of(1, 2));
         assertEquals(1, p2.getContent().size());
@@ -61,7 +69,7 @@ class ProductPersistenceAdapterMoreTest {
     void deleteProduct_deletes_by_internal_id_when_found() {
         ProductJpaRepository repo = mock(ProductJpaRepository.class);
         VariantJpaRepository vrepo = mock(VariantJpaRepository.class);
-        ProductPersistenceAdapter adapter = new ProductPersistenceAdapter(repo, vrepo);
+        ProductPersistenceAdapter adapter = adapterWith(repo, vrepo);
 
         UUID uuid = UUID.randomUUID();
         ProductEntity pe = new ProductEntity();
@@ -77,7 +85,7 @@ class ProductPersistenceAdapterMoreTest {
     void variantExists_and_findVariantById_delegate_and_map() {
         ProductJpaRepository repo = mock(ProductJpaRepository.class);
         VariantJpaRepository vrepo = mock(VariantJpaRepository.class);
-        ProductPersistenceAdapter adapter = new ProductPersistenceAdapter(repo, vrepo);
+        ProductPersistenceAdapter adapter = adapterWith(repo, vrepo);
 
         when(vrepo.existsBySku("X")).thenReturn(true);
         assertTrue(adapter.variantExistsBySku("X"));
@@ -108,7 +116,7 @@ class ProductPersistenceAdapterMoreTest {
     void saveVariant_inserts_when_missing_and_rounds_amount_half_up() {
         ProductJpaRepository repo = mock(ProductJpaRepository.class);
         VariantJpaRepository vrepo = mock(VariantJpaRepository.class);
-        ProductPersistenceAdapter adapter = new ProductPersistenceAdapter(repo, vrepo);
+        ProductPersistenceAdapter adapter = adapterWith(repo, vrepo);
 
         UUID pid = UUID.randomUUID();
         ProductEntity pe = new ProductEntity();
@@ -135,5 +143,10 @@ class ProductPersistenceAdapterMoreTest {
             throw new RuntimeException(e);
         }
     }
+
+    private static ProductPersistenceAdapter adapterWith(ProductJpaRepository repo, VariantJpaRepository vrepo) {
+        return new ProductPersistenceAdapter(repo, vrepo, mock(ProductSearchDocumentJpaRepository.class),
+                mock(VariantAttributeIndexJpaRepository.class));
+    }
 }
 
@@ -5,6 +5,8 @@ import ie.universityofgalway.groupnine.domain.product.SearchQuery;
 import ie.universityofgalway.groupnine.domain.product.SortRule;
 import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductPersistenceAdapter;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchDocumentJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantAttributeIndexJpaRepository;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantJpaRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -35,12 +37,13 @@ public class ProductPersistenceAdapterSearchTest {
 
     /** Helper to construct the system under test with a mocked repository. */
     private ProductPersistenceAdapter adapterWith(ProductJpaRepository repo, VariantJpaRepository variantRepo) {
-        return new ProductPersistenceAdapter(repo, variantRepo);
+        return new ProductPersistenceAdapter(repo, variantRepo, mock(ProductSearchDocumentJpaRepository.class),
+                mock(VariantAttributeIndexJpaRepository.class));
     }
 
     /** Convenience overload for tests that do not need variant repository. */
     private ProductPersistenceAdapter adapterWith(ProductJpaRepository repo) {
-        return new ProductPersistenceAdapter(repo);
+        return adapterWith(repo, mock(VariantJpaRepository.class));
     }
 
     /**
@@ -4,6 +4,8 @@ import ie.universityofgalway.groupnine.domain.product.*;
 import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductPersistenceAdapter;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductEntity;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchDocumentJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantAttributeIndexJpaRepository;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantEntity;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantJpaRepository;
 import org.junit.jupiter.api.Test;
@@ -29,6 +31,10 @@ class ProductPersistenceAdapterWriteTest {
     ProductJpaRepository productRepo;
     @Mock
     VariantJpaRepository variantRepo;
+    @Mock
+    ProductSearchDocumentJpaRepository searchDocuments;
+    @Mock
+    VariantAttributeIndexJpaRepository attributeIndex;
 
     @InjectMocks
     ProductPersistenceAdapter adapter;
@@ -123,6 +129,33 @@ class ProductPersistenceAdapterWriteTest {
         assertEquals("/products/p/variants/v/image", persisted.getImageUrl());
     }
 
+    @Test
+    void writes_refreshSearchDocumentOfOwningProduct() {
+        UUID pid = UUID.randomUUID();
+        UUID vid = UUID.randomUUID();
+        ProductEntity product = new ProductEntity();
+        set(product, "id", 42L);
+        set(product, "uuid", pid);
+        when(productRepo.findByUuid(pid)).thenReturn(Optional.of(product));
+        when(productRepo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(variantRepo.findByUuid(vid)).thenReturn(Optional.empty());
+        when(variantRepo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        adapter.saveProduct(new Product(new ProductId(pid), "P", "d", "c", ProductStatus.DRAFT, List.of(), null, null));
+        adapter.saveVariant(new ProductId(pid), new Variant(new VariantId(vid), new Sku("S"),
+                new Money(new BigDecimal("1.00"), Currency.getInstance("EUR")), new Stock(1, 0), List.of(), null));
+
+        VariantEntity ve = new VariantEntity();
+        set(ve, "uuid", vid);
+        ve.setProduct(product);
+        when(variantRepo.findByUuid(vid)).thenReturn(Optional.of(ve));
+        adapter.deleteVariant(new ProductId(pid), new VariantId(vid));
+
+        verify(searchDocuments, times(3)).refreshForProduct(42L);
+        // Variant deletes drop their attribute rows through the FK cascade
+        verify(attributeIndex, times(2)).reindexProduct(42L);
+    }
+
     private static void set(Object target, String field, Object value) {
         try {
             var f = target.getClass().getDeclaredField(field);
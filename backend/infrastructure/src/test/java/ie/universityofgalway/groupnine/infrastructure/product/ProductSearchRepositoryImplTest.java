@@ -0,0 +1,223 @@
+package ie.universityofgalway.groupnine.infrastructure.product;
+
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.FacetRowView;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchRepositoryImpl;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchSql;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSummaryView;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantAttributeIndexBackfill;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests of the search fragment's JPA plumbing: which statements run, how parameters are
+ * bound and how native rows become projections. The SQL itself is covered by ProductSearchSqlTest.
+ */
+class ProductSearchRepositoryImplTest {
+
+    private final EntityManager em = mock(EntityManager.class);
+    private final List<String> executed = new ArrayList<>();
+    private final ProductSearchRepositoryImpl repo =
+            new ProductSearchRepositoryImpl(em, mock(VariantAttributeIndexBackfill.class));
+
+    private Query query(Object singleResult, List<?> resultList) {
+        Query q = mock(Query.class);
+        when(q.setParameter(anyString(), any())).thenReturn(q);
+        when(q.getSingleResult()).thenReturn(singleResult);
+        doReturn(resultList).when(q).getResultList();
+        return q;
+    }
+
+    @Test
+    @DisplayName("keyword searches set the trigram threshold first; the count is skipped for a short first page")
+    void keywordSearch_setsThreshold_skipsCount() {
+        Query threshold = query("0.14", List.of());
+        Query page = query(null, List.<Object[]>of(summaryRow(1L)));
+        when(em.createNativeQuery(anyString())).thenAnswer(inv -> {
+            String sql = inv.getArgument(0);
+            executed.add(sql);
+            return sql.equals(ProductSearchSql.TRIGRAM_THRESHOLD_SQL) ? threshold : page;
+        });
+
+        Page<ProductSummaryView> result = repo.search(null, "moka", null, null, "DEFAULT", 0.14, null, PageRequest.of(0, 10));
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals(2, executed.size());
+        assertEquals(ProductSearchSql.TRIGRAM_THRESHOLD_SQL, executed.get(0));
+        verify(threshold).setParameter("threshold", "0.14");
+        verify(page).setParameter("key", "moka");
+        verify(page).setParameter("limit", 10);
+    }
+
+    @Test
+    @DisplayName("filter-only searches run no threshold statement and count when the page is full")
+    void filterSearch_countsFullPages() {
+        Query page = query(null, List.<Object[]>of(summaryRow(1L), summaryRow(2L)));
+        Query count = query(5L, List.of());
+        when(em.createNativeQuery(anyString())).thenAnswer(inv -> {
+            String sql = inv.getArgument(0);
+            executed.add(sql);
+            return sql.startsWith("SELECT COUNT(*)") ? count : page;
+        });
+
+        Page<ProductSummaryView> result = repo.search("coffee", "", 100, null, "PRICE_LOW_TO_HIGH", 0.14,
+                "{\"color\":[\"Red\"]}", PageRequest.of(0, 2));
+
+        assertEquals(5, result.getTotalElements());
+        assertEquals(2, executed.size());
+        assertTrue(executed.stream().noneMatch(ProductSearchSql.TRIGRAM_THRESHOLD_SQL::equals));
+        verify(page).setParameter("attrKey0", "color");
+        verify(page).setParameter("attrValue0_0", "Red");
+        verify(page).setParameter("minPrice", 100);
+    }
+
+    @Test
+    @DisplayName("relevance probes full-text hits first and skips the trigram threshold when there are enough")
+    void relevance_enoughTextHits_rankedTextOnly() {
+        ProductSearchSql filter = ProductSearchSql.filter(null, "moka", null, null, 0.14, null);
+        String probeSql = filter.textHits(ProductSearchSql.RELEVANCE_MIN_TEXT_HITS).sql();
+        Query probe = query(ProductSearchSql.RELEVANCE_MIN_TEXT_HITS, List.of());
+        Query page = query(null, List.<Object[]>of(summaryRow(1L)));
+        when(em.createNativeQuery(anyString())).thenAnswer(inv -> {
+            String sql = inv.getArgument(0);
+            executed.add(sql);
+            return sql.equals(probeSql) ? probe : page;
+        });
+
+        repo.search(null, "moka", null, null, "RELEVANCE", 0.14, null, PageRequest.of(0, 10));
+
+        assertEquals(List.of(probeSql, filter.ranked(true).page("RELEVANCE", 0, 10).sql()), executed);
+        verify(probe).setParameter("cap", ProductSearchSql.RELEVANCE_MIN_TEXT_HITS);
+    }
+
+    @Test
+    @DisplayName("relevance falls back to trigram matching, threshold first, when full-text hits are few")
+    void relevance_fewTextHits_fallsBackToTrigrams() {
+        ProductSearchSql filter = ProductSearchSql.filter(null, "mkoa", null, null, 0.14, null);
+        String probeSql = filter.textHits(ProductSearchSql.RELEVANCE_MIN_TEXT_HITS).sql();
+        Query probe = query(2L, List.of());
+        Query threshold = query("0.14", List.of());
+        Query count = query(2L, List.of());
+        when(em.createNativeQuery(anyString())).thenAnswer(inv -> {
+            String sql = inv.getArgument(0);
+            executed.add(sql);
+            if (sql.equals(probeSql)) return probe;
+            return sql.equals(ProductSearchSql.TRIGRAM_THRESHOLD_SQL) ? threshold : count;
+        });
+
+        assertEquals(2L, repo.countSearch(null, "mkoa", null, null, "RELEVANCE", 0.14, null));
+
+        assertEquals(List.of(probeSql, ProductSearchSql.TRIGRAM_THRESHOLD_SQL, filter.ranked(false).count().sql()),
+                executed);
+    }
+
+    @Test
+    @DisplayName("attribute filters use the projection only once its backfill has completed")
+    void attributeFilters_followBackfill() {
+        VariantAttributeIndexBackfill backfill = mock(VariantAttributeIndexBackfill.class);
+        ProductSearchRepositoryImpl indexed = new ProductSearchRepositoryImpl(em, backfill);
+        Query count = query(3L, List.of());
+        when(em.createNativeQuery(anyString())).thenAnswer(inv -> {
+            executed.add(inv.getArgument(0));
+            return count;
+        });
+        String attrs = "{\"color\":[\"Red\"]}";
+
+        indexed.countSearch(null, null, null, null, "DEFAULT", 0.14, attrs);
+        when(backfill.isComplete()).thenReturn(true);
+        indexed.countSearch(null, null, null, null, "DEFAULT", 0.14, attrs);
+
+        ProductSearchSql filter = ProductSearchSql.filter(null, null, null, null, 0.14, Map.of("color", List.of("Red")));
+        assertEquals(filter.count().sql(), executed.get(0));
+        assertEquals(filter.indexedAttributes().count().sql(), executed.get(1));
+    }
+
+    @Test
+    @DisplayName("native rows map onto projections whatever timestamp type the driver returns")
+    void rowsMapToProjections() {
+        UUID uuid = UUID.randomUUID();
+        Instant created = Instant.parse("2025-03-01T10:00:00Z");
+        Object[] row = {7L, uuid, "Moka", "Pot", "coffee",
+                OffsetDateTime.ofInstant(created, ZoneOffset.UTC), Timestamp.from(created)};
+        Query q = query(null, List.<Object[]>of(row));
+        when(em.createNativeQuery(anyString())).thenReturn(q);
+
+        ProductSummaryView view = repo.searchAfter(null, null, null, null, "NEWEST_FIRST", 0.14, null,
+                3L, null, created, null, null, null, 20).get(0);
+
+        assertEquals(7L, view.getId());
+        assertEquals(uuid, view.getUuid());
+        assertEquals("Moka", view.getName());
+        assertEquals(created, view.getCreatedAt());
+        assertEquals(created, view.getUpdatedAt());
+        assertNull(view.getSalesRank());
+        verify(q).setParameter("afterCreated", created);
+    }
+
+    @Test
+    @DisplayName("sort keys selected after the summary columns map onto the projection")
+    void sortKeysMapToProjections() {
+        Instant created = Instant.parse("2025-03-01T10:00:00Z");
+        Object[] best = {7L, UUID.randomUUID(), "Moka", null, "coffee", created, created, 2.5};
+        Object[] relevant = {8L, UUID.randomUUID(), "Moka", null, "coffee", created, created, 0.1f, 0.3f};
+        Query q = query(null, List.<Object[]>of(best, relevant));
+        when(em.createNativeQuery(anyString())).thenReturn(q);
+
+        List<ProductSummaryView> views = repo.searchAfter(null, null, null, null, "BEST_SELLING", 0.14, null,
+                null, null, null, null, null, null, 20);
+
+        assertEquals(2.5, views.get(0).getSalesRank());
+        assertNull(views.get(0).getRelevance());
+        assertEquals((double) 0.1f, views.get(1).getRelevance());
+        assertEquals((double) 0.3f, views.get(1).getSimilarity());
+        assertNull(views.get(1).getSalesRank());
+    }
+
+    @Test
+    @DisplayName("facet rows and counts convert numeric columns")
+    void facetsAndCount() {
+        Object[] facet = {"ATTRIBUTE", "color", "red", 4L, null, null, 1L};
+        Query facets = query(null, List.<Object[]>of(facet));
+        Query count = query(java.math.BigInteger.valueOf(9), List.of());
+        when(em.createNativeQuery(anyString())).thenAnswer(inv ->
+                inv.<String>getArgument(0).startsWith("SELECT COUNT(*)") ? count : facets);
+
+        FacetRowView row = repo.searchFacets(null, null, null, null, "DEFAULT", 0.14, null, 3, 3, 3, 0).get(0);
+
+        assertEquals("ATTRIBUTE", row.getKind());
+        assertEquals("color", row.getFacetKey());
+        assertEquals(4L, row.getCount());
+        assertNull(row.getLowCents());
+        assertEquals(1L, row.getKeyRank());
+        assertEquals(9L, repo.countSearch(null, null, null, null, "DEFAULT", 0.14, null));
+    }
+
+    @Test
+    @DisplayName("malformed attribute JSON is rejected before any SQL runs")
+    void badAttributeJson_rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> repo.countSearch(null, null, null, null, "DEFAULT", 0.14, "{not json"));
+        verifyNoInteractions(em);
+    }
+
+    private static Object[] summaryRow(long id) {
+        Instant now = Instant.now();
+        return new Object[]{id, UUID.randomUUID(), "n" + id, null, "coffee", now, now};
+    }
+}
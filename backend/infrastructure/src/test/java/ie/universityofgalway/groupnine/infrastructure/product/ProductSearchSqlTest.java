@@ -0,0 +1,254 @@
+package ie.universityofgalway.groupnine.infrastructure.product;
+
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchSql;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Shape-level checks of the generated search SQL: the parameters each shape binds and how shapes
+ * share their text. What the statements return is covered by the integration module's
+ * {@code ProductSearchBehaviourTest}, and their plans by {@code ProductSearchPlanTest}, both
+ * against a real Postgres.
+ */
+class ProductSearchSqlTest {
+
+    private static final Pattern PARAM = Pattern.compile("(?<![:\\w]):([A-Za-z][A-Za-z0-9_]*)");
+
+    @Test
+    @DisplayName("no filters: no catch-all predicates and only the paging parameters")
+    void noFilters_bindOnlyPaging() {
+        ProductSearchSql.Statement page = ProductSearchSql.filter(null, "", null, null, 0.14, null)
+                .page("DEFAULT", 20, 10);
+
+        assertFalse(page.sql().contains("IS NULL"));
+        assertFalse(page.sql().contains("CASE"));
+        assertEquals(Map.of("limit", 10, "offset", 20L), page.parameters());
+        assertParametersMatch(page);
+    }
+
+    @Test
+    @DisplayName("each present filter binds exactly its own parameters")
+    void presentFilters_bindTheirParameters() {
+        Map<String, List<String>> attrs = new LinkedHashMap<>();
+        attrs.put("color", List.of("Red", "blue"));
+        attrs.put("size", List.of("M"));
+        ProductSearchSql sql = ProductSearchSql.filter("Coffee", "moka", 500, 2000, 0.14, attrs);
+        ProductSearchSql.Statement page = sql.page("PRICE_LOW_TO_HIGH", 0, 20);
+
+        Map<String, Object> filters = new LinkedHashMap<>();
+        filters.put("category", "Coffee");
+        filters.put("key", "moka");
+        filters.put("simCutoff", 0.14);
+        filters.put("minPrice", 500);
+        filters.put("maxPrice", 2000);
+        filters.put("attrKey0", "color");
+        filters.put("attrValue0_0", "Red");
+        filters.put("attrValue0_1", "blue");
+        filters.put("attrKey1", "size");
+        filters.put("attrValue1_0", "M");
+        Map<String, Object> paged = new LinkedHashMap<>(filters);
+        paged.put("limit", 20);
+        paged.put("offset", 0L);
+        assertEquals(paged, page.parameters());
+        assertTrue(sql.needsTrigramThreshold());
+        assertParametersMatch(page);
+
+        ProductSearchSql.Statement count = sql.count();
+        assertEquals(filters, count.parameters());
+        assertParametersMatch(count);
+
+        ProductSearchSql.Statement facets = sql.facets(3, 4, 5, 6);
+        assertTrue(facets.sql().startsWith("WITH matched AS ("));
+        assertEquals(6, facets.parameters().get("buckets"));
+        assertParametersMatch(facets);
+    }
+
+    @Test
+    @DisplayName("document prefilters and the variant predicate share the price and attribute parameters")
+    void priceAndAttributes_shareParameters() {
+        Map<String, List<String>> attrs = new LinkedHashMap<>();
+        attrs.put("color", List.of("Red"));
+        attrs.put("size", List.of("L"));
+        ProductSearchSql sql = ProductSearchSql.filter(null, null, 10, 20, 0.14, attrs);
+
+        assertEquals(Map.of("minPrice", 10, "maxPrice", 20, "attrKey0", "color", "attrValue0_0", "Red",
+                "attrKey1", "size", "attrValue1_0", "L"), sql.count().parameters());
+        assertParametersMatch(sql.page("DEFAULT", 0, 20));
+        assertParametersMatch(sql.facets(1, 1, 1, 1));
+        assertParametersMatch(sql.indexedAttributes().count());
+    }
+
+    @Test
+    @DisplayName("indexed attribute filters bind the same parameters as token filters")
+    void indexedAttributes_sameParameters() {
+        Map<String, List<String>> attrs = new LinkedHashMap<>();
+        attrs.put("color", List.of("Red", "blue"));
+        attrs.put("size", List.of());
+        ProductSearchSql tokens = ProductSearchSql.filter(null, "moka", null, null, 0.14, attrs);
+        ProductSearchSql indexed = tokens.indexedAttributes();
+        ProductSearchSql.Statement page = indexed.page("DEFAULT", 0, 20);
+
+        assertNotEquals(tokens.page("DEFAULT", 0, 20).sql(), page.sql());
+        assertEquals(tokens.page("DEFAULT", 0, 20).parameters(), page.parameters());
+        assertParametersMatch(page);
+        assertParametersMatch(indexed.ranked(false).after("RELEVANCE", 3L, null, null, null, null, null, 10));
+        assertParametersMatch(indexed.facets(1, 1, 1, 1));
+
+        // Without attribute filters both forms are one shape
+        assertSame(ProductSearchSql.filter(null, "moka", null, null, 0.14, null).count().sql(),
+                ProductSearchSql.filter(null, "moka", null, null, 0.14, null).indexedAttributes().count().sql());
+    }
+
+    @Test
+    @DisplayName("an attribute with no values binds no parameters")
+    void attributeWithoutValues_bindsNothing() {
+        Map<String, List<String>> attrs = new LinkedHashMap<>();
+        attrs.put("color", List.of());
+        ProductSearchSql.Statement page = ProductSearchSql.filter(null, null, null, null, 0.14, attrs).page("DEFAULT", 0, 5);
+
+        assertFalse(page.parameters().containsKey("attrKey0"));
+        assertParametersMatch(page);
+    }
+
+    @Test
+    @DisplayName("statements of one shape share one SQL string whatever the values")
+    void sameShape_sameSqlInstance() {
+        String a = ProductSearchSql.filter("coffee", "moka", null, null, 0.14, null).page("NEWEST_FIRST", 0, 10).sql();
+        String b = ProductSearchSql.filter("tea", "kettle", null, null, 0.2, null).page("NEWEST_FIRST", 40, 20).sql();
+        String c = ProductSearchSql.filter("tea", null, null, null, 0.2, null).page("NEWEST_FIRST", 40, 20).sql();
+
+        assertSame(a, b);
+        assertNotEquals(a, c);
+        assertEquals(ProductSearchSql.filter(null, null, null, null, 0.14, null).page("BOGUS", 0, 1).sql(),
+                ProductSearchSql.filter(null, null, null, null, 0.14, null).page("DEFAULT", 0, 1).sql());
+        assertFalse(ProductSearchSql.filter("tea", null, null, null, 0.2, null).needsTrigramThreshold());
+    }
+
+    @Test
+    @DisplayName("the shape cache keeps the most recently used shapes only")
+    void shapeCache_isBounded() {
+        String first = valuesPerFilter(1);
+        for (int n = 2; n <= ProductSearchSql.MAX_CACHED_SHAPES + 1; n++) valuesPerFilter(n);
+
+        // The first shape was dropped: its text is built again, the same but not the cached string
+        String again = valuesPerFilter(1);
+        assertEquals(first, again);
+        assertNotSame(first, again);
+        assertSame(again, valuesPerFilter(1));
+    }
+
+    private static String valuesPerFilter(int n) {
+        List<String> values = new ArrayList<>();
+        for (int j = 0; j < n; j++) values.add("v" + j);
+        return ProductSearchSql.filter(null, null, null, null, 0.14, Map.of("shape-cache", values)).count().sql();
+    }
+
+    @Test
+    @DisplayName("keyset statements bind the position keys of their sort only")
+    void keyset_perSort() {
+        ProductSearchSql sql = ProductSearchSql.filter(null, null, null, null, 0.14, null);
+        Instant created = Instant.parse("2025-01-01T00:00:00Z");
+
+        ProductSearchSql.Statement low = sql.after("PRICE_LOW_TO_HIGH", 7L, 500, null, null, null, null, 21);
+        assertEquals(Map.of("afterId", 7L, "afterPrice", 500, "limit", 21), low.parameters());
+
+        ProductSearchSql.Statement high = sql.after("PRICE_HIGH_TO_LOW", 7L, 500, null, null, null, null, 21);
+        assertEquals(Map.of("afterId", 7L, "afterPrice", 500, "limit", 21), high.parameters());
+
+        ProductSearchSql.Statement newest = sql.after("NEWEST_FIRST", 7L, 500, created, null, null, null, 21);
+        assertEquals(Map.of("afterId", 7L, "afterCreated", created, "limit", 21), newest.parameters());
+
+        ProductSearchSql.Statement byId = sql.after("DEFAULT", 7L, 500, created, null, null, null, 21);
+        assertEquals(Map.of("afterId", 7L, "limit", 21), byId.parameters());
+
+        // The first slice is the first page
+        ProductSearchSql.Statement first = sql.after("NEWEST_FIRST", null, null, null, null, null, null, 21);
+        assertSame(sql.page("NEWEST_FIRST", 0, 21).sql(), first.sql());
+        assertEquals(Map.of("limit", 21, "offset", 0L), first.parameters());
+
+        for (ProductSearchSql.Statement s : List.of(low, high, newest, byId, first)) assertParametersMatch(s);
+    }
+
+    @Test
+    @DisplayName("the text-only relevance form needs no trigram threshold and binds no cutoff")
+    void relevance_textOnlyOrFuzzy() {
+        ProductSearchSql sql = ProductSearchSql.filter("coffee", "moka pot", null, null, 0.14, null);
+
+        ProductSearchSql.Statement probe = sql.textHits(10);
+        assertEquals(Map.of("category", "coffee", "key", "moka pot", "cap", 10), probe.parameters());
+        assertParametersMatch(probe);
+
+        ProductSearchSql text = sql.ranked(true);
+        ProductSearchSql.Statement page = text.page("RELEVANCE", 0, 20);
+        assertFalse(text.needsTrigramThreshold());
+        assertEquals(Map.of("category", "coffee", "key", "moka pot", "limit", 20, "offset", 0L), page.parameters());
+        assertParametersMatch(page);
+
+        ProductSearchSql fuzzy = sql.ranked(false);
+        ProductSearchSql.Statement fuzzyPage = fuzzy.page("RELEVANCE", 0, 20);
+        assertTrue(fuzzy.needsTrigramThreshold());
+        assertEquals(0.14, fuzzyPage.parameters().get("simCutoff"));
+        assertNotEquals(page.sql(), fuzzyPage.sql());
+        assertParametersMatch(fuzzyPage);
+        assertParametersMatch(fuzzy.count());
+        assertParametersMatch(fuzzy.facets(1, 1, 1, 1));
+    }
+
+    @Test
+    @DisplayName("relevance without a keyword or without ranking is the default shape")
+    void relevance_withoutRanking_isDefaultOrder() {
+        String byId = ProductSearchSql.filter(null, null, null, null, 0.14, null).page("DEFAULT", 0, 5).sql();
+
+        assertSame(byId, ProductSearchSql.filter(null, null, null, null, 0.14, null).ranked(true).page("RELEVANCE", 0, 5).sql());
+        assertSame(ProductSearchSql.filter(null, "moka", null, null, 0.14, null).page("DEFAULT", 0, 5).sql(),
+                ProductSearchSql.filter(null, "moka", null, null, 0.14, null).page("RELEVANCE", 0, 5).sql());
+    }
+
+    @Test
+    @DisplayName("relevance keysets bind the rank, and for fuzzy matches the similarity, from the cursor")
+    void relevance_keyset() {
+        ProductSearchSql sql = ProductSearchSql.filter(null, "moka", null, null, 0.14, null);
+
+        ProductSearchSql.Statement text = sql.ranked(true).after("RELEVANCE", 7L, null, null, null, 0.5, 0.25, 21);
+        assertEquals(Map.of("key", "moka", "afterId", 7L, "afterRelevance", 0.5, "limit", 21), text.parameters());
+
+        ProductSearchSql.Statement fuzzy = sql.ranked(false).after("RELEVANCE", 7L, null, null, null, 0.5, 0.25, 21);
+        assertEquals(Map.of("key", "moka", "simCutoff", 0.14, "afterId", 7L, "afterRelevance", 0.5,
+                "afterSimilarity", 0.25, "limit", 21), fuzzy.parameters());
+        for (ProductSearchSql.Statement s : List.of(text, fuzzy)) assertParametersMatch(s);
+    }
+
+    @Test
+    @DisplayName("best-selling keysets bind the sales rank from the cursor")
+    void bestSelling_resumesOnSalesRank() {
+        ProductSearchSql sql = ProductSearchSql.filter("coffee", null, null, null, 0.14, null);
+
+        ProductSearchSql.Statement page = sql.page("BEST_SELLING", 0, 20);
+        assertNotEquals(sql.page("DEFAULT", 0, 20).sql(), page.sql());
+        assertEquals(Map.of("category", "coffee", "limit", 20, "offset", 0L), page.parameters());
+
+        ProductSearchSql.Statement next = sql.after("BEST_SELLING", 7L, 500, null, 2.5, null, null, 21);
+        assertEquals(Map.of("category", "coffee", "afterId", 7L, "afterRank", 2.5, "limit", 21), next.parameters());
+        for (ProductSearchSql.Statement s : List.of(page, next)) assertParametersMatch(s);
+    }
+
+    /** Every named parameter in the SQL has a value and every value is used. */
+    private static void assertParametersMatch(ProductSearchSql.Statement statement) {
+        Set<String> used = new TreeSet<>();
+        Matcher m = PARAM.matcher(statement.sql());
+        while (m.find()) used.add(m.group(1));
+        assertEquals(used, new TreeSet<>(statement.parameters().keySet()), statement.sql());
+    }
+}
@@ -0,0 +1,105 @@
+package ie.universityofgalway.groupnine.infrastructure.product;
+
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.SalesCounterAdapter;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SalesCounterAdapterTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final SalesCounterAdapter adapter = new SalesCounterAdapter(jdbc, 3_600_000);
+
+    /** The arrays bound by the one statement each flush runs, by SQL type. */
+    private Map<String, Object[]> bound(PreparedStatementCreator statement) throws Exception {
+        Connection con = mock(Connection.class);
+        when(con.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        Map<String, Object[]> arrays = new HashMap<>();
+        when(con.createArrayOf(anyString(), any())).thenAnswer(inv -> {
+            arrays.put(inv.getArgument(0), inv.getArgument(1));
+            return mock(Array.class);
+        });
+        statement.createPreparedStatement(con);
+        return arrays;
+    }
+
+    @Test
+    void sales_of_a_variant_are_added_up_and_written_in_one_statement() throws Exception {
+        List<PreparedStatementCreator> statements = new ArrayList<>();
+        when(jdbc.update(any(PreparedStatementCreator.class))).thenAnswer(inv -> {
+            statements.add(inv.getArgument(0));
+            return 1;
+        });
+        VariantId v = new VariantId(UUID.randomUUID());
+        Instant t = Instant.parse("2025-01-01T00:00:00Z");
+
+        adapter.recordSales(Map.of(v, 1), t);
+        adapter.recordSales(Map.of(v, 2, new VariantId(UUID.randomUUID()), 0), t.plusSeconds(60));
+        adapter.flush();
+        adapter.flush();
+
+        assertEquals(1, statements.size());
+        Map<String, Object[]> arrays = bound(statements.get(0));
+        assertArrayEquals(new Object[]{v.getId()}, arrays.get("uuid"));
+        assertArrayEquals(new Long[]{3L}, arrays.get("int8"));
+        assertArrayEquals(new Timestamp[]{Timestamp.from(t.plusSeconds(60))}, arrays.get("timestamptz"));
+    }
+
+    @Test
+    void three_units_score_like_one_unit_sold_a_mean_life_of_ln_3_later() throws Exception {
+        List<PreparedStatementCreator> statements = new ArrayList<>();
+        when(jdbc.update(any(PreparedStatementCreator.class))).thenAnswer(inv -> {
+            statements.add(inv.getArgument(0));
+            return 1;
+        });
+        VariantId a = new VariantId(UUID.randomUUID());
+        Instant t = Instant.parse("2025-01-01T00:00:00Z");
+
+        adapter.recordSales(Map.of(a, 3), t);
+        adapter.flush();
+        adapter.recordSales(Map.of(a, 1), t.plusMillis(Math.round(Math.log(3) * 30 * 86_400_000L)));
+        adapter.flush();
+
+        Double[] first = (Double[]) bound(statements.get(0)).get("float8");
+        Double[] second = (Double[]) bound(statements.get(1)).get("float8");
+        // float8 is bound twice, 7-day then 30-day; the map keeps the 30-day scores
+        assertEquals(first[0], second[0], 1e-9);
+    }
+
+    @Test
+    void sales_that_fail_to_be_written_are_kept_for_the_next_flush() throws Exception {
+        List<PreparedStatementCreator> statements = new ArrayList<>();
+        when(jdbc.update(any(PreparedStatementCreator.class)))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenAnswer(inv -> {
+                    statements.add(inv.getArgument(0));
+                    return 1;
+                });
+        VariantId v = new VariantId(UUID.randomUUID());
+        Instant t = Instant.parse("2025-01-01T00:00:00Z");
+
+        adapter.recordSales(Map.of(v, 2), t);
+        assertDoesNotThrow(adapter::flush);
+        adapter.recordSales(Map.of(v, 1), t);
+        adapter.flush();
+
+        assertArrayEquals(new Long[]{3L}, bound(statements.get(0)).get("int8"));
+    }
+}
@@ -0,0 +1,59 @@
+package ie.universityofgalway.groupnine.infrastructure.product;
+
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantAttributeIndexBackfill;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantAttributeIndexJpaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class VariantAttributeIndexBackfillTest {
+
+    private final VariantAttributeIndexJpaRepository index = mock(VariantAttributeIndexJpaRepository.class);
+    private final VariantAttributeIndexBackfill backfill = new VariantAttributeIndexBackfill(index, 2);
+
+    @AfterEach
+    void stop() {
+        backfill.shutdown();
+    }
+
+    @Test
+    @DisplayName("walks unindexed products in keyset batches until a short batch, then reports complete")
+    void reindexesInBatches() {
+        when(index.findUnindexedProductIds(0L, 2)).thenReturn(List.of(3L, 8L));
+        when(index.findUnindexedProductIds(8L, 2)).thenReturn(List.of(9L));
+        assertFalse(backfill.isComplete());
+
+        backfill.run();
+
+        assertTrue(backfill.isComplete());
+        verify(index).reindexProduct(3L);
+        verify(index).reindexProduct(8L);
+        verify(index).reindexProduct(9L);
+        verify(index, times(2)).findUnindexedProductIds(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("a failed pass leaves searches on the token overlap")
+    void failure_staysIncomplete() {
+        when(index.findUnindexedProductIds(0L, 2)).thenReturn(List.of(3L, 8L));
+        doThrow(new IllegalStateException("db down")).when(index).reindexProduct(8L);
+
+        backfill.run();
+
+        assertFalse(backfill.isComplete());
+        verify(index, never()).findUnindexedProductIds(8L, 2);
+    }
+
+    @Test
+    @DisplayName("rejects a non-positive batch size")
+    void rejectsBadBatchSize() {
+        assertThrows(IllegalArgumentException.class, () -> new VariantAttributeIndexBackfill(index, 0));
+    }
+}
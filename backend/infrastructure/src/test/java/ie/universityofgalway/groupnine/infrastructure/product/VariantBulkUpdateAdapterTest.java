@@ -0,0 +1,91 @@
+package ie.universityofgalway.groupnine.infrastructure.product;
+
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.VariantBulkUpdateAdapter;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchDocumentJpaRepository;
+import ie.universityofgalway.groupnine.service.product.admin.VariantPriceStockUpdate;
+import ie.universityofgalway.groupnine.service.product.port.VariantBulkUpdatePort.UpdatedVariant;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class VariantBulkUpdateAdapterTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final ProductSearchDocumentJpaRepository searchDocuments = mock(ProductSearchDocumentJpaRepository.class);
+    private final VariantBulkUpdateAdapter adapter = new VariantBulkUpdateAdapter(jdbc, searchDocuments);
+
+    @Test
+    void a_chunk_is_one_array_update_then_one_refresh_of_repriced_products() throws Exception {
+        UUID variant = UUID.randomUUID();
+        UUID product = UUID.randomUUID();
+        List<PreparedStatementCreator> statements = new ArrayList<>();
+        doAnswer(inv -> {
+            statements.add(inv.getArgument(0));
+            RowCallbackHandler handler = inv.getArgument(1);
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getString(1)).thenReturn("A", "B");
+            when(rs.getObject(2, UUID.class)).thenReturn(variant, UUID.randomUUID());
+            when(rs.getObject(3, UUID.class)).thenReturn(product);
+            when(rs.getLong(4)).thenReturn(7L, 9L);
+            when(rs.getBoolean(5)).thenReturn(true, false);
+            handler.processRow(rs);
+            handler.processRow(rs);
+            return null;
+        }).when(jdbc).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        VariantId byId = new VariantId(UUID.randomUUID());
+
+        List<UpdatedVariant> updated = adapter.updatePriceAndStock(List.of(
+                new VariantPriceStockUpdate("A", null, 450, null),
+                new VariantPriceStockUpdate(null, byId, null, 3)));
+
+        assertEquals(2, updated.size());
+        assertEquals(new UpdatedVariant("A", new VariantId(variant), new ProductId(product)), updated.get(0));
+        // Only the first row changed a price; stock is not in the search document
+        verify(searchDocuments).refreshForProducts(Set.of(7L));
+
+        Connection con = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(con.prepareStatement(anyString())).thenReturn(ps);
+        List<Object[]> arrays = new ArrayList<>();
+        when(con.createArrayOf(anyString(), any())).thenAnswer(inv -> {
+            arrays.add(inv.getArgument(1));
+            return mock(Array.class);
+        });
+        statements.get(0).createPreparedStatement(con);
+
+        assertArrayEquals(new Object[]{"A", null}, arrays.get(0));
+        assertArrayEquals(new Object[]{null, byId.getId()}, arrays.get(1));
+        assertArrayEquals(new Object[]{450, null}, arrays.get(2));
+        assertArrayEquals(new Object[]{null, 3}, arrays.get(3));
+    }
+
+    @Test
+    void stock_only_chunks_leave_search_documents_alone() {
+        List<UpdatedVariant> updated = adapter.updatePriceAndStock(List.of(new VariantPriceStockUpdate("A", null, null, 1)));
+
+        assertTrue(updated.isEmpty());
+        verifyNoInteractions(searchDocuments);
+    }
+
+    @Test
+    void an_empty_chunk_writes_nothing() {
+        assertEquals(List.of(), adapter.updatePriceAndStock(List.of()));
+        verifyNoInteractions(jdbc, searchDocuments);
+    }
+}
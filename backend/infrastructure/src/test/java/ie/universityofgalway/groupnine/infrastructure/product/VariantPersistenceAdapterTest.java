@@ -4,6 +4,7 @@ import ie.universityofgalway.groupnine.domain.product.*;
 import ie.universityofgalway.groupnine.infrastructure.product.adapter.VariantPersistenceAdapter;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantEntity;
 import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantView;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -12,10 +13,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.util.Currency;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -69,6 +73,26 @@ class VariantPersistenceAdapterTest {
         assertEquals(Currency.getInstance("EUR"), v.getPrice().getCurrency());
     }
 
+    @Test
+    void findsManyVariantsInOneQuery() {
+        UUID known = UUID.randomUUID();
+        VariantView view = mock(VariantView.class);
+        when(view.getUuid()).thenReturn(known);
+        when(view.getSku()).thenReturn("SKU-9");
+        when(view.getPriceCents()).thenReturn(250);
+        when(view.getCurrency()).thenReturn("EUR");
+        when(view.getStockQuantity()).thenReturn(3);
+        when(repo.findViewsByUuids(anyCollection())).thenReturn(List.of(view));
+
+        Map<VariantId, Variant> found = adapter.findAllByIds(List.of(new VariantId(known), new VariantId(UUID.randomUUID())));
+
+        assertEquals(1, found.size());
+        assertEquals("SKU-9", found.get(new VariantId(known)).getSku().getValue());
+        assertEquals(250, found.get(new VariantId(known)).getPrice().getMinorUnits());
+        verify(repo, times(1)).findViewsByUuids(argThat(ids -> ids.size() == 2));
+        verifyNoMoreInteractions(repo);
+    }
+
     private static void set(Object target, String field, Object value) {
         try {
             var f = target.getClass().getDeclaredField(field);
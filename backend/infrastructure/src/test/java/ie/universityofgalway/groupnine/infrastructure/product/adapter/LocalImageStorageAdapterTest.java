@@ -2,6 +2,7 @@ package ie.universityofgalway.groupnine.infrastructure.product.adapter;
 
 import ie.universityofgalway.groupnine.domain.product.ProductId;
 import ie.universityofgalway.groupnine.domain.product.VariantId;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 import javax.imageio.ImageIO;
@@ -11,6 +12,8 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -50,11 +53,15 @@ class LocalImageStorageAdapterTest {
         assertTrue(ct.equals("image/jpeg") || ct.equals("image/png") || ct.equals("image/webp"));
         assertTrue(loaded.get().getBytes().length > 0);
 
-        // Ensure the .ct file exists
-        Path ctPath = tmp.resolve(pid.getId().toString()).resolve("variants").resolve(vid.getId().toString() + ".ct");
-        assertTrue(Files.exists(ctPath));
-        String savedCt = Files.readString(ctPath).trim();
-        assertTrue(savedCt.equals("image/jpeg") || savedCt.equals("image/png") || savedCt.equals("image/webp"));
+        // Ensure the variant links to the blob of its content, named by hash and format
+        String hash = loaded.get().getContentHash().orElseThrow();
+        assertTrue(hash.matches("[0-9a-f]{64}"));
+        Path pointer = loaded.get().getFile().orElseThrow();
+        assertEquals(vid.getId() + "." + hash + "." + ct.substring("image/".length()).replace("jpeg", "jpg"),
+                pointer.getFileName().toString());
+        Path blob = tmp.resolve("blobs").resolve(hash.substring(0, 2)).resolve(hash + pointer.getFileName().toString()
+                .substring(pointer.getFileName().toString().lastIndexOf('.')));
+        assertTrue(Files.isSameFile(pointer, blob));
     }
 
     @Test
@@ -168,4 +175,136 @@ class LocalImageStorageAdapterTest {
         assertTrue(loaded.isPresent());
         assertEquals("image/png", loaded.get().getContentType());
     }
+
+    @Test
+    void loadsReturnTheFile_andFollowItAcrossExtensionChanges() throws Exception {
+        Path tmp = Files.createTempDirectory("img-test-index-");
+        LocalImageStorageAdapter adapter = new LocalImageStorageAdapter(tmp.toString());
+        ProductId pid = new ProductId(UUID.randomUUID());
+        VariantId vid = new VariantId(UUID.randomUUID());
+        byte[] notAnImage = {1, 2, 3, 4};
+
+        adapter.saveVariantImage(pid, vid, "a.gif", "image/gif", new ByteArrayInputStream(notAnImage));
+        var gif = adapter.loadVariantImage(pid, vid).orElseThrow();
+        assertTrue(gif.getFile().orElseThrow().toString().endsWith(".gif"));
+        assertEquals(4, gif.getSize());
+        assertNotNull(gif.getLastModified());
+
+        // a second adapter (another node) finds it by listing the directory, then remembers it
+        LocalImageStorageAdapter other = new LocalImageStorageAdapter(tmp.toString());
+        assertEquals(gif.getFile(), other.loadVariantImage(pid, vid).orElseThrow().getFile());
+
+        adapter.saveVariantImage(pid, vid, "b.png", "image/png", new ByteArrayInputStream(new byte[]{5, 6}));
+        var png = other.loadVariantImage(pid, vid).orElseThrow();
+        assertTrue(png.getFile().orElseThrow().toString().endsWith(".png"));
+        assertArrayEquals(new byte[]{5, 6}, png.getBytes());
+        assertFalse(Files.exists(gif.getFile().orElseThrow()));
+    }
+
+    @Test
+    void renditionsAreServedByWidthOnceRendered_andDiscardedByTheNextUpload() throws Exception {
+        Path tmp = Files.createTempDirectory("img-test-renditions-");
+        LocalImageStorageAdapter adapter = new LocalImageStorageAdapter(tmp.toString(), new int[]{200, 400, 800});
+        ProductId pid = new ProductId(UUID.randomUUID());
+        VariantId vid = new VariantId(UUID.randomUUID());
+        BufferedImage img = new BufferedImage(600, 300, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(img, "png", baos);
+
+        adapter.saveOriginalVariantImage(pid, vid, "a.png", "image/png", new ByteArrayInputStream(baos.toByteArray()));
+        Path original = adapter.loadVariantImage(pid, vid, 300, List.of()).orElseThrow().getFile().orElseThrow();
+        assertArrayEquals(baos.toByteArray(), Files.readAllBytes(original));
+
+        adapter.renderVariantImage(pid, vid);
+        // 800 is wider than the image, so its own width is the widest rendition
+        assertEquals(200, width(adapter.loadVariantImage(pid, vid, 150, List.of("image/webp")).orElseThrow()));
+        assertEquals(400, width(adapter.loadVariantImage(pid, vid, 300, List.of()).orElseThrow()));
+        assertEquals(600, width(adapter.loadVariantImage(pid, vid, 1000, List.of()).orElseThrow()));
+        var widest = adapter.loadVariantImage(pid, vid).orElseThrow();
+        assertEquals(600, width(widest));
+        assertEquals("image/png", widest.getContentType());
+        assertEquals(300, ImageIO.read(widest.getFile().orElseThrow().toFile()).getHeight());
+
+        // another node lists the renditions it has not seen
+        LocalImageStorageAdapter other = new LocalImageStorageAdapter(tmp.toString(), new int[]{200, 400, 800});
+        assertEquals(400, width(other.loadVariantImage(pid, vid, 400, List.of()).orElseThrow()));
+
+        // the same image again keeps its renditions
+        adapter.saveOriginalVariantImage(pid, vid, "b.png", "image/png", new ByteArrayInputStream(baos.toByteArray()));
+        assertEquals(400, width(adapter.loadVariantImage(pid, vid, 300, List.of()).orElseThrow()));
+
+        // another one is served as it is, provisionally, until it has renditions of its own
+        ByteArrayOutputStream replacement = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(500, 250, BufferedImage.TYPE_INT_RGB), "png", replacement);
+        adapter.saveOriginalVariantImage(pid, vid, "c.png", "image/png", new ByteArrayInputStream(replacement.toByteArray()));
+        var provisional = adapter.loadVariantImage(pid, vid, 200, List.of()).orElseThrow();
+        assertTrue(provisional.isProvisional());
+        assertArrayEquals(replacement.toByteArray(), provisional.getBytes());
+        assertArrayEquals(replacement.toByteArray(), other.loadVariantImage(pid, vid).orElseThrow().getBytes());
+
+        adapter.renderVariantImage(pid, vid);
+        var rendered = other.loadVariantImage(pid, vid, 200, List.of()).orElseThrow();
+        assertFalse(rendered.isProvisional());
+        assertEquals(200, width(rendered));
+    }
+
+    @Test
+    void variantsShowingTheSameImageShareOneBlob_whichIsCollectedOnceNoneDoes() throws Exception {
+        Path tmp = Files.createTempDirectory("img-test-dedup-");
+        LocalImageStorageAdapter adapter = new LocalImageStorageAdapter(tmp.toString(), new int[]{200});
+        ProductId pid = new ProductId(UUID.randomUUID());
+        VariantId a = new VariantId(UUID.randomUUID());
+        VariantId b = new VariantId(UUID.randomUUID());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(300, 300, BufferedImage.TYPE_INT_RGB), "png", baos);
+
+        adapter.saveOriginalVariantImage(pid, a, "a.png", "image/png", new ByteArrayInputStream(baos.toByteArray()));
+        adapter.saveOriginalVariantImage(pid, b, "b.png", "image/png", new ByteArrayInputStream(baos.toByteArray()));
+        adapter.renderVariantImage(pid, a);
+
+        String hash = adapter.contentHash(pid, a).orElseThrow();
+        assertEquals(Optional.of(hash), adapter.contentHash(pid, b));
+        // rendered once, for both
+        assertFalse(adapter.loadVariantImage(pid, b, 200, List.of()).orElseThrow().isProvisional());
+        assertEquals(0, adapter.deleteUnreferencedImages(Duration.ZERO));
+
+        adapter.saveVariantImage(pid, a, "a.gif", "image/gif", new ByteArrayInputStream(new byte[]{1}));
+        assertEquals(0, adapter.deleteUnreferencedImages(Duration.ZERO));
+        adapter.saveVariantImage(pid, b, "b.gif", "image/gif", new ByteArrayInputStream(new byte[]{1}));
+        assertEquals(0, adapter.deleteUnreferencedImages(Duration.ofHours(1)));
+        assertEquals(1, adapter.deleteUnreferencedImages(Duration.ZERO));
+
+        try (var files = Files.list(tmp.resolve("blobs").resolve(hash.substring(0, 2)))) {
+            assertTrue(files.noneMatch(f -> f.getFileName().toString().startsWith(hash)));
+        }
+        assertArrayEquals(new byte[]{1}, adapter.loadVariantImage(pid, a).orElseThrow().getBytes());
+    }
+
+    @Test
+    void largeUploadsAreDecodedSubsampledToTheTargetSize_andLeaveNoSpoolBehind() throws Exception {
+        Path tmp = Files.createTempDirectory("img-test-large-");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LocalImageStorageAdapter adapter = new LocalImageStorageAdapter(tmp.toString(), new int[]{400}, 1, registry);
+        ProductId pid = new ProductId(UUID.randomUUID());
+        VariantId vid = new VariantId(UUID.randomUUID());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(6000, 3000, BufferedImage.TYPE_INT_RGB), "jpg", baos);
+
+        adapter.saveVariantImage(pid, vid, "big.jpg", "image/jpeg", new ByteArrayInputStream(baos.toByteArray()));
+
+        Path stored = adapter.loadVariantImage(pid, vid).orElseThrow().getFile().orElseThrow();
+        BufferedImage back = ImageIO.read(stored.toFile());
+        assertEquals(1400, back.getWidth());
+        assertEquals(700, back.getHeight());
+        try (var files = Files.list(stored.getParent())) {
+            assertTrue(files.noneMatch(f -> f.getFileName().toString().contains(".upload-")));
+        }
+        assertEquals(1, registry.get("catalog.images.decode.wait").timer().count());
+        assertEquals(0.0, registry.get("catalog.images.decode.waiting").gauge().value());
+    }
+
+    private static int width(ie.universityofgalway.groupnine.service.product.port.ImageStoragePort.ImageData image) {
+        String name = image.getFile().orElseThrow().getFileName().toString();
+        return Integer.parseInt(name.substring(0, name.indexOf('.')));
+    }
 }
@@ -0,0 +1,208 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import ie.universityofgalway.groupnine.domain.product.*;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductPersistenceAdapter;
+import ie.universityofgalway.groupnine.infrastructure.product.search.EmbeddedProductSearch;
+import ie.universityofgalway.groupnine.service.product.port.VariantPort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CachingProductPortTest {
+
+    private ProductPersistenceAdapter delegate;
+    private VariantPort variantDelegate;
+    private CatalogNearCache cache;
+    private CachingProductPort products;
+    private CachingVariantPort variants;
+    private Product product;
+    private Variant variant;
+
+    @BeforeEach
+    void setup() {
+        delegate = mock(ProductPersistenceAdapter.class);
+        variantDelegate = mock(VariantPort.class);
+        cache = new CatalogNearCache(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(5));
+        products = new CachingProductPort(delegate, cache, mock(EmbeddedProductSearch.class), null);
+        variants = new CachingVariantPort(variantDelegate, cache);
+        variant = new Variant(new VariantId(UUID.randomUUID()), new Sku("SKU-1"),
+                new Money(new BigDecimal("5.00"), Currency.getInstance("EUR")), new Stock(10, 0), List.of(), null);
+        product = new Product(new ProductId(UUID.randomUUID()), "Beans", "d", "coffee", ProductStatus.ACTIVE,
+                List.of(variant), Instant.now(), Instant.now());
+        when(delegate.findById(product.getId())).thenReturn(Optional.of(product));
+        when(delegate.findByVariantId(variant.getId())).thenReturn(Optional.of(product));
+        when(variantDelegate.findById(variant.getId())).thenReturn(Optional.of(variant));
+    }
+
+    @Test
+    void repeated_lookups_hit_the_delegate_once() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(product, products.findById(product.getId()).orElseThrow());
+            assertEquals(product, products.findByVariantId(variant.getId()).orElseThrow());
+            assertEquals(variant, variants.findById(variant.getId()).orElseThrow());
+        }
+        verify(delegate, times(1)).findById(product.getId());
+        verify(delegate, times(1)).findByVariantId(variant.getId());
+        verify(variantDelegate, times(1)).findById(variant.getId());
+    }
+
+    @Test
+    void updated_at_comes_from_a_cached_product_or_else_the_delegate_without_loading_it() {
+        Instant stored = Instant.parse("2024-01-02T00:00:00Z");
+        when(delegate.findUpdatedAt(product.getId())).thenReturn(Optional.of(stored));
+
+        assertEquals(Optional.of(stored), products.findUpdatedAt(product.getId()));
+        verify(delegate, never()).findById(any());
+
+        products.findById(product.getId());
+        assertEquals(Optional.of(product.getUpdatedAt()), products.findUpdatedAt(product.getId()));
+        verify(delegate, times(1)).findUpdatedAt(product.getId());
+    }
+
+    @Test
+    void listings_are_not_cached() {
+        products.listAll(null);
+        products.listAll(null);
+        verify(delegate, times(2)).listAll(any());
+    }
+
+    @Test
+    void local_save_drops_cached_product() {
+        when(delegate.saveProduct(any())).thenAnswer(inv -> inv.getArgument(0));
+        products.findById(product.getId());
+
+        products.saveProduct(product);
+        products.findById(product.getId());
+
+        verify(delegate, times(2)).findById(product.getId());
+    }
+
+    @Test
+    void variant_invalidation_drops_variant_and_containing_products() {
+        products.findById(product.getId());
+        products.findByVariantId(variant.getId());
+        variants.findById(variant.getId());
+
+        cache.evictVariant(variant.getId().getId());
+
+        products.findById(product.getId());
+        products.findByVariantId(variant.getId());
+        variants.findById(variant.getId());
+        verify(delegate, times(2)).findById(product.getId());
+        verify(delegate, times(2)).findByVariantId(variant.getId());
+        verify(variantDelegate, times(2)).findById(variant.getId());
+    }
+
+    @Test
+    void redis_adapter_publishes_and_evicts_on_received_messages() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        RedisCatalogInvalidationAdapter adapter = new RedisCatalogInvalidationAdapter(redis, List.of(cache), mock(CatalogVersion.class));
+
+        adapter.productChanged(product.getId());
+        verify(redis).convertAndSend(eq(RedisCatalogInvalidationAdapter.CHANNEL), eq("product:" + product.getId().getId()));
+
+        products.findById(product.getId());
+        byte[] body = ("product:" + product.getId().getId()).getBytes(StandardCharsets.UTF_8);
+        adapter.onMessage(new DefaultMessage(RedisCatalogInvalidationAdapter.CHANNEL.getBytes(StandardCharsets.UTF_8), body), null);
+        products.findById(product.getId());
+
+        verify(delegate, times(2)).findById(product.getId());
+    }
+
+    @Test
+    void redis_adapter_announces_bulk_writes_in_one_message() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        RedisCatalogInvalidationAdapter adapter = new RedisCatalogInvalidationAdapter(redis, List.of(cache), mock(CatalogVersion.class));
+        ProductId other = new ProductId(UUID.randomUUID());
+
+        adapter.productsChanged(List.of(product.getId(), other));
+        String payload = "products:" + product.getId().getId() + "," + other.getId();
+        verify(redis).convertAndSend(RedisCatalogInvalidationAdapter.CHANNEL, payload);
+
+        products.findById(product.getId());
+        adapter.onMessage(new DefaultMessage(RedisCatalogInvalidationAdapter.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                payload.getBytes(StandardCharsets.UTF_8)), null);
+        products.findById(product.getId());
+
+        verify(delegate, times(2)).findById(product.getId());
+    }
+
+    @Test
+    void redis_adapter_evicts_bulk_variant_updates_from_one_message() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        RedisCatalogInvalidationAdapter adapter = new RedisCatalogInvalidationAdapter(redis, List.of(cache), mock(CatalogVersion.class));
+        VariantId other = new VariantId(UUID.randomUUID());
+
+        adapter.variantsChanged(List.of(variant.getId(), other));
+        String payload = "variants:" + variant.getId().getId() + "," + other.getId();
+        verify(redis).convertAndSend(RedisCatalogInvalidationAdapter.CHANNEL, payload);
+
+        products.findById(product.getId());
+        variants.findById(variant.getId());
+        adapter.onMessage(new DefaultMessage(RedisCatalogInvalidationAdapter.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                payload.getBytes(StandardCharsets.UTF_8)), null);
+        products.findById(product.getId());
+        variants.findById(variant.getId());
+
+        verify(delegate, times(2)).findById(product.getId());
+        verify(variantDelegate, times(2)).findById(variant.getId());
+    }
+
+    @Test
+    void redis_publish_failure_does_not_fail_the_write() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        when(redis.convertAndSend(any(), any())).thenThrow(new IllegalStateException("down"));
+        RedisCatalogInvalidationAdapter adapter = new RedisCatalogInvalidationAdapter(redis, List.of(cache), mock(CatalogVersion.class));
+
+        assertDoesNotThrow(() -> adapter.variantChanged(variant.getId()));
+    }
+
+    @Test
+    void search_goes_to_the_embedded_index_once_it_is_ready() {
+        EmbeddedProductSearch embedded = mock(EmbeddedProductSearch.class);
+        CachingProductPort routed = new CachingProductPort(delegate, cache, embedded, null);
+        SearchQuery query = SearchQuery.builder("beans", null, 0, Integer.MAX_VALUE, SortRule.DEFAULT, List.of());
+
+        routed.search(query, null);
+        verify(delegate).search(query, null);
+
+        when(embedded.isReady()).thenReturn(true);
+        when(embedded.answers(query)).thenReturn(true);
+        routed.search(query, null);
+        routed.searchAfter(query, null, 20, false);
+        verify(embedded).search(query, null);
+        verify(embedded).searchAfter(query, null, 20, false);
+        verifyNoMoreInteractions(delegate);
+    }
+
+    @Test
+    void queries_the_embedded_index_cannot_answer_go_to_the_database() {
+        EmbeddedProductSearch embedded = mock(EmbeddedProductSearch.class);
+        CachingProductPort routed = new CachingProductPort(delegate, cache, embedded, null);
+        SearchQuery ranked = SearchQuery.builder("beans", null, 0, Integer.MAX_VALUE, SortRule.RELEVANCE, List.of());
+        when(embedded.isReady()).thenReturn(true);
+
+        routed.search(ranked, null);
+        routed.searchAfter(ranked, null, 20, false);
+
+        verify(delegate).search(ranked, null);
+        verify(delegate).searchAfter(ranked, null, 20, false);
+        verify(embedded, never()).search(any(), any());
+    }
+}
@@ -0,0 +1,58 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogVersionTest {
+
+    private ValueOperations<String, String> values;
+    private CatalogVersion version;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        values = mock(ValueOperations.class);
+        when(redis.opsForValue()).thenReturn(values);
+        version = new CatalogVersion(redis);
+    }
+
+    @Test
+    void version_is_read_once_and_follows_bumps() {
+        when(values.get(CatalogVersion.KEY)).thenReturn("4");
+        when(values.increment(CatalogVersion.KEY)).thenReturn(5L);
+
+        assertEquals(OptionalLong.of(4), version.version());
+        assertEquals(OptionalLong.of(4), version.version());
+        verify(values, times(1)).get(CatalogVersion.KEY);
+
+        version.bump();
+        assertEquals(OptionalLong.of(5), version.version());
+    }
+
+    @Test
+    void version_is_empty_while_redis_is_unreachable() {
+        when(values.get(CatalogVersion.KEY)).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertEquals(OptionalLong.empty(), version.version());
+    }
+
+    @Test
+    void a_failed_bump_is_retried_by_the_next_read() {
+        when(values.increment(CatalogVersion.KEY))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenReturn(8L);
+
+        version.bump();
+        assertEquals(OptionalLong.of(8), version.version());
+        verify(values, never()).get(CatalogVersion.KEY);
+    }
+}
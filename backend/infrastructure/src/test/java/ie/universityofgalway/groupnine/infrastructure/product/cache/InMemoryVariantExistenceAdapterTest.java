@@ -0,0 +1,89 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantOwnerView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class InMemoryVariantExistenceAdapterTest {
+
+    private final VariantJpaRepository repo = mock(VariantJpaRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final InMemoryVariantExistenceAdapter adapter = new InMemoryVariantExistenceAdapter(repo, registry, 60_000);
+
+    private final UUID product = UUID.randomUUID();
+    private final UUID variant = UUID.randomUUID();
+
+    @AfterEach
+    void stop() {
+        adapter.shutdown();
+    }
+
+    private static VariantOwnerView row(UUID product, UUID variant) {
+        return new VariantOwnerView() {
+            @Override public UUID getProductUuid() { return product; }
+            @Override public UUID getVariantUuid() { return variant; }
+        };
+    }
+
+    private boolean exists(UUID product, UUID variant) {
+        return adapter.exists(new ProductId(product), new VariantId(variant));
+    }
+
+    @Test
+    void knows_nothing_until_loaded_and_then_every_variant() {
+        when(repo.findOwners()).thenReturn(List.of(row(product, variant)));
+        assertFalse(exists(product, variant));
+
+        adapter.onApplicationReady();
+
+        assertTrue(exists(product, variant));
+        assertFalse(exists(UUID.randomUUID(), variant));
+        assertEquals(1.0, registry.get("catalog.variant_index.entries").gauge().value());
+    }
+
+    @Test
+    void changes_read_back_only_what_they_name() {
+        when(repo.findOwners()).thenReturn(List.of(row(product, variant)));
+        adapter.rebuild();
+        UUID added = UUID.randomUUID();
+        when(repo.findOwnersByUuids(any())).thenReturn(List.of(row(product, added)));
+        when(repo.findOwnersByProductUuids(any())).thenReturn(List.of());
+
+        adapter.onVariantChanged(added);
+        adapter.update();
+        assertTrue(exists(product, added));
+
+        // the product was deleted with its variants
+        adapter.onProductChanged(product);
+        adapter.update();
+        assertFalse(exists(product, variant));
+        assertFalse(exists(product, added));
+        verify(repo, times(1)).findOwners();
+    }
+
+    @Test
+    void a_failed_update_is_retried_with_the_next_one() {
+        UUID added = UUID.randomUUID();
+        when(repo.findOwnersByUuids(any()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(List.of(row(product, added)));
+
+        adapter.onVariantChanged(added);
+        adapter.update();
+        assertFalse(exists(product, added));
+
+        adapter.update();
+        assertTrue(exists(product, added));
+    }
+}
@@ -0,0 +1,163 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NearCacheTest {
+
+    private SimpleMeterRegistry registry;
+    private AtomicLong now;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        now = new AtomicLong();
+    }
+
+    private NearCache<String, String> cache(long maxWeight) {
+        return new NearCache<>("test", maxWeight, Duration.ofSeconds(10), String::length, registry, now::get);
+    }
+
+    private double count(String name, String tag, String value) {
+        return registry.get(name).tag("cache", "test").tag(tag, value).counter().count();
+    }
+
+    @Test
+    @DisplayName("second lookup is served from memory and recorded as a hit")
+    void hitAfterMiss() {
+        NearCache<String, String> cache = cache(100);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("a", k -> { loads.incrementAndGet(); return Optional.of("A"); });
+        Optional<String> again = cache.get("a", k -> { loads.incrementAndGet(); return Optional.of("other"); });
+
+        assertEquals("A", again.orElseThrow());
+        assertEquals(1, loads.get());
+        assertEquals(1.0, count("catalog.cache.gets", "result", "hit"));
+        assertEquals(1.0, count("catalog.cache.gets", "result", "miss"));
+    }
+
+    @Test
+    @DisplayName("absent values are not cached")
+    void absentNotCached() {
+        NearCache<String, String> cache = cache(100);
+        cache.get("a", k -> Optional.empty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("least recently used entries are evicted once the weight bound is exceeded")
+    void evictsLeastRecentlyUsedByWeight() {
+        NearCache<String, String> cache = cache(10);
+        cache.get("a", k -> Optional.of("aaaa"));
+        cache.get("b", k -> Optional.of("bbbb"));
+        cache.get("a", k -> Optional.empty()); // touch a
+        cache.get("c", k -> Optional.of("cccc"));
+
+        assertEquals(2, cache.size());
+        assertEquals(8, cache.weight());
+        assertTrue(cache.get("b", k -> Optional.empty()).isEmpty());
+        assertEquals("aaaa", cache.get("a", k -> Optional.empty()).orElseThrow());
+        assertEquals(1.0, count("catalog.cache.evictions", "cause", "size"));
+    }
+
+    @Test
+    @DisplayName("entries heavier than the whole cache are not admitted")
+    void oversizedNotAdmitted() {
+        NearCache<String, String> cache = cache(3);
+        cache.get("a", k -> Optional.of("aaaa"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("expired entries are reloaded")
+    void expiredEntriesReload() {
+        NearCache<String, String> cache = cache(100);
+        cache.get("a", k -> Optional.of("old"));
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        assertEquals("new", cache.get("a", k -> Optional.of("new")).orElseThrow());
+        assertEquals(1.0, count("catalog.cache.evictions", "cause", "expired"));
+    }
+
+    @Test
+    @DisplayName("a load racing an invalidation does not store the stale value")
+    void loadRacingInvalidationIsDiscarded() {
+        NearCache<String, String> cache = cache(100);
+        Optional<String> loaded = cache.get("a", k -> {
+            cache.invalidate("a");
+            return Optional.of("stale");
+        });
+
+        assertEquals("stale", loaded.orElseThrow());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("predicate invalidation removes only matching entries")
+    void invalidateIf() {
+        NearCache<String, String> cache = cache(100);
+        cache.get("a", k -> Optional.of("x1"));
+        cache.get("b", k -> Optional.of("y1"));
+
+        cache.invalidateIf((k, v) -> v.startsWith("x"));
+
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.weight());
+        assertEquals(1.0, count("catalog.cache.evictions", "cause", "explicit"));
+    }
+
+    @Test
+    @DisplayName("zero max weight disables caching")
+    void zeroWeightDisables() {
+        NearCache<String, String> cache = cache(0);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("a", k -> { loads.incrementAndGet(); return Optional.of("A"); });
+        cache.get("a", k -> { loads.incrementAndGet(); return Optional.of("A"); });
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("bulk lookups load every miss in one call and skip keys found nowhere")
+    void getAllLoadsMissesTogether() {
+        NearCache<String, String> cache = cache(100);
+        cache.get("a", k -> Optional.of("A"));
+        List<Set<String>> loads = new ArrayList<>();
+
+        Map<String, String> found = cache.getAll(List.of("a", "b", "c", "b"), missing -> {
+            loads.add(missing);
+            return Map.of("b", "B");
+        });
+
+        assertEquals(Map.of("a", "A", "b", "B"), found);
+        assertEquals(List.of(Set.of("b", "c")), loads);
+        assertEquals("B", cache.get("b", k -> Optional.empty()).orElseThrow());
+        assertEquals(2.0, count("catalog.cache.gets", "result", "hit"));
+    }
+
+    @Test
+    @DisplayName("a bulk load racing an invalidation does not store the stale values")
+    void getAllRacingInvalidationIsDiscarded() {
+        NearCache<String, String> cache = cache(100);
+        Map<String, String> found = cache.getAll(List.of("a"), missing -> {
+            cache.invalidate("a");
+            return Map.of("a", "stale");
+        });
+
+        assertEquals("stale", found.get("a"));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,193 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.service.product.port.RenderedCatalogCachePort.Rendered;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class RenderedCatalogCacheTest {
+
+    private final Map<String, String> store = new ConcurrentHashMap<>();
+    private final List<RenderedCatalogCache> nodes = new ArrayList<>();
+    private StringRedisTemplate redis;
+    private ValueOperations<String, String> values;
+    private final ProductId product = new ProductId(UUID.randomUUID());
+    private final VariantId variant = new VariantId(UUID.randomUUID());
+    private final Instant updatedAt = Instant.parse("2024-05-01T10:00:00.123456Z");
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        redis = mock(StringRedisTemplate.class);
+        values = mock(ValueOperations.class);
+        when(redis.opsForValue()).thenReturn(values);
+        when(values.get(anyString())).thenAnswer(inv -> store.get(inv.<String>getArgument(0)));
+        when(values.multiGet(anyList())).thenAnswer(inv -> inv.<List<String>>getArgument(0).stream().map(store::get).toList());
+        doAnswer(inv -> store.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(values).set(anyString(), anyString(), any(Duration.class));
+        when(redis.delete(anyString())).thenAnswer(inv -> store.remove(inv.<String>getArgument(0)) != null);
+    }
+
+    @AfterEach
+    void shutdown() {
+        nodes.forEach(RenderedCatalogCache::shutdown);
+    }
+
+    /** A node whose scheduled regeneration never fires on its own; tests run it explicitly. */
+    private RenderedCatalogCache node() {
+        RenderedCatalogCache node = new RenderedCatalogCache(redis, new CatalogNearCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5)),
+                new SimpleMeterRegistry(), 1 << 20, Duration.ofMinutes(5), Duration.ofHours(1), Duration.ofMinutes(1), 3_600_000);
+        nodes.add(node);
+        return node;
+    }
+
+    private Function<ProductId, Optional<Rendered>> counting(AtomicInteger renders, String json) {
+        return id -> {
+            renders.incrementAndGet();
+            return Optional.of(new Rendered(json.getBytes(StandardCharsets.UTF_8), updatedAt, List.of(variant)));
+        };
+    }
+
+    private static String text(Rendered r) {
+        return new String(r.body(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void a_product_is_rendered_once_and_then_served_by_every_node() {
+        AtomicInteger renders = new AtomicInteger();
+        RenderedCatalogCache a = node();
+
+        assertEquals("{\"name\":\"Café\"}", text(a.product(product, counting(renders, "{\"name\":\"Café\"}")).orElseThrow()));
+        assertEquals("{\"name\":\"Café\"}", text(a.product(product, counting(renders, "other")).orElseThrow()));
+        Rendered shared = node().product(product, counting(renders, "other")).orElseThrow();
+
+        assertEquals(1, renders.get());
+        assertEquals("{\"name\":\"Café\"}", text(shared));
+        assertEquals(updatedAt, shared.lastModified());
+        assertEquals(List.of(variant), shared.variants());
+        assertEquals(product.getId().toString(), store.get(RenderedCatalogCache.OWNER_PREFIX + variant.getId()));
+    }
+
+    @Test
+    void a_missing_product_is_not_cached() {
+        RenderedCatalogCache a = node();
+        AtomicInteger renders = new AtomicInteger();
+        Function<ProductId, Optional<Rendered>> none = id -> {
+            renders.incrementAndGet();
+            return Optional.empty();
+        };
+
+        assertTrue(a.product(product, none).isEmpty());
+        assertTrue(a.product(product, none).isEmpty());
+        assertEquals(2, renders.get());
+        assertTrue(store.isEmpty());
+    }
+
+    @Test
+    void a_changed_product_is_dropped_and_rendered_again_by_the_callbacks() {
+        RenderedCatalogCache a = node();
+        AtomicInteger renders = new AtomicInteger();
+        a.product(product, counting(renders, "old"));
+        List<ProductId> regenerated = new ArrayList<>();
+        a.regenerateWith(id -> {
+            regenerated.add(id);
+            a.product(id, counting(renders, "new"));
+        });
+
+        a.onProductChanged(product.getId());
+        a.onProductChanged(UUID.randomUUID());
+        a.regenerate();
+
+        // The product nobody cached is not rendered
+        assertEquals(List.of(product), regenerated);
+        assertEquals("new", text(a.product(product, counting(renders, "newer")).orElseThrow()));
+        assertTrue(store.get(RenderedCatalogCache.PRODUCT_PREFIX + product.getId()).endsWith("\nnew"));
+    }
+
+    @Test
+    void a_render_overtaken_by_a_change_is_not_stored() {
+        RenderedCatalogCache a = node();
+        AtomicInteger renders = new AtomicInteger();
+        Function<ProductId, Optional<Rendered>> racing = id -> {
+            // The product is written and announced while this request renders its old state
+            a.onProductChanged(id.getId());
+            return counting(renders, "old").apply(id);
+        };
+
+        assertEquals("old", text(a.product(product, racing).orElseThrow()));
+        assertFalse(store.containsKey(RenderedCatalogCache.PRODUCT_PREFIX + product.getId()));
+        assertFalse(store.containsKey(RenderedCatalogCache.OWNER_PREFIX + variant.getId()));
+
+        // A render that started after the change is stored
+        a.regenerate();
+        assertEquals("new", text(a.product(product, counting(renders, "new")).orElseThrow()));
+        assertTrue(store.get(RenderedCatalogCache.PRODUCT_PREFIX + product.getId()).endsWith("\nnew"));
+    }
+
+    @Test
+    void a_variant_change_reaches_its_product_through_the_shared_owner_key() {
+        AtomicInteger renders = new AtomicInteger();
+        node().product(product, counting(renders, "old"));
+        // Another node, which never held the product itself
+        RenderedCatalogCache b = node();
+        List<ProductId> regenerated = new ArrayList<>();
+        b.regenerateWith(regenerated::add);
+
+        b.onVariantChanged(variant.getId());
+        b.regenerate();
+
+        assertEquals(List.of(product), regenerated);
+        assertFalse(store.containsKey(RenderedCatalogCache.PRODUCT_PREFIX + product.getId()));
+    }
+
+    @Test
+    void pages_are_kept_per_catalog_version() {
+        RenderedCatalogCache a = node();
+        AtomicInteger renders = new AtomicInteger();
+        Supplier<Rendered> page = () -> {
+            renders.incrementAndGet();
+            return new Rendered(("[" + renders.get() + "]").getBytes(StandardCharsets.UTF_8), null, List.of());
+        };
+
+        assertEquals("[1]", text(a.page(7, "list;page=0", page)));
+        assertEquals("[1]", text(a.page(7, "list;page=0", page)));
+        assertEquals("[1]", text(node().page(7, "list;page=0", page)));
+        assertEquals("[2]", text(a.page(8, "list;page=0", page)));
+        assertEquals("[3]", text(a.page(8, "list;page=1", page)));
+    }
+
+    @Test
+    void redis_failures_degrade_to_rendering() {
+        doThrow(new RedisConnectionFailureException("down")).when(values).get(anyString());
+        doThrow(new RedisConnectionFailureException("down")).when(values).set(anyString(), anyString(), any(Duration.class));
+        AtomicInteger renders = new AtomicInteger();
+
+        assertEquals("fresh", text(node().product(product, counting(renders, "fresh")).orElseThrow()));
+        assertEquals(1, renders.get());
+    }
+}
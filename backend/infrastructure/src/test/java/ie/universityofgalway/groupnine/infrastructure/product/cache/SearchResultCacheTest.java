@@ -0,0 +1,293 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import ie.universityofgalway.groupnine.domain.product.*;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductPersistenceAdapter;
+import ie.universityofgalway.groupnine.infrastructure.product.search.EmbeddedProductSearch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SearchResultCacheTest {
+
+    private final Map<String, String> store = new ConcurrentHashMap<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private StringRedisTemplate redis;
+    private ValueOperations<String, String> values;
+    private CatalogVersion version;
+    private SearchResultCache cache;
+    private Product product;
+    private Function<List<UUID>, Map<UUID, Product>> lookup;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        redis = mock(StringRedisTemplate.class);
+        values = mock(ValueOperations.class);
+        when(redis.opsForValue()).thenReturn(values);
+        when(values.get(anyString())).thenAnswer(inv -> store.get(inv.<String>getArgument(0)));
+        doAnswer(inv -> store.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(values).set(anyString(), anyString(), any(Duration.class));
+        when(values.increment(CatalogVersion.KEY)).thenAnswer(inv -> {
+            long next = Long.parseLong(store.getOrDefault(CatalogVersion.KEY, "0")) + 1;
+            store.put(CatalogVersion.KEY, Long.toString(next));
+            return next;
+        });
+        version = new CatalogVersion(redis);
+        cache = new SearchResultCache(redis, version, registry, Duration.ofSeconds(30));
+        Variant variant = new Variant(new VariantId(UUID.randomUUID()), new Sku("SKU-1"),
+                new Money(new BigDecimal("5.00"), Currency.getInstance("EUR")), new Stock(10, 0), List.of(), null);
+        product = new Product(new ProductId(UUID.randomUUID()), "Beans", "d", "coffee", ProductStatus.ACTIVE,
+                List.of(variant), Instant.now(), Instant.now());
+        lookup = ids -> ids.contains(product.getId().getId()) ? Map.of(product.getId().getId(), product) : Map.of();
+    }
+
+    private static SearchQuery query(String key, String category, List<AttributeFilter> attributes) {
+        return SearchQuery.builder(key, category, 0, Integer.MAX_VALUE, SortRule.DEFAULT, attributes);
+    }
+
+    private Supplier<Page<Product>> counting(AtomicInteger calls, Pageable pageable) {
+        return () -> {
+            calls.incrementAndGet();
+            return new PageImpl<>(List.of(product), pageable, 41);
+        };
+    }
+
+    @Test
+    void equivalent_queries_share_a_canonical_form() {
+        String a = SearchResultCache.canonical(query("Moka", "Coffee", List.of(
+                new AttributeFilter("size", List.of("M")),
+                new AttributeFilter("color", List.of("Red", "blue", "red")))));
+        String b = SearchResultCache.canonical(query("moka", "coffee", List.of(
+                new AttributeFilter("color", List.of("BLUE", "red")),
+                new AttributeFilter("size", List.of("m")))));
+
+        assertEquals(a, b);
+        assertNotEquals(a, SearchResultCache.canonical(query("moka", "coffee", List.of())));
+        assertNotEquals(SearchResultCache.canonical(query("moka", null, null)),
+                SearchResultCache.canonical(query("moka ", null, null)));
+        // Attribute names are matched exactly by the search
+        assertNotEquals(SearchResultCache.canonical(query("", null, List.of(new AttributeFilter("Color", List.of("red"))))),
+                SearchResultCache.canonical(query("", null, List.of(new AttributeFilter("color", List.of("red"))))));
+    }
+
+    @Test
+    void a_keyword_cannot_imitate_other_fields() {
+        String injected = SearchResultCache.canonical(query("x;category=6:coffee", null, null));
+        String real = SearchResultCache.canonical(query("x", "coffee", null));
+        assertNotEquals(injected, real);
+    }
+
+    @Test
+    void second_identical_search_is_served_from_redis_and_hydrated_by_id() {
+        AtomicInteger calls = new AtomicInteger();
+        Pageable pageable = PageRequest.of(2, 10);
+        SearchQuery q = query("beans", null, null);
+
+        cache.page(q, pageable, counting(calls, pageable), lookup);
+        Page<Product> hit = cache.page(query("BEANS", null, null), pageable, counting(calls, pageable), lookup);
+
+        assertEquals(1, calls.get());
+        assertEquals(List.of(product), hit.getContent());
+        assertEquals(41, hit.getTotalElements());
+        assertEquals(2, hit.getNumber());
+        verify(values).set(startsWith(SearchResultCache.KEY_PREFIX + "0:"), contains(product.getId().getId().toString()),
+                eq(Duration.ofSeconds(30)));
+    }
+
+    @Test
+    void pages_and_cursors_are_cached_under_distinct_keys() {
+        AtomicInteger calls = new AtomicInteger();
+        SearchQuery q = query("beans", null, null);
+        Supplier<CursorPage<Product>> slice = () -> {
+            calls.incrementAndGet();
+            return new CursorPage<>(List.of(product), "next-cursor", null);
+        };
+
+        cache.page(q, PageRequest.of(0, 10), counting(calls, PageRequest.of(0, 10)), lookup);
+        cache.page(q, PageRequest.of(1, 10), counting(calls, PageRequest.of(1, 10)), lookup);
+        cache.slice(q, null, 10, false, slice, lookup);
+        CursorPage<Product> again = cache.slice(q, null, 10, false, slice, lookup);
+        cache.slice(q, "next-cursor", 10, false, slice, lookup);
+
+        assertEquals(4, calls.get());
+        assertEquals("next-cursor", again.nextCursor());
+        assertNull(again.totalElements());
+    }
+
+    @Test
+    void a_catalog_write_retires_cached_pages() {
+        AtomicInteger calls = new AtomicInteger();
+        Pageable pageable = PageRequest.of(0, 10);
+        SearchQuery q = query("beans", null, null);
+        RedisCatalogInvalidationAdapter invalidation =
+                new RedisCatalogInvalidationAdapter(redis, List.of(version), version);
+
+        cache.page(q, pageable, counting(calls, pageable), lookup);
+        invalidation.productChanged(product.getId());
+        cache.page(q, pageable, counting(calls, pageable), lookup);
+        cache.page(q, pageable, counting(calls, pageable), lookup);
+
+        assertEquals(2, calls.get());
+        assertEquals(1L, version.current());
+        assertTrue(store.keySet().stream().anyMatch(k -> k.startsWith(SearchResultCache.KEY_PREFIX + "1:")));
+    }
+
+    @Test
+    void a_product_that_no_longer_resolves_turns_the_hit_into_a_miss() {
+        AtomicInteger calls = new AtomicInteger();
+        Pageable pageable = PageRequest.of(0, 10);
+        SearchQuery q = query("beans", null, null);
+
+        cache.page(q, pageable, counting(calls, pageable), lookup);
+        cache.page(q, pageable, counting(calls, pageable), ids -> Map.of());
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void concurrent_identical_misses_run_one_search() throws Exception {
+        int threads = 8;
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Pageable pageable = PageRequest.of(0, 10);
+        Supplier<Page<Product>> slowSearch = () -> {
+            calls.incrementAndGet();
+            entered.countDown();
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new PageImpl<>(List.of(product), pageable, 1);
+        };
+        // Keep every caller on the miss path so they can only meet in the single-flight table
+        when(values.get(startsWith(SearchResultCache.KEY_PREFIX))).thenReturn(null);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Future<Page<Product>> first = pool.submit(() -> cache.page(query("beans", null, null), pageable, slowSearch, lookup));
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            List<Future<Page<Product>>> others = new ArrayList<>();
+            for (int i = 1; i < threads; i++) {
+                others.add(pool.submit(() -> cache.page(query("Beans", null, null), pageable, slowSearch, lookup)));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (coalesced() < threads - 1 && System.nanoTime() < deadline) Thread.sleep(5);
+            release.countDown();
+
+            Page<Product> leader = first.get(5, TimeUnit.SECONDS);
+            for (Future<Page<Product>> f : others) assertSame(leader, f.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+            assertEquals(threads - 1, coalesced());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private long coalesced() {
+        return (long) registry.get("catalog.search.cache").tag("result", "coalesced").counter().count();
+    }
+
+    @Test
+    void a_failed_search_is_not_cached_and_fails_its_caller() {
+        Pageable pageable = PageRequest.of(0, 10);
+        SearchQuery q = query("beans", null, null);
+
+        assertThrows(IllegalStateException.class, () -> cache.page(q, pageable, () -> {
+            throw new IllegalStateException("db down");
+        }, lookup));
+
+        AtomicInteger calls = new AtomicInteger();
+        cache.page(q, pageable, counting(calls, pageable), lookup);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void redis_outage_degrades_to_uncached_search() {
+        when(values.get(anyString())).thenThrow(new IllegalStateException("redis down"));
+        doThrow(new IllegalStateException("redis down")).when(values).set(anyString(), anyString(), any(Duration.class));
+        AtomicInteger calls = new AtomicInteger();
+        Pageable pageable = PageRequest.of(0, 10);
+
+        Page<Product> page = cache.page(query("beans", null, null), pageable, counting(calls, pageable), lookup);
+        cache.page(query("beans", null, null), pageable, counting(calls, pageable), lookup);
+
+        assertEquals(List.of(product), page.getContent());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void caching_port_routes_searches_through_the_result_cache() {
+        ProductPersistenceAdapter delegate = mock(ProductPersistenceAdapter.class);
+        CatalogNearCache near = new CatalogNearCache(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(5));
+        CachingProductPort port = new CachingProductPort(delegate, near, mock(EmbeddedProductSearch.class), cache);
+        Pageable pageable = PageRequest.of(0, 10);
+        SearchQuery q = query("beans", null, null);
+        when(delegate.search(q, pageable)).thenReturn(new PageImpl<>(List.of(product), pageable, 1));
+        when(delegate.findAllByIds(any())).thenReturn(Map.of(product.getId(), product));
+
+        port.search(q, pageable);
+        port.search(q, pageable);
+        port.search(q, pageable);
+
+        verify(delegate, times(1)).search(q, pageable);
+        verify(delegate, times(1)).findAllByIds(List.of(product.getId()));
+        verify(delegate, never()).findById(any());
+    }
+
+    @Test
+    void a_hit_loads_the_products_missing_from_the_near_cache_together_and_keeps_its_order() {
+        ProductPersistenceAdapter delegate = mock(ProductPersistenceAdapter.class);
+        CatalogNearCache near = new CatalogNearCache(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(5));
+        CachingProductPort port = new CachingProductPort(delegate, near, mock(EmbeddedProductSearch.class), cache);
+        Product second = new Product(new ProductId(UUID.randomUUID()), "Mug", "d", "coffee", ProductStatus.ACTIVE,
+                List.of(), Instant.now(), Instant.now());
+        Product third = new Product(new ProductId(UUID.randomUUID()), "Kettle", "d", "coffee", ProductStatus.ACTIVE,
+                List.of(), Instant.now(), Instant.now());
+        Pageable pageable = PageRequest.of(0, 10);
+        SearchQuery q = query("beans", null, null);
+        when(delegate.search(q, pageable)).thenReturn(new PageImpl<>(List.of(third, product, second), pageable, 3));
+        port.search(q, pageable);
+        near.products().get(product.getId().getId(), id -> Optional.of(product));
+        when(delegate.findAllByIds(any())).thenReturn(Map.of(second.getId(), second, third.getId(), third));
+
+        Page<Product> hit = port.search(q, pageable);
+
+        assertEquals(List.of(third, product, second), hit.getContent());
+        verify(delegate, times(1)).search(q, pageable);
+        verify(delegate, times(1)).findAllByIds(List.of(third.getId(), second.getId()));
+        verify(delegate, never()).findById(any());
+    }
+}
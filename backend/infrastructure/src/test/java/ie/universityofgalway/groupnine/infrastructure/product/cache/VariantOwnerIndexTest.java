@@ -0,0 +1,51 @@
+package ie.universityofgalway.groupnine.infrastructure.product.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VariantOwnerIndexTest {
+
+    @Test
+    void answers_for_the_pairs_it_holds_only() {
+        UUID product = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        Map<UUID, UUID> owners = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) owners.put(UUID.randomUUID(), i % 2 == 0 ? product : other);
+
+        VariantOwnerIndex index = VariantOwnerIndex.build(owners);
+
+        assertEquals(5_000, index.size());
+        owners.forEach((variant, owner) -> {
+            assertTrue(index.contains(owner, variant));
+            assertFalse(index.contains(owner == product ? other : product, variant));
+        });
+        assertFalse(index.contains(product, UUID.randomUUID()));
+        assertFalse(index.contains(product, new UUID(0, 0)));
+        assertFalse(VariantOwnerIndex.EMPTY.contains(product, UUID.randomUUID()));
+    }
+
+    @Test
+    void changes_replace_the_variants_of_changed_products_and_variants() {
+        UUID kept = UUID.randomUUID(), deleted = UUID.randomUUID(), moved = UUID.randomUUID(), added = UUID.randomUUID();
+        UUID p1 = UUID.randomUUID(), p2 = UUID.randomUUID(), p3 = UUID.randomUUID();
+        VariantOwnerIndex before = VariantOwnerIndex.build(Map.of(kept, p1, deleted, p2, moved, p2));
+
+        // p2 was re-read: it has lost 'deleted'; 'moved' now belongs to p3; 'added' is new on p1
+        VariantOwnerIndex after = before.with(Map.of(moved, p3, added, p1), Set.of(p2), Set.of(moved, added));
+
+        assertTrue(after.contains(p1, kept));
+        assertFalse(after.contains(p2, deleted));
+        assertFalse(after.contains(p2, moved));
+        assertTrue(after.contains(p3, moved));
+        assertTrue(after.contains(p1, added));
+        assertEquals(3, after.size());
+        // the old index is left as it was
+        assertTrue(before.contains(p2, deleted));
+    }
+}
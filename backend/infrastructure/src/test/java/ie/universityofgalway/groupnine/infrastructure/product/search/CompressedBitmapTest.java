@@ -0,0 +1,71 @@
+package ie.universityofgalway.groupnine.infrastructure.product.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedBitmapTest {
+
+    @Test
+    @DisplayName("and/or/contains agree with BitSet for sparse, dense and multi-chunk sets")
+    void matchesBitSet() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            BitSet a = randomSet(random);
+            BitSet b = randomSet(random);
+            CompressedBitmap x = of(a);
+            CompressedBitmap y = of(b);
+
+            BitSet and = (BitSet) a.clone();
+            and.and(b);
+            BitSet or = (BitSet) a.clone();
+            or.or(b);
+
+            assertArrayEquals(and.stream().toArray(), x.and(y).toArray());
+            assertArrayEquals(or.stream().toArray(), x.or(y).toArray());
+            assertEquals(or.cardinality(), CompressedBitmap.orAll(List.of(x, y)).cardinality());
+            for (int probe = 0; probe < 200; probe++) {
+                int v = random.nextInt(200_000);
+                assertEquals(a.get(v), x.contains(v));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("ranges, empties and ordering rules")
+    void edges() {
+        assertEquals(70_000, CompressedBitmap.range(70_000).cardinality());
+        assertTrue(CompressedBitmap.range(70_000).contains(69_999));
+        assertFalse(CompressedBitmap.range(70_000).contains(70_000));
+        assertTrue(CompressedBitmap.EMPTY.and(CompressedBitmap.range(10)).isEmpty());
+        assertEquals(10, CompressedBitmap.EMPTY.or(CompressedBitmap.range(10)).cardinality());
+        assertTrue(CompressedBitmap.orAll(List.of()).isEmpty());
+
+        CompressedBitmap.Builder builder = new CompressedBitmap.Builder();
+        builder.add(5);
+        assertThrows(IllegalArgumentException.class, () -> builder.add(5));
+    }
+
+    private static BitSet randomSet(Random random) {
+        BitSet set = new BitSet();
+        int chunks = 1 + random.nextInt(3);
+        for (int c = 0; c < chunks; c++) {
+            int base = random.nextInt(3) << 16;
+            double density = random.nextBoolean() ? 0.01 : 0.3;
+            for (int i = 0; i < 65_536; i++) {
+                if (random.nextDouble() < density) set.set(base + i);
+            }
+        }
+        return set;
+    }
+
+    private static CompressedBitmap of(BitSet set) {
+        int[] values = set.stream().toArray();
+        return CompressedBitmap.ofSorted(values, values.length);
+    }
+}
@@ -0,0 +1,176 @@
+package ie.universityofgalway.groupnine.infrastructure.product.search;
+
+import ie.universityofgalway.groupnine.domain.product.*;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductPersistenceAdapter;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductPersistenceAdapter.CatalogEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmbeddedProductSearchTest {
+
+    private static final SearchQuery ALL = SearchQuery.builder("", null, 0, Integer.MAX_VALUE, SortRule.DEFAULT, List.of());
+
+    private final ProductPersistenceAdapter source = mock(ProductPersistenceAdapter.class);
+    private final EmbeddedProductSearch search = new EmbeddedProductSearch(source, 2, 0);
+    /** Updates only when a test calls {@link EmbeddedProductSearch#update()}. */
+    private final EmbeddedProductSearch manual = new EmbeddedProductSearch(source, 2, 3_600_000);
+
+    @AfterEach
+    void stop() {
+        search.shutdown();
+        manual.shutdown();
+    }
+
+    @Test
+    @DisplayName("is not ready and refuses searches until the first build")
+    void notReadyBeforeBuild() {
+        assertFalse(search.isReady());
+        assertThrows(IllegalStateException.class, () -> search.search(ALL, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    @DisplayName("scans the catalog in keyset batches until a short batch")
+    void scansInBatches() {
+        when(source.scanAfter(isNull(), eq(2))).thenReturn(List.of(entry(1, "Moka Pot"), entry(4, "Kettle")));
+        when(source.scanAfter(eq(4L), eq(2))).thenReturn(List.of(entry(9, "Grinder")));
+
+        search.onApplicationReady();
+
+        assertTrue(search.isReady());
+        assertEquals(3, search.search(ALL, PageRequest.of(0, 10)).getTotalElements());
+        verify(source, times(2)).scanAfter(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("a failed rebuild keeps serving the previous index")
+    void failedRebuild_keepsOldIndex() {
+        when(source.scanAfter(any(), anyInt()))
+                .thenReturn(List.of(entry(1, "Moka Pot")))
+                .thenThrow(new IllegalStateException("db down"));
+        search.rebuild();
+        search.rebuild();
+
+        assertEquals(1, search.search(ALL, PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    @DisplayName("catalog changes before the first build trigger a background build")
+    void changes_rebuildInBackground() {
+        when(source.scanAfter(any(), anyInt())).thenReturn(List.of(entry(1, "French Press")));
+
+        search.onProductChanged(UUID.randomUUID());
+        search.onVariantChanged(UUID.randomUUID());
+
+        verify(source, timeout(2000).atLeastOnce()).scanAfter(any(), anyInt());
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!search.isReady() && System.currentTimeMillis() < deadline) Thread.onSpinWait();
+        SearchQuery french = SearchQuery.builder("french", null, 0, Integer.MAX_VALUE, SortRule.DEFAULT, List.of());
+        assertEquals("French Press", search.search(french, PageRequest.of(0, 10)).getContent().get(0).getName());
+    }
+
+    @Test
+    @DisplayName("catalog changes read back only the changed products and merge them in")
+    void changes_mergeChangedProducts() {
+        CatalogEntry kettle = entry(1, "Kettle");
+        CatalogEntry grinder = entry(4, "Grinder");
+        CatalogEntry mug = entry(9, "Mug");
+        when(source.scanAfter(isNull(), eq(2))).thenReturn(List.of(kettle, grinder));
+        when(source.scanAfter(eq(4L), eq(2))).thenReturn(List.of(mug));
+        manual.rebuild();
+        UUID kettleId = kettle.product().getId().getId();
+        UUID mugVariant = mug.product().getVariants().get(0).getId().getId();
+        CatalogEntry renamed = new CatalogEntry(1, new Product(kettle.product().getId(), "Gooseneck Kettle", null, "coffee",
+                ProductStatus.ACTIVE, kettle.product().getVariants(), Instant.now(), Instant.now()));
+        // The kettle was renamed and the mug's only variant deleted, so the database no longer finds it by variant
+        when(source.scanChanged(anyCollection(), anyCollection())).thenReturn(List.of(renamed,
+                new CatalogEntry(9, new Product(mug.product().getId(), "Mug", null, "coffee", ProductStatus.ACTIVE,
+                        List.of(), Instant.now(), Instant.now()))));
+
+        manual.onProductChanged(kettleId);
+        manual.onVariantsChanged(List.of(mugVariant));
+        manual.update();
+
+        verify(source).scanChanged(eq(Set.of(kettleId, mug.product().getId().getId())), eq(Set.of(mugVariant)));
+        verify(source, times(2)).scanAfter(any(), anyInt());
+        assertEquals(List.of("Gooseneck Kettle", "Grinder"),
+                manual.search(ALL, PageRequest.of(0, 10)).getContent().stream().map(Product::getName).toList());
+    }
+
+    @Test
+    @DisplayName("a failed update keeps the old index and retries the same changes")
+    void failedUpdate_isRetried() {
+        CatalogEntry kettle = entry(1, "Kettle");
+        when(source.scanAfter(any(), anyInt())).thenReturn(List.of(kettle));
+        manual.rebuild();
+        UUID kettleId = kettle.product().getId().getId();
+        when(source.scanChanged(anyCollection(), anyCollection()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(List.of());
+
+        manual.onProductChanged(kettleId);
+        manual.update();
+        assertEquals(1, manual.search(ALL, PageRequest.of(0, 10)).getTotalElements());
+        manual.update();
+
+        verify(source, times(2)).scanChanged(eq(Set.of(kettleId)), eq(Set.of()));
+        assertEquals(0, manual.search(ALL, PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    @DisplayName("price bounds and attribute filters must hold for one variant")
+    void priceAndAttributes_matchOneVariant() {
+        when(source.scanAfter(any(), anyInt())).thenReturn(List.of(
+                entry(1, "Mug", variant("5.00", "Red"), variant("20.00", "Blue")),
+                entry(2, "Cup", variant("8.00", "blue"))));
+        manual.rebuild();
+
+        assertEquals(List.of("Cup"), names(query(0, 1000, "BLUE")));
+        assertEquals(List.of("Mug", "Cup"), names(query(0, Integer.MAX_VALUE, "blue")));
+        assertEquals(List.of("Mug"), names(query(0, 1000, "red")));
+        assertEquals(List.of(), names(query(1000, Integer.MAX_VALUE, "red")));
+    }
+
+    private static SearchQuery query(int min, int max, String color) {
+        return SearchQuery.builder("", null, min, max, SortRule.DEFAULT, List.of(new AttributeFilter("color", List.of(color))));
+    }
+
+    private List<String> names(SearchQuery q) {
+        return manual.search(q, PageRequest.of(0, 10)).getContent().stream().map(Product::getName).toList();
+    }
+
+    @Test
+    @DisplayName("rejects a non-positive scan batch size")
+    void rejectsBadBatchSize() {
+        assertThrows(IllegalArgumentException.class, () -> new EmbeddedProductSearch(source, 0, 0));
+    }
+
+    private static CatalogEntry entry(long id, String name) {
+        Variant variant = new Variant(new VariantId(UUID.randomUUID()), new Sku("SKU-" + id),
+                new Money(new BigDecimal("5.00"), Currency.getInstance("EUR")), new Stock(1, 0), List.of(), null);
+        return entry(id, name, variant);
+    }
+
+    private static CatalogEntry entry(long id, String name, Variant... variants) {
+        return new CatalogEntry(id, new Product(new ProductId(UUID.randomUUID()), name, null, "coffee",
+                ProductStatus.ACTIVE, List.of(variants), Instant.now(), Instant.now()));
+    }
+
+    private static Variant variant(String price, String color) {
+        return new Variant(new VariantId(UUID.randomUUID()), new Sku("SKU-" + UUID.randomUUID()),
+                new Money(new BigDecimal(price), Currency.getInstance("EUR")), new Stock(1, 0),
+                List.of(new Attribute("color", color)), null);
+    }
+}
@@ -0,0 +1,45 @@
+package ie.universityofgalway.groupnine.infrastructure.product.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Expected values are what Postgres returns for the same expressions.
+ */
+class PgTextMatchingTest {
+
+    @Test
+    @DisplayName("trigrams and similarity follow pg_trgm")
+    void trigramSimilarity() {
+        // SELECT show_trgm('Cat')  ->  {"  c"," ca","at ","cat"}
+        assertEquals(4, PgTextMatching.trigrams("Cat").length);
+        // SELECT similarity('word', 'two words')  ->  0.36363637
+        assertEquals(0.36363637f, PgTextMatching.similarity(
+                PgTextMatching.trigrams("word"), PgTextMatching.trigrams("two words")));
+        assertEquals(1f, PgTextMatching.similarity(
+                PgTextMatching.trigrams("Moka-Pot!"), PgTextMatching.trigrams("moka pot")));
+        assertEquals(0f, PgTextMatching.similarity(PgTextMatching.trigrams(""), PgTextMatching.trigrams("x")));
+        assertEquals(0, PgTextMatching.trigrams(" -- ").length);
+    }
+
+    @Test
+    @DisplayName("words are distinct lower-cased letter/digit runs")
+    void words() {
+        assertArrayEquals(new String[]{"2", "cup", "moka", "pot"}, PgTextMatching.words("Moka pot, 2-cup MOKA"));
+        assertEquals(0, PgTextMatching.words("!!").length);
+    }
+
+    @Test
+    @DisplayName("ILIKE '%key%' honours wildcards and escapes")
+    void containsLike() {
+        assertTrue(PgTextMatching.containsLike("moka pot 100% steel", "POT"));
+        assertTrue(PgTextMatching.containsLike("moka pot", "m_ka"));
+        assertTrue(PgTextMatching.containsLike("moka pot", "k%t"));
+        assertFalse(PgTextMatching.containsLike("moka pot", "t%k"));
+        assertTrue(PgTextMatching.containsLike("100% steel", "0\\%"));
+        assertFalse(PgTextMatching.containsLike("1000 steel", "0\\%"));
+        assertTrue(PgTextMatching.containsLike("a b", " "));
+    }
+}
@@ -0,0 +1,78 @@
+package ie.universityofgalway.groupnine.infrastructure.product.suggest;
+
+import ie.universityofgalway.groupnine.domain.product.ProductSuggestion;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSummaryView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InMemoryProductSuggestionAdapterTest {
+
+    private final ProductJpaRepository repo = mock(ProductJpaRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final InMemoryProductSuggestionAdapter adapter = new InMemoryProductSuggestionAdapter(repo, registry, 0);
+
+    @AfterEach
+    void stop() {
+        adapter.shutdown();
+    }
+
+    @Test
+    @DisplayName("index is empty until built and then serves names and categories")
+    void buildsOnReady() {
+        UUID id = UUID.randomUUID();
+        when(repo.findSuggestionSources()).thenReturn(List.of(row(id, "Moka Pot", "Coffee")));
+        assertTrue(adapter.suggest("mo", 5).isEmpty());
+
+        adapter.onApplicationReady();
+
+        List<ProductSuggestion> found = adapter.suggest("mo", 5);
+        assertEquals(1, found.size());
+        assertEquals(id, found.get(0).productId().getId());
+        assertEquals(ProductSuggestion.Type.CATEGORY, adapter.suggest("cof", 5).get(0).type());
+        assertEquals(2.0, registry.get("catalog.suggest.entries").gauge().value());
+        assertEquals(3, registry.get("catalog.suggest.latency").timer().count());
+    }
+
+    @Test
+    @DisplayName("a failed rebuild keeps serving the previous index")
+    void failedRebuild_keepsOldIndex() {
+        when(repo.findSuggestionSources())
+                .thenReturn(List.of(row(UUID.randomUUID(), "Moka Pot", "Coffee")))
+                .thenThrow(new IllegalStateException("db down"));
+        adapter.rebuild();
+        adapter.rebuild();
+
+        assertEquals(1, adapter.suggest("moka", 5).size());
+    }
+
+    @Test
+    @DisplayName("catalog changes trigger a background rebuild")
+    void changes_rebuildInBackground() {
+        when(repo.findSuggestionSources()).thenReturn(List.of(row(UUID.randomUUID(), "French Press", "Coffee")));
+
+        adapter.onProductChanged(UUID.randomUUID());
+        adapter.onVariantChanged(UUID.randomUUID());
+
+        verify(repo, timeout(2000).atLeastOnce()).findSuggestionSources();
+        long deadline = System.currentTimeMillis() + 2000;
+        while (adapter.suggest("french", 5).isEmpty() && System.currentTimeMillis() < deadline) Thread.onSpinWait();
+        assertEquals("French Press", adapter.suggest("french", 5).get(0).text());
+    }
+
+    private static ProductSummaryView row(UUID uuid, String name, String category) {
+        ProductSummaryView row = mock(ProductSummaryView.class);
+        when(row.getUuid()).thenReturn(uuid);
+        when(row.getName()).thenReturn(name);
+        when(row.getCategory()).thenReturn(category);
+        return row;
+    }
+}
@@ -0,0 +1,90 @@
+package ie.universityofgalway.groupnine.infrastructure.product.suggest;
+
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.ProductSuggestion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionIndexTest {
+
+    private static final SuggestionIndex INDEX = SuggestionIndex.build(List.of(
+            product("Espresso Machine"),
+            product("Espresso Cups"),
+            product("Coffee Grinder"),
+            product("Café Crème Mug"),
+            product("Electric Kettle"),
+            category("Coffee"),
+            category("coffee "),
+            category("Kitchen")
+    ));
+
+    @Test
+    @DisplayName("prefix matches come in rank order: categories, then shorter names")
+    void prefix_ranked() {
+        assertEquals(List.of("Coffee", "Coffee Grinder"), texts(INDEX.suggest("co", 5)));
+        assertEquals(List.of("Espresso Cups", "Electric Kettle", "Espresso Machine"), texts(INDEX.suggest("E", 5)));
+    }
+
+    @Test
+    @DisplayName("any word of a name can be completed, and accents and punctuation are ignored")
+    void wordStarts_andNormalization() {
+        assertEquals(List.of("Espresso Machine"), texts(INDEX.suggest("mach", 5)));
+        assertEquals(List.of("Café Crème Mug"), texts(INDEX.suggest("  CAFE-cre", 5)));
+        assertEquals(List.of("Kitchen", "Electric Kettle"), texts(INDEX.suggest("k", 5)));
+    }
+
+    @Test
+    @DisplayName("typos fall back to trigram matches after the prefix matches")
+    void fuzzy_fillsUp() {
+        assertEquals(List.of("Espresso Cups", "Espresso Machine"), texts(INDEX.suggest("espreso", 5)));
+        assertEquals(List.of("Electric Kettle"), texts(INDEX.suggest("kettel", 5)));
+        assertTrue(INDEX.suggest("zzz", 5).isEmpty());
+        assertTrue(INDEX.suggest("zq", 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("categories are de-duplicated and products keep their id")
+    void entries_deduplicated() {
+        assertEquals(7, INDEX.size());
+        ProductSuggestion top = INDEX.suggest("grinder", 1).get(0);
+        assertEquals(ProductSuggestion.Type.PRODUCT, top.type());
+        assertNotNull(top.productId());
+    }
+
+    @Test
+    @DisplayName("limit is honoured and capped at TOP_K")
+    void limit_capped() {
+        List<ProductSuggestion> many = new ArrayList<>();
+        for (int i = 0; i < 30; i++) many.add(product("Tea Blend " + (char) ('a' + i % 26) + i));
+        SuggestionIndex index = SuggestionIndex.build(many);
+
+        assertEquals(3, index.suggest("tea", 3).size());
+        assertEquals(SuggestionIndex.TOP_K, index.suggest("tea", 50).size());
+        assertEquals("Tea Blend a0", index.suggest("blend", 1).get(0).text());
+    }
+
+    @Test
+    @DisplayName("blank queries and the empty index return nothing")
+    void emptyCases() {
+        assertTrue(INDEX.suggest("  - ", 5).isEmpty());
+        assertTrue(SuggestionIndex.EMPTY.suggest("coffee", 5).isEmpty());
+    }
+
+    private static ProductSuggestion product(String name) {
+        return new ProductSuggestion(name, ProductSuggestion.Type.PRODUCT, new ProductId(UUID.randomUUID()));
+    }
+
+    private static ProductSuggestion category(String name) {
+        return new ProductSuggestion(name, ProductSuggestion.Type.CATEGORY, null);
+    }
+
+    private static List<String> texts(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::text).toList();
+    }
+}
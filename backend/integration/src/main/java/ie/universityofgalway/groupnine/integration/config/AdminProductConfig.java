@@ -1,7 +1,13 @@
 package ie.universityofgalway.groupnine.integration.config;
 
+import ie.universityofgalway.groupnine.service.product.port.CatalogExportPort;
+import ie.universityofgalway.groupnine.service.product.port.CatalogImportPort;
+import ie.universityofgalway.groupnine.service.product.port.CatalogInvalidationPort;
 import ie.universityofgalway.groupnine.service.product.port.ProductPort;
+import ie.universityofgalway.groupnine.service.product.port.VariantBulkUpdatePort;
 import ie.universityofgalway.groupnine.service.product.admin.usecase.*;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,21 +21,47 @@ public class AdminProductConfig {
     public GetProductUseCase getProductUseCase(ProductPort port) { return new GetProductUseCase(port); }
 
     @Bean
-    public UpdateProductUseCase updateProductUseCase(ProductPort port) { return new UpdateProductUseCase(port); }
+    public UpdateProductUseCase updateProductUseCase(ProductPort port, ObjectProvider<CatalogInvalidationPort> invalidation) {
+        return new UpdateProductUseCase(port, invalidation.getIfAvailable());
+    }
 
     @Bean
-    public DeleteProductUseCase deleteProductUseCase(ProductPort port) { return new DeleteProductUseCase(port); }
+    public DeleteProductUseCase deleteProductUseCase(ProductPort port, ObjectProvider<CatalogInvalidationPort> invalidation) {
+        return new DeleteProductUseCase(port, invalidation.getIfAvailable());
+    }
 
     @Bean
-    public AddVariantUseCase addVariantUseCase(ProductPort port) { return new AddVariantUseCase(port); }
+    public AddVariantUseCase addVariantUseCase(ProductPort port, ObjectProvider<CatalogInvalidationPort> invalidation) {
+        return new AddVariantUseCase(port, invalidation.getIfAvailable());
+    }
 
     @Bean
-    public UpdateVariantUseCase updateVariantUseCase(ProductPort port) { return new UpdateVariantUseCase(port); }
+    public UpdateVariantUseCase updateVariantUseCase(ProductPort port, ObjectProvider<CatalogInvalidationPort> invalidation) {
+        return new UpdateVariantUseCase(port, invalidation.getIfAvailable());
+    }
 
     @Bean
-    public DeleteVariantUseCase deleteVariantUseCase(ProductPort port) { return new DeleteVariantUseCase(port); }
+    public DeleteVariantUseCase deleteVariantUseCase(ProductPort port, ObjectProvider<CatalogInvalidationPort> invalidation) {
+        return new DeleteVariantUseCase(port, invalidation.getIfAvailable());
+    }
 
     @Bean
     public ListProductsUseCase listProductsUseCase(ProductPort port) { return new ListProductsUseCase(port); }
-}
 
+    @Bean
+    public ImportCatalogUseCase importCatalogUseCase(CatalogImportPort port,
+                                                     ObjectProvider<CatalogInvalidationPort> invalidation,
+                                                     @Value("${app.catalog.import.batch-size:1000}") int batchSize) {
+        return new ImportCatalogUseCase(port, invalidation.getIfAvailable(), batchSize);
+    }
+
+    @Bean
+    public BulkUpdateVariantsUseCase bulkUpdateVariantsUseCase(VariantBulkUpdatePort port,
+                                                               ObjectProvider<CatalogInvalidationPort> invalidation,
+                                                               @Value("${app.catalog.bulk-update.chunk-size:1000}") int chunkSize) {
+        return new BulkUpdateVariantsUseCase(port, invalidation.getIfAvailable(), chunkSize);
+    }
+
+    @Bean
+    public ExportCatalogUseCase exportCatalogUseCase(CatalogExportPort port) { return new ExportCatalogUseCase(port); }
+}
@@ -1,9 +1,12 @@
 package ie.universityofgalway.groupnine.integration.config;
 
 import ie.universityofgalway.groupnine.service.product.admin.usecase.UploadVariantImageUseCase;
+import ie.universityofgalway.groupnine.service.product.port.EnqueueImageRenditionPort;
 import ie.universityofgalway.groupnine.service.product.port.ImageStoragePort;
 import ie.universityofgalway.groupnine.service.product.port.ProductPort;
+import ie.universityofgalway.groupnine.service.product.port.VariantExistencePort;
 import ie.universityofgalway.groupnine.service.product.usecase.GetVariantImageUseCase;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -11,13 +14,15 @@ import org.springframework.context.annotation.Configuration;
 public class ProductImageConfig {
 
     @Bean
-    public UploadVariantImageUseCase uploadVariantImageUseCase(ProductPort products, ImageStoragePort images) {
-        return new UploadVariantImageUseCase(products, images);
+    public UploadVariantImageUseCase uploadVariantImageUseCase(ProductPort products, ImageStoragePort images,
+                                                               ObjectProvider<EnqueueImageRenditionPort> renditions) {
+        return new UploadVariantImageUseCase(products, images, renditions.getIfAvailable());
     }
 
     @Bean
-    public GetVariantImageUseCase getVariantImageUseCase(ProductPort products, ImageStoragePort images) {
-        return new GetVariantImageUseCase(products, images);
+    public GetVariantImageUseCase getVariantImageUseCase(ProductPort products, ImageStoragePort images,
+                                                         VariantExistencePort existence) {
+        return new GetVariantImageUseCase(products, images, existence);
     }
 }
 
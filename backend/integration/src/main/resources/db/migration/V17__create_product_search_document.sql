@@ -0,0 +1,72 @@
+-- =========================================================
+-- V17__create_product_search_document.sql
+-- Denormalized, one-row-per-product read model for catalog search
+-- =========================================================
+
+-- ---------- Search Document Table ----------
+-- Holds everything the search endpoint filters and sorts on, pre-aggregated
+-- from products + product_variants so a search never joins or groups variants.
+CREATE TABLE IF NOT EXISTS product_search_document
+(
+    product_id       BIGINT PRIMARY KEY REFERENCES products(id) ON DELETE CASCADE,
+    product_uuid     UUID        NOT NULL,
+    category_lc      VARCHAR(60) NOT NULL,
+    search_name      TEXT        NOT NULL,
+    search_text      TEXT        NOT NULL,
+    search_tsv       TSVECTOR    NOT NULL,
+    min_price_cents  INT,
+    max_price_cents  INT,
+    variant_count    INT         NOT NULL DEFAULT 0,
+    is_available     BOOLEAN     NOT NULL DEFAULT FALSE,
+    attribute_tokens TEXT[]      NOT NULL DEFAULT '{}',
+    created_at       TIMESTAMPTZ NOT NULL,
+    refreshed_at     TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+-- ---------- Indexes for Performance ----------
+CREATE INDEX IF NOT EXISTS idx_psd_category ON product_search_document (category_lc);
+CREATE INDEX IF NOT EXISTS idx_psd_min_price ON product_search_document (min_price_cents);
+CREATE INDEX IF NOT EXISTS idx_psd_max_price ON product_search_document (max_price_cents);
+CREATE INDEX IF NOT EXISTS idx_psd_created_at ON product_search_document (created_at DESC);
+
+CREATE INDEX IF NOT EXISTS idx_psd_search_name_trgm
+    ON product_search_document USING gin (search_name gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_psd_search_text_trgm
+    ON product_search_document USING gin (search_text gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_psd_search_tsv
+    ON product_search_document USING gin (search_tsv);
+
+CREATE INDEX IF NOT EXISTS idx_psd_attribute_tokens
+    ON product_search_document USING gin (attribute_tokens);
+
+-- ---------- Backfill ----------
+-- Same aggregation as ProductSearchDocumentJpaRepository#refreshForProduct, applied to every product.
+INSERT INTO product_search_document (product_id, product_uuid, category_lc, search_name, search_text, search_tsv,
+                                     min_price_cents, max_price_cents, variant_count, is_available,
+                                     attribute_tokens, created_at, refreshed_at)
+SELECT p.id,
+       p.uuid,
+       lower(p.category),
+       lower(p.name),
+       lower(p.name || ' ' || coalesce(p.description, '')),
+       to_tsvector('simple', p.name || ' ' || coalesce(p.description, '')),
+       MIN(v.price_cents),
+       MAX(v.price_cents),
+       COUNT(v.id),
+       coalesce(bool_or(v.is_available), FALSE),
+       coalesce((SELECT array_agg(DISTINCT a.key || '=' || lower(e.val))
+                 FROM product_variants av
+                          CROSS JOIN LATERAL jsonb_each(av.attributes) AS a(key, val)
+                          CROSS JOIN LATERAL jsonb_array_elements_text(
+                         CASE WHEN jsonb_typeof(a.val) = 'array' THEN a.val ELSE jsonb_build_array(a.val) END
+                                             ) AS e(val)
+                 WHERE av.product_id = p.id
+                   AND av.attributes IS NOT NULL), '{}'),
+       p.created_at,
+       NOW()
+FROM products p
+         LEFT JOIN product_variants v ON v.product_id = p.id
+GROUP BY p.id
+ON CONFLICT (product_id) DO NOTHING;
@@ -0,0 +1,34 @@
+-- =========================================================
+-- V18__search_shape_indexes.sql
+-- Partial indexes matching the per-shape search statements of ProductSearchSql
+-- =========================================================
+
+-- Every search statement filters on variant_count > 0 and orders (or resumes) by one sort
+-- column followed by product_id, so each sort order gets a partial index ending in product_id.
+-- These replace the plain single-column indexes from V17, which could serve neither the
+-- tiebreaker nor the keyset predicates.
+DROP INDEX IF EXISTS idx_psd_min_price;
+DROP INDEX IF EXISTS idx_psd_max_price;
+DROP INDEX IF EXISTS idx_psd_created_at;
+
+-- ---------- Sort Orders ----------
+-- DEFAULT
+CREATE INDEX IF NOT EXISTS idx_psd_search_id
+    ON product_search_document (product_id) WHERE variant_count > 0;
+
+-- PRICE_LOW_TO_HIGH, and the maxPrice bound (min_price_cents <= :maxPrice)
+CREATE INDEX IF NOT EXISTS idx_psd_search_min_price
+    ON product_search_document (min_price_cents, product_id) WHERE variant_count > 0;
+
+-- PRICE_HIGH_TO_LOW, and the minPrice bound (max_price_cents >= :minPrice)
+CREATE INDEX IF NOT EXISTS idx_psd_search_max_price
+    ON product_search_document (max_price_cents DESC, product_id) WHERE variant_count > 0;
+
+-- NEWEST_FIRST
+CREATE INDEX IF NOT EXISTS idx_psd_search_created
+    ON product_search_document (created_at DESC, product_id) WHERE variant_count > 0;
+
+-- ---------- Category ----------
+-- Category pages in the default order; idx_psd_category stays for the availability listing.
+CREATE INDEX IF NOT EXISTS idx_psd_search_category
+    ON product_search_document (category_lc, product_id) WHERE variant_count > 0;
@@ -0,0 +1,28 @@
+-- =========================================================
+-- V19__search_rank_tsv.sql
+-- Weighted full-text vector for the RELEVANCE sort
+-- =========================================================
+
+-- ---------- Column ----------
+-- Name (A) > category (B) > description (C) > attribute values (D), ranked with ts_rank_cd.
+-- search_tsv keeps matching name and description only for the other sort orders.
+ALTER TABLE product_search_document
+    ADD COLUMN IF NOT EXISTS search_rank_tsv TSVECTOR NOT NULL DEFAULT ''::tsvector;
+
+-- ---------- Backfill ----------
+-- Same expression as ProductSearchDocumentJpaRepository#REFRESH_SELECT; attribute values are
+-- recovered from the key=value tokens already stored on the document.
+UPDATE product_search_document d
+SET search_rank_tsv =
+        setweight(to_tsvector('simple', p.name), 'A')
+            || setweight(to_tsvector('simple', coalesce(p.category, '')), 'B')
+            || setweight(to_tsvector('simple', coalesce(p.description, '')), 'C')
+            || setweight(to_tsvector('simple', coalesce((SELECT string_agg(DISTINCT substr(t.tok, strpos(t.tok, '=') + 1), ' ')
+                                                         FROM unnest(d.attribute_tokens) AS t(tok)), '')), 'D')
+FROM products p
+WHERE p.id = d.product_id;
+
+-- ---------- Index ----------
+-- Only searchable documents are ever matched, as for the V18 indexes.
+CREATE INDEX IF NOT EXISTS idx_psd_search_rank_tsv
+    ON product_search_document USING gin (search_rank_tsv) WHERE variant_count > 0;
@@ -0,0 +1,45 @@
+-- =========================================================
+-- V20__variant_attribute_values.sql
+-- Dictionary-encoded projection of variant attributes for attribute filters
+-- =========================================================
+
+-- product_variants.attributes stays the source of truth. These tables are rebuilt from it per
+-- product on every catalog write (ProductPersistenceAdapter) and filled for rows written before
+-- this migration by VariantAttributeIndexBackfill once the application starts, so this
+-- migration does not rewrite the catalog.
+
+-- ---------- Dictionaries ----------
+-- Attribute names are matched exactly
+CREATE TABLE IF NOT EXISTS attribute_keys
+(
+    id   SERIAL PRIMARY KEY,
+    name TEXT NOT NULL UNIQUE
+);
+
+-- Attribute values are matched case-insensitively, so they are stored lower-cased
+CREATE TABLE IF NOT EXISTS attribute_values
+(
+    id       SERIAL PRIMARY KEY,
+    value_lc TEXT NOT NULL UNIQUE
+);
+
+-- ---------- Projection ----------
+-- One row per (variant, attribute name, attribute value); product_id is carried along so a
+-- filter resolves to product ids without touching product_variants.
+CREATE TABLE IF NOT EXISTS variant_attribute_values
+(
+    variant_id BIGINT NOT NULL REFERENCES product_variants (id) ON DELETE CASCADE,
+    product_id BIGINT NOT NULL REFERENCES products (id) ON DELETE CASCADE,
+    key_id     INT    NOT NULL REFERENCES attribute_keys (id),
+    value_id   INT    NOT NULL REFERENCES attribute_values (id),
+    PRIMARY KEY (variant_id, key_id, value_id)
+);
+
+-- ---------- Indexes for Performance ----------
+-- An attribute filter is one key_id with a list of value_ids, answered by an index-only scan
+CREATE INDEX IF NOT EXISTS idx_vav_key_value
+    ON variant_attribute_values (key_id, value_id, product_id);
+
+-- Per-product rebuilds
+CREATE INDEX IF NOT EXISTS idx_vav_product
+    ON variant_attribute_values (product_id);
@@ -0,0 +1,59 @@
+-- =========================================================
+-- V21__product_version_from_variants.sql
+-- Make products.updated_at change whenever the product's public representation does
+-- =========================================================
+
+-- products.updated_at is the product's version for HTTP validators (ETag / Last-Modified).
+-- Until now it only moved on writes to the products row itself, so these triggers also bump it
+-- when a variant is added, removed or changes a column shown with the product. Stock and
+-- reservation counters are left out: they change on every checkout and are not part of the
+-- product JSON. Statement-level triggers with transition tables touch each product once per
+-- statement, so bulk imports and price syncs stay set-based.
+
+CREATE OR REPLACE FUNCTION touch_products_of_variant_rows()
+    RETURNS TRIGGER AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE products p SET updated_at = NOW()
+        WHERE p.id IN (SELECT DISTINCT n.product_id FROM new_variants n);
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE products p SET updated_at = NOW()
+        WHERE p.id IN (SELECT DISTINCT o.product_id FROM old_variants o);
+    ELSE
+        UPDATE products p SET updated_at = NOW()
+        WHERE p.id IN (
+            SELECT x.product_id
+            FROM old_variants o
+            JOIN new_variants n ON n.id = o.id
+            CROSS JOIN LATERAL (VALUES (o.product_id), (n.product_id)) AS x(product_id)
+            WHERE (o.sku, o.price_cents, o.currency, o.image_url, o.is_available, o.attributes, o.product_id)
+                  IS DISTINCT FROM
+                  (n.sku, n.price_cents, n.currency, n.image_url, n.is_available, n.attributes, n.product_id)
+        );
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- A trigger with transition tables may only fire on one event
+CREATE TRIGGER trg_product_variants_insert_touch_product
+    AFTER INSERT
+    ON product_variants
+    REFERENCING NEW TABLE AS new_variants
+    FOR EACH STATEMENT
+EXECUTE FUNCTION touch_products_of_variant_rows();
+
+CREATE TRIGGER trg_product_variants_update_touch_product
+    AFTER UPDATE
+    ON product_variants
+    REFERENCING OLD TABLE AS old_variants NEW TABLE AS new_variants
+    FOR EACH STATEMENT
+EXECUTE FUNCTION touch_products_of_variant_rows();
+
+CREATE TRIGGER trg_product_variants_delete_touch_product
+    AFTER DELETE
+    ON product_variants
+    REFERENCING OLD TABLE AS old_variants
+    FOR EACH STATEMENT
+EXECUTE FUNCTION touch_products_of_variant_rows();
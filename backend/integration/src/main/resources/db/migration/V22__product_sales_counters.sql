@@ -0,0 +1,45 @@
+-- =========================================================
+-- V22__product_sales_counters.sql
+-- Sales counters per variant and per product, and the BEST_SELLING sort key
+-- =========================================================
+
+-- Written only by the worker, in batched upserts, as reservations are confirmed (see
+-- SalesCounterAdapter); nothing aggregates orders at query time.
+--
+-- score_7d and score_30d are exponentially decayed unit counts with a mean life of 7 and 30
+-- days, kept with forward decay: a sale of q units at time t adds q * exp((t - L) / tau) for the
+-- fixed landmark L = 2024-01-01, so stored scores never need to be aged. Dividing every score by
+-- the same exp((now - L) / tau) gives the decayed count, so their order is already the order of
+-- the decayed counts. They are stored as natural logarithms, as the sums themselves would
+-- overflow a double after a few decades; 0 means "never sold", below any sale after L.
+
+CREATE TABLE IF NOT EXISTS variant_sales_counters
+(
+    variant_id   BIGINT PRIMARY KEY REFERENCES product_variants (id) ON DELETE CASCADE,
+    units_sold   BIGINT           NOT NULL DEFAULT 0,
+    score_7d     DOUBLE PRECISION NOT NULL DEFAULT 0,
+    score_30d    DOUBLE PRECISION NOT NULL DEFAULT 0,
+    last_sold_at TIMESTAMPTZ      NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS product_sales_counters
+(
+    product_id   BIGINT PRIMARY KEY REFERENCES products (id) ON DELETE CASCADE,
+    units_sold   BIGINT           NOT NULL DEFAULT 0,
+    score_7d     DOUBLE PRECISION NOT NULL DEFAULT 0,
+    score_30d    DOUBLE PRECISION NOT NULL DEFAULT 0,
+    last_sold_at TIMESTAMPTZ      NOT NULL
+);
+
+-- The product's score_30d, copied onto its search document so BEST_SELLING is an index order
+-- like the other sorts (see V18); refreshed by the same upserts and by every document refresh.
+ALTER TABLE product_search_document
+    ADD COLUMN IF NOT EXISTS sales_rank DOUBLE PRECISION NOT NULL DEFAULT 0;
+
+-- BEST_SELLING
+CREATE INDEX IF NOT EXISTS idx_psd_search_sales_rank
+    ON product_search_document (sales_rank DESC, product_id) WHERE variant_count > 0;
+
+-- Category pages by BEST_SELLING (search with a category and this sort)
+CREATE INDEX IF NOT EXISTS idx_psd_search_category_sales_rank
+    ON product_search_document (category_lc, sales_rank DESC, product_id) WHERE variant_count > 0;
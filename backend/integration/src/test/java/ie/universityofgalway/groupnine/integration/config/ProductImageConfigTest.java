@@ -3,6 +3,7 @@ package ie.universityofgalway.groupnine.integration.config;
 import ie.universityofgalway.groupnine.service.product.admin.usecase.UploadVariantImageUseCase;
 import ie.universityofgalway.groupnine.service.product.port.ImageStoragePort;
 import ie.universityofgalway.groupnine.service.product.port.ProductPort;
+import ie.universityofgalway.groupnine.service.product.port.VariantExistencePort;
 import ie.universityofgalway.groupnine.service.product.usecase.GetVariantImageUseCase;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.TestConfiguration;
@@ -22,6 +23,9 @@ class ProductImageConfigTest {
             @Override public org.springframework.data.domain.Page<ie.universityofgalway.groupnine.domain.product.Product> findAvailable(org.springframework.data.domain.Pageable pageable){return org.springframework.data.domain.Page.empty();}
             @Override public org.springframework.data.domain.Page<ie.universityofgalway.groupnine.domain.product.Product> findAvailableByCategory(String category, org.springframework.data.domain.Pageable pageable){return org.springframework.data.domain.Page.empty();}
             @Override public org.springframework.data.domain.Page<ie.universityofgalway.groupnine.domain.product.Product> search(ie.universityofgalway.groupnine.domain.product.SearchQuery query, org.springframework.data.domain.Pageable pageable){return org.springframework.data.domain.Page.empty();}
+            @Override public ie.universityofgalway.groupnine.domain.product.CursorPage<ie.universityofgalway.groupnine.domain.product.Product> findAvailableAfter(String category, String cursor, int size, boolean includeTotal){return new ie.universityofgalway.groupnine.domain.product.CursorPage<>(java.util.List.of(), null, null);}
+            @Override public ie.universityofgalway.groupnine.domain.product.CursorPage<ie.universityofgalway.groupnine.domain.product.Product> searchAfter(ie.universityofgalway.groupnine.domain.product.SearchQuery query, String cursor, int size, boolean includeTotal){return new ie.universityofgalway.groupnine.domain.product.CursorPage<>(java.util.List.of(), null, null);}
+            @Override public ie.universityofgalway.groupnine.domain.product.SearchFacets facets(ie.universityofgalway.groupnine.domain.product.SearchQuery query, ie.universityofgalway.groupnine.domain.product.FacetLimits limits){return ie.universityofgalway.groupnine.domain.product.SearchFacets.empty();}
             @Override public java.util.Optional<ie.universityofgalway.groupnine.domain.product.Product> findById(ie.universityofgalway.groupnine.domain.product.ProductId id){return java.util.Optional.empty();}
             @Override public java.util.Optional<ie.universityofgalway.groupnine.domain.product.Product> findByVariantId(ie.universityofgalway.groupnine.domain.product.VariantId id){return java.util.Optional.empty();}
             @Override public org.springframework.data.domain.Page<ie.universityofgalway.groupnine.domain.product.Product> listAll(org.springframework.data.domain.Pageable pageable){return org.springframework.data.domain.Page.empty();}
@@ -38,6 +42,8 @@ class ProductImageConfigTest {
             @Override public void saveVariantImage(ie.universityofgalway.groupnine.domain.product.ProductId productId, ie.universityofgalway.groupnine.domain.product.VariantId variantId, String originalFilename, String contentType, java.io.InputStream data) {}
             @Override public java.util.Optional<ImageData> loadVariantImage(ie.universityofgalway.groupnine.domain.product.ProductId productId, ie.universityofgalway.groupnine.domain.product.VariantId variantId) { return java.util.Optional.empty(); }
         }; }
+
+        @Bean VariantExistencePort variantExistencePort() { return (productId, variantId) -> false; }
     }
 
     @org.springframework.beans.factory.annotation.Autowired UploadVariantImageUseCase upload;
@@ -3,6 +3,9 @@ package ie.universityofgalway.groupnine.integration.product;
 import ie.universityofgalway.groupnine.domain.product.Product;
 import ie.universityofgalway.groupnine.domain.product.VariantId;
 import ie.universityofgalway.groupnine.integration.config.AdminProductConfig;
+import ie.universityofgalway.groupnine.service.product.port.CatalogExportPort;
+import ie.universityofgalway.groupnine.service.product.port.CatalogImportPort;
+import ie.universityofgalway.groupnine.service.product.port.VariantBulkUpdatePort;
 import ie.universityofgalway.groupnine.service.product.port.ProductPort;
 import ie.universityofgalway.groupnine.service.product.admin.usecase.*;
 import org.junit.jupiter.api.Test;
@@ -25,6 +28,9 @@ class AdminProductConfigTest {
             @Override public org.springframework.data.domain.Page<ie.universityofgalway.groupnine.domain.product.Product> findAvailable(org.springframework.data.domain.Pageable pageable){return org.springframework.data.domain.Page.empty();}
             @Override public org.springframework.data.domain.Page<ie.universityofgalway.groupnine.domain.product.Product> findAvailableByCategory(String category, org.springframework.data.domain.Pageable pageable){return org.springframework.data.domain.Page.empty();}
             @Override public org.springframework.data.domain.Page<ie.universityofgalway.groupnine.domain.product.Product> search(ie.universityofgalway.groupnine.domain.product.SearchQuery query, org.springframework.data.domain.Pageable pageable){return org.springframework.data.domain.Page.empty();}
+            @Override public ie.universityofgalway.groupnine.domain.product.CursorPage<ie.universityofgalway.groupnine.domain.product.Product> findAvailableAfter(String category, String cursor, int size, boolean includeTotal){return new ie.universityofgalway.groupnine.domain.product.CursorPage<>(java.util.List.of(), null, null);}
+            @Override public ie.universityofgalway.groupnine.domain.product.CursorPage<ie.universityofgalway.groupnine.domain.product.Product> searchAfter(ie.universityofgalway.groupnine.domain.product.SearchQuery query, String cursor, int size, boolean includeTotal){return new ie.universityofgalway.groupnine.domain.product.CursorPage<>(java.util.List.of(), null, null);}
+            @Override public ie.universityofgalway.groupnine.domain.product.SearchFacets facets(ie.universityofgalway.groupnine.domain.product.SearchQuery query, ie.universityofgalway.groupnine.domain.product.FacetLimits limits){return ie.universityofgalway.groupnine.domain.product.SearchFacets.empty();}
             @Override public java.util.Optional<ie.universityofgalway.groupnine.domain.product.Product> findById(ie.universityofgalway.groupnine.domain.product.ProductId id){return java.util.Optional.empty();}
 
             @Override
@@ -41,6 +47,15 @@ class AdminProductConfigTest {
             @Override public ie.universityofgalway.groupnine.domain.product.Variant saveVariant(ie.universityofgalway.groupnine.domain.product.ProductId productId, ie.universityofgalway.groupnine.domain.product.Variant variant){return variant;}
             @Override public void deleteVariant(ie.universityofgalway.groupnine.domain.product.ProductId productId, ie.universityofgalway.groupnine.domain.product.VariantId variantId){}
         }; }
+
+        @Bean CatalogImportPort catalogImportPort() { return new CatalogImportPort() {
+            @Override public java.util.Map<String, java.util.UUID> skuOwners(){return java.util.Map.of();}
+            @Override public java.util.Map<String, VariantId> upsert(java.util.Collection<Product> products){return java.util.Map.of();}
+        }; }
+
+        @Bean VariantBulkUpdatePort variantBulkUpdatePort() { return updates -> java.util.List.of(); }
+
+        @Bean CatalogExportPort catalogExportPort() { return (filter, after, sink) -> {}; }
     }
 
     @org.springframework.beans.factory.annotation.Autowired CreateProductUseCase create;
@@ -51,6 +66,9 @@ class AdminProductConfigTest {
     @org.springframework.beans.factory.annotation.Autowired UpdateVariantUseCase updateV;
     @org.springframework.beans.factory.annotation.Autowired DeleteVariantUseCase deleteV;
     @org.springframework.beans.factory.annotation.Autowired ListProductsUseCase list;
+    @org.springframework.beans.factory.annotation.Autowired ImportCatalogUseCase importCatalog;
+    @org.springframework.beans.factory.annotation.Autowired BulkUpdateVariantsUseCase bulkUpdate;
+    @org.springframework.beans.factory.annotation.Autowired ExportCatalogUseCase exportCatalog;
 
     @Test
     void beansPresent() {
@@ -62,6 +80,9 @@ class AdminProductConfigTest {
         assertNotNull(updateV);
         assertNotNull(deleteV);
         assertNotNull(list);
+        assertNotNull(importCatalog);
+        assertNotNull(bulkUpdate);
+        assertNotNull(exportCatalog);
     }
 }
 
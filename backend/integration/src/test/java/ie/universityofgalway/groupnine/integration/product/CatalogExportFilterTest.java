@@ -0,0 +1,117 @@
+package ie.universityofgalway.groupnine.integration.product;
+
+import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.ProductStatus;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.CatalogExportAdapter;
+import ie.universityofgalway.groupnine.service.product.admin.ProductFilter;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs {@link CatalogExportAdapter} on a real Postgres to check what an export returns: products
+ * in id order, each once with its variants in SKU order, limited by the category, status and
+ * resume point of the request.
+ *
+ * <p>Runs only when {@code SEARCH_PLAN_DB_URL} (with {@code SEARCH_PLAN_DB_USER} and
+ * {@code SEARCH_PLAN_DB_PASSWORD}) points at a disposable database: the schema is migrated by
+ * Flyway and {@code products} is truncated first.</p>
+ */
+@EnabledIfEnvironmentVariable(named = "SEARCH_PLAN_DB_URL", matches = ".+")
+class CatalogExportFilterTest {
+
+    private static final UUID BEANS = uuid(1);
+    private static final UUID KETTLE = uuid(2);
+    private static final UUID GRINDER = uuid(3);
+    private static final UUID FILTERS = uuid(4);
+
+    private static CatalogExportAdapter adapter;
+
+    @BeforeAll
+    static void setUp() {
+        Flyway.configure()
+                .dataSource(url(), user(), password())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(url(), user(), password()));
+        jdbc.execute("TRUNCATE products CASCADE");
+        // Written out of id order, so the export has to sort
+        long grinder = product(jdbc, GRINDER, "Grinder", "Coffee", "ACTIVE");
+        long beans = product(jdbc, BEANS, "Beans", "coffee", "ACTIVE");
+        product(jdbc, KETTLE, "Kettle", "Tea", "ACTIVE");
+        long filters = product(jdbc, FILTERS, "Filters", "COFFEE", "DRAFT");
+        variant(jdbc, beans, "B-2");
+        variant(jdbc, grinder, "G-1");
+        variant(jdbc, beans, "B-1");
+        variant(jdbc, filters, "F-1");
+        // A fetch size below the row count, so the rows arrive over several fetches
+        adapter = new CatalogExportAdapter(jdbc, 2);
+    }
+
+    @Test
+    @DisplayName("without filters every product goes out once, in id order, with its variants in SKU order")
+    void everything_inIdOrder() {
+        List<Product> exported = export(new ProductFilter(), null);
+
+        assertEquals(List.of(BEANS, KETTLE, GRINDER, FILTERS), ids(exported));
+        assertEquals(List.of("B-1", "B-2"), skus(exported.get(0)));
+        assertEquals(List.of(), skus(exported.get(1)));
+        assertEquals(ProductStatus.DRAFT, exported.get(3).getStatus());
+    }
+
+    @Test
+    @DisplayName("category (in any case), status and resume point each narrow the export")
+    void filters_narrowTheExport() {
+        assertEquals(List.of(BEANS, GRINDER, FILTERS), ids(export(new ProductFilter("COFFEE", null), null)));
+        assertEquals(List.of(BEANS, KETTLE, GRINDER), ids(export(new ProductFilter(null, ProductStatus.ACTIVE), null)));
+        assertEquals(List.of(GRINDER, FILTERS), ids(export(new ProductFilter(), new ProductId(KETTLE))));
+        assertEquals(List.of(GRINDER), ids(export(new ProductFilter("coffee", ProductStatus.ACTIVE), new ProductId(BEANS))));
+        assertEquals(List.of(), ids(export(new ProductFilter("coffee", ProductStatus.ARCHIVED), null)));
+    }
+
+    private static List<Product> export(ProductFilter filter, ProductId after) {
+        List<Product> exported = new ArrayList<>();
+        adapter.forEachProduct(filter, after, exported::add);
+        return exported;
+    }
+
+    private static List<UUID> ids(List<Product> products) {
+        return products.stream().map(p -> p.getId().getId()).toList();
+    }
+
+    private static List<String> skus(Product product) {
+        return product.getVariants().stream().map(v -> v.getSku().getValue()).toList();
+    }
+
+    private static long product(JdbcTemplate jdbc, UUID uuid, String name, String category, String status) {
+        return jdbc.queryForObject("INSERT INTO products (uuid, name, category, status) VALUES (?, ?, ?, ?) RETURNING id",
+                Long.class, uuid, name, category, status);
+    }
+
+    private static void variant(JdbcTemplate jdbc, long productId, String sku) {
+        jdbc.update("INSERT INTO product_variants (product_id, sku, price_cents, stock_quantity) VALUES (?, ?, 450, 3)",
+                productId, sku);
+    }
+
+    private static UUID uuid(int n) {
+        return UUID.fromString("00000000-0000-0000-0000-00000000000" + n);
+    }
+
+    private static String url() { return System.getenv("SEARCH_PLAN_DB_URL"); }
+
+    private static String user() { return System.getenv("SEARCH_PLAN_DB_USER"); }
+
+    private static String password() { return System.getenv("SEARCH_PLAN_DB_PASSWORD"); }
+}
@@ -0,0 +1,153 @@
+package ie.universityofgalway.groupnine.integration.product;
+
+import ie.universityofgalway.groupnine.domain.product.*;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.CatalogImportAdapter;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchDocumentJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantAttributeIndexJpaRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs {@link CatalogImportAdapter}'s variant upsert on a real Postgres to check which rows it
+ * keeps: an import may not lower a variant's stock below the quantity reserved for it in
+ * {@code inventory}, nor move a SKU to another product.
+ *
+ * <p>Runs only when {@code SEARCH_PLAN_DB_URL} (with {@code SEARCH_PLAN_DB_USER} and
+ * {@code SEARCH_PLAN_DB_PASSWORD}) points at a disposable database: the schema is migrated by
+ * Flyway and {@code products} is truncated before each test.</p>
+ */
+@EnabledIfEnvironmentVariable(named = "SEARCH_PLAN_DB_URL", matches = ".+")
+class CatalogImportReservationTest {
+
+    private static JdbcTemplate jdbc;
+    private CatalogImportAdapter adapter;
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(url(), user(), password())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(url(), user(), password()));
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("TRUNCATE products CASCADE");
+        // The projection rebuilds are covered elsewhere; only the upserts are under test
+        adapter = new CatalogImportAdapter(jdbc, mock(ProductSearchDocumentJpaRepository.class),
+                mock(VariantAttributeIndexJpaRepository.class));
+    }
+
+    @Test
+    @DisplayName("new products and variants are written and reported")
+    void newRows_areWritten() {
+        Variant variant = variant(UUID.randomUUID(), "A", 5);
+        Product beans = product(UUID.randomUUID(), "Beans", variant);
+
+        Map<String, VariantId> written = adapter.upsert(List.of(beans));
+
+        assertEquals(Map.of("A", variant.getId()), written);
+        assertEquals(5, stockOf("A"));
+    }
+
+    @Test
+    @DisplayName("stock may drop to the reserved quantity but not below it")
+    void stockBelowReserved_isRejected() {
+        UUID productId = UUID.randomUUID();
+        UUID variantId = UUID.randomUUID();
+        adapter.upsert(List.of(product(productId, "Beans", variant(variantId, "A", 10))));
+        jdbc.update("INSERT INTO inventory (variant_id, reserved) VALUES (?, 4)", variantId);
+
+        Map<String, VariantId> below = adapter.upsert(List.of(product(productId, "Beans",
+                variant(UUID.randomUUID(), "A", 3))));
+        assertEquals(Map.of(), below);
+        assertEquals(10, stockOf("A"));
+
+        Map<String, VariantId> at = adapter.upsert(List.of(product(productId, "Beans",
+                variant(UUID.randomUUID(), "A", 4))));
+        // An existing variant keeps its id
+        assertEquals(Map.of("A", new VariantId(variantId)), at);
+        assertEquals(4, stockOf("A"));
+    }
+
+    @Test
+    @DisplayName("a variant without an inventory row counts as unreserved")
+    void noInventoryRow_countsAsUnreserved() {
+        UUID productId = UUID.randomUUID();
+        UUID variantId = UUID.randomUUID();
+        adapter.upsert(List.of(product(productId, "Beans", variant(variantId, "A", 10))));
+
+        Map<String, VariantId> written = adapter.upsert(List.of(product(productId, "Beans",
+                variant(UUID.randomUUID(), "A", 0))));
+
+        assertEquals(Map.of("A", new VariantId(variantId)), written);
+        assertEquals(0, stockOf("A"));
+    }
+
+    @Test
+    @DisplayName("only the rejected variant of a batch is kept back")
+    void rejection_isPerVariant() {
+        UUID productId = UUID.randomUUID();
+        UUID reservedId = UUID.randomUUID();
+        UUID freeId = UUID.randomUUID();
+        adapter.upsert(List.of(product(productId, "Beans", variant(reservedId, "A", 10), variant(freeId, "B", 10))));
+        jdbc.update("INSERT INTO inventory (variant_id, reserved) VALUES (?, 6)", reservedId);
+
+        Map<String, VariantId> written = adapter.upsert(List.of(product(productId, "Beans",
+                variant(UUID.randomUUID(), "A", 5), variant(UUID.randomUUID(), "B", 5))));
+
+        assertEquals(Map.of("B", new VariantId(freeId)), written);
+        assertEquals(10, stockOf("A"));
+        assertEquals(5, stockOf("B"));
+    }
+
+    @Test
+    @DisplayName("a SKU owned by another product is not taken over")
+    void skuOfAnotherProduct_isRejected() {
+        adapter.upsert(List.of(product(UUID.randomUUID(), "Beans", variant(UUID.randomUUID(), "A", 10))));
+
+        Map<String, VariantId> written = adapter.upsert(List.of(product(UUID.randomUUID(), "Grinder",
+                variant(UUID.randomUUID(), "A", 2))));
+
+        assertEquals(Map.of(), written);
+        assertEquals(10, stockOf("A"));
+    }
+
+    private static int stockOf(String sku) {
+        return jdbc.queryForObject("SELECT stock_quantity FROM product_variants WHERE sku = ?", Integer.class, sku);
+    }
+
+    private static Variant variant(UUID id, String sku, int stock) {
+        return new Variant(new VariantId(id), new Sku(sku),
+                new Money(new BigDecimal("4.50"), Currency.getInstance("EUR")), new Stock(stock, 0), List.of());
+    }
+
+    private static Product product(UUID id, String name, Variant... variants) {
+        return new Product(new ProductId(id), name, null, "coffee", ProductStatus.ACTIVE,
+                List.of(variants), Instant.now(), Instant.now());
+    }
+
+    private static String url() { return System.getenv("SEARCH_PLAN_DB_URL"); }
+
+    private static String user() { return System.getenv("SEARCH_PLAN_DB_USER"); }
+
+    private static String password() { return System.getenv("SEARCH_PLAN_DB_PASSWORD"); }
+}
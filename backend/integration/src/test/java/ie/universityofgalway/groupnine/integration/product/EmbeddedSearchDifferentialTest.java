@@ -0,0 +1,349 @@
+package ie.universityofgalway.groupnine.integration.product;
+
+import ie.universityofgalway.groupnine.domain.product.*;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductPersistenceAdapter;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductPersistenceAdapter.CatalogEntry;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchDocumentJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchRepositoryImpl;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantAttributeIndexBackfill;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantAttributeIndexJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.search.EmbeddedProductSearch;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Differential test of {@link EmbeddedProductSearch} against the SQL search path on a real
+ * Postgres: a generated catalog is written to {@code products} and {@code product_variants}, its
+ * search documents are refreshed with the production statement, and a few hundred generated
+ * queries are run through {@link ProductPersistenceAdapter} over {@link ProductSearchRepositoryImpl}
+ * and through the embedded index, comparing full result order, totals, offset pages and cursor
+ * walks.
+ *
+ * <p>The embedded index is built from a stale copy of the catalog and then brought up to date by
+ * announcing the differences, so the queries also check that merging changed products gives the
+ * index a full build would.</p>
+ *
+ * <p>Runs only when {@code SEARCH_PLAN_DB_URL} (with {@code SEARCH_PLAN_DB_USER} and
+ * {@code SEARCH_PLAN_DB_PASSWORD}) points at a disposable database: the schema is migrated by
+ * Flyway and {@code products} is truncated first.</p>
+ */
+@EnabledIfEnvironmentVariable(named = "SEARCH_PLAN_DB_URL", matches = ".+")
+class EmbeddedSearchDifferentialTest {
+
+    private static final String[] WORDS = {
+            "espresso", "moka", "pot", "grinder", "burr", "kettle", "gooseneck", "french", "press", "filter",
+            "paper", "ceramic", "dripper", "scale", "digital", "mug", "travel", "steel", "glass", "tamper"};
+    private static final String[] CATEGORIES = {"Brewers", "grinders", "Accessories", "KETTLES", "Mugs"};
+    private static final String[] COLORS = {"Red", "black", "White", "steel"};
+    private static final String[] SIZES = {"S", "M", "L", "XL"};
+
+    private static final List<CatalogEntry> CATALOG = new ArrayList<>();
+    private static final Map<UUID, Long> IDS = new HashMap<>();
+    private static EmbeddedProductSearch search;
+    private static ProductPersistenceAdapter sql;
+    private static EntityManagerFactory entityManagers;
+    private static EntityManager entityManager;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        Flyway.configure()
+                .dataSource(url(), user(), password())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        Random random = new Random(42);
+        Instant base = Instant.parse("2024-01-01T00:00:00Z");
+        long id = 0;
+        for (int i = 0; i < 1500; i++) {
+            id += 1 + random.nextInt(3);
+            CATALOG.add(new CatalogEntry(id, product(random, new ProductId(UUID.randomUUID()), id, base)));
+        }
+        CATALOG.forEach(e -> IDS.put(e.product().getId().getId(), e.id()));
+        write(CATALOG);
+
+        entityManagers = entityManagerFactory();
+        entityManager = entityManagers.createEntityManager();
+        // One transaction, so the trigram threshold set by the search applies to its statements
+        entityManager.getTransaction().begin();
+        ProductSearchRepositoryImpl statements = new ProductSearchRepositoryImpl(entityManager,
+                mock(VariantAttributeIndexBackfill.class));
+        sql = new ProductPersistenceAdapter(mock(ProductJpaRepository.class, delegatesTo(statements)),
+                mock(VariantJpaRepository.class), mock(ProductSearchDocumentJpaRepository.class),
+                mock(VariantAttributeIndexJpaRepository.class));
+
+        search = embeddedFromStaleCopy(random, base, id);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (search != null) search.shutdown();
+        if (entityManager != null) {
+            entityManager.getTransaction().rollback();
+            entityManager.close();
+        }
+        if (entityManagers != null) entityManagers.close();
+    }
+
+    @Test
+    @DisplayName("every generated query returns the SQL path's rows in the SQL path's order")
+    void generatedQueries_matchSqlPath() {
+        Random random = new Random(99);
+        for (int i = 0; i < 400; i++) {
+            SearchQuery q = randomQuery(random);
+            List<Long> expected = sqlPath(q);
+
+            Page<Product> all = search.search(q, PageRequest.of(0, 10_000));
+            assertEquals(expected, ids(all.getContent()), () -> describe(q));
+            assertEquals(expected.size(), all.getTotalElements(), () -> describe(q));
+
+            Page<Product> second = search.search(q, PageRequest.of(1, 7));
+            assertEquals(expected.subList(Math.min(7, expected.size()), Math.min(14, expected.size())),
+                    ids(second.getContent()), () -> describe(q));
+        }
+    }
+
+    @Test
+    @DisplayName("walking every query with cursors visits the SQL path's rows exactly once, in order")
+    void cursorWalks_matchSqlPath() {
+        Random random = new Random(7);
+        for (int i = 0; i < 150; i++) {
+            SearchQuery q = randomQuery(random);
+            List<Long> expected = sqlPath(q);
+            int size = 1 + random.nextInt(40);
+
+            List<Long> walked = new ArrayList<>();
+            String cursor = "";
+            CursorPage<Product> slice;
+            do {
+                slice = search.searchAfter(q, cursor, size, true);
+                assertEquals(Long.valueOf(expected.size()), slice.totalElements(), () -> describe(q));
+                walked.addAll(ids(slice.content()));
+                cursor = slice.nextCursor();
+            } while (cursor != null);
+            assertEquals(expected, walked, () -> describe(q));
+        }
+    }
+
+    /** Every match of the SQL path, in its order. */
+    private static List<Long> sqlPath(SearchQuery q) {
+        Page<Product> page = sql.search(q, PageRequest.of(0, 10_000));
+        assertEquals(page.getContent().size(), page.getTotalElements(), () -> describe(q));
+        return ids(page.getContent());
+    }
+
+    // ---- catalog --------------------------------------------------------------------------------
+
+    private static Product product(Random random, ProductId productId, long id, Instant base) {
+        String name = phrase(random, 1 + random.nextInt(3));
+        String description = random.nextInt(5) == 0 ? null : phrase(random, 2 + random.nextInt(6));
+        int variantCount = random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(3);
+        List<Variant> variants = new ArrayList<>();
+        for (int v = 0; v < variantCount; v++) {
+            List<Attribute> attributes = new ArrayList<>();
+            if (random.nextBoolean()) attributes.add(new Attribute("color", pick(random, COLORS)));
+            if (random.nextBoolean()) attributes.add(new Attribute("size", pick(random, SIZES)));
+            int cents = 100 * (1 + random.nextInt(60)) + (random.nextBoolean() ? 0 : 99);
+            variants.add(new Variant(new VariantId(UUID.randomUUID()), new Sku("SKU-" + id + "-" + v),
+                    new Money(BigDecimal.valueOf(cents, 2), Currency.getInstance("EUR")),
+                    new Stock(random.nextInt(5), 0), attributes, null));
+        }
+        // coarse timestamps so NEWEST_FIRST has plenty of ties
+        Instant created = base.plus(random.nextInt(200), ChronoUnit.HOURS).plusNanos(random.nextInt(3) * 1000L);
+        return new Product(productId, name, description, pick(random, CATEGORIES), ProductStatus.ACTIVE, variants,
+                created, created);
+    }
+
+    /**
+     * An index built from the catalog with every tenth product in an older state and some
+     * products since deleted, then updated by announcing those products and one variant of each
+     * changed product.
+     */
+    private static EmbeddedProductSearch embeddedFromStaleCopy(Random random, Instant base, long lastId) {
+        List<CatalogEntry> stale = new ArrayList<>();
+        Set<UUID> changedProducts = new HashSet<>();
+        Set<UUID> changedVariants = new HashSet<>();
+        for (int i = 0; i < CATALOG.size(); i++) {
+            CatalogEntry e = CATALOG.get(i);
+            if (i % 10 != 0) {
+                stale.add(e);
+                continue;
+            }
+            Product old = product(random, e.product().getId(), e.id(), base);
+            stale.add(new CatalogEntry(e.id(), old));
+            if (i % 20 == 0) changedProducts.add(e.product().getId().getId());
+            else if (!old.getVariants().isEmpty()) changedVariants.add(old.getVariants().get(0).getId().getId());
+            else changedProducts.add(e.product().getId().getId());
+        }
+        for (int i = 1; i <= 50; i++) {
+            Product deleted = product(random, new ProductId(UUID.randomUUID()), lastId + i, base);
+            stale.add(new CatalogEntry(lastId + i, deleted));
+            changedProducts.add(deleted.getId().getId());
+        }
+
+        ProductPersistenceAdapter source = mock(ProductPersistenceAdapter.class);
+        when(source.scanAfter(any(), anyInt())).thenAnswer(inv -> {
+            Long after = inv.getArgument(0);
+            int limit = inv.getArgument(1);
+            return stale.stream().filter(e -> after == null || e.id() > after).limit(limit).toList();
+        });
+        // As the database answers: current products by id; variants of the stale copy no longer exist
+        when(source.scanChanged(anyCollection(), anyCollection())).thenAnswer(inv -> {
+            Collection<UUID> products = inv.getArgument(0);
+            return CATALOG.stream().filter(e -> products.contains(e.product().getId().getId())).toList();
+        });
+        EmbeddedProductSearch embedded = new EmbeddedProductSearch(source, 200, 3_600_000);
+        embedded.rebuild();
+        embedded.onProductsChanged(changedProducts);
+        embedded.onVariantsChanged(changedVariants);
+        embedded.update();
+        return embedded;
+    }
+
+    private static void write(List<CatalogEntry> catalog) throws Exception {
+        try (Connection c = DriverManager.getConnection(url(), user(), password())) {
+            c.setAutoCommit(false);
+            try (Statement s = c.createStatement()) {
+                s.execute("TRUNCATE products CASCADE");
+            }
+            try (PreparedStatement products = c.prepareStatement("""
+                    INSERT INTO products (id, uuid, name, description, category, created_at, updated_at)
+                    VALUES (?, ?, ?, ?, ?, ?, ?)
+                    """);
+                 PreparedStatement variants = c.prepareStatement("""
+                    INSERT INTO product_variants (uuid, product_id, sku, price_cents, stock_quantity, attributes)
+                    VALUES (?, ?, ?, ?, ?, CAST(? AS jsonb))
+                    """)) {
+                for (CatalogEntry e : catalog) {
+                    Product p = e.product();
+                    OffsetDateTime created = OffsetDateTime.ofInstant(p.getCreatedAt(), ZoneOffset.UTC);
+                    products.setLong(1, e.id());
+                    products.setObject(2, p.getId().getId());
+                    products.setString(3, p.getName());
+                    products.setString(4, p.getDescription());
+                    products.setString(5, p.getCategory());
+                    products.setObject(6, created);
+                    products.setObject(7, created);
+                    products.addBatch();
+                    for (Variant v : p.getVariants()) {
+                        variants.setObject(1, v.getId().getId());
+                        variants.setLong(2, e.id());
+                        variants.setString(3, v.getSku().getValue());
+                        variants.setInt(4, v.getPrice().getAmount().movePointRight(2).intValueExact());
+                        variants.setInt(5, v.getStock().getQuantity());
+                        variants.setString(6, json(v.getAttributes()));
+                        variants.addBatch();
+                    }
+                }
+                products.executeBatch();
+                variants.executeBatch();
+            }
+            try (Statement s = c.createStatement()) {
+                s.execute(ProductSearchDocumentJpaRepository.REFRESH_SELECT + "WHERE TRUE\n"
+                        + ProductSearchDocumentJpaRepository.REFRESH_UPSERT);
+            }
+            c.commit();
+        }
+    }
+
+    /** The attributes as the variant's JSON object; the generated values need no escaping. */
+    private static String json(List<Attribute> attributes) {
+        StringJoiner out = new StringJoiner(",", "{", "}");
+        for (Attribute a : attributes) out.add("\"" + a.name() + "\":\"" + a.value() + "\"");
+        return out.toString();
+    }
+
+    private static EntityManagerFactory entityManagerFactory() {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(new DriverManagerDataSource(url(), user(), password()));
+        factory.setPackagesToScan(ProductJpaRepository.class.getPackageName());
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.afterPropertiesSet();
+        return factory.getObject();
+    }
+
+    // ---- generators -----------------------------------------------------------------------------
+
+    private static SearchQuery randomQuery(Random random) {
+        String key = switch (random.nextInt(7)) {
+            case 0, 1 -> "";
+            case 2 -> pick(random, WORDS);
+            case 3 -> pick(random, WORDS).substring(0, 3);
+            case 4 -> typo(random, pick(random, WORDS));
+            case 5 -> pick(random, WORDS) + " " + pick(random, WORDS);
+            default -> pick(random, WORDS).toUpperCase(Locale.ROOT).substring(1);
+        };
+        String category = random.nextInt(3) == 0 ? pick(random, CATEGORIES).toLowerCase(Locale.ROOT) : null;
+        int min = random.nextInt(3) == 0 ? 100 * random.nextInt(40) : 0;
+        int max = random.nextInt(3) == 0 ? min + 100 * random.nextInt(40) : Integer.MAX_VALUE;
+        List<AttributeFilter> filters = new ArrayList<>();
+        if (random.nextInt(4) == 0) filters.add(new AttributeFilter("color", List.of(pick(random, COLORS), pick(random, COLORS))));
+        if (random.nextInt(5) == 0) filters.add(new AttributeFilter("size", List.of(pick(random, SIZES).toLowerCase(Locale.ROOT))));
+        SortRule sort = SortRule.values()[random.nextInt(SortRule.values().length)];
+        SearchQuery query = SearchQuery.builder(key, category, min, max, sort, filters);
+        // ranked relevance and sales ranking stay on the SQL path
+        return search.answers(query) ? query : SearchQuery.builder(key, category, min, max, SortRule.DEFAULT, filters);
+    }
+
+    private static String typo(Random random, String word) {
+        int at = random.nextInt(word.length() - 1);
+        return word.substring(0, at) + word.charAt(at + 1) + word.charAt(at) + word.substring(at + 2);
+    }
+
+    private static String phrase(Random random, int words) {
+        StringJoiner out = new StringJoiner(random.nextBoolean() ? " " : ", ");
+        for (int i = 0; i < words; i++) {
+            String w = pick(random, WORDS);
+            out.add(random.nextBoolean() ? Character.toUpperCase(w.charAt(0)) + w.substring(1) : w);
+        }
+        return out.toString();
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(p -> IDS.get(p.getId().getId())).toList();
+    }
+
+    private static String describe(SearchQuery q) {
+        return "key='" + q.key() + "' category=" + q.category() + " price=[" + q.minPriceCents() + ","
+                + q.maxPriceCents() + "] attrs=" + q.attributeFilters() + " sort=" + q.sortRule();
+    }
+
+    private static String url() { return System.getenv("SEARCH_PLAN_DB_URL"); }
+
+    private static String user() { return System.getenv("SEARCH_PLAN_DB_USER"); }
+
+    private static String password() { return System.getenv("SEARCH_PLAN_DB_PASSWORD"); }
+}
@@ -0,0 +1,429 @@
+package ie.universityofgalway.groupnine.integration.product;
+
+import ie.universityofgalway.groupnine.domain.product.*;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductPersistenceAdapter;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchDocumentJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchRepositoryImpl;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantAttributeIndexBackfill;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantAttributeIndexJpaRepository;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.VariantJpaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the SQL search path ({@link ProductPersistenceAdapter} over {@link ProductSearchRepositoryImpl})
+ * on a real Postgres against a small hand-written catalog, with sales counters for the best-selling
+ * sort, and checks what it returns: every
+ * combination of category, price bounds, attribute filters and sort is compared with the result
+ * computed here from the catalog itself, as a full page, an offset page and a cursor walk, and
+ * keyword searches are checked case by case. Attribute filters are run in both of their forms: on
+ * the document's {@code attribute_tokens} and the variant JSON, and on the projection in
+ * {@code variant_attribute_values} once it has been built.
+ *
+ * <p>Runs only when {@code SEARCH_PLAN_DB_URL} (with {@code SEARCH_PLAN_DB_USER} and
+ * {@code SEARCH_PLAN_DB_PASSWORD}) points at a disposable database: the schema is migrated by
+ * Flyway and {@code products} is truncated first.</p>
+ */
+@EnabledIfEnvironmentVariable(named = "SEARCH_PLAN_DB_URL", matches = ".+")
+class ProductSearchBehaviourTest {
+
+    private static final Instant BASE = Instant.parse("2024-01-01T00:00:00Z");
+    private static final String[] SIZES = {"S", "M", "L"};
+
+    /** A variant as written; {@code attributes} values become a JSON array when there are several. */
+    record Row(String sku, int priceCents, boolean available, Map<String, List<String>> attributes) {}
+
+    record Item(long id, UUID uuid, String name, String description, String category, Instant created,
+                double salesRank, List<Row> variants) {}
+
+    private static final List<Item> CATALOG = new ArrayList<>();
+    private static final Map<UUID, Long> IDS = new HashMap<>();
+    private static EntityManagerFactory entityManagers;
+    private static EntityManager entityManager;
+    private static ProductPersistenceAdapter tokens;
+    private static ProductPersistenceAdapter indexed;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        Flyway.configure()
+                .dataSource(url(), user(), password())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        catalog();
+        CATALOG.forEach(i -> IDS.put(i.uuid(), i.id()));
+        write();
+
+        entityManagers = entityManagerFactory();
+        entityManager = entityManagers.createEntityManager();
+        // One transaction, so the trigram threshold set by the search applies to its statements
+        entityManager.getTransaction().begin();
+        new JpaRepositoryFactory(entityManager).getRepository(VariantAttributeIndexJpaRepository.class)
+                .reindexProducts(CATALOG.stream().map(Item::id).toList());
+        tokens = adapter(false);
+        indexed = adapter(true);
+    }
+
+    /** The SQL search path, with attribute filters on the projection when {@code indexedAttributes}. */
+    private static ProductPersistenceAdapter adapter(boolean indexedAttributes) {
+        VariantAttributeIndexBackfill backfill = mock(VariantAttributeIndexBackfill.class);
+        when(backfill.isComplete()).thenReturn(indexedAttributes);
+        ProductSearchRepositoryImpl statements = new ProductSearchRepositoryImpl(entityManager, backfill);
+        return new ProductPersistenceAdapter(mock(ProductJpaRepository.class, delegatesTo(statements)),
+                mock(VariantJpaRepository.class), mock(ProductSearchDocumentJpaRepository.class),
+                mock(VariantAttributeIndexJpaRepository.class));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (entityManager != null) {
+            entityManager.getTransaction().rollback();
+            entityManager.close();
+        }
+        if (entityManagers != null) entityManagers.close();
+    }
+
+    @Test
+    @DisplayName("every combination of filters and sort returns the expected products in order, by page and by cursor")
+    void filtersAndSorts_returnExpectedProducts() {
+        String[] categories = {null, "brewers", "MUGS", "Accessories", "teapots"};
+        int[][] prices = {{0, Integer.MAX_VALUE}, {1000, Integer.MAX_VALUE}, {0, 1500}, {1000, 2000}, {2500, 3500}};
+        List<List<AttributeFilter>> attributes = List.of(
+                List.of(),
+                List.of(new AttributeFilter("color", List.of("red"))),
+                List.of(new AttributeFilter("color", List.of("Red", "WHITE"))),
+                List.of(new AttributeFilter("size", List.of("m"))),
+                List.of(new AttributeFilter("color", List.of("Red")), new AttributeFilter("size", List.of("S"))),
+                List.of(new AttributeFilter("colour", List.of("red"))),
+                List.of(new AttributeFilter("color", List.of())));
+        SortRule[] sorts = {SortRule.DEFAULT, SortRule.PRICE_LOW_TO_HIGH, SortRule.PRICE_HIGH_TO_LOW,
+                SortRule.NEWEST_FIRST, SortRule.RELEVANCE, SortRule.BEST_SELLING};
+
+        int n = 0;
+        for (String category : categories) {
+            for (int[] price : prices) {
+                for (List<AttributeFilter> filters : attributes) {
+                    for (SortRule sort : sorts) {
+                        SearchQuery q = SearchQuery.builder("", category, price[0], price[1], sort, filters);
+                        assertResults(tokens, expected(q), q, 1 + n % 4);
+                        if (!filters.isEmpty()) assertResults(indexed, expected(q), q, 1 + n % 4);
+                        n++;
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("a keyword matches words of the name or description whatever their case")
+    void keyword_matchesNameAndDescription() {
+        List<Long> kettles = search("kettle", null, SortRule.DEFAULT);
+        assertTrue(kettles.containsAll(List.of(id("Gooseneck kettle"), id("Stovetop kettle"))), kettles::toString);
+        assertFalse(kettles.contains(id("Burr grinder")), kettles::toString);
+        assertEquals(kettles, search("KETTLE", null, SortRule.DEFAULT));
+
+        List<Long> conical = search("conical", null, SortRule.DEFAULT);
+        assertTrue(conical.contains(id("Burr grinder")), conical::toString);
+        assertFalse(conical.contains(id("Moka pot")), conical::toString);
+
+        assertEquals(List.of(id("Gooseneck kettle"), id("Stovetop kettle")),
+                search("kettle", "Kettles", SortRule.NEWEST_FIRST));
+        assertFalse(search("kettle", "brewers", SortRule.DEFAULT).contains(id("Gooseneck kettle")));
+        // no variants: never searchable
+        assertFalse(search("dripper", null, SortRule.DEFAULT).contains(id("Retired dripper")));
+    }
+
+    @Test
+    @DisplayName("price bounds and attribute filters must hold for one and the same variant")
+    void priceAndAttributes_holdOnOneVariant() {
+        for (ProductPersistenceAdapter sql : List.of(tokens, indexed)) {
+            assertOneVariantMatches(sql);
+        }
+    }
+
+    private static void assertOneVariantMatches(ProductPersistenceAdapter sql) {
+        // The Moka pot is red at 15.00 in S and blue at 30.00 in L; its document alone would pass every filter here
+        long moka = id("Moka pot");
+        assertTrue(filtered(sql, 1000, 2000, new AttributeFilter("color", List.of("red"))).contains(moka));
+        assertFalse(filtered(sql, 2500, 3500, new AttributeFilter("color", List.of("red"))).contains(moka));
+        assertTrue(filtered(sql, 2500, 3500, new AttributeFilter("color", List.of("blue"))).contains(moka));
+        assertFalse(filtered(sql, 0, Integer.MAX_VALUE, new AttributeFilter("color", List.of("red")),
+                new AttributeFilter("size", List.of("L"))).contains(moka));
+        assertTrue(filtered(sql, 0, Integer.MAX_VALUE, new AttributeFilter("color", List.of("blue")),
+                new AttributeFilter("size", List.of("L"))).contains(moka));
+
+        // The travel mug's white variant has no size, its red one is the M
+        List<Long> whiteInM = filtered(sql, 0, Integer.MAX_VALUE, new AttributeFilter("color", List.of("white")),
+                new AttributeFilter("size", List.of("m")));
+        assertFalse(whiteInM.contains(id("Travel mug")), whiteInM::toString);
+        assertTrue(whiteInM.contains(id("Pour-over cone")), whiteInM::toString);
+    }
+
+    @Test
+    @DisplayName("relevance with many word matches ranks them alone: name before description, then by id")
+    void relevance_textOnly_ranksWordMatches() {
+        // 16 documents hold the word "paper", enough for the text-only form; "Paperweight" is no word match
+        List<Long> expected = new ArrayList<>();
+        for (int n = 4; n <= 14; n += 4) expected.add(id("Paper filter paper " + n));
+        for (int n = 1; n <= 14; n++) if (n % 4 != 0) expected.add(id("Filter paper " + n));
+        expected.add(id("Gooseneck kettle"));
+        expected.add(id("Pour-over cone"));
+
+        SearchQuery q = SearchQuery.builder("paper", null, 0, Integer.MAX_VALUE, SortRule.RELEVANCE, List.of());
+        for (int size = 1; size <= 4; size++) assertResults(tokens, expected, q, size);
+    }
+
+    @Test
+    @DisplayName("relevance with few word matches adds fuzzy matches after them, and walks in the same order")
+    void relevance_fuzzy_ranksWordMatchesFirst() {
+        List<Long> moka = search("moka", null, SortRule.RELEVANCE);
+        // the name match, the description match, then a substring match with no rank
+        assertEquals(List.of(id("Moka pot"), id("Stovetop kettle")), moka.subList(0, 2), moka::toString);
+        assertTrue(moka.contains(id("Mokaccino mug")), moka::toString);
+
+        SearchQuery q = SearchQuery.builder("moka", null, 0, Integer.MAX_VALUE, SortRule.RELEVANCE, List.of());
+        for (int size = 1; size <= 3; size++) assertResults(tokens, moka, q, size);
+    }
+
+    // ---- checks ---------------------------------------------------------------------------------
+
+    /** The full page, the second offset page and a cursor walk of {@code q} all follow {@code expected}. */
+    private static void assertResults(ProductPersistenceAdapter sql, List<Long> expected, SearchQuery q, int size) {
+        Page<Product> all = sql.search(q, PageRequest.of(0, 1000));
+        assertEquals(expected, ids(all.getContent()), () -> describe(q));
+        assertEquals(expected.size(), all.getTotalElements(), () -> describe(q));
+
+        Page<Product> second = sql.search(q, PageRequest.of(1, size));
+        assertEquals(expected.subList(Math.min(size, expected.size()), Math.min(2 * size, expected.size())),
+                ids(second.getContent()), () -> describe(q));
+
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<Product> slice = sql.searchAfter(q, cursor, size, true);
+            assertEquals(Long.valueOf(expected.size()), slice.totalElements(), () -> describe(q));
+            walked.addAll(ids(slice.content()));
+            cursor = slice.nextCursor();
+        } while (cursor != null && walked.size() <= expected.size());
+        assertEquals(expected, walked, () -> describe(q) + " size=" + size);
+    }
+
+    private static List<Long> search(String key, String category, SortRule sort) {
+        SearchQuery q = SearchQuery.builder(key, category, 0, Integer.MAX_VALUE, sort, List.of());
+        return ids(tokens.search(q, PageRequest.of(0, 1000)).getContent());
+    }
+
+    private static List<Long> filtered(ProductPersistenceAdapter sql, int min, int max, AttributeFilter... filters) {
+        SearchQuery q = SearchQuery.builder("", null, min, max, SortRule.DEFAULT, List.of(filters));
+        return ids(sql.search(q, PageRequest.of(0, 1000)).getContent());
+    }
+
+    /**
+     * The products {@code q} (without a keyword) should return, in order: those with a variant,
+     * in the category, and with one variant that is within the price bounds and carries one of
+     * the requested values of every filtered attribute.
+     */
+    private static List<Long> expected(SearchQuery q) {
+        Integer min = q.minPriceCents() == 0 ? null : q.minPriceCents();
+        Integer max = q.maxPriceCents() == Integer.MAX_VALUE ? null : q.maxPriceCents();
+        boolean variantFilter = min != null || max != null || !q.attributeFilters().isEmpty();
+        return CATALOG.stream()
+                .filter(i -> !i.variants().isEmpty())
+                .filter(i -> q.category() == null || i.category().equalsIgnoreCase(q.category()))
+                .filter(i -> !variantFilter || i.variants().stream().anyMatch(v -> matches(v, min, max, q.attributeFilters())))
+                .sorted(order(q.sortRule()))
+                .map(Item::id)
+                .toList();
+    }
+
+    private static boolean matches(Row v, Integer min, Integer max, List<AttributeFilter> filters) {
+        if (min != null && v.priceCents() < min) return false;
+        if (max != null && v.priceCents() > max) return false;
+        for (AttributeFilter f : filters) {
+            List<String> values = v.attributes().getOrDefault(f.name(), List.of());
+            if (values.stream().noneMatch(value -> f.values().stream().anyMatch(value::equalsIgnoreCase))) return false;
+        }
+        return true;
+    }
+
+    private static Comparator<Item> order(SortRule sort) {
+        Comparator<Item> byId = Comparator.comparingLong(Item::id);
+        return switch (sort) {
+            case PRICE_LOW_TO_HIGH -> Comparator.comparingInt((Item i) -> price(i, true)).thenComparing(byId);
+            case PRICE_HIGH_TO_LOW -> Comparator.comparingInt((Item i) -> price(i, false)).reversed().thenComparing(byId);
+            case NEWEST_FIRST -> Comparator.comparing(Item::created).reversed().thenComparing(byId);
+            case BEST_SELLING -> Comparator.comparingDouble(Item::salesRank).reversed().thenComparing(byId);
+            // nothing to rank without a keyword
+            default -> byId;
+        };
+    }
+
+    /** Lowest or highest price over all of the product's variants, as its document holds them. */
+    private static int price(Item i, boolean lowest) {
+        IntSummaryStatistics prices = i.variants().stream().mapToInt(Row::priceCents).summaryStatistics();
+        return lowest ? prices.getMin() : prices.getMax();
+    }
+
+    // ---- catalog --------------------------------------------------------------------------------
+
+    private static void catalog() {
+        item("Moka pot", "Stovetop espresso maker", "Brewers",
+                row("MOKA-3", 1500, Map.of("color", List.of("Red"), "size", List.of("S"))),
+                row("MOKA-6", 3000, Map.of("color", List.of("Blue"), "size", List.of("L"))));
+        item("Gooseneck kettle", "Pour-over kettle for paper filter brewing", "Kettles",
+                row("KETTLE-1", 4500, Map.of("color", List.of("Black", "Steel"))));
+        item("Travel mug", null, "Mugs",
+                row("MUG-R", 1200, Map.of("color", List.of("red"), "size", List.of("M"))),
+                row("MUG-W", 1200, Map.of("color", List.of("White"))));
+        item("Burr grinder", "Conical burrs", "Grinders", row("GRINDER", 9000, Map.of()));
+        item("Display grinder", "Showroom sample", "Grinders",
+                new Row("DISPLAY", 5000, false, Map.of("color", List.of("Red"))));
+        item("Retired dripper", "No longer sold", "Brewers");
+        item("Mokaccino mug", "Ceramic", "Mugs", row("MOKACCINO", 800, Map.of("color", List.of("Brown"))));
+        item("Stovetop kettle", "Heavy enough for a moka pot hob", "Kettles",
+                row("STOVE", 3500, Map.of("color", List.of("Steel"))));
+        item("Paperweight", "Cast iron", "Accessories", row("PW", 600, Map.of()));
+        item("Pour-over cone", "Takes paper filters", "Brewers",
+                row("CONE", 1800, Map.of("color", List.of("White"), "size", List.of("S", "M"))));
+        for (int n = 1; n <= 14; n++) {
+            String name = n % 4 == 0 ? "Paper filter paper " + n : "Filter paper " + n;
+            List<Row> rows = new ArrayList<>();
+            rows.add(row("PAPER-" + n, 300 + 100 * (n % 5), Map.of("size", List.of(SIZES[n % 3]))));
+            if (n % 3 == 0) rows.add(row("PAPER-" + n + "-RED", 2000 + 100 * n, Map.of("color", List.of("Red"))));
+            item(name, "Box of " + (50 * n), "Accessories", rows.toArray(Row[]::new));
+        }
+    }
+
+    private static Row row(String sku, int priceCents, Map<String, List<String>> attributes) {
+        return new Row(sku, priceCents, true, attributes);
+    }
+
+    /** Adds a product with gaps between ids and few distinct creation times and sales ranks, so sorts have ties. */
+    private static void item(String name, String description, String category, Row... variants) {
+        int n = CATALOG.size();
+        CATALOG.add(new Item(10 + 3L * n, UUID.randomUUID(), name, description, category,
+                BASE.plus(n % 7, ChronoUnit.HOURS), (n % 4) * 1.5, List.of(variants)));
+    }
+
+    private static long id(String name) {
+        return CATALOG.stream().filter(i -> i.name().equals(name)).findFirst().orElseThrow().id();
+    }
+
+    private static void write() throws Exception {
+        try (Connection c = DriverManager.getConnection(url(), user(), password())) {
+            c.setAutoCommit(false);
+            try (Statement s = c.createStatement()) {
+                s.execute("TRUNCATE products CASCADE");
+            }
+            try (PreparedStatement products = c.prepareStatement("""
+                    INSERT INTO products (id, uuid, name, description, category, created_at, updated_at)
+                    VALUES (?, ?, ?, ?, ?, ?, ?)
+                    """);
+                 PreparedStatement variants = c.prepareStatement("""
+                    INSERT INTO product_variants (uuid, product_id, sku, price_cents, stock_quantity, is_available, attributes)
+                    VALUES (?, ?, ?, ?, 5, ?, CAST(? AS jsonb))
+                    """);
+                 PreparedStatement sales = c.prepareStatement("""
+                    INSERT INTO product_sales_counters (product_id, score_30d, last_sold_at)
+                    VALUES (?, ?, ?)
+                    """)) {
+                for (Item i : CATALOG) {
+                    OffsetDateTime created = OffsetDateTime.ofInstant(i.created(), ZoneOffset.UTC);
+                    products.setLong(1, i.id());
+                    products.setObject(2, i.uuid());
+                    products.setString(3, i.name());
+                    products.setString(4, i.description());
+                    products.setString(5, i.category());
+                    products.setObject(6, created);
+                    products.setObject(7, created);
+                    products.addBatch();
+                    for (Row v : i.variants()) {
+                        variants.setObject(1, UUID.randomUUID());
+                        variants.setLong(2, i.id());
+                        variants.setString(3, v.sku());
+                        variants.setInt(4, v.priceCents());
+                        variants.setBoolean(5, v.available());
+                        variants.setString(6, json(v.attributes()));
+                        variants.addBatch();
+                    }
+                    if (i.salesRank() > 0) {
+                        sales.setLong(1, i.id());
+                        sales.setDouble(2, i.salesRank());
+                        sales.setObject(3, created);
+                        sales.addBatch();
+                    }
+                }
+                products.executeBatch();
+                variants.executeBatch();
+                sales.executeBatch();
+            }
+            try (Statement s = c.createStatement()) {
+                s.execute(ProductSearchDocumentJpaRepository.REFRESH_SELECT + "WHERE TRUE\n"
+                        + ProductSearchDocumentJpaRepository.REFRESH_UPSERT);
+            }
+            c.commit();
+        }
+    }
+
+    /** The attributes as the variant's JSON object, or {@code null} without any; the values need no escaping. */
+    private static String json(Map<String, List<String>> attributes) {
+        if (attributes.isEmpty()) return null;
+        StringJoiner out = new StringJoiner(",", "{", "}");
+        attributes.forEach((name, values) -> out.add("\"" + name + "\":" + (values.size() == 1
+                ? "\"" + values.get(0) + "\""
+                : "[\"" + String.join("\",\"", values) + "\"]")));
+        return out.toString();
+    }
+
+    private static EntityManagerFactory entityManagerFactory() {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(new DriverManagerDataSource(url(), user(), password()));
+        factory.setPackagesToScan(ProductJpaRepository.class.getPackageName());
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.afterPropertiesSet();
+        return factory.getObject();
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(p -> IDS.get(p.getId().getId())).toList();
+    }
+
+    private static String describe(SearchQuery q) {
+        return "key='" + q.key() + "' category=" + q.category() + " price=[" + q.minPriceCents() + ","
+                + q.maxPriceCents() + "] attrs=" + q.attributeFilters() + " sort=" + q.sortRule();
+    }
+
+    private static String url() { return System.getenv("SEARCH_PLAN_DB_URL"); }
+
+    private static String user() { return System.getenv("SEARCH_PLAN_DB_USER"); }
+
+    private static String password() { return System.getenv("SEARCH_PLAN_DB_PASSWORD"); }
+}
@@ -0,0 +1,142 @@
+package ie.universityofgalway.groupnine.integration.product;
+
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.ProductPersistenceAdapter;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchSql;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EXPLAINs every search statement shape emitted by {@link ProductSearchSql} on a real Postgres and
+ * asserts that the shape can be answered from the index meant for it rather than a sequential scan
+ * of {@code product_search_document}.
+ *
+ * <p>Runs only when {@code SEARCH_PLAN_DB_URL} (with {@code SEARCH_PLAN_DB_USER} and
+ * {@code SEARCH_PLAN_DB_PASSWORD}) points at a disposable database; the schema is migrated by
+ * Flyway first. Sequential scans are disabled for the session, so the assertions check that a
+ * matching index exists and is usable for the shape, independent of table size and statistics.</p>
+ */
+@EnabledIfEnvironmentVariable(named = "SEARCH_PLAN_DB_URL", matches = ".+")
+class ProductSearchPlanTest {
+
+    private static final Pattern PARAM = Pattern.compile("(?<![:\\w]):([A-Za-z][A-Za-z0-9_]*)");
+    private static final double CUTOFF = ProductPersistenceAdapter.FUZZY_MATCH_SIMILARITY_THRESHOLD;
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(url(), user(), password())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    static Stream<Arguments> shapes() {
+        Instant created = Instant.parse("2025-01-01T00:00:00Z");
+        return Stream.of(
+                Arguments.of("default order", none().page("DEFAULT", 0, 20), "idx_psd_search_id"),
+                Arguments.of("cheapest first", none().page("PRICE_LOW_TO_HIGH", 0, 20), "idx_psd_search_min_price"),
+                Arguments.of("dearest first", none().page("PRICE_HIGH_TO_LOW", 0, 20), "idx_psd_search_max_price"),
+                Arguments.of("newest first", none().page("NEWEST_FIRST", 0, 20), "idx_psd_search_created"),
+                Arguments.of("category", filter("coffee", null, null, null, null).page("DEFAULT", 0, 20),
+                        "idx_psd_search_category"),
+                Arguments.of("keyword", filter(null, "moka", null, null, null).page("DEFAULT", 0, 20),
+                        "idx_psd_search_tsv|idx_psd_search_text_trgm|idx_psd_search_name_trgm"),
+                Arguments.of("relevance probe", filter(null, "moka", null, null, null).textHits(10),
+                        "idx_psd_search_rank_tsv"),
+                Arguments.of("relevance", filter(null, "moka", null, null, null).ranked(true).page("RELEVANCE", 0, 20),
+                        "idx_psd_search_rank_tsv"),
+                Arguments.of("attribute", filter(null, null, null, null, Map.of("color", List.of("Red"))).count(),
+                        "idx_psd_attribute_tokens"),
+                Arguments.of("indexed attribute", filter(null, null, null, null, Map.of("color", List.of("Red")))
+                        .indexedAttributes().count(), "idx_vav_key_value"),
+                Arguments.of("min price", filter(null, null, 500, null, null).count(), "idx_psd_search_max_price"),
+                Arguments.of("max price", filter(null, null, null, 500, null).count(), "idx_psd_search_min_price"),
+                Arguments.of("keyset cheapest", none().after("PRICE_LOW_TO_HIGH", 10L, 500, null, null, null, null, 21),
+                        "idx_psd_search_min_price"),
+                Arguments.of("keyset dearest", none().after("PRICE_HIGH_TO_LOW", 10L, 500, null, null, null, null, 21),
+                        "idx_psd_search_max_price"),
+                Arguments.of("keyset newest", none().after("NEWEST_FIRST", 10L, null, created, null, null, null, 21),
+                        "idx_psd_search_created"),
+                Arguments.of("keyset best selling", none().after("BEST_SELLING", 10L, null, null, 2.5, null, null, 21),
+                        "idx_psd_search_sales_rank"),
+                Arguments.of("keyset default", none().after("DEFAULT", 10L, null, null, null, null, null, 21),
+                        "idx_psd_search_id"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("shapes")
+    @DisplayName("each search shape is served by its index")
+    void shapeUsesItsIndex(String name, ProductSearchSql.Statement statement, String expectedIndexes) throws Exception {
+        String plan = explain(statement);
+
+        assertFalse(plan.contains("Seq Scan on product_search_document"), plan);
+        for (String index : expectedIndexes.split("\\|")) {
+            assertTrue(plan.contains(index), () -> "expected " + index + " in\n" + plan);
+        }
+    }
+
+    private static String explain(ProductSearchSql.Statement statement) throws Exception {
+        try (Connection c = DriverManager.getConnection(url(), user(), password())) {
+            c.setAutoCommit(false);
+            try (Statement s = c.createStatement()) {
+                s.execute("SET LOCAL enable_seqscan = off");
+                s.execute("SELECT set_config('pg_trgm.similarity_threshold', '" + CUTOFF + "', true)");
+            }
+            List<Object> values = new ArrayList<>();
+            Matcher m = PARAM.matcher(statement.sql());
+            StringBuilder sql = new StringBuilder("EXPLAIN ");
+            while (m.find()) {
+                values.add(statement.parameters().get(m.group(1)));
+                m.appendReplacement(sql, "?");
+            }
+            m.appendTail(sql);
+            StringBuilder plan = new StringBuilder();
+            try (PreparedStatement ps = c.prepareStatement(sql.toString())) {
+                for (int i = 0; i < values.size(); i++) {
+                    Object v = values.get(i);
+                    ps.setObject(i + 1, v instanceof Instant instant ? java.sql.Timestamp.from(instant) : v);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) plan.append(rs.getString(1)).append('\n');
+                }
+            }
+            c.rollback();
+            return plan.toString();
+        }
+    }
+
+    private static ProductSearchSql none() {
+        return filter(null, null, null, null, null);
+    }
+
+    private static ProductSearchSql filter(String category, String key, Integer min, Integer max,
+                                           Map<String, List<String>> attributes) {
+        return ProductSearchSql.filter(category, key, min, max, CUTOFF, attributes);
+    }
+
+    private static String url() { return System.getenv("SEARCH_PLAN_DB_URL"); }
+
+    private static String user() { return System.getenv("SEARCH_PLAN_DB_USER"); }
+
+    private static String password() { return System.getenv("SEARCH_PLAN_DB_PASSWORD"); }
+}
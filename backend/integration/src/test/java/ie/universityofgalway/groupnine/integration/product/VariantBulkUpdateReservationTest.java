@@ -0,0 +1,121 @@
+package ie.universityofgalway.groupnine.integration.product;
+
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.infrastructure.product.adapter.VariantBulkUpdateAdapter;
+import ie.universityofgalway.groupnine.infrastructure.product.jpa.ProductSearchDocumentJpaRepository;
+import ie.universityofgalway.groupnine.service.product.admin.VariantPriceStockUpdate;
+import ie.universityofgalway.groupnine.service.product.port.VariantBulkUpdatePort.UpdatedVariant;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs {@link VariantBulkUpdateAdapter}'s chunk update on a real Postgres to check which rows it
+ * writes: rows are resolved by SKU or variant id, a variant named twice takes the first row, and
+ * a stock below the quantity reserved in {@code inventory} is not written.
+ *
+ * <p>Runs only when {@code SEARCH_PLAN_DB_URL} (with {@code SEARCH_PLAN_DB_USER} and
+ * {@code SEARCH_PLAN_DB_PASSWORD}) points at a disposable database: the schema is migrated by
+ * Flyway and {@code products} is truncated before each test.</p>
+ */
+@EnabledIfEnvironmentVariable(named = "SEARCH_PLAN_DB_URL", matches = ".+")
+class VariantBulkUpdateReservationTest {
+
+    private static JdbcTemplate jdbc;
+    private VariantBulkUpdateAdapter adapter;
+    private UUID product;
+    private UUID variant;
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(url(), user(), password())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(url(), user(), password()));
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("TRUNCATE products CASCADE");
+        // The document refresh is covered elsewhere; only the update is under test
+        adapter = new VariantBulkUpdateAdapter(jdbc, mock(ProductSearchDocumentJpaRepository.class));
+        product = UUID.randomUUID();
+        variant = UUID.randomUUID();
+        long productId = jdbc.queryForObject(
+                "INSERT INTO products (uuid, name, category) VALUES (?, 'Beans', 'coffee') RETURNING id",
+                Long.class, product);
+        jdbc.update("INSERT INTO product_variants (uuid, product_id, sku, price_cents, stock_quantity) VALUES (?, ?, 'A', 450, 10)",
+                variant, productId);
+    }
+
+    @Test
+    @DisplayName("rows are resolved by SKU or by variant id and only their given columns are written")
+    void rows_resolveBySkuOrId() {
+        List<UpdatedVariant> bySku = adapter.updatePriceAndStock(List.of(new VariantPriceStockUpdate("A", null, 500, null)));
+        assertEquals(List.of(new UpdatedVariant("A", new VariantId(variant), new ProductId(product))), bySku);
+        assertEquals(500, priceOfA());
+        assertEquals(10, stockOfA());
+
+        List<UpdatedVariant> byId = adapter.updatePriceAndStock(List.of(
+                new VariantPriceStockUpdate(null, new VariantId(variant), null, 7),
+                new VariantPriceStockUpdate("MISSING", null, 100, 1)));
+        assertEquals(List.of(new UpdatedVariant("A", new VariantId(variant), new ProductId(product))), byId);
+        assertEquals(500, priceOfA());
+        assertEquals(7, stockOfA());
+    }
+
+    @Test
+    @DisplayName("a variant named twice in a chunk takes the first row")
+    void duplicateRows_firstWins() {
+        adapter.updatePriceAndStock(List.of(
+                new VariantPriceStockUpdate(null, new VariantId(variant), 600, 3),
+                new VariantPriceStockUpdate("A", null, 700, 4)));
+
+        assertEquals(600, priceOfA());
+        assertEquals(3, stockOfA());
+    }
+
+    @Test
+    @DisplayName("stock may drop to the reserved quantity but not below it; prices are always written")
+    void stockBelowReserved_isRejected() {
+        jdbc.update("INSERT INTO inventory (variant_id, reserved) VALUES (?, 4)", variant);
+
+        assertEquals(List.of(), adapter.updatePriceAndStock(List.of(new VariantPriceStockUpdate("A", null, 900, 3))));
+        assertEquals(450, priceOfA());
+        assertEquals(10, stockOfA());
+
+        assertEquals(1, adapter.updatePriceAndStock(List.of(new VariantPriceStockUpdate("A", null, null, 4))).size());
+        assertEquals(4, stockOfA());
+
+        assertEquals(1, adapter.updatePriceAndStock(List.of(new VariantPriceStockUpdate("A", null, 900, null))).size());
+        assertEquals(900, priceOfA());
+    }
+
+    private static int priceOfA() {
+        return jdbc.queryForObject("SELECT price_cents FROM product_variants WHERE sku = 'A'", Integer.class);
+    }
+
+    private static int stockOfA() {
+        return jdbc.queryForObject("SELECT stock_quantity FROM product_variants WHERE sku = 'A'", Integer.class);
+    }
+
+    private static String url() { return System.getenv("SEARCH_PLAN_DB_URL"); }
+
+    private static String user() { return System.getenv("SEARCH_PLAN_DB_USER"); }
+
+    private static String password() { return System.getenv("SEARCH_PLAN_DB_PASSWORD"); }
+}
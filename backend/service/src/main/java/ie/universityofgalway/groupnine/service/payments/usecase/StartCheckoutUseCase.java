@@ -29,7 +29,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Currency;
@@ -115,10 +114,10 @@ public class StartCheckoutUseCase {
         List<OrderSnapshotItem> items = new ArrayList<>();
         for (CartItem ci : cart.getItems()) {
             String sku = ci.getVariant().getSku().getValue();
-            long unitMinor = toMinor(ci.getVariant().getPrice().getAmount(), currency);
+            long unitMinor = ci.getVariant().getPrice().getMinorUnits();
             items.add(new OrderSnapshotItem(ci.getVariant().getId(), sku, unitMinor, ci.getQuantity(), currency));
         }
-        long totalMinor = toMinor(total.getAmount(), currency);
+        long totalMinor = total.getMinorUnits();
         OrderSnapshot snapshot = new OrderSnapshot(order.getId(), userId, cartId, items, totalMinor, currency);
 
         List<CheckoutLineItem> gatewayItems = new ArrayList<>();
@@ -177,13 +176,4 @@ public class StartCheckoutUseCase {
 
         return new StartCheckoutResultDto(order.getId(), session.getSessionId(), session.getUrl());
     }
-
-    /**
-     * Converts a decimal amount to minor currency units using the currency's default
-     * fraction digits. For example, EUR 12.34 becomes {@code 1234}.
-     */
-    private static long toMinor(BigDecimal amount, Currency currency) {
-        int fraction = currency.getDefaultFractionDigits();
-        return amount.movePointRight(Math.max(fraction, 0)).longValueExact();
-    }
 }
@@ -0,0 +1,25 @@
+package ie.universityofgalway.groupnine.service.product.admin;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk price and stock sync.
+ *
+ * @param requested rows received
+ * @param updated   variants updated
+ * @param chunks    chunks written, each in its own transaction
+ * @param rejected  rows not applied, in request order
+ */
+public record BulkVariantUpdateReport(int requested, int updated, int chunks, List<Rejected> rejected) {
+
+    public BulkVariantUpdateReport {
+        rejected = List.copyOf(rejected);
+    }
+
+    /**
+     * A row that was not applied.
+     *
+     * @param index 0-based position of the row in the request
+     */
+    public record Rejected(int index, VariantPriceStockUpdate update, String message) {}
+}
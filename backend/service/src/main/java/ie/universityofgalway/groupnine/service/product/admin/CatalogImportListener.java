@@ -0,0 +1,14 @@
+package ie.universityofgalway.groupnine.service.product.admin;
+
+/**
+ * Receives the outcome of a catalog import while it runs, so callers can stream errors and
+ * progress back instead of holding them until the feed has been read.
+ */
+public interface CatalogImportListener {
+
+    /** A row was skipped; the rest of the import continues. */
+    void rowRejected(CatalogImportReport.RowError error);
+
+    /** A batch has been committed; {@code progress} holds the totals so far. */
+    void batchWritten(CatalogImportReport progress);
+}
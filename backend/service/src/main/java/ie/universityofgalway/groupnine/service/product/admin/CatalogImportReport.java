@@ -0,0 +1,16 @@
+package ie.universityofgalway.groupnine.service.product.admin;
+
+/**
+ * Running totals of a catalog import, reported after every written batch and once at the end.
+ *
+ * @param rows     rows read so far
+ * @param variants variants written (inserted or updated)
+ * @param products distinct products written across all batches
+ * @param rejected rows rejected by validation or a SKU conflict
+ * @param batches  batches written
+ */
+public record CatalogImportReport(long rows, long variants, long products, long rejected, long batches) {
+
+    /** One rejected row of the feed. */
+    public record RowError(long line, String sku, String message) {}
+}
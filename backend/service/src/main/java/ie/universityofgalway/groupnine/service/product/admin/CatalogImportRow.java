@@ -0,0 +1,48 @@
+package ie.universityofgalway.groupnine.service.product.admin;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One variant line of a catalog import, as read from the feed and not yet validated.
+ *
+ * <p>Fields are kept as the raw text of the feed so that a bad value becomes a per-row error
+ * instead of failing the whole import. Rows of the same product repeat its fields; the first
+ * accepted row of a product in a batch wins. A reader that cannot parse a line at all reports it
+ * through {@link #malformed(long, String)}.</p>
+ *
+ * @param line        1-based line of the feed, used in error reports
+ * @param productId   optional product UUID; when blank the product is resolved from the SKU or name
+ * @param name        product name
+ * @param description optional product description
+ * @param category    product category
+ * @param status      optional product status; defaults to {@code DRAFT}
+ * @param sku         variant SKU
+ * @param price       variant price in major units, e.g. {@code 12.50}
+ * @param currency    ISO 4217 currency code
+ * @param stock       on-hand stock quantity
+ * @param attributes  variant attributes, each name with one or more values
+ * @param problem     why the line could not be parsed, or {@code null}
+ */
+public record CatalogImportRow(long line,
+                               String productId,
+                               String name,
+                               String description,
+                               String category,
+                               String status,
+                               String sku,
+                               String price,
+                               String currency,
+                               String stock,
+                               Map<String, List<String>> attributes,
+                               String problem) {
+
+    public CatalogImportRow {
+        attributes = attributes == null ? Map.of() : attributes;
+    }
+
+    /** A line the reader could not parse; the import reports it and carries on. */
+    public static CatalogImportRow malformed(long line, String problem) {
+        return new CatalogImportRow(line, null, null, null, null, null, null, null, null, null, null, problem);
+    }
+}
@@ -0,0 +1,15 @@
+package ie.universityofgalway.groupnine.service.product.admin;
+
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+
+/**
+ * One row of a bulk price and stock sync. The variant is named by exactly one of {@code sku} or
+ * {@code variantId}; a {@code null} price or stock leaves that column as it is. Prices keep the
+ * variant's currency.
+ *
+ * @param sku           variant SKU, or {@code null} when {@code variantId} is given
+ * @param variantId     variant id, or {@code null} when {@code sku} is given
+ * @param priceCents    new price in minor units, or {@code null}
+ * @param stockQuantity new on-hand stock, or {@code null}
+ */
+public record VariantPriceStockUpdate(String sku, VariantId variantId, Integer priceCents, Integer stockQuantity) {}
@@ -1,11 +1,17 @@
 package ie.universityofgalway.groupnine.service.product.admin.usecase;
 
 import ie.universityofgalway.groupnine.domain.product.*;
+import ie.universityofgalway.groupnine.service.product.port.CatalogInvalidationPort;
 import ie.universityofgalway.groupnine.service.product.port.ProductPort;
 
 public class AddVariantUseCase {
     private final ProductPort port;
-    public AddVariantUseCase(ProductPort port) { this.port = port; }
+    private final CatalogInvalidationPort invalidation;
+    public AddVariantUseCase(ProductPort port) { this(port, null); }
+    public AddVariantUseCase(ProductPort port, CatalogInvalidationPort invalidation) {
+        this.port = port;
+        this.invalidation = invalidation;
+    }
 
     public Variant execute(ProductId productId, Variant variant) {
         port.findById(productId).orElseThrow(() -> new java.util.NoSuchElementException("Product not found"));
@@ -15,7 +21,9 @@ public class AddVariantUseCase {
             v = new Variant(new VariantId(java.util.UUID.randomUUID()), variant.getSku(), variant.getPrice(), variant.getStock(), variant.getAttributes(), variant.getImageUrl());
         }
         validate(v);
-        return port.saveVariant(productId, v);
+        Variant saved = port.saveVariant(productId, v);
+        if (invalidation != null) invalidation.productChanged(productId);
+        return saved;
     }
 
     private void validate(Variant v) {
@@ -0,0 +1,122 @@
+package ie.universityofgalway.groupnine.service.product.admin.usecase;
+
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.service.product.admin.BulkVariantUpdateReport;
+import ie.universityofgalway.groupnine.service.product.admin.VariantPriceStockUpdate;
+import ie.universityofgalway.groupnine.service.product.port.CatalogInvalidationPort;
+import ie.universityofgalway.groupnine.service.product.port.VariantBulkUpdatePort;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies a price and stock sync to many variants at once.
+ *
+ * <p>Rows are validated up front and a bad row is reported rather than failing the request.
+ * Valid rows are written {@code chunkSize} at a time, one transaction and one aggregated cache
+ * invalidation per chunk, so a large sync neither holds one long transaction nor announces every
+ * variant separately. A failed chunk fails the request; the chunks before it stay applied, and
+ * re-sending the same sync is harmless.</p>
+ *
+ * <p>Only the first row naming a variant is applied, whether the rows name it the same way or
+ * one by SKU and another by id; the others are reported as duplicates.</p>
+ */
+public class BulkUpdateVariantsUseCase {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    public static final int MAX_ROWS = 50_000;
+
+    private final VariantBulkUpdatePort port;
+    private final CatalogInvalidationPort invalidation;
+    private final int chunkSize;
+
+    /**
+     * @param invalidation may be {@code null}, in which case written chunks are not announced
+     * @param chunkSize    rows per transaction, normally {@link #DEFAULT_CHUNK_SIZE}
+     */
+    public BulkUpdateVariantsUseCase(VariantBulkUpdatePort port, CatalogInvalidationPort invalidation, int chunkSize) {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be > 0");
+        this.port = port;
+        this.invalidation = invalidation;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkVariantUpdateReport execute(List<VariantPriceStockUpdate> updates) {
+        if (updates == null || updates.isEmpty()) throw new IllegalArgumentException("updates required");
+        if (updates.size() > MAX_ROWS) {
+            throw new IllegalArgumentException("at most " + MAX_ROWS + " updates per request");
+        }
+        List<BulkVariantUpdateReport.Rejected> rejected = new ArrayList<>();
+        List<Integer> accepted = new ArrayList<>();
+        Set<String> skus = new HashSet<>();
+        Set<VariantId> ids = new HashSet<>();
+        for (int i = 0; i < updates.size(); i++) {
+            VariantPriceStockUpdate u = updates.get(i);
+            String problem = validate(u);
+            if (problem == null && !(u.sku() != null ? skus.add(u.sku()) : ids.add(u.variantId()))) {
+                problem = "duplicate variant in request";
+            }
+            if (problem != null) rejected.add(new BulkVariantUpdateReport.Rejected(i, u, problem));
+            else accepted.add(i);
+        }
+
+        int updated = 0;
+        int chunks = 0;
+        Set<String> writtenSkus = new HashSet<>();
+        Set<VariantId> written = new HashSet<>();
+        for (int from = 0; from < accepted.size(); from += chunkSize) {
+            List<Integer> chunk = new ArrayList<>();
+            for (int i : accepted.subList(from, Math.min(from + chunkSize, accepted.size()))) {
+                VariantPriceStockUpdate u = updates.get(i);
+                if (u.sku() != null ? writtenSkus.contains(u.sku()) : written.contains(u.variantId())) {
+                    rejected.add(new BulkVariantUpdateReport.Rejected(i, u, "duplicate variant in request"));
+                } else {
+                    chunk.add(i);
+                }
+            }
+            if (chunk.isEmpty()) continue;
+            List<VariantPriceStockUpdate> rows = chunk.stream().map(updates::get).toList();
+            List<VariantBulkUpdatePort.UpdatedVariant> changed = port.updatePriceAndStock(rows);
+            chunks++;
+            updated += changed.size();
+            Map<String, VariantId> changedSkus = new HashMap<>();
+            Set<VariantId> changedIds = new HashSet<>();
+            for (VariantBulkUpdatePort.UpdatedVariant v : changed) {
+                changedSkus.put(v.sku(), v.variantId());
+                changedIds.add(v.variantId());
+            }
+            // The port applies only the first of the rows resolving to one variant
+            for (int i : chunk) {
+                VariantPriceStockUpdate u = updates.get(i);
+                VariantId variant = u.sku() != null ? changedSkus.get(u.sku())
+                        : changedIds.contains(u.variantId()) ? u.variantId() : null;
+                if (variant == null) {
+                    rejected.add(new BulkVariantUpdateReport.Rejected(i, u,
+                            "variant not found or stock below its reserved quantity"));
+                } else if (!written.add(variant)) {
+                    rejected.add(new BulkVariantUpdateReport.Rejected(i, u, "duplicate variant in request"));
+                }
+            }
+            writtenSkus.addAll(changedSkus.keySet());
+            if (invalidation != null && !changed.isEmpty()) invalidation.variantsChanged(changedIds);
+        }
+        rejected.sort((a, b) -> Integer.compare(a.index(), b.index()));
+        return new BulkVariantUpdateReport(updates.size(), updated, chunks, rejected);
+    }
+
+    private static String validate(VariantPriceStockUpdate u) {
+        if (u == null) return "update required";
+        boolean bySku = u.sku() != null && !u.sku().isBlank();
+        boolean byId = u.variantId() != null && u.variantId().getId() != null;
+        if (bySku == byId) return "exactly one of sku or variantId is required";
+        if (u.sku() != null && !bySku) return "sku must not be blank";
+        if (u.priceCents() == null && u.stockQuantity() == null) return "priceCents or stockQuantity is required";
+        if (u.priceCents() != null && u.priceCents() < 0) return "amount must be >= 0";
+        if (u.stockQuantity() != null && u.stockQuantity() < 0) return "stock must be >= 0";
+        return null;
+    }
+}
@@ -1,14 +1,26 @@
 package ie.universityofgalway.groupnine.service.product.admin.usecase;
 
+import ie.universityofgalway.groupnine.domain.product.Product;
 import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.Variant;
+import ie.universityofgalway.groupnine.service.product.port.CatalogInvalidationPort;
 import ie.universityofgalway.groupnine.service.product.port.ProductPort;
 
 public class DeleteProductUseCase {
     private final ProductPort port;
-    public DeleteProductUseCase(ProductPort port) { this.port = port; }
+    private final CatalogInvalidationPort invalidation;
+    public DeleteProductUseCase(ProductPort port) { this(port, null); }
+    public DeleteProductUseCase(ProductPort port, CatalogInvalidationPort invalidation) {
+        this.port = port;
+        this.invalidation = invalidation;
+    }
     public void execute(ProductId id) {
-        if (port.findById(id).isEmpty()) throw new java.util.NoSuchElementException("Product not found");
+        Product existing = port.findById(id).orElseThrow(() -> new java.util.NoSuchElementException("Product not found"));
         port.deleteProduct(id);
+        if (invalidation != null) {
+            invalidation.productChanged(id);
+            // Variants go with the product (FK cascade); drop any cached copies too
+            for (Variant v : existing.getVariants()) invalidation.variantChanged(v.getId());
+        }
     }
 }
-
@@ -2,15 +2,21 @@ package ie.universityofgalway.groupnine.service.product.admin.usecase;
 
 import ie.universityofgalway.groupnine.domain.product.ProductId;
 import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.service.product.port.CatalogInvalidationPort;
 import ie.universityofgalway.groupnine.service.product.port.ProductPort;
 
 public class DeleteVariantUseCase {
     private final ProductPort port;
-    public DeleteVariantUseCase(ProductPort port) { this.port = port; }
+    private final CatalogInvalidationPort invalidation;
+    public DeleteVariantUseCase(ProductPort port) { this(port, null); }
+    public DeleteVariantUseCase(ProductPort port, CatalogInvalidationPort invalidation) {
+        this.port = port;
+        this.invalidation = invalidation;
+    }
     public void execute(ProductId productId, VariantId variantId) {
         if (port.findById(productId).isEmpty()) throw new java.util.NoSuchElementException("Product not found");
         if (port.findVariantById(variantId).isEmpty()) throw new java.util.NoSuchElementException("Variant not found");
         port.deleteVariant(productId, variantId);
+        if (invalidation != null) invalidation.variantChanged(variantId);
     }
 }
-
@@ -0,0 +1,38 @@
+package ie.universityofgalway.groupnine.service.product.admin.usecase;
+
+import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.service.product.admin.ProductFilter;
+import ie.universityofgalway.groupnine.service.product.port.CatalogExportPort;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Streams the catalog to a marketplace feed.
+ *
+ * <p>Products come in id order, so a client whose download was cut short resumes by passing the
+ * last product id it received as {@code after}.</p>
+ */
+public class ExportCatalogUseCase {
+
+    private final CatalogExportPort port;
+
+    public ExportCatalogUseCase(CatalogExportPort port) { this.port = port; }
+
+    /**
+     * @param filter products to include, or {@code null} for all of them
+     * @param after  last product id already received, or {@code null}
+     * @param sink   receives each product in turn
+     * @return number of products exported
+     */
+    public long execute(ProductFilter filter, ProductId after, Consumer<Product> sink) {
+        Objects.requireNonNull(sink, "sink");
+        long[] exported = {0};
+        port.forEachProduct(filter == null ? new ProductFilter() : filter, after, p -> {
+            sink.accept(p);
+            exported[0]++;
+        });
+        return exported[0];
+    }
+}
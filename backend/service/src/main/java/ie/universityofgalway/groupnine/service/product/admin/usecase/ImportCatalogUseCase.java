@@ -0,0 +1,292 @@
+package ie.universityofgalway.groupnine.service.product.admin.usecase;
+
+import ie.universityofgalway.groupnine.domain.product.*;
+import ie.universityofgalway.groupnine.service.product.admin.CatalogImportListener;
+import ie.universityofgalway.groupnine.service.product.admin.CatalogImportReport;
+import ie.universityofgalway.groupnine.service.product.admin.CatalogImportRow;
+import ie.universityofgalway.groupnine.service.product.admin.SkuConflictException;
+import ie.universityofgalway.groupnine.service.product.port.CatalogImportPort;
+import ie.universityofgalway.groupnine.service.product.port.CatalogInvalidationPort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Imports a feed of variant rows into the catalog in batches.
+ *
+ * <p>Rows are validated with the same rules as {@link CreateProductUseCase} and
+ * {@link AddVariantUseCase}; a bad row is reported and skipped. SKU conflicts are checked
+ * against the catalog's SKUs, loaded once, rather than queried per row: a SKU may only be
+ * written to the product that already owns it, and only once per feed. An existing variant's
+ * stock is never set below its reserved quantity; such rows are reported when their batch is
+ * written.</p>
+ *
+ * <p>A row's product is the one named by its {@code productId}; failing that, the product
+ * already owning its SKU; failing that, a product id derived from its name and category, so
+ * re-running a feed updates the products it created instead of duplicating them. Accepted
+ * rows are written every {@code batchSize} variants, with one transaction per batch and its
+ * cache invalidations announced together, so a failed batch leaves the earlier ones in place.</p>
+ */
+public class ImportCatalogUseCase {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    static final int MAX_SKU_LENGTH = 100;
+
+    private final CatalogImportPort port;
+    private final CatalogInvalidationPort invalidation;
+    private final int batchSize;
+
+    /**
+     * @param invalidation may be {@code null}, in which case written batches are not announced
+     * @param batchSize    variants per transaction, normally {@link #DEFAULT_BATCH_SIZE}
+     */
+    public ImportCatalogUseCase(CatalogImportPort port, CatalogInvalidationPort invalidation, int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be > 0");
+        this.port = port;
+        this.invalidation = invalidation;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Reads every row, writing accepted ones as batches fill up.
+     *
+     * @param rows     the feed, read once and never buffered whole
+     * @param listener receives rejected rows and progress as they happen
+     * @return the final totals
+     */
+    public CatalogImportReport execute(Iterator<CatalogImportRow> rows, CatalogImportListener listener) {
+        Objects.requireNonNull(listener, "listener");
+        Run run = new Run(port.skuOwners(), listener);
+        while (rows.hasNext()) run.accept(rows.next());
+        run.flush();
+        return run.report();
+    }
+
+    /** Public id of an imported product that names neither an id nor an existing SKU. */
+    static UUID derivedProductId(String name, String category) {
+        String key = category.toLowerCase(Locale.ROOT).length() + ":" + category.toLowerCase(Locale.ROOT)
+                + name.toLowerCase(Locale.ROOT);
+        return UUID.nameUUIDFromBytes(("catalog-import:" + key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** State of one import: the SKU set, the pending batch and the running totals. */
+    private final class Run {
+        private final Map<String, UUID> owners;
+        private final CatalogImportListener listener;
+        private final Set<String> imported = new HashSet<>();
+        private final Set<UUID> productsWritten = new HashSet<>();
+        private final Map<UUID, Pending> pending = new LinkedHashMap<>();
+        private final Map<String, Long> pendingLines = new HashMap<>();
+        private long rows, variants, rejected, batches;
+
+        Run(Map<String, UUID> owners, CatalogImportListener listener) {
+            this.owners = owners;
+            this.listener = listener;
+        }
+
+        void accept(CatalogImportRow row) {
+            rows++;
+            if (row.problem() != null) {
+                reject(row.line(), row.sku(), row.problem());
+                return;
+            }
+            Parsed parsed;
+            try {
+                parsed = parse(row);
+            } catch (IllegalArgumentException e) {
+                reject(row.line(), row.sku(), e.getMessage());
+                return;
+            }
+            String sku = parsed.variant().getSku().getValue();
+            if (imported.contains(sku)) {
+                reject(row.line(), sku, "duplicate SKU in import: " + sku);
+                return;
+            }
+            UUID owner = owners.get(sku);
+            UUID productId = parsed.productId() != null ? parsed.productId()
+                    : owner != null ? owner
+                    : derivedProductId(parsed.name(), parsed.category());
+            if (owner != null && !owner.equals(productId)) {
+                reject(row.line(), sku, new SkuConflictException(sku).getMessage());
+                return;
+            }
+            imported.add(sku);
+            pending.computeIfAbsent(productId, id -> new Pending(parsed)).variants.add(parsed.variant());
+            pendingLines.put(sku, row.line());
+            if (pendingLines.size() >= batchSize) flush();
+        }
+
+        void flush() {
+            if (pending.isEmpty()) return;
+            Instant now = Instant.now();
+            List<Product> products = new ArrayList<>(pending.size());
+            pending.forEach((id, p) -> products.add(new Product(new ProductId(id), p.name, p.description,
+                    p.category, p.status, p.variants, now, now)));
+            Map<String, VariantId> written = port.upsert(products);
+            // A new SKU can only have been taken by another product since the SKU set was loaded;
+            // an existing one may also have been kept for its reservations
+            pendingLines.forEach((sku, line) -> {
+                if (written.containsKey(sku)) return;
+                reject(line, sku, owners.containsKey(sku)
+                        ? "SKU taken by another product or stock below its reserved quantity: " + sku
+                        : new SkuConflictException(sku).getMessage());
+            });
+            variants += written.size();
+            productsWritten.addAll(pending.keySet());
+            batches++;
+            if (invalidation != null) {
+                invalidation.productsChanged(pending.keySet().stream().map(ProductId::new).toList());
+                // Variants that existed before the import may be cached on their own
+                List<VariantId> updated = written.entrySet().stream()
+                        .filter(e -> owners.containsKey(e.getKey()))
+                        .map(Map.Entry::getValue)
+                        .toList();
+                if (!updated.isEmpty()) invalidation.variantsChanged(updated);
+            }
+            pending.clear();
+            pendingLines.clear();
+            listener.batchWritten(report());
+        }
+
+        CatalogImportReport report() {
+            return new CatalogImportReport(rows, variants, productsWritten.size(), rejected, batches);
+        }
+
+        private void reject(long line, String sku, String message) {
+            rejected++;
+            listener.rowRejected(new CatalogImportReport.RowError(line, sku, message));
+        }
+    }
+
+    /** Product fields of the first accepted row of a product in the batch, with its variants. */
+    private static final class Pending {
+        final String name;
+        final String description;
+        final String category;
+        final ProductStatus status;
+        final List<Variant> variants = new ArrayList<>();
+
+        Pending(Parsed row) {
+            this.name = row.name();
+            this.description = row.description();
+            this.category = row.category();
+            this.status = row.status();
+        }
+    }
+
+    private record Parsed(UUID productId, String name, String description, String category,
+                          ProductStatus status, Variant variant) {}
+
+    private static Parsed parse(CatalogImportRow row) {
+        String name = trimToNull(row.name());
+        if (name == null || name.length() > 120) throw new IllegalArgumentException("Invalid product name");
+        String category = trimToNull(row.category());
+        if (category == null || category.length() > 60) throw new IllegalArgumentException("Invalid category");
+        String sku = trimToNull(row.sku());
+        if (sku == null) throw new IllegalArgumentException("sku must not be blank");
+        if (sku.length() > MAX_SKU_LENGTH) {
+            throw new IllegalArgumentException("sku must be at most " + MAX_SKU_LENGTH + " characters");
+        }
+        Variant variant = new Variant(new VariantId(UUID.randomUUID()), new Sku(sku),
+                new Money(price(row.price()), currency(row.currency())),
+                new Stock(stock(row.stock()), 0),
+                attributes(row.attributes()));
+        return new Parsed(productId(row.productId()), name, trimToNull(row.description()), category,
+                status(row.status()), variant);
+    }
+
+    private static UUID productId(String raw) {
+        String value = trimToNull(raw);
+        if (value == null) return null;
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid product id");
+        }
+    }
+
+    private static ProductStatus status(String raw) {
+        String value = trimToNull(raw);
+        if (value == null) return ProductStatus.DRAFT;
+        try {
+            return ProductStatus.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid status: " + value);
+        }
+    }
+
+    private static BigDecimal price(String raw) {
+        String value = trimToNull(raw);
+        if (value == null) throw new IllegalArgumentException("price is required");
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid price");
+        }
+        if (amount.signum() < 0) throw new IllegalArgumentException("amount must be >= 0");
+        try {
+            // Stored as whole cents in an INT column
+            amount.movePointRight(2).intValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid price");
+        }
+        return amount;
+    }
+
+    private static Currency currency(String raw) {
+        String value = trimToNull(raw);
+        if (value == null) throw new IllegalArgumentException("currency is required");
+        try {
+            return Currency.getInstance(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid currency");
+        }
+    }
+
+    private static int stock(String raw) {
+        String value = trimToNull(raw);
+        if (value == null) throw new IllegalArgumentException("stock is required");
+        int quantity;
+        try {
+            quantity = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid stock");
+        }
+        if (quantity < 0) throw new IllegalArgumentException("stock must be >= 0");
+        return quantity;
+    }
+
+    private static List<Attribute> attributes(Map<String, List<String>> raw) {
+        List<Attribute> attributes = new ArrayList<>();
+        raw.forEach((name, values) -> {
+            String key = trimToNull(name);
+            if (key == null) throw new IllegalArgumentException("attribute names must not be blank");
+            if (values == null) return;
+            for (String v : values) {
+                String value = trimToNull(v);
+                if (value != null) attributes.add(new Attribute(key, value));
+            }
+        });
+        return attributes;
+    }
+
+    private static String trimToNull(String s) {
+        if (s == null) return null;
+        String t = s.trim();
+        return t.isEmpty() ? null : t;
+    }
+}
@@ -1,14 +1,21 @@
 package ie.universityofgalway.groupnine.service.product.admin.usecase;
 
 import ie.universityofgalway.groupnine.domain.product.*;
+import ie.universityofgalway.groupnine.service.product.port.CatalogInvalidationPort;
 import ie.universityofgalway.groupnine.service.product.port.ProductPort;
 import ie.universityofgalway.groupnine.service.product.admin.InvalidStatusTransitionException;
 import ie.universityofgalway.groupnine.service.product.admin.UpdateProductCommand;
 
 public class UpdateProductUseCase {
     private final ProductPort port;
+    private final CatalogInvalidationPort invalidation;
 
-    public UpdateProductUseCase(ProductPort port) { this.port = port; }
+    public UpdateProductUseCase(ProductPort port) { this(port, null); }
+
+    public UpdateProductUseCase(ProductPort port, CatalogInvalidationPort invalidation) {
+        this.port = port;
+        this.invalidation = invalidation;
+    }
 
     public Product execute(UpdateProductCommand cmd) {
         Product existing = port.findById(cmd.getId()).orElseThrow(() -> new java.util.NoSuchElementException("Product not found"));
@@ -29,7 +36,9 @@ public class UpdateProductUseCase {
                 existing.getCreatedAt(),
                 java.time.Instant.now()
         );
-        return port.saveProduct(updated);
+        Product saved = port.saveProduct(updated);
+        if (invalidation != null) invalidation.productChanged(existing.getId());
+        return saved;
     }
 
     private void validateProductBasics(String name, String category, ProductStatus status) {
@@ -1,6 +1,7 @@
 package ie.universityofgalway.groupnine.service.product.admin.usecase;
 
 import ie.universityofgalway.groupnine.domain.product.*;
+import ie.universityofgalway.groupnine.service.product.port.CatalogInvalidationPort;
 import ie.universityofgalway.groupnine.service.product.port.ProductPort;
 import ie.universityofgalway.groupnine.service.product.admin.UpdateVariantCommand;
 
@@ -8,7 +9,12 @@ import java.math.BigDecimal;
 
 public class UpdateVariantUseCase {
     private final ProductPort port;
-    public UpdateVariantUseCase(ProductPort port) { this.port = port; }
+    private final CatalogInvalidationPort invalidation;
+    public UpdateVariantUseCase(ProductPort port) { this(port, null); }
+    public UpdateVariantUseCase(ProductPort port, CatalogInvalidationPort invalidation) {
+        this.port = port;
+        this.invalidation = invalidation;
+    }
 
     public Variant execute(ProductId productId, UpdateVariantCommand cmd) {
         port.findById(productId).orElseThrow(() -> new java.util.NoSuchElementException("Product not found"));
@@ -48,7 +54,9 @@ public class UpdateVariantUseCase {
                 attrs,
                 imageUrl
         );
-        return port.saveVariant(productId, updated);
+        Variant saved = port.saveVariant(productId, updated);
+        if (invalidation != null) invalidation.variantChanged(existing.getId());
+        return saved;
     }
 
     private void validateSku(String sku) { if (sku == null || sku.isBlank()) throw new IllegalArgumentException("sku must not be blank"); }
@@ -2,37 +2,61 @@ package ie.universityofgalway.groupnine.service.product.admin.usecase;
 
 import ie.universityofgalway.groupnine.domain.product.ProductId;
 import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.service.product.port.EnqueueImageRenditionPort;
 import ie.universityofgalway.groupnine.service.product.port.ImageStoragePort;
 import ie.universityofgalway.groupnine.service.product.port.ProductPort;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
 /**
  * Use case for uploading/saving a product variant image.
+ *
+ * <p>With a rendition queue the upload is stored as it is and its renditions are made by a
+ * worker, so the request does not wait for the image to be decoded and re-encoded; without
+ * one it is processed while storing.</p>
  */
 public class UploadVariantImageUseCase {
 
     private final ProductPort products;
     private final ImageStoragePort images;
+    private final EnqueueImageRenditionPort renditions;
 
     public UploadVariantImageUseCase(ProductPort products, ImageStoragePort images) {
+        this(products, images, null);
+    }
+
+    /**
+     * @param renditions may be {@code null}, in which case images are processed on upload
+     */
+    public UploadVariantImageUseCase(ProductPort products, ImageStoragePort images, EnqueueImageRenditionPort renditions) {
         this.products = products;
         this.images = images;
+        this.renditions = renditions;
     }
 
     /**
      * Validates product & variant existence and stores the image via the storage port.
+     *
+     * @return the content hash of the stored image, to version its URL with; empty when the
+     *         store does not address images by content
      */
-    public void execute(ProductId productId,
-                        VariantId variantId,
-                        String originalFilename,
-                        String contentType,
-                        InputStream data) throws IOException {
+    public Optional<String> execute(ProductId productId,
+                                    VariantId variantId,
+                                    String originalFilename,
+                                    String contentType,
+                                    InputStream data) throws IOException {
         products.findById(productId).orElseThrow(() -> new NoSuchElementException("Product not found"));
         products.findVariantById(variantId).orElseThrow(() -> new NoSuchElementException("Variant not found"));
-        images.saveVariantImage(productId, variantId, originalFilename, contentType, data);
+        if (renditions == null) {
+            images.saveVariantImage(productId, variantId, originalFilename, contentType, data);
+        } else {
+            images.saveOriginalVariantImage(productId, variantId, originalFilename, contentType, data);
+            renditions.enqueue(productId, variantId);
+        }
+        return images.contentHash(productId, variantId);
     }
 }
 
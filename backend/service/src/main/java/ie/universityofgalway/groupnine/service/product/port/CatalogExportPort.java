@@ -0,0 +1,24 @@
+package ie.universityofgalway.groupnine.service.product.port;
+
+import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.service.product.admin.ProductFilter;
+
+import java.util.function.Consumer;
+
+/**
+ * Port for reading the whole catalog in one pass, used by catalog exports instead of the paged
+ * {@link ProductPort#listAll} reads. Implementations live in the infrastructure module.
+ */
+public interface CatalogExportPort {
+
+    /**
+     * Hands every matching product to {@code sink}, one at a time and ordered by product id, without
+     * holding more than the current product in memory.
+     *
+     * @param filter category and status to match; {@code null} fields match everything
+     * @param after  only products with a greater id, or {@code null} to start from the beginning
+     * @param sink   receives each product with all its variants; an exception it throws ends the export
+     */
+    void forEachProduct(ProductFilter filter, ProductId after, Consumer<Product> sink);
+}
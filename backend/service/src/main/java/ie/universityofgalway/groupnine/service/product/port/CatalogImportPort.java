@@ -0,0 +1,35 @@
+package ie.universityofgalway.groupnine.service.product.port;
+
+import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Port for writing the catalog in bulk, used by catalog imports instead of the per-entity
+ * {@link ProductPort} writes. Implementations live in the infrastructure module.
+ */
+public interface CatalogImportPort {
+
+    /**
+     * Every SKU in the catalog with the public id of the product owning it, loaded once per
+     * import so that conflicts are detected without a lookup per row.
+     */
+    Map<String, UUID> skuOwners();
+
+    /**
+     * Inserts or updates the given products and variants in one transaction.
+     *
+     * <p>Products are matched on their id and variants on their SKU. Variants not listed are
+     * left untouched, as are the reservations and images of existing variants; variant ids are
+     * only used for new SKUs. A SKU that belongs to another product by the time the batch is
+     * written is skipped rather than moved, as is an existing variant whose new stock is below
+     * its reserved quantity.</p>
+     *
+     * @param products products carrying only the variants to write
+     * @return the SKUs actually written, with the ids of their variants
+     */
+    Map<String, VariantId> upsert(Collection<Product> products);
+}
@@ -0,0 +1,51 @@
+package ie.universityofgalway.groupnine.service.product.port;
+
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+
+import java.util.Collection;
+
+/**
+ * Port for announcing catalog writes so that read-side caches on every node can drop
+ * stale entries. Implementations live in the infrastructure module.
+ *
+ * <p>Callers invoke it after the write has been persisted. Implementations must not throw:
+ * a lost announcement only delays freshness until the cache entry expires.</p>
+ */
+public interface CatalogInvalidationPort {
+
+    /**
+     * Announces that a product's own fields changed or that it was deleted.
+     *
+     * @param productId the product id
+     */
+    void productChanged(ProductId productId);
+
+    /**
+     * Announces a bulk write touching many products at once. Implementations may announce
+     * them together; the default announces each one in turn.
+     *
+     * @param productIds the product ids
+     */
+    default void productsChanged(Collection<ProductId> productIds) {
+        for (ProductId id : productIds) productChanged(id);
+    }
+
+    /**
+     * Announces that a variant (price, stock, attributes, ...) changed or was deleted.
+     * Cached products containing the variant are dropped as well.
+     *
+     * @param variantId the variant id
+     */
+    void variantChanged(VariantId variantId);
+
+    /**
+     * Announces a bulk write touching many variants at once, such as a price or stock sync.
+     * Implementations may announce them together; the default announces each one in turn.
+     *
+     * @param variantIds the variant ids
+     */
+    default void variantsChanged(Collection<VariantId> variantIds) {
+        for (VariantId id : variantIds) variantChanged(id);
+    }
+}
@@ -0,0 +1,19 @@
+package ie.universityofgalway.groupnine.service.product.port;
+
+import java.util.OptionalLong;
+
+/**
+ * Port exposing a cheap, cluster-wide catalog version that changes on every catalog write
+ * announced through the {@link CatalogInvalidationPort}. Read paths use it to validate
+ * results derived from many products, such as listing pages, without recomputing them.
+ * Implementations live in the infrastructure module.
+ */
+public interface CatalogVersionPort {
+
+    /**
+     * The current catalog version.
+     *
+     * @return the version, or empty when it cannot be read; callers then skip validation
+     */
+    OptionalLong version();
+}
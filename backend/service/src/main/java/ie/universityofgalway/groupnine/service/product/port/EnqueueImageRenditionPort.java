@@ -0,0 +1,16 @@
+package ie.universityofgalway.groupnine.service.product.port;
+
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+
+/**
+ * Port for requesting the renditions of a newly stored variant image from a worker.
+ * Implementations handle exchange, routing key, and message properties.
+ */
+public interface EnqueueImageRenditionPort {
+    /**
+     * Enqueues a job making the renditions of the variant's stored image, see
+     * {@link ImageStoragePort#renderVariantImage}.
+     */
+    void enqueue(ProductId productId, VariantId variantId);
+}
@@ -5,6 +5,12 @@ import ie.universityofgalway.groupnine.domain.product.VariantId;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -32,7 +38,69 @@ public interface ImageStoragePort {
                           InputStream data) throws IOException;
 
     /**
-     * Loads the image data for a given product variant.
+     * Stores the uploaded image as it is, leaving scaling and re-encoding to
+     * {@link #renderVariantImage}; renditions of a previous image are discarded. Implementations
+     * without renditions store it as {@link #saveVariantImage} does.
+     *
+     * @throws IOException when persisting fails
+     */
+    default void saveOriginalVariantImage(ProductId productId,
+                                          VariantId variantId,
+                                          String originalFilename,
+                                          String contentType,
+                                          InputStream data) throws IOException {
+        saveVariantImage(productId, variantId, originalFilename, contentType, data);
+    }
+
+    /**
+     * Makes the renditions (sizes and formats) of a variant's stored image, replacing any
+     * previous ones. Does nothing when there is no image or it cannot be decoded, and by default.
+     *
+     * @throws IOException on read or write error
+     */
+    default void renderVariantImage(ProductId productId, VariantId variantId) throws IOException {
+    }
+
+    /**
+     * Loads the rendition of a variant's image best suited to the client: the narrowest one at
+     * least {@code width} pixels wide (the widest when none is), in a format the client listed.
+     * Falls back to {@link #loadVariantImage(ProductId, VariantId)} when there are no renditions,
+     * and by default.
+     *
+     * @param width         requested width in pixels; {@code 0} for the default rendition
+     * @param acceptedTypes image media types the client accepts explicitly, such as {@code image/webp}
+     * @throws IOException on read error
+     */
+    default Optional<ImageData> loadVariantImage(ProductId productId, VariantId variantId,
+                                                 int width, List<String> acceptedTypes) throws IOException {
+        return loadVariantImage(productId, variantId);
+    }
+
+    /**
+     * The SHA-256 of the variant's stored image, in lowercase hex, for versioning its URL; empty
+     * when there is no image or the store does not address images by content.
+     *
+     * @throws IOException on read error
+     */
+    default Optional<String> contentHash(ProductId productId, VariantId variantId) throws IOException {
+        return loadVariantImage(productId, variantId).flatMap(ImageData::getContentHash);
+    }
+
+    /**
+     * Deletes stored images, and their renditions, that no variant refers to any more and that
+     * are older than {@code minAge}, which keeps images being saved meanwhile. Does nothing by
+     * default.
+     *
+     * @return the number of images deleted
+     * @throws IOException on read or delete error
+     */
+    default int deleteUnreferencedImages(Duration minAge) throws IOException {
+        return 0;
+    }
+
+    /**
+     * Loads the image data for a given product variant. Implementations backed by files return
+     * the file rather than its content, see {@link ImageData#getFile()}.
      *
      * @param productId the product id
      * @param variantId the variant id
@@ -42,19 +110,84 @@ public interface ImageStoragePort {
     Optional<ImageData> loadVariantImage(ProductId productId, VariantId variantId) throws IOException;
 
     /**
-     * Simple container for in-memory image content and metadata.
+     * Image content and metadata: either bytes held in memory or a stored file, which callers
+     * should stream from {@link #getFile()} rather than load.
      */
     final class ImageData {
         private final byte[] bytes;
+        private final Path file;
+        private final long size;
+        private final Instant lastModified;
         private final String contentType;
+        private final String contentHash;
+        private final boolean provisional;
 
         public ImageData(byte[] bytes, String contentType) {
             this.bytes = bytes;
+            this.file = null;
+            this.size = bytes.length;
+            this.lastModified = null;
             this.contentType = contentType;
+            this.contentHash = null;
+            this.provisional = false;
+        }
+
+        /**
+         * An image stored in {@code file}.
+         *
+         * @param size         length of the file in bytes
+         * @param lastModified modification time of the file
+         */
+        public ImageData(Path file, long size, Instant lastModified, String contentType) {
+            this(file, size, lastModified, contentType, null, false);
         }
 
-        public byte[] getBytes() { return bytes; }
+        /**
+         * An image stored in {@code file} under the hash of its content.
+         *
+         * @param contentHash SHA-256 of the stored image this was served from, see {@link #getContentHash()}
+         * @param provisional whether it stands in for renditions still being made, see {@link #isProvisional()}
+         */
+        public ImageData(Path file, long size, Instant lastModified, String contentType, String contentHash,
+                         boolean provisional) {
+            this.bytes = null;
+            this.file = file;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.contentType = contentType;
+            this.contentHash = contentHash;
+            this.provisional = provisional;
+        }
+
+        /**
+         * The whole image; a stored file is read on every call.
+         *
+         * @throws UncheckedIOException when the file cannot be read
+         */
+        public byte[] getBytes() {
+            if (bytes != null) return bytes;
+            try {
+                return Files.readAllBytes(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /** The file holding the image; empty for in-memory images. */
+        public Optional<Path> getFile() { return Optional.ofNullable(file); }
+        public long getSize() { return size; }
+        /** Modification time of the file; {@code null} for in-memory images. */
+        public Instant getLastModified() { return lastModified; }
         public String getContentType() { return contentType; }
+        /**
+         * SHA-256 of the stored image, in lowercase hex; renditions report the image they were
+         * made from. Empty when the store does not address images by content.
+         */
+        public Optional<String> getContentHash() { return Optional.ofNullable(contentHash); }
+        /**
+         * Whether this is the original served until its renditions are made, so what is served
+         * for the same request may still change although the content hash does not.
+         */
+        public boolean isProvisional() { return provisional; }
     }
 }
-
@@ -1,13 +1,21 @@
 package ie.universityofgalway.groupnine.service.product.port;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import ie.universityofgalway.groupnine.domain.product.CursorPage;
+import ie.universityofgalway.groupnine.domain.product.FacetLimits;
 import ie.universityofgalway.groupnine.domain.product.Product;
 import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.ProductProjection;
+import ie.universityofgalway.groupnine.domain.product.SearchFacets;
 import ie.universityofgalway.groupnine.domain.product.SearchQuery;
 import ie.universityofgalway.groupnine.domain.product.Variant;
 import ie.universityofgalway.groupnine.domain.product.VariantId;
@@ -35,12 +43,90 @@ public interface ProductPort {
      */
     Page<Product> search(SearchQuery query, Pageable pageable);
 
+    /**
+     * Keyset variant of {@link #findAvailable}/{@link #findAvailableByCategory}: returns up to
+     * {@code size} available products ordered by product id, strictly after {@code cursor}.
+     *
+     * @param category     optional category filter (case-insensitive); {@code null} for all
+     * @param cursor       opaque token from a previous slice; {@code null} or blank for the first slice
+     * @param size         maximum number of products to return
+     * @param includeTotal whether to run the (extra) count query
+     * @throws IllegalArgumentException when the cursor is malformed
+     */
+    CursorPage<Product> findAvailableAfter(String category, String cursor, int size, boolean includeTotal);
+
+    /**
+     * {@link #findAvailable(Pageable)} loading only {@code projection}. Implementations should
+     * leave the columns it omits out of their queries; the default loads whole products.
+     */
+    default Page<Product> findAvailable(Pageable pageable, ProductProjection projection) {
+        return findAvailable(pageable);
+    }
+
+    /**
+     * {@link #findAvailableByCategory(String, Pageable)} loading only {@code projection}; see
+     * {@link #findAvailable(Pageable, ProductProjection)}.
+     */
+    default Page<Product> findAvailableByCategory(String category, Pageable pageable, ProductProjection projection) {
+        return findAvailableByCategory(category, pageable);
+    }
+
+    /**
+     * {@link #findAvailableAfter(String, String, int, boolean)} loading only {@code projection};
+     * see {@link #findAvailable(Pageable, ProductProjection)}.
+     */
+    default CursorPage<Product> findAvailableAfter(String category, String cursor, int size, boolean includeTotal,
+                                                   ProductProjection projection) {
+        return findAvailableAfter(category, cursor, size, includeTotal);
+    }
+
+    /**
+     * Keyset variant of {@link #search}: returns up to {@code size} matches in the query's
+     * sort order (product id as tiebreaker), strictly after {@code cursor}.
+     *
+     * @param cursor       opaque token from a previous slice of the same sort; {@code null} or blank for the first slice
+     * @param size         maximum number of products to return
+     * @param includeTotal whether to run the (extra) count query
+     * @throws IllegalArgumentException when the cursor is malformed or was issued for another sort rule
+     */
+    CursorPage<Product> searchAfter(SearchQuery query, String cursor, int size, boolean includeTotal);
+
+    /**
+     * Computes category, attribute-value and price-histogram counts over every product
+     * matching {@code query}, using the same filter semantics as {@link #search}.
+     * Implementations must compute all facets in a single pass over the matches.
+     *
+     * @param limits caps on the number of categories, attribute keys/values and histogram buckets
+     */
+    SearchFacets facets(SearchQuery query, FacetLimits limits);
+
     /**
      * Finds a product by its public identifier.
      */
     Optional<Product> findById(ProductId id);
     Optional<Product> findByVariantId(VariantId id);
 
+    /**
+     * Finds many products by their public identifiers, as {@link #findById} would one by one.
+     * Unknown ids are absent from the result, whose iteration order is unspecified. Implementations
+     * should answer with a fixed number of statements whatever the number of ids; the default
+     * looks them up one at a time.
+     */
+    default Map<ProductId, Product> findAllByIds(Collection<ProductId> ids) {
+        Map<ProductId, Product> found = new LinkedHashMap<>();
+        for (ProductId id : ids) findById(id).ifPresent(p -> found.put(id, p));
+        return found;
+    }
+
+    /**
+     * The product's last-modified time, which changes whenever its public representation does,
+     * including writes to its variants. Used as the product's version for HTTP validators, so
+     * implementations should answer it without loading the aggregate; the default does load it.
+     */
+    default Optional<Instant> findUpdatedAt(ProductId id) {
+        return findById(id).map(Product::getUpdatedAt);
+    }
+
     // Admin (CRUD) operations
     Page<Product> listAll(Pageable pageable);
     boolean productExistsByUuid(UUID uuid);
@@ -0,0 +1,22 @@
+package ie.universityofgalway.groupnine.service.product.port;
+
+import ie.universityofgalway.groupnine.domain.product.ProductSuggestion;
+
+import java.util.List;
+
+/**
+ * Port for type-ahead lookups over available product names and categories.
+ * Implementations live in the infrastructure module and are expected to answer from memory.
+ */
+public interface ProductSuggestionPort {
+
+    /**
+     * Returns up to {@code limit} completions for {@code prefix}, best first. Names and categories
+     * starting with the prefix (or having a word that does) come before fuzzy matches.
+     *
+     * @param prefix the text typed so far; already trimmed and non-empty
+     * @param limit  maximum number of suggestions, at least 1
+     * @return the suggestions; empty when nothing matches
+     */
+    List<ProductSuggestion> suggest(String prefix, int limit);
+}
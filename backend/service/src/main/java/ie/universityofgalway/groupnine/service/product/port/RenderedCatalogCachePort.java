@@ -0,0 +1,58 @@
+package ie.universityofgalway.groupnine.service.product.port;
+
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Port for a cache of rendered catalog responses: response bodies serialized once and served
+ * as bytes until the catalog changes. Implementations live in the infrastructure module.
+ *
+ * <p>Product entries are replaced rather than merely dropped when their product changes: the
+ * implementation drops the stale entry and hands each cached product announced through the
+ * {@link CatalogInvalidationPort} to the callbacks registered with {@link #regenerateWith},
+ * off the announcing thread, so that they render it again. Page entries are keyed by the
+ * catalog version and never replaced; a new version simply misses.</p>
+ */
+public interface RenderedCatalogCachePort {
+
+    /**
+     * A rendered response body.
+     *
+     * @param body         the serialized body, to be written as is
+     * @param lastModified last-modified time of what it renders; {@code null} for pages
+     * @param variants     ids of the variants it shows, so that changes announced for a variant
+     *                     reach it; empty for pages
+     */
+    record Rendered(byte[] body, Instant lastModified, List<VariantId> variants) {
+        public Rendered {
+            variants = List.copyOf(variants);
+        }
+    }
+
+    /**
+     * The rendered product, from the cache or else from {@code render}, whose result is cached.
+     *
+     * @param render renders the product; empty when it does not exist, which is not cached
+     */
+    Optional<Rendered> product(ProductId id, Function<ProductId, Optional<Rendered>> render);
+
+    /**
+     * The rendered page {@code key} of the catalog at {@code catalogVersion}, from the cache or
+     * else from {@code render}, whose result is cached.
+     */
+    Rendered page(long catalogVersion, String key, Supplier<Rendered> render);
+
+    /**
+     * Registers a callback run for every product announced as changed on any node while this
+     * node or the shared tier held it, once its stale entry has been dropped. Callbacks run one
+     * at a time on a worker thread and must not throw.
+     */
+    void regenerateWith(Consumer<ProductId> regenerate);
+}
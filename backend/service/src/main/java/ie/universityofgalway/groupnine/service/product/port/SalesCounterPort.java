@@ -0,0 +1,24 @@
+package ie.universityofgalway.groupnine.service.product.port;
+
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Port for feeding the sales counters behind the {@code BEST_SELLING} sort.
+ * Implementations live in the infrastructure module.
+ *
+ * <p>Callers invoke it once the sale has been committed. Implementations may buffer and write
+ * later, and must not throw: a lost sale only makes the ranking slightly less accurate.</p>
+ */
+public interface SalesCounterPort {
+
+    /**
+     * Records units sold.
+     *
+     * @param unitsByVariant units sold per variant; non-positive quantities are ignored
+     * @param soldAt         when the sale happened
+     */
+    void recordSales(Map<VariantId, Integer> unitsByVariant, Instant soldAt);
+}
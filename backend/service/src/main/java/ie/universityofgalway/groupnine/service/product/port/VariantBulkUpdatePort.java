@@ -0,0 +1,28 @@
+package ie.universityofgalway.groupnine.service.product.port;
+
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.service.product.admin.VariantPriceStockUpdate;
+
+import java.util.List;
+
+/**
+ * Port for set-based price and stock updates of many variants, used by syncs instead of the
+ * per-variant {@link ProductPort#saveVariant} write. Implementations live in the infrastructure
+ * module.
+ */
+public interface VariantBulkUpdatePort {
+
+    /**
+     * Applies the updates in one transaction. Rows naming an unknown variant, or a stock below
+     * the variant's reserved quantity, are skipped. Of several rows resolving to the same variant,
+     * for example once by SKU and once by id, only the first is applied.
+     *
+     * @param updates validated rows
+     * @return the variants updated
+     */
+    List<UpdatedVariant> updatePriceAndStock(List<VariantPriceStockUpdate> updates);
+
+    /** A variant changed by {@link #updatePriceAndStock}, identified both ways. */
+    record UpdatedVariant(String sku, VariantId variantId, ProductId productId) {}
+}
@@ -0,0 +1,19 @@
+package ie.universityofgalway.groupnine.service.product.port;
+
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+
+/**
+ * Port for telling whether a variant of a product exists without loading either.
+ * Implementations live in the infrastructure module and are expected to answer from memory.
+ *
+ * <p>Answers may lag catalog writes by a moment, so {@code false} only means "not known yet":
+ * callers that must not turn away a variant created just now check the {@link ProductPort}.</p>
+ */
+public interface VariantExistencePort {
+
+    /**
+     * @return {@code true} when {@code variantId} is known to be a variant of {@code productId}
+     */
+    boolean exists(ProductId productId, VariantId variantId);
+}
@@ -3,8 +3,21 @@ package ie.universityofgalway.groupnine.service.product.port;
 import ie.universityofgalway.groupnine.domain.product.Variant;
 import ie.universityofgalway.groupnine.domain.product.VariantId;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 public interface VariantPort {
     Optional<Variant> findById(VariantId id);
+
+    /**
+     * Finds many variants by id, as {@link #findById} would one by one. Unknown ids are absent
+     * from the result. Implementations should use a single statement; the default does not.
+     */
+    default Map<VariantId, Variant> findAllByIds(Collection<VariantId> ids) {
+        Map<VariantId, Variant> found = new LinkedHashMap<>();
+        for (VariantId id : ids) findById(id).ifPresent(v -> found.put(id, v));
+        return found;
+    }
 }
\ No newline at end of file
@@ -5,28 +5,50 @@ import ie.universityofgalway.groupnine.domain.product.VariantId;
 import ie.universityofgalway.groupnine.service.product.port.ImageStoragePort;
 import ie.universityofgalway.groupnine.service.product.port.ImageStoragePort.ImageData;
 import ie.universityofgalway.groupnine.service.product.port.ProductPort;
+import ie.universityofgalway.groupnine.service.product.port.VariantExistencePort;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
 /**
  * Use case for retrieving a variant image from storage.
+ *
+ * <p>Ids the {@link VariantExistencePort} knows are served without touching the product store;
+ * others are checked against the {@link ProductPort}.</p>
  */
 public class GetVariantImageUseCase {
     private final ProductPort products;
     private final ImageStoragePort images;
+    private final VariantExistencePort existence;
 
-    public GetVariantImageUseCase(ProductPort products, ImageStoragePort images) {
+    public GetVariantImageUseCase(ProductPort products, ImageStoragePort images, VariantExistencePort existence) {
         this.products = products;
         this.images = images;
+        this.existence = existence;
     }
 
     public Optional<ImageData> execute(ProductId productId, VariantId variantId) throws IOException {
+        validate(productId, variantId);
+        return images.loadVariantImage(productId, variantId);
+    }
+
+    /**
+     * The rendition best suited to the client, see
+     * {@link ImageStoragePort#loadVariantImage(ProductId, VariantId, int, List)}.
+     */
+    public Optional<ImageData> execute(ProductId productId, VariantId variantId, int width, List<String> acceptedTypes)
+            throws IOException {
+        validate(productId, variantId);
+        return images.loadVariantImage(productId, variantId, width, acceptedTypes);
+    }
+
+    private void validate(ProductId productId, VariantId variantId) {
+        if (existence.exists(productId, variantId)) return;
         // Validate IDs exist to avoid exposing arbitrary files
         products.findById(productId).orElseThrow(() -> new NoSuchElementException("Product not found"));
         products.findVariantById(variantId).orElseThrow(() -> new NoSuchElementException("Variant not found"));
-        return images.loadVariantImage(productId, variantId);
     }
 }
 
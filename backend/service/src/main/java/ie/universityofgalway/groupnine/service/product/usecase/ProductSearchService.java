@@ -1,6 +1,8 @@
 package ie.universityofgalway.groupnine.service.product.usecase;
 
+import ie.universityofgalway.groupnine.domain.product.CursorPage;
 import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.SearchFacets;
 import ie.universityofgalway.groupnine.domain.product.SearchQuery;
 import org.springframework.data.domain.Page;
 
@@ -24,4 +26,30 @@ public interface ProductSearchService {
      * @throws IllegalArgumentException if the request contains invalid bounds (e.g., minPrice > maxPrice)
      */
     Page<Product> search(SearchQuery request, int page, int size);
-}
\ No newline at end of file
+
+    /**
+     * Executes a product search in keyset (cursor) mode. Each slice resumes strictly after the
+     * previous one, so no OFFSET scan is needed, and the total is only counted on request.
+     *
+     * @param request      criteria for keyword, category, price range, attributes, and sort
+     * @param cursor       opaque token returned as {@code nextCursor} by the previous slice; {@code null} or blank to start
+     * @param size         number of items per slice (must be {@code > 0})
+     * @param includeTotal whether to also count all matches
+     * @return a slice of matching products plus the cursor for the next one
+     * @throws IllegalArgumentException if the request contains invalid bounds or the cursor is invalid
+     */
+    CursorPage<Product> search(SearchQuery request, String cursor, int size, boolean includeTotal);
+
+    /**
+     * Computes filter options for a search: counts per category, per attribute value and per
+     * price bucket over all products matching {@code request}, with the same filter semantics
+     * as {@link #search(SearchQuery, int, int)}.
+     *
+     * @param request    criteria for keyword, category, price range and attributes (sort is ignored)
+     * @param facetLimit optional cap on the number of categories and values per attribute; {@code null}
+     *                   uses the configured limits, larger values are clamped to them
+     * @return the facets; empty lists when nothing matches
+     * @throws IllegalArgumentException if the request contains invalid bounds or {@code facetLimit < 0}
+     */
+    SearchFacets facets(SearchQuery request, Integer facetLimit);
+}
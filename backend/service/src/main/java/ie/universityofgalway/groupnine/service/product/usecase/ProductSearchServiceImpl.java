@@ -1,9 +1,14 @@
 package ie.universityofgalway.groupnine.service.product.usecase;
 
+import ie.universityofgalway.groupnine.domain.product.CursorPage;
+import ie.universityofgalway.groupnine.domain.product.FacetLimits;
 import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.SearchFacets;
 import ie.universityofgalway.groupnine.domain.product.SearchQuery;
 import ie.universityofgalway.groupnine.domain.product.SortRule;
 import ie.universityofgalway.groupnine.service.product.port.ProductPort;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
@@ -15,16 +20,36 @@ import org.springframework.stereotype.Service;
 @Service
 public class ProductSearchServiceImpl implements ProductSearchService {
 
+    static final FacetLimits DEFAULT_FACET_LIMITS = new FacetLimits(20, 10, 20, 10);
+
+    /** Largest keyset slice served at once, as for product listings; larger sizes are capped. */
+    static final int MAX_CURSOR_SIZE = 100;
+
     private final ProductPort productPort;
+    private final FacetLimits facetLimits;
 
     /**
 
-     Creates the service.
+     Creates the service with the default facet limits.
 
      @param productPort data access adapter for product queries
      */
     public ProductSearchServiceImpl(ProductPort productPort) {
+        this(productPort, DEFAULT_FACET_LIMITS);
+    }
+
+    @Autowired
+    public ProductSearchServiceImpl(ProductPort productPort,
+                                    @Value("${app.catalog.facets.max-categories:20}") int maxCategories,
+                                    @Value("${app.catalog.facets.max-attributes:10}") int maxAttributes,
+                                    @Value("${app.catalog.facets.max-values-per-attribute:20}") int maxValuesPerAttribute,
+                                    @Value("${app.catalog.facets.price-buckets:10}") int priceBuckets) {
+        this(productPort, new FacetLimits(maxCategories, maxAttributes, maxValuesPerAttribute, priceBuckets));
+    }
+
+    public ProductSearchServiceImpl(ProductPort productPort, FacetLimits facetLimits) {
         this.productPort = productPort;
+        this.facetLimits = facetLimits;
     }
 
     /** {@inheritDoc} */
@@ -35,6 +60,22 @@ public class ProductSearchServiceImpl implements ProductSearchService {
         return productPort.search(query,pageable);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public CursorPage<Product> search(SearchQuery query, String cursor, int size, boolean includeTotal) {
+        validate(query);
+        if (size <= 0) throw new IllegalArgumentException("size must be > 0");
+        return productPort.searchAfter(query, cursor, Math.min(size, MAX_CURSOR_SIZE), includeTotal);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SearchFacets facets(SearchQuery query, Integer facetLimit) {
+        validate(query);
+        FacetLimits limits = facetLimit == null ? facetLimits : facetLimits.capValues(facetLimit);
+        return productPort.facets(query, limits);
+    }
+
     /**
 
      Basic request checks independent of persistence.
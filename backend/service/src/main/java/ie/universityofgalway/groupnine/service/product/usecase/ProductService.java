@@ -1,16 +1,28 @@
 package ie.universityofgalway.groupnine.service.product.usecase;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
 
+import ie.universityofgalway.groupnine.service.product.port.CatalogVersionPort;
 import ie.universityofgalway.groupnine.service.product.port.ProductPort;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import ie.universityofgalway.groupnine.domain.product.CursorPage;
 import ie.universityofgalway.groupnine.domain.product.Product;
 import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.ProductProjection;
 
 
 /**
@@ -23,26 +35,75 @@ import ie.universityofgalway.groupnine.domain.product.ProductId;
 @Service
 public class ProductService {
 
+    /** Most ids one {@link #getByIds} call may resolve. */
+    public static final int MAX_BATCH_IDS = 200;
+
     private final ProductPort productPort;
+    private final CatalogVersionPort catalogVersion;
 
     /**
-     * Constructs the service.
+     * Constructs the service; without a {@code catalogVersion} listings carry no version.
      */
-    public ProductService(ProductPort productPort) {
+    @Autowired
+    public ProductService(ProductPort productPort, @Nullable CatalogVersionPort catalogVersion) {
         this.productPort = productPort;
+        this.catalogVersion = catalogVersion;
     }
 
     /**
      * Lists products that are available, optionally filtered by category.
      */
     public Page<Product> list(int page, int size, String category) {
-        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100));
+        Pageable pageable = pageable(page, size);
         if (category == null || category.isBlank()) {
             return productPort.findAvailable(pageable);
         } else {
             return productPort.findAvailableByCategory(category.trim(), pageable);
         }
     }
+
+    /**
+     * {@link #list(int, int, String)} loading only {@code projection} of each product.
+     */
+    public Page<Product> list(int page, int size, String category, ProductProjection projection) {
+        if (projection == ProductProjection.FULL) return list(page, size, category);
+        Pageable pageable = pageable(page, size);
+        if (category == null || category.isBlank()) {
+            return productPort.findAvailable(pageable, projection);
+        } else {
+            return productPort.findAvailableByCategory(category.trim(), pageable, projection);
+        }
+    }
+
+    /**
+     * Lists available products in keyset (cursor) mode, optionally filtered by category.
+     * The total is only counted when {@code includeTotal} is set.
+     */
+    public CursorPage<Product> list(String cursor, int size, String category, boolean includeTotal) {
+        return productPort.findAvailableAfter(category(category), cursor, boundedSize(size), includeTotal);
+    }
+
+    /**
+     * {@link #list(String, int, String, boolean)} loading only {@code projection} of each product.
+     */
+    public CursorPage<Product> list(String cursor, int size, String category, boolean includeTotal,
+                                    ProductProjection projection) {
+        if (projection == ProductProjection.FULL) return list(cursor, size, category, includeTotal);
+        return productPort.findAvailableAfter(category(category), cursor, boundedSize(size), includeTotal, projection);
+    }
+
+    private static Pageable pageable(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), boundedSize(size));
+    }
+
+    private static int boundedSize(int size) {
+        return Math.min(Math.max(size, 1), 100);
+    }
+
+    private static String category(String category) {
+        return (category == null || category.isBlank()) ? null : category.trim();
+    }
+
     /**
      * Resolves a product by its public UUID string identifier.
      */
@@ -61,4 +122,54 @@ public class ProductService {
                 .findById(new ProductId(uuid))
                 .orElseThrow(() -> new NoSuchElementException("Product not found: " + id));
     }
+
+    /**
+     * Resolves many products by their public UUID string identifiers with one port lookup.
+     * The result holds one entry per requested id, in request order and repeats included,
+     * empty where the product does not exist.
+     *
+     * @throws IllegalArgumentException when more than {@link #MAX_BATCH_IDS} ids are given or one is malformed
+     */
+    public List<Optional<Product>> getByIds(List<String> ids) {
+        if (ids == null || ids.isEmpty()) return List.of();
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("at most " + MAX_BATCH_IDS + " ids may be requested at once");
+        }
+        List<ProductId> parsed = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            if (id == null || id.isBlank()) {
+                throw new IllegalArgumentException("id must not be blank");
+            }
+            try {
+                parsed.add(new ProductId(UUID.fromString(id.trim())));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Invalid UUID format: " + id);
+            }
+        }
+        Map<ProductId, Product> found = productPort.findAllByIds(new LinkedHashSet<>(parsed));
+        return parsed.stream().map(id -> Optional.ofNullable(found.get(id))).toList();
+    }
+
+    /**
+     * Last-modified time of a product, its version for conditional requests, looked up without
+     * loading it. Empty when the id is malformed or unknown, leaving the error to {@link #getById}.
+     */
+    public Optional<Instant> lastModified(String id) {
+        if (id == null) return Optional.empty();
+        final UUID uuid;
+        try {
+            uuid = UUID.fromString(id.trim());
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+        return productPort.findUpdatedAt(new ProductId(uuid));
+    }
+
+    /**
+     * The catalog version, which changes on every catalog write; the version of every listing
+     * and search result. Empty when it is not available.
+     */
+    public OptionalLong catalogVersion() {
+        return catalogVersion == null ? OptionalLong.empty() : catalogVersion.version();
+    }
 }
@@ -0,0 +1,38 @@
+package ie.universityofgalway.groupnine.service.product.usecase;
+
+import ie.universityofgalway.groupnine.domain.product.ProductSuggestion;
+import ie.universityofgalway.groupnine.service.product.port.ProductSuggestionPort;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Type-ahead suggestions for the storefront search box.
+ */
+@Service
+public class SuggestProductsUseCase {
+
+    static final int DEFAULT_LIMIT = 8;
+    static final int MAX_LIMIT = 10;
+    static final int MAX_QUERY_LENGTH = 64;
+
+    private final ProductSuggestionPort suggestions;
+
+    public SuggestProductsUseCase(ProductSuggestionPort suggestions) {
+        this.suggestions = suggestions;
+    }
+
+    /**
+     * @param query the text typed so far; blank returns nothing
+     * @param limit optional maximum number of suggestions; defaults to {@value #DEFAULT_LIMIT}, capped at {@value #MAX_LIMIT}
+     * @throws IllegalArgumentException if {@code limit < 1}
+     */
+    public List<ProductSuggestion> execute(String query, Integer limit) {
+        if (limit != null && limit < 1) throw new IllegalArgumentException("limit must be > 0");
+        if (query == null || query.isBlank()) return List.of();
+        String q = query.strip();
+        if (q.length() > MAX_QUERY_LENGTH) q = q.substring(0, MAX_QUERY_LENGTH);
+        int n = limit == null ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        return suggestions.suggest(q, n);
+    }
+}
@@ -1,6 +1,9 @@
 package ie.universityofgalway.groupnine.service.product;
 
+import ie.universityofgalway.groupnine.domain.product.CursorPage;
+import ie.universityofgalway.groupnine.domain.product.FacetLimits;
 import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.SearchFacets;
 import ie.universityofgalway.groupnine.domain.product.SearchQuery;
 import ie.universityofgalway.groupnine.domain.product.SortRule;
 import ie.universityofgalway.groupnine.service.product.port.ProductPort;
@@ -153,4 +156,53 @@ class ProductSearchServiceImplTest {
         assertSame(expected, actual);
         verify(port).search(eq(q), any(Pageable.class));
     }
+
+    /** Cursor mode forwards cursor, size and includeTotal to the keyset port method. */
+    @Test
+    @DisplayName("cursor mode delegates to ProductPort.searchAfter")
+    void cursorMode_delegatesToSearchAfter() {
+        ProductPort port = mock(ProductPort.class);
+        ProductSearchServiceImpl svc = new ProductSearchServiceImpl(port);
+
+        SearchQuery q = SearchQuery.builder("coffee", null, 0, 500, SortRule.PRICE_LOW_TO_HIGH, List.of());
+        CursorPage<Product> expected = new CursorPage<>(List.of(), "abc", null);
+        when(port.searchAfter(q, "cur", 20, false)).thenReturn(expected);
+
+        assertSame(expected, svc.search(q, "cur", 20, false));
+        verify(port, never()).search(any(), any(Pageable.class));
+        assertThrows(IllegalArgumentException.class, () -> svc.search(q, null, 0, false));
+    }
+
+    /** Cursor slices are capped like product listings, however large the requested size. */
+    @Test
+    @DisplayName("cursor mode caps the slice size at 100")
+    void cursorMode_capsSize() {
+        ProductPort port = mock(ProductPort.class);
+        ProductSearchServiceImpl svc = new ProductSearchServiceImpl(port);
+        SearchQuery q = SearchQuery.builder("coffee", null, 0, 500, SortRule.DEFAULT, List.of());
+
+        svc.search(q, null, 100_000, true);
+
+        verify(port).searchAfter(q, null, 100, true);
+    }
+
+    /** Facets use the configured limits unless the caller asks for fewer values. */
+    @Test
+    @DisplayName("facets delegate with configured limits, capped by the request")
+    void facets_useConfiguredLimits_cappedByRequest() {
+        ProductPort port = mock(ProductPort.class);
+        FacetLimits configured = new FacetLimits(15, 8, 25, 12);
+        ProductSearchServiceImpl svc = new ProductSearchServiceImpl(port, configured);
+        SearchQuery q = SearchQuery.builder("coffee", null, 0, 500, SortRule.DEFAULT, List.of());
+        when(port.facets(eq(q), any())).thenReturn(SearchFacets.empty());
+
+        svc.facets(q, null);
+        svc.facets(q, 5);
+        svc.facets(q, 100);
+
+        verify(port).facets(q, new FacetLimits(5, 8, 5, 12));
+        verify(port, times(2)).facets(q, configured);
+        assertThrows(IllegalArgumentException.class, () -> svc.facets(q, -1));
+        assertThrows(IllegalArgumentException.class, () -> svc.facets(null, null));
+    }
 }
@@ -1,7 +1,10 @@
 package ie.universityofgalway.groupnine.service.product;
 
+import ie.universityofgalway.groupnine.domain.product.CursorPage;
 import ie.universityofgalway.groupnine.domain.product.Product;
 import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.ProductProjection;
+import ie.universityofgalway.groupnine.service.product.port.CatalogVersionPort;
 import ie.universityofgalway.groupnine.service.product.port.ProductPort;
 import ie.universityofgalway.groupnine.service.product.usecase.ProductService;
 import org.junit.jupiter.api.Test;
@@ -9,8 +12,13 @@ import org.mockito.Mockito;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 
+import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -22,18 +30,96 @@ class ProductServiceTest {
         ProductPort port = Mockito.mock(ProductPort.class);
         Mockito.when(port.findAvailable(Mockito.any())).thenReturn(new PageImpl<>(List.of()));
         Mockito.when(port.findAvailableByCategory(Mockito.anyString(), Mockito.any())).thenReturn(new PageImpl<>(List.of()));
-        ProductService svc = new ProductService(port);
+        ProductService svc = new ProductService(port, Mockito.mock(CatalogVersionPort.class));
         assertNotNull(svc.list(0, 10, null));
         assertNotNull(svc.list(0, 10, "coffee"));
     }
 
+    @Test
+    void cursorListClampsSizeAndNormalizesCategory() {
+        ProductPort port = Mockito.mock(ProductPort.class);
+        CursorPage<Product> slice = new CursorPage<>(List.of(), null, 0L);
+        Mockito.when(port.findAvailableAfter(Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.anyBoolean())).thenReturn(slice);
+        ProductService svc = new ProductService(port, Mockito.mock(CatalogVersionPort.class));
+
+        assertSame(slice, svc.list("", 500, "  ", true));
+        Mockito.verify(port).findAvailableAfter(null, "", 100, true);
+        svc.list("c1", 0, " coffee ", false);
+        Mockito.verify(port).findAvailableAfter("coffee", "c1", 1, false);
+    }
+
+    @Test
+    void listingProjectionReachesThePortAndFullProjectionKeepsTheUsualReads() {
+        ProductPort port = Mockito.mock(ProductPort.class);
+        CursorPage<Product> slice = new CursorPage<>(List.of(), null, null);
+        Mockito.when(port.findAvailableByCategory(Mockito.anyString(), Mockito.any(), Mockito.any())).thenReturn(new PageImpl<>(List.of()));
+        Mockito.when(port.findAvailableAfter(Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.anyBoolean(), Mockito.any())).thenReturn(slice);
+        Mockito.when(port.findAvailable(Mockito.any())).thenReturn(new PageImpl<>(List.of()));
+        ProductService svc = new ProductService(port, Mockito.mock(CatalogVersionPort.class));
+
+        assertNotNull(svc.list(0, 10, " coffee ", ProductProjection.LISTING));
+        assertSame(slice, svc.list("", 500, null, false, ProductProjection.LISTING));
+        assertNotNull(svc.list(0, 10, null, ProductProjection.FULL));
+
+        Mockito.verify(port).findAvailableByCategory(Mockito.eq("coffee"), Mockito.any(), Mockito.eq(ProductProjection.LISTING));
+        Mockito.verify(port).findAvailableAfter(null, "", 100, false, ProductProjection.LISTING);
+        Mockito.verify(port).findAvailable(Mockito.any());
+    }
+
     @Test
     void getByIdParsesUuidAndThrowsWhenMissing() {
         ProductPort port = Mockito.mock(ProductPort.class);
         Mockito.when(port.findById(Mockito.any())).thenReturn(Optional.empty());
-        ProductService svc = new ProductService(port);
+        ProductService svc = new ProductService(port, Mockito.mock(CatalogVersionPort.class));
         assertThrows(IllegalArgumentException.class, () -> svc.getById(" "));
         assertThrows(IllegalArgumentException.class, () -> svc.getById("not-a-uuid"));
         assertThrows(java.util.NoSuchElementException.class, () -> svc.getById(UUID.randomUUID().toString()));
     }
+
+    @Test
+    void getByIdsLooksUpOnceAndKeepsTheRequestOrder() {
+        ProductPort port = Mockito.mock(ProductPort.class);
+        Product a = Mockito.mock(Product.class);
+        UUID idA = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        Mockito.when(port.findAllByIds(Mockito.any())).thenReturn(Map.of(new ProductId(idA), a));
+        ProductService svc = new ProductService(port, Mockito.mock(CatalogVersionPort.class));
+
+        List<Optional<Product>> found = svc.getByIds(List.of(missing.toString(), " " + idA + " ", idA.toString()));
+
+        assertEquals(List.of(Optional.empty(), Optional.of(a), Optional.of(a)), found);
+        Mockito.verify(port).findAllByIds(Set.of(new ProductId(missing), new ProductId(idA)));
+        Mockito.verify(port, Mockito.never()).findById(Mockito.any());
+        assertEquals(List.of(), svc.getByIds(List.of()));
+    }
+
+    @Test
+    void getByIdsRejectsMalformedIdsAndOversizedBatches() {
+        ProductService svc = new ProductService(Mockito.mock(ProductPort.class), Mockito.mock(CatalogVersionPort.class));
+        List<String> tooMany = Collections.nCopies(ProductService.MAX_BATCH_IDS + 1, UUID.randomUUID().toString());
+
+        assertThrows(IllegalArgumentException.class, () -> svc.getByIds(List.of(UUID.randomUUID().toString(), "nope")));
+        assertThrows(IllegalArgumentException.class, () -> svc.getByIds(tooMany));
+    }
+
+    @Test
+    void lastModifiedIsLookedUpWithoutLoadingTheProduct() {
+        ProductPort port = Mockito.mock(ProductPort.class);
+        UUID id = UUID.randomUUID();
+        Instant updatedAt = Instant.parse("2024-01-02T00:00:00Z");
+        Mockito.when(port.findUpdatedAt(new ProductId(id))).thenReturn(Optional.of(updatedAt));
+        ProductService svc = new ProductService(port, Mockito.mock(CatalogVersionPort.class));
+
+        assertEquals(Optional.of(updatedAt), svc.lastModified(" " + id + " "));
+        assertEquals(Optional.empty(), svc.lastModified("not-a-uuid"));
+        Mockito.verify(port, Mockito.never()).findById(Mockito.any());
+    }
+
+    @Test
+    void catalogVersionIsEmptyWithoutAPort() {
+        ProductPort port = Mockito.mock(ProductPort.class);
+        assertEquals(OptionalLong.empty(), new ProductService(port, null).catalogVersion());
+        CatalogVersionPort version = () -> OptionalLong.of(7);
+        assertEquals(OptionalLong.of(7), new ProductService(port, version).catalogVersion());
+    }
 }
@@ -0,0 +1,49 @@
+package ie.universityofgalway.groupnine.service.product;
+
+import ie.universityofgalway.groupnine.domain.product.ProductSuggestion;
+import ie.universityofgalway.groupnine.service.product.port.ProductSuggestionPort;
+import ie.universityofgalway.groupnine.service.product.usecase.SuggestProductsUseCase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class SuggestProductsUseCaseTest {
+
+    private final ProductSuggestionPort port = mock(ProductSuggestionPort.class);
+    private final SuggestProductsUseCase useCase = new SuggestProductsUseCase(port);
+
+    @Test
+    @DisplayName("trims the query and applies the default and maximum limit")
+    void trimsAndClamps() {
+        List<ProductSuggestion> found = List.of(new ProductSuggestion("Coffee", ProductSuggestion.Type.CATEGORY, null));
+        when(port.suggest(anyString(), anyInt())).thenReturn(found);
+
+        assertEquals(found, useCase.execute("  cof ", null));
+        useCase.execute("cof", 50);
+
+        verify(port).suggest("cof", 8);
+        verify(port).suggest("cof", 10);
+    }
+
+    @Test
+    @DisplayName("blank query returns nothing without touching the index")
+    void blankQuery_empty() {
+        assertTrue(useCase.execute("   ", 5).isEmpty());
+        assertTrue(useCase.execute(null, null).isEmpty());
+        verifyNoInteractions(port);
+    }
+
+    @Test
+    @DisplayName("long queries are cut and non-positive limits rejected")
+    void longQuery_andBadLimit() {
+        useCase.execute("x".repeat(500), 3);
+        verify(port).suggest("x".repeat(64), 3);
+        assertThrows(IllegalArgumentException.class, () -> useCase.execute("cof", 0));
+    }
+}
@@ -0,0 +1,148 @@
+package ie.universityofgalway.groupnine.service.product.admin.usecase;
+
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.VariantId;
+import ie.universityofgalway.groupnine.service.product.admin.BulkVariantUpdateReport;
+import ie.universityofgalway.groupnine.service.product.admin.VariantPriceStockUpdate;
+import ie.universityofgalway.groupnine.service.product.port.CatalogInvalidationPort;
+import ie.universityofgalway.groupnine.service.product.port.VariantBulkUpdatePort;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BulkUpdateVariantsUseCaseTest {
+
+    /**
+     * Knows a fixed set of SKUs; those in {@code reserved} fail the reserved-stock guard. Like the
+     * database, applies only the first of the rows resolving to one variant.
+     */
+    private static final class FakePort implements VariantBulkUpdatePort {
+        final Map<String, VariantId> known = new HashMap<>();
+        final Set<String> reserved = new HashSet<>();
+        final List<List<VariantPriceStockUpdate>> chunks = new ArrayList<>();
+
+        @Override public List<UpdatedVariant> updatePriceAndStock(List<VariantPriceStockUpdate> updates) {
+            chunks.add(List.copyOf(updates));
+            List<UpdatedVariant> updated = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            for (VariantPriceStockUpdate u : updates) {
+                String sku = u.sku() != null ? u.sku()
+                        : known.entrySet().stream().filter(e -> e.getValue().equals(u.variantId()))
+                            .map(Map.Entry::getKey).findFirst().orElse(null);
+                if (sku == null || !known.containsKey(sku) || !seen.add(sku) || reserved.contains(sku)) continue;
+                updated.add(new UpdatedVariant(sku, known.get(sku), new ProductId(UUID.randomUUID())));
+            }
+            return updated;
+        }
+    }
+
+    private final FakePort port = new FakePort();
+
+    private static VariantPriceStockUpdate bySku(String sku, Integer price, Integer stock) {
+        return new VariantPriceStockUpdate(sku, null, price, stock);
+    }
+
+    @Test
+    void applies_valid_rows_in_chunks_and_reports_the_rest() {
+        VariantId a = new VariantId(UUID.randomUUID());
+        port.known.put("A", a);
+        port.known.put("B", new VariantId(UUID.randomUUID()));
+        port.known.put("C", new VariantId(UUID.randomUUID()));
+        port.reserved.add("C");
+        BulkUpdateVariantsUseCase uc = new BulkUpdateVariantsUseCase(port, mock(CatalogInvalidationPort.class), 2);
+
+        BulkVariantUpdateReport report = uc.execute(List.of(
+                bySku("B", 100, null),
+                new VariantPriceStockUpdate(null, a, null, 5),
+                bySku("C", null, 0),
+                bySku("B", 200, null),
+                bySku("X", 1, 1),
+                bySku("A", -1, null)));
+
+        assertEquals(6, report.requested());
+        assertEquals(2, report.updated());
+        assertEquals(2, report.chunks());
+        assertEquals(List.of(2, 3, 4, 5), report.rejected().stream().map(BulkVariantUpdateReport.Rejected::index).toList());
+        assertEquals("variant not found or stock below its reserved quantity", report.rejected().get(0).message());
+        assertEquals("duplicate variant in request", report.rejected().get(1).message());
+        assertEquals("amount must be >= 0", report.rejected().get(3).message());
+        assertEquals(List.of(2, 2), port.chunks.stream().map(List::size).toList());
+    }
+
+    @Test
+    void a_variant_named_by_sku_and_by_id_is_applied_once() {
+        VariantId a = new VariantId(UUID.randomUUID());
+        port.known.put("A", a);
+        port.known.put("B", new VariantId(UUID.randomUUID()));
+        BulkUpdateVariantsUseCase uc = new BulkUpdateVariantsUseCase(port, mock(CatalogInvalidationPort.class), 2);
+
+        BulkVariantUpdateReport report = uc.execute(List.of(
+                bySku("A", 100, null),
+                new VariantPriceStockUpdate(null, a, null, 5),
+                bySku("B", 100, null),
+                new VariantPriceStockUpdate(null, a, 300, null)));
+
+        assertEquals(2, report.updated());
+        assertEquals(List.of(1, 3), report.rejected().stream().map(BulkVariantUpdateReport.Rejected::index).toList());
+        assertTrue(report.rejected().stream().allMatch(r -> r.message().equals("duplicate variant in request")));
+        // The later chunk's row is known to be a duplicate before it is sent
+        assertEquals(List.of(2, 1), port.chunks.stream().map(List::size).toList());
+    }
+
+    @Test
+    void rows_must_name_one_variant_and_change_something() {
+        BulkUpdateVariantsUseCase uc = new BulkUpdateVariantsUseCase(port, mock(CatalogInvalidationPort.class),
+                BulkUpdateVariantsUseCase.DEFAULT_CHUNK_SIZE);
+
+        BulkVariantUpdateReport report = uc.execute(List.of(
+                new VariantPriceStockUpdate("A", new VariantId(UUID.randomUUID()), 1, null),
+                bySku(" ", 1, null),
+                bySku("A", null, null),
+                bySku("A", null, -3)));
+
+        assertEquals(List.of("exactly one of sku or variantId is required", "exactly one of sku or variantId is required",
+                        "priceCents or stockQuantity is required", "stock must be >= 0"),
+                report.rejected().stream().map(BulkVariantUpdateReport.Rejected::message).toList());
+        assertEquals(0, report.chunks());
+        assertTrue(port.chunks.isEmpty());
+    }
+
+    @Test
+    void each_chunk_is_announced_once() {
+        port.known.put("A", new VariantId(UUID.randomUUID()));
+        port.known.put("B", new VariantId(UUID.randomUUID()));
+        port.known.put("C", new VariantId(UUID.randomUUID()));
+        CatalogInvalidationPort invalidation = mock(CatalogInvalidationPort.class);
+        BulkUpdateVariantsUseCase uc = new BulkUpdateVariantsUseCase(port, invalidation, 2);
+
+        uc.execute(List.of(bySku("A", 1, null), bySku("B", 1, null), bySku("C", 1, null), bySku("X", 1, null)));
+
+        verify(invalidation).variantsChanged(Set.of(port.known.get("A"), port.known.get("B")));
+        verify(invalidation).variantsChanged(Set.of(port.known.get("C")));
+        verify(invalidation, never()).variantChanged(any());
+    }
+
+    @Test
+    void rejects_empty_and_oversized_requests() {
+        BulkUpdateVariantsUseCase uc = new BulkUpdateVariantsUseCase(port, mock(CatalogInvalidationPort.class),
+                BulkUpdateVariantsUseCase.DEFAULT_CHUNK_SIZE);
+        assertThrows(IllegalArgumentException.class, () -> uc.execute(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> uc.execute(null));
+        List<VariantPriceStockUpdate> tooMany =
+                Collections.nCopies(BulkUpdateVariantsUseCase.MAX_ROWS + 1, bySku("A", 1, null));
+        assertThrows(IllegalArgumentException.class, () -> uc.execute(tooMany));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BulkUpdateVariantsUseCase(port, mock(CatalogInvalidationPort.class), 0));
+    }
+}
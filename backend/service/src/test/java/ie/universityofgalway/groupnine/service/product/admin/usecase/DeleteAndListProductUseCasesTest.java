@@ -2,6 +2,7 @@ package ie.universityofgalway.groupnine.service.product.admin.usecase;
 
 import ie.universityofgalway.groupnine.domain.product.Product;
 import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.service.product.port.CatalogInvalidationPort;
 import ie.universityofgalway.groupnine.service.product.port.ProductPort;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -14,6 +15,8 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class DeleteAndListProductUseCasesTest {
@@ -25,6 +28,35 @@ class DeleteAndListProductUseCasesTest {
         assertThrows(java.util.NoSuchElementException.class, () -> uc.execute(new ProductId(UUID.randomUUID())));
     }
 
+    @Test
+    void delete_announces_product_and_its_variants() {
+        ProductPort port = Mockito.mock(ProductPort.class);
+        CatalogInvalidationPort invalidation = Mockito.mock(CatalogInvalidationPort.class);
+        ie.universityofgalway.groupnine.domain.product.Variant v = new ie.universityofgalway.groupnine.domain.product.Variant(
+                new ie.universityofgalway.groupnine.domain.product.VariantId(UUID.randomUUID()),
+                new ie.universityofgalway.groupnine.domain.product.Sku("S"),
+                new ie.universityofgalway.groupnine.domain.product.Money(java.math.BigDecimal.ONE, java.util.Currency.getInstance("EUR")),
+                new ie.universityofgalway.groupnine.domain.product.Stock(1, 0), java.util.List.of(), null);
+        Product p = new Product(new ProductId(UUID.randomUUID()), "n", "d", "c",
+                ie.universityofgalway.groupnine.domain.product.ProductStatus.ACTIVE, java.util.List.of(v), java.time.Instant.now(), java.time.Instant.now());
+        when(port.findById(p.getId())).thenReturn(Optional.of(p));
+
+        new DeleteProductUseCase(port, invalidation).execute(p.getId());
+
+        verify(port).deleteProduct(p.getId());
+        verify(invalidation).productChanged(p.getId());
+        verify(invalidation).variantChanged(v.getId());
+    }
+
+    @Test
+    void delete_not_found_announces_nothing() {
+        ProductPort port = Mockito.mock(ProductPort.class);
+        CatalogInvalidationPort invalidation = Mockito.mock(CatalogInvalidationPort.class);
+        DeleteProductUseCase uc = new DeleteProductUseCase(port, invalidation);
+        assertThrows(java.util.NoSuchElementException.class, () -> uc.execute(new ProductId(UUID.randomUUID())));
+        verify(invalidation, never()).productChanged(any());
+    }
+
     @Test
     void list_delegates_to_port() {
         ProductPort port = Mockito.mock(ProductPort.class);
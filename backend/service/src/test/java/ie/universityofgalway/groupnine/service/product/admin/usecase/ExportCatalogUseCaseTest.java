@@ -0,0 +1,53 @@
+package ie.universityofgalway.groupnine.service.product.admin.usecase;
+
+import ie.universityofgalway.groupnine.domain.product.Product;
+import ie.universityofgalway.groupnine.domain.product.ProductId;
+import ie.universityofgalway.groupnine.domain.product.ProductStatus;
+import ie.universityofgalway.groupnine.service.product.admin.ProductFilter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportCatalogUseCaseTest {
+
+    private static Product product() {
+        return new Product(new ProductId(UUID.randomUUID()), "Beans", null, "coffee", ProductStatus.ACTIVE,
+                List.of(), Instant.now(), Instant.now());
+    }
+
+    @Test
+    void streams_every_product_and_counts_them() {
+        List<Product> catalog = List.of(product(), product());
+        ProductId after = new ProductId(UUID.randomUUID());
+        List<ProductFilter> filters = new ArrayList<>();
+        ExportCatalogUseCase uc = new ExportCatalogUseCase((filter, from, sink) -> {
+            filters.add(filter);
+            assertEquals(after, from);
+            catalog.forEach(sink);
+        });
+        List<Product> received = new ArrayList<>();
+
+        assertEquals(2, uc.execute(null, after, received::add));
+
+        assertEquals(catalog, received);
+        assertNull(filters.get(0).getCategory());
+        assertNull(filters.get(0).getStatus());
+    }
+
+    @Test
+    void a_failing_sink_ends_the_export() {
+        ExportCatalogUseCase uc = new ExportCatalogUseCase((filter, from, sink) -> {
+            sink.accept(product());
+            sink.accept(product());
+        });
+
+        assertThrows(IllegalStateException.class, () -> uc.execute(new ProductFilter("coffee", null), null, p -> {
+            throw new IllegalStateException("client gone");
+        }));
+    }
+}
@@ -0,0 +1,192 @@
+package ie.universityofgalway.groupnine.service.product.admin.usecase;
+
+import ie.universityofgalway.groupnine.domain.product.*;
+import ie.universityofgalway.groupnine.service.product.admin.CatalogImportListener;
+import ie.universityofgalway.groupnine.service.product.admin.CatalogImportReport;
+import ie.universityofgalway.groupnine.service.product.admin.CatalogImportRow;
+import ie.universityofgalway.groupnine.service.product.port.CatalogImportPort;
+import ie.universityofgalway.groupnine.service.product.port.CatalogInvalidationPort;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class ImportCatalogUseCaseTest {
+
+    /** Records every batch; SKUs in {@code stolen} are reported as not written. */
+    private static final class FakePort implements CatalogImportPort {
+        final Map<String, UUID> owners = new HashMap<>();
+        final Set<String> stolen = new HashSet<>();
+        final List<List<Product>> batches = new ArrayList<>();
+
+        @Override public Map<String, UUID> skuOwners() { return owners; }
+
+        @Override public Map<String, VariantId> upsert(Collection<Product> products) {
+            batches.add(List.copyOf(products));
+            Map<String, VariantId> written = new HashMap<>();
+            products.forEach(p -> p.getVariants().forEach(v -> written.put(v.getSku().getValue(), v.getId())));
+            written.keySet().removeAll(stolen);
+            return written;
+        }
+    }
+
+    private static final class Recorder implements CatalogImportListener {
+        final List<CatalogImportReport.RowError> errors = new ArrayList<>();
+        final List<CatalogImportReport> progress = new ArrayList<>();
+
+        @Override public void rowRejected(CatalogImportReport.RowError error) { errors.add(error); }
+        @Override public void batchWritten(CatalogImportReport report) { progress.add(report); }
+    }
+
+    private final FakePort port = new FakePort();
+    private final Recorder recorder = new Recorder();
+
+    private static CatalogImportRow row(long line, String productId, String name, String sku, String price, String stock) {
+        return new CatalogImportRow(line, productId, name, null, "coffee", null, sku, price, "eur", stock,
+                Map.of("color", List.of("Red", " "), "size", List.of("M", "L")), null);
+    }
+
+    @Test
+    void groups_rows_into_products_and_writes_in_batches() {
+        ImportCatalogUseCase uc = new ImportCatalogUseCase(port, mock(CatalogInvalidationPort.class), 2);
+
+        CatalogImportReport report = uc.execute(List.of(
+                row(1, null, "Beans", "B-1", "4.50", "10"),
+                row(2, null, "Beans", "B-2", "5", "3"),
+                row(3, null, "Grinder", "G-1", "30.00", "0")).iterator(), recorder);
+
+        assertEquals(new CatalogImportReport(3, 3, 2, 0, 2), report);
+        assertEquals(2, port.batches.size());
+        Product beans = port.batches.get(0).get(0);
+        assertEquals(ImportCatalogUseCase.derivedProductId("Beans", "coffee"), beans.getId().getId());
+        assertEquals(ProductStatus.DRAFT, beans.getStatus());
+        assertEquals(2, beans.getVariants().size());
+        Variant b1 = beans.getVariants().get(0);
+        assertEquals(new BigDecimal("4.50"), b1.getPrice().getAmount());
+        assertEquals("EUR", b1.getPrice().getCurrency().getCurrencyCode());
+        assertEquals(3, b1.getAttributes().size());
+        assertEquals(List.of(new CatalogImportReport(2, 2, 1, 0, 1), report), recorder.progress);
+    }
+
+    @Test
+    void invalid_rows_are_reported_and_skipped() {
+        ImportCatalogUseCase uc = new ImportCatalogUseCase(port, mock(CatalogInvalidationPort.class),
+                ImportCatalogUseCase.DEFAULT_BATCH_SIZE);
+
+        CatalogImportReport report = uc.execute(List.of(
+                row(1, null, " ", "A", "1", "1"),
+                row(2, null, "Beans", "B", "-1", "1"),
+                row(3, null, "Beans", "C", "1.234", "1"),
+                row(4, null, "Beans", "D", "1", "x"),
+                row(5, "not-a-uuid", "Beans", "E", "1", "1"),
+                CatalogImportRow.malformed(6, "Invalid JSON"),
+                row(7, null, "Beans", "F", "1", "1")).iterator(), recorder);
+
+        assertEquals(6, report.rejected());
+        assertEquals(1, report.variants());
+        assertEquals(List.of("Invalid product name", "amount must be >= 0", "Invalid price", "Invalid stock",
+                        "Invalid product id", "Invalid JSON"),
+                recorder.errors.stream().map(CatalogImportReport.RowError::message).toList());
+        assertEquals(2, recorder.errors.get(1).line());
+    }
+
+    @Test
+    void sku_conflicts_are_detected_against_the_catalog_and_the_feed() {
+        UUID owner = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        port.owners.put("OWNED", owner);
+        ImportCatalogUseCase uc = new ImportCatalogUseCase(port, mock(CatalogInvalidationPort.class),
+                ImportCatalogUseCase.DEFAULT_BATCH_SIZE);
+
+        CatalogImportReport report = uc.execute(List.of(
+                row(1, other.toString(), "Beans", "OWNED", "1", "1"),
+                row(2, null, "Renamed", "OWNED", "2", "1"),
+                row(3, null, "Beans", "NEW", "1", "1"),
+                row(4, null, "Beans", "NEW", "1", "1")).iterator(), recorder);
+
+        assertEquals(2, report.rejected());
+        assertEquals("SKU already exists: OWNED", recorder.errors.get(0).message());
+        assertEquals("duplicate SKU in import: NEW", recorder.errors.get(1).message());
+        // An existing SKU without a product id stays with its product
+        assertTrue(port.batches.get(0).stream().anyMatch(p -> p.getId().getId().equals(owner)));
+    }
+
+    @Test
+    void skus_taken_while_importing_are_reported_as_conflicts() {
+        port.stolen.add("B-2");
+        ImportCatalogUseCase uc = new ImportCatalogUseCase(port, mock(CatalogInvalidationPort.class),
+                ImportCatalogUseCase.DEFAULT_BATCH_SIZE);
+
+        CatalogImportReport report = uc.execute(List.of(
+                row(1, null, "Beans", "B-1", "1", "1"),
+                row(2, null, "Beans", "B-2", "1", "1")).iterator(), recorder);
+
+        assertEquals(1, report.variants());
+        assertEquals(1, report.rejected());
+        assertEquals(new CatalogImportReport.RowError(2, "B-2", "SKU already exists: B-2"), recorder.errors.get(0));
+    }
+
+    @Test
+    void existing_skus_left_for_their_reservations_are_reported_as_rejected() {
+        port.owners.put("B-1", ImportCatalogUseCase.derivedProductId("Beans", "coffee"));
+        port.stolen.add("B-1");
+        ImportCatalogUseCase uc = new ImportCatalogUseCase(port, mock(CatalogInvalidationPort.class),
+                ImportCatalogUseCase.DEFAULT_BATCH_SIZE);
+
+        CatalogImportReport report = uc.execute(List.of(
+                row(1, null, "Beans", "B-1", "1", "0"),
+                row(2, null, "Beans", "B-2", "1", "1")).iterator(), recorder);
+
+        assertEquals(1, report.variants());
+        assertEquals(1, report.rejected());
+        assertEquals(new CatalogImportReport.RowError(1, "B-1",
+                "SKU taken by another product or stock below its reserved quantity: B-1"), recorder.errors.get(0));
+    }
+
+    @Test
+    void existing_variants_are_announced_with_their_batch() {
+        port.owners.put("B-1", ImportCatalogUseCase.derivedProductId("Beans", "coffee"));
+        CatalogInvalidationPort invalidation = mock(CatalogInvalidationPort.class);
+        ImportCatalogUseCase uc = new ImportCatalogUseCase(port, invalidation, ImportCatalogUseCase.DEFAULT_BATCH_SIZE);
+
+        uc.execute(List.of(
+                row(1, null, "Beans", "B-1", "1", "1"),
+                row(2, null, "Beans", "B-2", "1", "1")).iterator(), recorder);
+
+        VariantId existing = port.batches.get(0).get(0).getVariants().get(0).getId();
+        verify(invalidation).productsChanged(anyCollection());
+        verify(invalidation).variantsChanged(List.of(existing));
+    }
+
+    @Test
+    void each_batch_is_announced_once() {
+        CatalogInvalidationPort invalidation = mock(CatalogInvalidationPort.class);
+        ImportCatalogUseCase uc = new ImportCatalogUseCase(port, invalidation, 2);
+
+        uc.execute(List.of(
+                row(1, null, "Beans", "B-1", "1", "1"),
+                row(2, null, "Grinder", "G-1", "1", "1"),
+                row(3, null, "Kettle", "K-1", "1", "1")).iterator(), recorder);
+
+        verify(invalidation, times(2)).productsChanged(anyCollection());
+        verify(invalidation, never()).productChanged(any());
+    }
+
+    @Test
+    void rejects_a_non_positive_batch_size() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ImportCatalogUseCase(port, mock(CatalogInvalidationPort.class), 0));
+    }
+}
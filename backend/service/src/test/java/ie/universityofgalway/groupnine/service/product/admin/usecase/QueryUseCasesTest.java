@@ -21,6 +21,9 @@ class QueryUseCasesTest {
         @Override public Page<Product> findAvailable(org.springframework.data.domain.Pageable pageable){return Page.empty();}
         @Override public Page<Product> findAvailableByCategory(String category, org.springframework.data.domain.Pageable pageable){return Page.empty();}
         @Override public Page<Product> search(SearchQuery query, org.springframework.data.domain.Pageable pageable){return Page.empty();}
+        @Override public CursorPage<Product> findAvailableAfter(String category, String cursor, int size, boolean includeTotal){return new CursorPage<>(List.of(), null, null);}
+        @Override public CursorPage<Product> searchAfter(SearchQuery query, String cursor, int size, boolean includeTotal){return new CursorPage<>(List.of(), null, null);}
+        @Override public SearchFacets facets(SearchQuery query, FacetLimits limits){return SearchFacets.empty();}
         @Override public Optional<Product> findById(ProductId id){return found;}
 
         @Override
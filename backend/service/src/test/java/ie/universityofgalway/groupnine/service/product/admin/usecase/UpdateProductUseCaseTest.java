@@ -3,6 +3,7 @@ package ie.universityofgalway.groupnine.service.product.admin.usecase;
 import ie.universityofgalway.groupnine.domain.product.*;
 import ie.universityofgalway.groupnine.service.product.admin.InvalidStatusTransitionException;
 import ie.universityofgalway.groupnine.service.product.admin.UpdateProductCommand;
+import ie.universityofgalway.groupnine.service.product.port.CatalogInvalidationPort;
 import ie.universityofgalway.groupnine.service.product.port.ProductPort;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -13,6 +14,7 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class UpdateProductUseCaseTest {
@@ -41,5 +43,19 @@ class UpdateProductUseCaseTest {
         assertEquals("New", updated.getName());
         assertEquals("Cat2", updated.getCategory());
     }
-}
 
+    @Test
+    void announces_change_after_saving() {
+        ProductPort port = Mockito.mock(ProductPort.class);
+        CatalogInvalidationPort invalidation = Mockito.mock(CatalogInvalidationPort.class);
+        Product existing = new Product(new ProductId(UUID.randomUUID()), "Name", "d", "Cat", ProductStatus.ACTIVE, java.util.List.of(), Instant.now(), Instant.now());
+        when(port.findById(existing.getId())).thenReturn(Optional.of(existing));
+        when(port.saveProduct(any(Product.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        new UpdateProductUseCase(port, invalidation).execute(new UpdateProductCommand(existing.getId(), "Other", null, null, null));
+
+        org.mockito.InOrder order = Mockito.inOrder(port, invalidation);
+        order.verify(port).saveProduct(any(Product.class));
+        order.verify(invalidation).productChanged(existing.getId());
+    }
+}
@@ -16,6 +16,8 @@ export const SORT_OPTIONS = [
   { value: 'PRICE_LOW_TO_HIGH', label: 'Price: Low to High' },
   { value: 'PRICE_HIGH_TO_LOW', label: 'Price: High to Low' },
   { value: 'NEWEST_FIRST', label: 'Newest' },
+  { value: 'RELEVANCE', label: 'Best Match' },
+  { value: 'BEST_SELLING', label: 'Best Selling' },
 ];
 
 /**